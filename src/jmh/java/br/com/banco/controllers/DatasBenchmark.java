@@ -0,0 +1,66 @@
+package br.com.banco.controllers;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import br.com.banco.services.TransferenciaServiceImpl;
+
+/**
+ * The dd/MM/yyyy handling every period endpoint runs before reaching the service.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DatasBenchmark {
+
+	private final TransferenciaServiceImpl transferenciaService = new TransferenciaServiceImpl();
+
+	private String dataInicio = "01/01/2023";
+
+	private String dataFim = "31/12/2023";
+
+	private String dataInvalida = "31/02/2023x";
+
+	@Benchmark
+	public boolean isValidDateFormat() {
+		return transferenciaService.isValidDateFormat(dataInicio);
+	}
+
+	@Benchmark
+	public boolean isValidDateFormatInvalida() {
+		return transferenciaService.isValidDateFormat(dataInvalida);
+	}
+
+	// Mesmos passos de TransferenciaController.getTransferenciasPorPeriodo antes de chamar o servico.
+	@Benchmark
+	public void parsearPeriodo(Blackhole blackhole) {
+		DateTimeFormatter inputFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+		LocalDate parsedDataInicio = LocalDate.parse(dataInicio, inputFormatter);
+		LocalDate parsedDataFim = LocalDate.parse(dataFim, inputFormatter);
+
+		ZonedDateTime dataInicioCompleta = parsedDataInicio.atStartOfDay(ZoneId.systemDefault());
+		ZonedDateTime dataFimCompleta = parsedDataFim.atTime(LocalTime.MAX).atZone(ZoneId.systemDefault());
+		blackhole.consume(dataInicioCompleta.isAfter(dataFimCompleta));
+		blackhole.consume(dataInicioCompleta);
+		blackhole.consume(dataFimCompleta);
+	}
+}
@@ -0,0 +1,95 @@
+package br.com.banco.dtos;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.banco.entities.Conta;
+import br.com.banco.entities.Dinheiro;
+import br.com.banco.entities.Transferencia;
+import br.com.banco.enums.Operation;
+
+/**
+ * Turning transfers into responses: ModelMapper from the entity to the DTO, and Jackson writing
+ * lists of entities and of DTOs with the modules Spring registers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MapeamentoBenchmark {
+
+	@Param({ "100", "10000" })
+	private int transferencias;
+
+	private final ModelMapper modelMapper = new ModelMapper();
+
+	private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+	private List<Transferencia> entidades;
+
+	private List<TransferenciaDto> dtos;
+
+	@Setup
+	public void preparar() {
+		SplittableRandom aleatorio = new SplittableRandom(42);
+		ZonedDateTime inicio = ZonedDateTime.of(2023, 1, 1, 0, 0, 0, 0, ZoneId.of("America/Sao_Paulo"));
+		Conta conta = new Conta("Benchmark");
+		conta.setId(1L);
+		entidades = new ArrayList<>(transferencias);
+		dtos = new ArrayList<>(transferencias);
+		for (int i = 0; i < transferencias; i++) {
+			Transferencia transferencia = new Transferencia();
+			transferencia.setId((long) i);
+			transferencia.setDataTransferencia(inicio.plusMinutes(i));
+			transferencia.setValor(Dinheiro.deCentavos(aleatorio.nextLong(1, 1_000_000)));
+			transferencia.setTipo(Operation.TRANSFERENCIA);
+			transferencia.setNomeOperadorTransacao("Operador " + (i % 50));
+			transferencia.setConta(conta);
+			entidades.add(transferencia);
+			dtos.add(new TransferenciaDto(transferencia.getId(), transferencia.getDataTransferencia(), transferencia.getValor(),
+					transferencia.getTipo(), transferencia.getNomeOperadorTransacao(), conta.getId()));
+		}
+	}
+
+	@Benchmark
+	public List<TransferenciaDto> modelMapper() {
+		List<TransferenciaDto> mapeadas = new ArrayList<>(entidades.size());
+		for (Transferencia transferencia : entidades) {
+			mapeadas.add(modelMapper.map(transferencia, TransferenciaDto.class));
+		}
+		return mapeadas;
+	}
+
+	@Benchmark
+	public byte[] jacksonEntidades() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(entidades);
+	}
+
+	@Benchmark
+	public byte[] jacksonDtos() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(dtos);
+	}
+}
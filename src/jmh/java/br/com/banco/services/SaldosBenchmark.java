@@ -0,0 +1,90 @@
+package br.com.banco.services;
+
+import java.lang.reflect.Proxy;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.com.banco.dtos.TransferenciaDto;
+import br.com.banco.entities.Conta;
+import br.com.banco.entities.Dinheiro;
+import br.com.banco.entities.Transferencia;
+import br.com.banco.enums.Operation;
+import br.com.banco.repositories.TransferenciaRepository;
+import br.com.banco.services.busca.IndiceNomes;
+
+/**
+ * Balance arithmetic of the services, without the database: the repository hands back a list
+ * already in memory, so only the summation is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SaldosBenchmark {
+
+	private static final String NOME = "Benchmark";
+
+	private static final Operation[] TIPOS = { Operation.DEPOSITO, Operation.SAQUE, Operation.TRANSF_ENTRADA, Operation.TRANSF_SAIDA, Operation.TRANSFERENCIA };
+
+	@Param({ "1000", "100000" })
+	private int transferencias;
+
+	private ContaServiceImpl contaService;
+
+	private TransferenciaServiceImpl transferenciaService;
+
+	private Transferencia transferencia;
+
+	@Setup
+	public void preparar() {
+		SplittableRandom aleatorio = new SplittableRandom(42);
+		ZonedDateTime inicio = ZonedDateTime.of(2023, 1, 1, 0, 0, 0, 0, ZoneId.of("America/Sao_Paulo"));
+		List<TransferenciaDto> lista = new ArrayList<>(transferencias);
+		for (int i = 0; i < transferencias; i++) {
+			lista.add(new TransferenciaDto((long) i, inicio.plusMinutes(i), Dinheiro.deCentavos(aleatorio.nextLong(1, 1_000_000)),
+					TIPOS[i % TIPOS.length], NOME, 1L));
+		}
+		// Toda consulta de lista devolve as transferencias ja carregadas.
+		TransferenciaRepository repositorio = (TransferenciaRepository) Proxy.newProxyInstance(TransferenciaRepository.class.getClassLoader(),
+				new Class<?>[] { TransferenciaRepository.class }, (proxy, metodo, argumentos) -> lista);
+		IndiceNomes indiceNomes = new IndiceNomes(null);
+		indiceNomes.registrarConta(1L, NOME);
+		contaService = new ContaServiceImpl(null, repositorio, null, null, null, indiceNomes, null, null);
+
+		transferenciaService = new TransferenciaServiceImpl();
+		Conta conta = new Conta(NOME);
+		conta.setSaldo(Dinheiro.de(1_234.56));
+		transferencia = new Transferencia();
+		transferencia.setConta(conta);
+		transferencia.setTipo(Operation.TRANSF_SAIDA);
+		transferencia.setValor(Dinheiro.de(78.9));
+	}
+
+	@Benchmark
+	public double calcularSaldoPeriodoPorNome() {
+		return contaService.calcularSaldoPeriodoPorNome(null, null, NOME);
+	}
+
+	@Benchmark
+	public Dinheiro calcularSaldoAtual() {
+		return transferenciaService.calcularSaldoAtual(transferencia);
+	}
+}
@@ -0,0 +1,69 @@
+package br.com.banco.configs;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+import br.com.banco.entities.Conta;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Hibernate second-level cache, kept in process by Caffeine's JCache provider.
+ *
+ * The cache manager is created here and handed to Hibernate instead of the provider's default
+ * one, which is shared by the whole JVM: two application contexts on different databases would
+ * otherwise read each other's entries. Every region is declared here, bounded and with an
+ * expiry; Hibernate is set to fail on an entity marked cacheable without one. Hibernate
+ * publishes the per-region hits, misses and puts as {@code hibernate.second.level.cache.*};
+ * the region's own hits, misses and evictions are the {@code cache.*} metrics with the region
+ * name as {@code cache}.
+ */
+@Configuration
+public class CacheSegundoNivelConfig {
+
+	/** Hibernate names an entity's region after its class. */
+	public static final String REGIAO_CONTA = Conta.class.getName();
+
+	@Bean(destroyMethod = "close")
+	CacheManager cacheManagerSegundoNivel(@Value("${banco.conta.segundo-nivel.tamanho-maximo:10000}") long tamanhoMaximo,
+			@Value("${banco.conta.segundo-nivel.expiracao:10m}") Duration expiracao) {
+		CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+				.getCacheManager(URI.create("banco:segundo-nivel:" + UUID.randomUUID()), getClass().getClassLoader());
+		CaffeineConfiguration<Object, Object> regiao = new CaffeineConfiguration<>();
+		regiao.setMaximumSize(OptionalLong.of(tamanhoMaximo));
+		regiao.setExpireAfterWrite(OptionalLong.of(expiracao.toNanos()));
+		regiao.setNativeStatisticsEnabled(true);
+		cacheManager.createCache(REGIAO_CONTA, regiao);
+		return cacheManager;
+	}
+
+	@Bean
+	HibernatePropertiesCustomizer cacheSegundoNivel(CacheManager cacheManagerSegundoNivel) {
+		return propriedades -> propriedades.put(ConfigSettings.CACHE_MANAGER, cacheManagerSegundoNivel);
+	}
+
+	@Bean
+	MeterBinder metricasCacheSegundoNivel(CacheManager cacheManagerSegundoNivel) {
+		return registro -> CaffeineCacheMetrics.monitor(registro,
+				caffeine(cacheManagerSegundoNivel.getCache(REGIAO_CONTA, Object.class, Object.class)), REGIAO_CONTA);
+	}
+
+	private static Cache<?, ?> caffeine(javax.cache.Cache<Object, Object> regiao) {
+		return regiao.unwrap(Cache.class);
+	}
+}
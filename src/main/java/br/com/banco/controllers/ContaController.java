@@ -1,6 +1,11 @@
 package br.com.banco.controllers;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.slf4j.Logger;
@@ -13,15 +18,24 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import br.com.banco.dtos.ItemLoteDto;
+import br.com.banco.dtos.ResultadoLoteDto;
 import br.com.banco.entities.Conta;
+import br.com.banco.exceptions.ConflitoConcorrenciaException;
+import br.com.banco.exceptions.ContaDuplicadaException;
+import br.com.banco.exceptions.ContaNotFoundException;
 import br.com.banco.exceptions.InvalidAccountIdException;
 import br.com.banco.exceptions.InvalidWithdrawalAmountException;
+import br.com.banco.services.ArmazemIdempotencia;
 import br.com.banco.services.ContaService;
+import br.com.banco.services.ControleConcorrenciaConta;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 @Tag(name = "CONTAS", description = "Endpoints Management.")
@@ -31,11 +45,21 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 public class ContaController {
 	
 	private static final Logger logger = LoggerFactory.getLogger(TransferenciaController.class);
+
+	public static final String CABECALHO_IDEMPOTENCIA = "Idempotency-Key";
+
+	public static final String CABECALHO_REPETIDA = "Idempotent-Replayed";
 	
     private final ContaService contaService;
+
+    private final ControleConcorrenciaConta controleConcorrencia;
+
+    private final ArmazemIdempotencia idempotencia;
     
-    public ContaController(ContaService contaService) {
+    public ContaController(ContaService contaService, ControleConcorrenciaConta controleConcorrencia, ArmazemIdempotencia idempotencia) {
         this.contaService = contaService;
+        this.controleConcorrencia = controleConcorrencia;
+        this.idempotencia = idempotencia;
     }
 
     // Criar Conta
@@ -53,8 +77,9 @@ public class ContaController {
             if (nome == null || nome.isEmpty()) {
                 logger.warn("O parâmetro 'nome' é obrigatório");
             }
-            if (contaService.hasContaByName(nome)) {
+            if (contaService.hasContaByNomeExato(nome)) {
             	logger.warn("A conta com o nome '" + nome + "' já existe");
+            	return ResponseEntity.status(HttpStatus.CONFLICT).body(contaService.createErrorResponse("Já existe uma conta com o nome '" + nome + "'."));
             }
             Conta novaConta = contaService.criarConta(nome);
             Map<String, Object> response = new HashMap<>();
@@ -64,6 +89,9 @@ public class ContaController {
             response.put("saldo", novaConta.getSaldo());
 
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (ContaDuplicadaException e) {
+            logger.warn("Erro ao criar conta: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(contaService.createErrorResponse(e.getMessage()));
         } catch (IllegalArgumentException e) {
             logger.error("Erro ao criar conta: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(contaService.createErrorResponse(e.getMessage()));
@@ -79,11 +107,18 @@ public class ContaController {
      *
      * @param id    The ID of the account to deposit into.
      * @param valor The amount to deposit.
+     * @param chaveIdempotencia Optional key; a retry with the same key returns the first outcome without depositing again.
      * @return ResponseEntity indicating the status of the deposit operation.
      */
     @Operation(summary = "Deposita um valor por Id.", description = "Depositar um valor por Id.")
     @PostMapping("/{id}/depositar")
-    public ResponseEntity<Void> depositar(@PathVariable Long id, @RequestParam double valor) {
+    public ResponseEntity<Void> depositar(@PathVariable Long id, @RequestParam double valor,
+            @RequestHeader(value = CABECALHO_IDEMPOTENCIA, required = false) String chaveIdempotencia) {
+        return responder(idempotencia.executar(chaveIdempotencia, "depositar:" + id + ":" + valor,
+                () -> depositar(id, valor).getStatusCodeValue()));
+    }
+
+    private ResponseEntity<Void> depositar(Long id, double valor) {
         try {
             if (id == null) {
                 throw new IllegalArgumentException("O parâmetro 'id' é obrigatório");
@@ -97,6 +132,9 @@ public class ContaController {
         } catch (IllegalArgumentException e) {
             logger.error("Erro ao depositar valor: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (ConflitoConcorrenciaException e) {
+            logger.error("Conflito ao depositar valor: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (Exception e) {
             logger.error("Erro interno ao depositar valor", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -109,11 +147,18 @@ public class ContaController {
      *
      * @param id    The ID of the account to withdraw from.
      * @param valor The amount to withdraw.
+     * @param chaveIdempotencia Optional key; a retry with the same key returns the first outcome without withdrawing again.
      * @return ResponseEntity indicating the status of the withdrawal operation.
      */
     @Operation(summary = "Saca uma quantia por Id.", description = "Sacar uma quantida por Id.")
     @PostMapping("/{id}/sacar")
-    public ResponseEntity<Void> sacar(@PathVariable Long id, @RequestParam double valor) {
+    public ResponseEntity<Void> sacar(@PathVariable Long id, @RequestParam double valor,
+            @RequestHeader(value = CABECALHO_IDEMPOTENCIA, required = false) String chaveIdempotencia) {
+        return responder(idempotencia.executar(chaveIdempotencia, "sacar:" + id + ":" + valor,
+                () -> sacar(id, valor).getStatusCodeValue()));
+    }
+
+    private ResponseEntity<Void> sacar(Long id, double valor) {
         try {
             if (id <= 0) {
                 throw new InvalidAccountIdException("O ID da conta deve ser um número positivo.");
@@ -129,6 +174,9 @@ public class ContaController {
         } catch (IllegalArgumentException e) {
             logger.error("Parâmetros inválidos: {}", e.getMessage());
             return ResponseEntity.badRequest().build();
+        } catch (ConflitoConcorrenciaException e) {
+            logger.error("Conflito ao sacar da conta com ID {}: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (Exception e) {
         	logger.error("Erro ao sacar da conta com ID {}: {}", id, e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -179,9 +227,12 @@ public class ContaController {
      * @param idContaDestino The ID of the destination account.
      * @param valor The transfer amount.
      * @param tipo The operation type.
+     * @param chaveIdempotencia Optional key; a retry with the same key returns the first outcome without transferring again.
      * @return A ResponseEntity indicating the status of the transfer operation.
      *         Returns HTTP 200 (OK) if the transfer is successful.
      *         Returns HTTP 400 (Bad Request) if there is a validation error in the parameters.
+     *         Returns HTTP 409 (Conflict) if concurrent updates kept winning until the retries ran out.
+     *         Returns HTTP 422 (Unprocessable Entity) if the idempotency key was already used for another request.
      *         Returns HTTP 500 (Internal Server Error) if an unexpected error occurs during the transfer.
      */
     @Operation(summary = "Realiza transferencia entre duas contas.", description = "Realizar transferencia entre duas contas.")
@@ -190,7 +241,14 @@ public class ContaController {
             @PathVariable("origem") Long idContaOrigem,
             @PathVariable("destino") Long idContaDestino,
             @RequestParam double valor,
-            @RequestParam br.com.banco.enums.Operation tipo) {
+            @RequestParam br.com.banco.enums.Operation tipo,
+            @RequestHeader(value = CABECALHO_IDEMPOTENCIA, required = false) String chaveIdempotencia) {
+        return responder(idempotencia.executar(chaveIdempotencia,
+                "transferir:" + idContaOrigem + ":" + idContaDestino + ":" + valor + ":" + tipo,
+                () -> transferir(idContaOrigem, idContaDestino, valor, tipo).getStatusCodeValue()));
+    }
+
+    private ResponseEntity<Void> transferir(Long idContaOrigem, Long idContaDestino, double valor, br.com.banco.enums.Operation tipo) {
         try {
         	contaService.validarParametros(idContaOrigem, idContaDestino, valor, tipo);
             contaService.transferir(idContaOrigem, idContaDestino, valor, tipo);
@@ -198,12 +256,44 @@ public class ContaController {
         } catch (IllegalArgumentException e) {
             logger.error("Erro de validação nos parâmetros da transferência: {}", e.getMessage());
             return ResponseEntity.badRequest().build();
+        } catch (ConflitoConcorrenciaException e) {
+            logger.error("Conflito de concorrência durante a transferência: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (Exception e) {
             logger.error("Ocorreu um erro inesperado durante a transferência: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    // Saldo em uma data
+    /**
+     * Returns the balance of an account at the end of the given day.
+     *
+     * @param id The ID of the account.
+     * @param em The day, in dd/MM/yyyy format.
+     * @return ResponseEntity containing the balance at the end of that day.
+     *         Returns HTTP 400 (Bad Request) if the date is not in dd/MM/yyyy format.
+     *         Returns HTTP 404 (Not Found) if the account does not exist.
+     */
+    @Operation(summary = "Retorna o saldo de uma conta ao fim do dia informado.", description = "Retornar o saldo de uma conta ao fim do dia informado.")
+    @GetMapping("/{id}/saldo")
+    public ResponseEntity<Double> calcularSaldoEm(@PathVariable Long id,
+            @Parameter(description = "Dia do saldo", example = "dd/MM/yyyy") @RequestParam String em) {
+        try {
+            LocalDate dia = LocalDate.parse(em, DateTimeFormatter.ofPattern("dd/MM/uuuu").withResolverStyle(ResolverStyle.STRICT));
+            return ResponseEntity.ok(contaService.calcularSaldoEm(id, dia));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            logger.error("Data inválida para o saldo da conta {}: {}", id, em);
+            return ResponseEntity.badRequest().build();
+        } catch (ContaNotFoundException e) {
+            logger.error("Conta não encontrada: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        } catch (Exception e) {
+            logger.error("Ocorreu um erro ao obter o saldo da conta {} em {}: {}", id, em, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     // Atualizar saldo sem salvar nas transferencias
     /**
      * Updates the balance of an account without saving the transaction details.
@@ -235,4 +325,51 @@ public class ContaController {
 			return ResponseEntity.status(500).build();
 		}
 	}
+
+    // Lote de transferencias, depositos e saques
+    /**
+     * Applies a batch of transfers, deposits and withdrawals in chunked transactions.
+     *
+     * @param itens The operations of the batch, applied in order.
+     * @return A ResponseEntity with one result per item.
+     *         Returns HTTP 200 (OK) with the results, even when some items were rejected.
+     *         Returns HTTP 400 (Bad Request) if the batch is empty or too large.
+     *         Returns HTTP 500 (Internal Server Error) if an unexpected error occurs.
+     */
+    @Operation(summary = "Realiza um lote de transferencias, depositos e saques.", description = "Realizar um lote de transferencias, depositos e saques.")
+    @PostMapping("/transferencias/lote")
+    public ResponseEntity<ResultadoLoteDto> processarLote(@RequestBody List<ItemLoteDto> itens) {
+        try {
+            ResultadoLoteDto resultado = contaService.processarLote(itens);
+            logger.info("Lote concluído: {} aplicados, {} rejeitados.", resultado.getAplicados(), resultado.getRejeitados());
+            return ResponseEntity.ok(resultado);
+        } catch (IllegalArgumentException e) {
+            logger.error("Lote inválido: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            logger.error("Ocorreu um erro inesperado ao processar o lote: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Estatisticas de concorrencia
+    /**
+     * Returns the concurrency counters of the balance updates.
+     *
+     * @return ResponseEntity containing the strategy in use and the operation, conflict, retry and failure counts.
+     */
+    @Operation(summary = "Retorna as estatísticas de concorrência das atualizações de saldo.", description = "Retornar as estatísticas de concorrência das atualizações de saldo.")
+    @GetMapping("/concorrencia")
+    public ResponseEntity<Map<String, Object>> estatisticasConcorrencia() {
+        return ResponseEntity.ok(controleConcorrencia.estatisticas());
+    }
+
+    // Resposta de uma operacao idempotente; repeticoes sao marcadas com um cabecalho.
+    private ResponseEntity<Void> responder(ArmazemIdempotencia.Resposta resposta) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(resposta.getStatus());
+        if (resposta.isRepetida()) {
+            builder.header(CABECALHO_REPETIDA, "true");
+        }
+        return builder.build();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package br.com.banco.controllers;
+
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import br.com.banco.metricas.HistogramasLatencia;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+@Tag(name = "LATENCIA", description = "Percentis de latência por endpoint e por método de repositório.")
+@RestController
+@RequestMapping("/internal/latency")
+public class LatenciaController {
+
+	private final HistogramasLatencia histogramas;
+
+	public LatenciaController(HistogramasLatencia histogramas) {
+		this.histogramas = histogramas;
+	}
+
+	/**
+	 * Returns p50, p99, p99.9 and max latency, in milliseconds, of every endpoint and repository
+	 * method called so far, over the rolling window and since the last reset.
+	 *
+	 * @return the report, with the window length and one entry per endpoint and per method
+	 */
+	@Operation(summary = "Retorna os percentis de latência.", description = "p50, p99, p99.9 e máximo em milissegundos, na janela móvel e desde o último reset.")
+	@GetMapping
+	@ApiResponse(responseCode = "200", description = "Percentis por endpoint e por método de repositório")
+	public ResponseEntity<Map<String, Object>> getLatencias() {
+		return ResponseEntity.ok(histogramas.relatorio());
+	}
+
+	/**
+	 * Clears every histogram.
+	 *
+	 * @return an empty response with HTTP status 204 (No Content)
+	 */
+	@Operation(summary = "Zera os histogramas de latência.", description = "Descarta tudo o que foi registrado até agora.")
+	@DeleteMapping
+	@ApiResponse(responseCode = "204", description = "Histogramas zerados")
+	public ResponseEntity<Void> zerarLatencias() {
+		histogramas.zerar();
+		return ResponseEntity.noContent().build();
+	}
+}
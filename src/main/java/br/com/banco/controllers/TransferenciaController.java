@@ -8,7 +8,6 @@ import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,6 +17,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -26,9 +26,13 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import br.com.banco.dtos.TransferenciaDto;
+import br.com.banco.dtos.PaginaTransferenciasDto;
 import br.com.banco.entities.Conta;
 import br.com.banco.entities.Transferencia;
+import br.com.banco.enums.ModoBuscaNome;
 import br.com.banco.exceptions.DataInvalidaException;
 import br.com.banco.exceptions.InvalidPageException;
 import br.com.banco.exceptions.NomeVazioException;
@@ -36,6 +40,7 @@ import br.com.banco.exceptions.TransferenciaException;
 import br.com.banco.exceptions.TransferenciaPaginadaException;
 import br.com.banco.repositories.TransferenciaRepository;
 import br.com.banco.services.ContaService;
+import br.com.banco.services.ExportadorTransferencias;
 import br.com.banco.services.TransferenciaService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -57,6 +62,9 @@ public class TransferenciaController {
 	@Autowired
 	private ContaService contaService;
 
+	@Autowired
+	private ExportadorTransferencias exportadorTransferencias;
+
 	private static final Logger logger = LoggerFactory.getLogger(TransferenciaController.class);
 
 	private static final String DATA_INVALIDA_MESSAGE = "A Data Inicial é Posterior a Data Fim";
@@ -74,12 +82,12 @@ public class TransferenciaController {
 	@Operation(summary = "Retorna todas as transferências relacionadas a um número de conta específico.", description = "Retornar todas as transferências relacionadas a um número de conta específico.")
 	@GetMapping("/conta/{numeroConta}")
 	@ApiResponses(value = { @ApiResponse(responseCode = "200", description = "Transfers found"), @ApiResponse(responseCode = "204", description = "No transfers found") })
-	public ResponseEntity<List<Transferencia>> getTransferenciasPorConta(
+	public ResponseEntity<List<TransferenciaDto>> getTransferenciasPorConta(
 			@Parameter(description = "Número da conta", example = "12345") @PathVariable Long numeroConta) {
 		if (numeroConta == null || numeroConta <= 0) {
 			return ResponseEntity.badRequest().build();
 		}
-		List<Transferencia> transferencias = transferenciaService.getTransferenciasPorConta(numeroConta);
+		List<TransferenciaDto> transferencias = transferenciaService.getTransferenciasPorConta(numeroConta);
 
 		return (transferencias != null && !transferencias.isEmpty()) ? ResponseEntity.ok(transferencias) : ResponseEntity.status(HttpStatus.NO_CONTENT).build();
 	}
@@ -94,9 +102,9 @@ public class TransferenciaController {
 	 */
 	@Operation(summary = "Retorna todas as transferências sem nenhum filtro.", description = "Retornar todas as transferências sem um filtro especifico.")
 	@GetMapping()
-	public ResponseEntity<List<Transferencia>> getAllTransferencias() {
+	public ResponseEntity<List<TransferenciaDto>> getAllTransferencias() {
 		try {
-			List<Transferencia> transferencias = transferenciaService.getAllTransferencias();
+			List<TransferenciaDto> transferencias = transferenciaService.getAllTransferencias();
 			return (transferencias != null && !transferencias.isEmpty()) ? ResponseEntity.ok(transferencias) : ResponseEntity.status(HttpStatus.NO_CONTENT).build();
 		} catch (Exception e) {
 		    logger.error("Erro ao obter as transferências", e);
@@ -104,6 +112,20 @@ public class TransferenciaController {
 		}
 	}
 
+	/**
+	 * Streams all transfers as newline-delimited JSON when the client sends
+	 * {@code Accept: application/x-ndjson}. Rows are read through a database cursor and written as
+	 * they arrive, so memory use does not depend on the number of transfers.
+	 *
+	 * @return ResponseEntity whose body writes one JSON object per line.
+	 */
+	@Operation(summary = "Exporta todas as transferências em NDJSON.", description = "Exportar todas as transferências, uma por linha, sem carregar a tabela em memória.")
+	@GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> exportarTransferencias() {
+		StreamingResponseBody corpo = saida -> exportadorTransferencias.exportar(saida);
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(corpo);
+	}
+
 	// "3. Caso seja informado um período de tempo, retornar todas as transferências relacionadas à aquele período de tempo."
 	// Big O(n)
 	/**
@@ -122,7 +144,7 @@ public class TransferenciaController {
 	        @ApiResponse(responseCode = "204", description = "No transfers found in the specified period"),
 	        @ApiResponse(responseCode = "400", description = "Bad request"),
 	        @ApiResponse(responseCode = "500", description = "Internal server error")})
-	public ResponseEntity<List<Transferencia>> getTransferenciasPorPeriodo(
+	public ResponseEntity<List<TransferenciaDto>> getTransferenciasPorPeriodo(
 	        @RequestParam @DateTimeFormat(pattern = "dd/MM/yyyy") String dataInicio,
 	        @RequestParam @DateTimeFormat(pattern = "dd/MM/yyyy") String dataFim) {
 		if (dataInicio == null || dataFim == null) {
@@ -140,7 +162,7 @@ public class TransferenciaController {
 	        	logger.warn(DATA_INVALIDA_MESSAGE);
 	            return ResponseEntity.badRequest().build();
 			}
-	        List<Transferencia> transferencias = transferenciaService.getTransferenciasPorPeriodo(dataInicioCompleta, dataFimCompleta);
+	        List<TransferenciaDto> transferencias = transferenciaService.getTransferenciasPorPeriodo(dataInicioCompleta, dataFimCompleta);
 
 			return (transferencias != null && !transferencias.isEmpty()) ? ResponseEntity.ok(transferencias) : ResponseEntity.status(HttpStatus.NO_CONTENT).build();
 		} catch (DateTimeParseException e) {
@@ -162,18 +184,17 @@ public class TransferenciaController {
 	 */
 	@Operation(summary = "Retorna todas as transferências relacionadas a um operador específico.", description = "Retornar todas as transferências relacionadas a um operador específico.")
 	@GetMapping("/operador")
-	public ResponseEntity<List<Transferencia>> getTransferenciasPorOperador(@Parameter(description = "Nome do operador", example = "Patrick") @RequestParam String nomeOperador) {
+	public ResponseEntity<List<TransferenciaDto>> getTransferenciasPorOperador(@Parameter(description = "Nome do operador", example = "Patrick") @RequestParam String nomeOperador) {
 		try {
 			if (nomeOperador == null || nomeOperador.isEmpty()) {
 				return ResponseEntity.badRequest().build();
 			}
-			List<Transferencia> nome = transferenciaRepository.findByNomeOperadorTransacao(nomeOperador);
-			if (nome.isEmpty()) {
+			List<TransferenciaDto> transferencias = transferenciaService.getTransferenciasPorOperador(nomeOperador);
+			if (transferencias == null || transferencias.isEmpty()) {
 				return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
 			}
-			Optional<List<Transferencia>> transferencias = Optional.ofNullable(transferenciaService.getTransferenciasPorOperador(nomeOperador));
 
-			return transferencias.map(ResponseEntity::ok).orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+			return ResponseEntity.ok(transferencias);
 
 		} catch (Exception e) {
 			logger.error("Ocorreu um erro ao obter as transferências do operador: {}", e.getMessage());
@@ -196,7 +217,7 @@ public class TransferenciaController {
 	 */
     @Operation(summary = "Retorna todas as transferências com base no período de tempo e operador especificados.", description = "Retornar todas as transferências com base no período de tempo e operador especificados")
     @GetMapping("/periodo-operador")
-    public ResponseEntity<List<Transferencia>> getTransferenciasPorPeriodoEOperador(
+    public ResponseEntity<List<TransferenciaDto>> getTransferenciasPorPeriodoEOperador(
             @Parameter(description = "Data de início do período", example = "dd/MM/yyyy")
             @RequestParam @DateTimeFormat(pattern = "dd/MM/yyyy") String dataInicio,
             @RequestParam @DateTimeFormat(pattern = "dd/MM/yyyy") String dataFim,
@@ -210,7 +231,7 @@ public class TransferenciaController {
 			ZonedDateTime dataInicioCompleta = LocalDate.parse(dataInicio, formatter).atStartOfDay(ZoneId.systemDefault());
 			ZonedDateTime dataFimCompleta = LocalDate.parse(dataFim, formatter).atTime(LocalTime.MAX).atZone(ZoneId.systemDefault());
 
-			List<Transferencia> transferencias = transferenciaService.getTransferenciasPorPeriodoEOperador(dataInicioCompleta, dataFimCompleta, nomeOperador);
+			List<TransferenciaDto> transferencias = transferenciaService.getTransferenciasPorPeriodoEOperador(dataInicioCompleta, dataFimCompleta, nomeOperador);
 
 			return (transferencias != null && !transferencias.isEmpty()) ? ResponseEntity.ok(transferencias) : ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         } catch (Exception e) {
@@ -232,7 +253,7 @@ public class TransferenciaController {
      */
 	@Operation(summary = "Retorna resultados paginados das transferências.", description = "Retornar resultados paginados das transferências.")
 	@GetMapping("/paginadas")
-	public ResponseEntity<Page<Transferencia>> getTransferenciasPaginadas(
+	public ResponseEntity<Page<TransferenciaDto>> getTransferenciasPaginadas(
             @Parameter(description = "O número da página", example = "0") @RequestParam int pagina,
             @Parameter(description = "O tamanho da página", example = "10") @RequestParam int tamanhoPagina) {
 		try {
@@ -241,7 +262,7 @@ public class TransferenciaController {
 				throw new IllegalArgumentException("Exception: Número de página ou tamanho de página inválido.");
 			}
 			Pageable pageable = PageRequest.of(pagina, tamanhoPagina);
-			Page<Transferencia> transferenciasPaginadas = transferenciaService.getTransferenciasPaginadas(pageable);
+			Page<TransferenciaDto> transferenciasPaginadas = transferenciaService.getTransferenciasPaginadas(pageable);
 
 			return (transferenciasPaginadas != null && transferenciasPaginadas.hasContent()) ? ResponseEntity.ok(transferenciasPaginadas) : ResponseEntity.status(HttpStatus.NO_CONTENT).build();
 		} catch (IllegalArgumentException e) {
@@ -253,6 +274,48 @@ public class TransferenciaController {
 		}
 	}
 	
+	/**
+	 * Retrieves transfers one page at a time in date and id order, continuing from an opaque cursor.
+	 * Meant for exports: no count is run and deep pages cost the same as the first one.
+	 *
+	 * @param cursor       The {@code proximoCursor} of the previous page; omitted on the first page.
+	 * @param tamanhoPagina The number of transfers per page, from 1 to 1000.
+	 * @param contaId      Optional account filter.
+	 * @param dataInicio   Optional start date of the period. Format: dd/MM/yyyy.
+	 * @param dataFim      Optional end date of the period. Format: dd/MM/yyyy.
+	 * @param nomeOperador Optional operator filter, with at least 3 characters.
+	 * @return A ResponseEntity with the page and the cursor of the next one, 204 if there are no
+	 *         transfers, or 400 if a parameter or the cursor is invalid.
+	 */
+	@Operation(summary = "Retorna as transferências paginadas por cursor.", description = "Retornar as transferências em ordem de data e id, continuando a partir do cursor da página anterior.")
+	@GetMapping("/paginadas/cursor")
+	public ResponseEntity<PaginaTransferenciasDto> getTransferenciasPorCursor(
+			@Parameter(description = "O cursor devolvido na página anterior") @RequestParam(required = false) String cursor,
+			@Parameter(description = "O tamanho da página", example = "100") @RequestParam(defaultValue = "100") int tamanhoPagina,
+			@Parameter(description = "Número da conta") @RequestParam(required = false) Long contaId,
+			@Parameter(description = "Data de início (dd/MM/yyyy)") @RequestParam(required = false) String dataInicio,
+			@Parameter(description = "Data de fim (dd/MM/yyyy)") @RequestParam(required = false) String dataFim,
+			@Parameter(description = "Nome do operador") @RequestParam(required = false) String nomeOperador) {
+		if ((dataInicio != null && !transferenciaService.isValidDateFormat(dataInicio)) || (dataFim != null && !transferenciaService.isValidDateFormat(dataFim))) {
+			logger.warn(DATA_INVALIDA_PROVIDED);
+			return ResponseEntity.badRequest().build();
+		}
+		try {
+			DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+			ZonedDateTime dataInicioCompleta = dataInicio == null ? null : LocalDate.parse(dataInicio, formatter).atStartOfDay(ZoneId.systemDefault());
+			ZonedDateTime dataFimCompleta = dataFim == null ? null : LocalDate.parse(dataFim, formatter).atTime(LocalTime.MAX).atZone(ZoneId.systemDefault());
+			PaginaTransferenciasDto pagina = transferenciaService.getTransferenciasPorCursor(cursor, tamanhoPagina, contaId, dataInicioCompleta, dataFimCompleta, nomeOperador);
+
+			return pagina.getTransferencias().isEmpty() ? ResponseEntity.status(HttpStatus.NO_CONTENT).build() : ResponseEntity.ok(pagina);
+		} catch (IllegalArgumentException | DateTimeParseException e) {
+			logger.warn("Parâmetros inválidos na paginação por cursor: {}", e.getMessage());
+			return ResponseEntity.badRequest().build();
+		} catch (Exception e) {
+			logger.error("Erro ao recuperar transferências paginadas por cursor", e);
+			throw new TransferenciaPaginadaException("Exception: Erro ao recuperar transferências paginadas por cursor", e);
+		}
+	}
+
 	// Pegar todas as transacoes em um periodo pelo nome.
 	// Big O(n)
 	/**
@@ -268,7 +331,7 @@ public class TransferenciaController {
 	 */
 	@Operation(summary = "Retorna resultados das transferências por Periodo e se a Conta existe no banco.", description = "Retornar resultados das transferências por Periodo e se a Conta existe no banco.")
 	@GetMapping("/transacoes")
-	public ResponseEntity<List<Transferencia>> getTransacoesPorPeriodoENomeESeContaExiste(@RequestParam String nome,
+	public ResponseEntity<List<TransferenciaDto>> getTransacoesPorPeriodoENomeESeContaExiste(@RequestParam String nome,
 			@RequestParam @DateTimeFormat(pattern = "dd/MM/yyyy") String dataInicio,
 			@RequestParam @DateTimeFormat(pattern = "dd/MM/yyyy") String dataFim) {
 		
@@ -288,7 +351,7 @@ public class TransferenciaController {
 				logger.warn(DATA_INVALIDA_MESSAGE);
 	            return ResponseEntity.badRequest().build();
 			}
-			List<Transferencia> transacoes = contaService.buscarTransacoesPorPeriodoENome(dataInicioCompleta, dataFimCompleta, nome);
+			List<TransferenciaDto> transacoes = contaService.buscarTransacoesPorPeriodoENome(dataInicioCompleta, dataFimCompleta, nome);
 			
 			return (transacoes != null && !transacoes.isEmpty()) ? ResponseEntity.ok(transacoes) : ResponseEntity.status(HttpStatus.NOT_FOUND).build();
 		} catch (NomeVazioException e) {
@@ -313,6 +376,7 @@ public class TransferenciaController {
 	 * and handling exceptions gracefully.
 	 *
 	 * @param nome The name for which the total balance is to be calculated.
+	 * @param modo EXATO (default) compares the whole name, ignoring case and accents; TRECHO takes the oldest account containing the text.
 	 * @return ResponseEntity<Double> A response entity containing the total balance as a Double value.
 	 *         - If the name is valid and the calculation is successful, it returns an OK response with the total balance.
 	 *         - If the name is empty or null, it returns a Bad Request response.
@@ -321,13 +385,14 @@ public class TransferenciaController {
 	 */
 	@Operation(summary = "Retorna o saldo total por Nome registrado no Banco.", description = "Retornar o saldo total por Nome registrado no Banco.")
 	@GetMapping("/saldo-total")
-	public ResponseEntity<Double> calcularSaldoTotalPorNome(@RequestParam String nome) {
+	public ResponseEntity<Double> calcularSaldoTotalPorNome(@RequestParam String nome,
+			@RequestParam(defaultValue = "EXATO") ModoBuscaNome modo) {
 		try {
 			if (nome == null || nome.isEmpty()) {
 				logger.warn("O parâmetro 'nome' não pode ser nulo ou vazio.");
 				return ResponseEntity.badRequest().build();
 			}
-			Double saldo = contaService.calcularSaldoTotalPorNome(nome);
+			Double saldo = contaService.calcularSaldoTotalPorNome(nome, modo);
 			
 			return (saldo != null) ? ResponseEntity.ok(saldo) : ResponseEntity.notFound().build();
 		} catch (IllegalArgumentException e) {
@@ -0,0 +1,64 @@
+package br.com.banco.dtos;
+
+import br.com.banco.enums.Operation;
+
+public class ItemLoteDto {
+
+    private Operation tipo;
+    private Long idConta;
+    private Long idContaDestino;
+    private double valor;
+
+    // Construtores
+
+    public ItemLoteDto() {
+    }
+
+    public ItemLoteDto(Operation tipo, Long idConta, Long idContaDestino, double valor) {
+        this.tipo = tipo;
+        this.idConta = idConta;
+        this.idContaDestino = idContaDestino;
+        this.valor = valor;
+    }
+
+    // Getters e Setters
+
+    public Operation getTipo() {
+        return tipo;
+    }
+
+    public void setTipo(Operation tipo) {
+        this.tipo = tipo;
+    }
+
+    public Long getIdConta() {
+        return idConta;
+    }
+
+    public void setIdConta(Long idConta) {
+        this.idConta = idConta;
+    }
+
+    public Long getIdContaDestino() {
+        return idContaDestino;
+    }
+
+    public void setIdContaDestino(Long idContaDestino) {
+        this.idContaDestino = idContaDestino;
+    }
+
+    public double getValor() {
+        return valor;
+    }
+
+    public void setValor(double valor) {
+        this.valor = valor;
+    }
+
+    /**
+     * Deposits and withdrawals only use {@code idConta}; every other type is a transfer.
+     */
+    public boolean isTransferencia() {
+        return tipo != Operation.DEPOSITO && tipo != Operation.SAQUE;
+    }
+}
@@ -0,0 +1,65 @@
+package br.com.banco.dtos;
+
+public class LatenciaDto {
+
+    private long contagem;
+    private double p50Ms;
+    private double p99Ms;
+    private double p999Ms;
+    private double maxMs;
+
+    // Construtores
+
+    public LatenciaDto() {
+    }
+
+    public LatenciaDto(long contagem, double p50Ms, double p99Ms, double p999Ms, double maxMs) {
+        this.contagem = contagem;
+        this.p50Ms = p50Ms;
+        this.p99Ms = p99Ms;
+        this.p999Ms = p999Ms;
+        this.maxMs = maxMs;
+    }
+
+    // Getters e Setters
+
+    public long getContagem() {
+        return contagem;
+    }
+
+    public void setContagem(long contagem) {
+        this.contagem = contagem;
+    }
+
+    public double getP50Ms() {
+        return p50Ms;
+    }
+
+    public void setP50Ms(double p50Ms) {
+        this.p50Ms = p50Ms;
+    }
+
+    public double getP99Ms() {
+        return p99Ms;
+    }
+
+    public void setP99Ms(double p99Ms) {
+        this.p99Ms = p99Ms;
+    }
+
+    public double getP999Ms() {
+        return p999Ms;
+    }
+
+    public void setP999Ms(double p999Ms) {
+        this.p999Ms = p999Ms;
+    }
+
+    public double getMaxMs() {
+        return maxMs;
+    }
+
+    public void setMaxMs(double maxMs) {
+        this.maxMs = maxMs;
+    }
+}
@@ -0,0 +1,41 @@
+package br.com.banco.dtos;
+
+import java.util.List;
+
+
+public class PaginaTransferenciasDto {
+
+    private List<TransferenciaDto> transferencias;
+    private String proximoCursor;
+
+    // Construtores
+
+    public PaginaTransferenciasDto() {
+    }
+
+    public PaginaTransferenciasDto(List<TransferenciaDto> transferencias, String proximoCursor) {
+        this.transferencias = transferencias;
+        this.proximoCursor = proximoCursor;
+    }
+
+    // Getters e Setters
+
+    public List<TransferenciaDto> getTransferencias() {
+        return transferencias;
+    }
+
+    public void setTransferencias(List<TransferenciaDto> transferencias) {
+        this.transferencias = transferencias;
+    }
+
+    /**
+     * Token for the next page, or null when this is the last one.
+     */
+    public String getProximoCursor() {
+        return proximoCursor;
+    }
+
+    public void setProximoCursor(String proximoCursor) {
+        this.proximoCursor = proximoCursor;
+    }
+}
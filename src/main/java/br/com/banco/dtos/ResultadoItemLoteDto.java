@@ -0,0 +1,53 @@
+package br.com.banco.dtos;
+
+public class ResultadoItemLoteDto {
+
+    private int indice;
+    private boolean aplicado;
+    private String mensagem;
+
+    // Construtores
+
+    public ResultadoItemLoteDto() {
+    }
+
+    public ResultadoItemLoteDto(int indice, boolean aplicado, String mensagem) {
+        this.indice = indice;
+        this.aplicado = aplicado;
+        this.mensagem = mensagem;
+    }
+
+    public static ResultadoItemLoteDto aplicado(int indice) {
+        return new ResultadoItemLoteDto(indice, true, null);
+    }
+
+    public static ResultadoItemLoteDto rejeitado(int indice, String mensagem) {
+        return new ResultadoItemLoteDto(indice, false, mensagem);
+    }
+
+    // Getters e Setters
+
+    public int getIndice() {
+        return indice;
+    }
+
+    public void setIndice(int indice) {
+        this.indice = indice;
+    }
+
+    public boolean isAplicado() {
+        return aplicado;
+    }
+
+    public void setAplicado(boolean aplicado) {
+        this.aplicado = aplicado;
+    }
+
+    public String getMensagem() {
+        return mensagem;
+    }
+
+    public void setMensagem(String mensagem) {
+        this.mensagem = mensagem;
+    }
+}
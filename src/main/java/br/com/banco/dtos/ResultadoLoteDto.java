@@ -0,0 +1,57 @@
+package br.com.banco.dtos;
+
+import java.util.List;
+
+public class ResultadoLoteDto {
+
+    private int total;
+    private int aplicados;
+    private int rejeitados;
+    private List<ResultadoItemLoteDto> itens;
+
+    // Construtores
+
+    public ResultadoLoteDto() {
+    }
+
+    public ResultadoLoteDto(List<ResultadoItemLoteDto> itens) {
+        this.itens = itens;
+        this.total = itens.size();
+        this.aplicados = (int) itens.stream().filter(ResultadoItemLoteDto::isAplicado).count();
+        this.rejeitados = total - aplicados;
+    }
+
+    // Getters e Setters
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getAplicados() {
+        return aplicados;
+    }
+
+    public void setAplicados(int aplicados) {
+        this.aplicados = aplicados;
+    }
+
+    public int getRejeitados() {
+        return rejeitados;
+    }
+
+    public void setRejeitados(int rejeitados) {
+        this.rejeitados = rejeitados;
+    }
+
+    public List<ResultadoItemLoteDto> getItens() {
+        return itens;
+    }
+
+    public void setItens(List<ResultadoItemLoteDto> itens) {
+        this.itens = itens;
+    }
+}
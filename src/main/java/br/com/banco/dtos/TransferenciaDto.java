@@ -1,18 +1,32 @@
 package br.com.banco.dtos;
 
+import br.com.banco.entities.Dinheiro;
 import br.com.banco.enums.Operation;
-import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
 
 public class TransferenciaDto {
 
 	private Long id;
-	private LocalDateTime dataTransferencia;
-	private Double valor;
+	private ZonedDateTime dataTransferencia;
+	private Dinheiro valor;
 	private Operation tipo;
 	private String nomeOperadorTransacao;
-	private Double saldoAtual;
+	private Dinheiro saldoAtual;
 	private Long contaId;
 
+	public TransferenciaDto() {
+	}
+
+	// Usado nas projecoes "SELECT new" do TransferenciaRepository.
+	public TransferenciaDto(Long id, ZonedDateTime dataTransferencia, Dinheiro valor, Operation tipo, String nomeOperadorTransacao, Long contaId) {
+		this.id = id;
+		this.dataTransferencia = dataTransferencia;
+		this.valor = valor;
+		this.tipo = tipo;
+		this.nomeOperadorTransacao = nomeOperadorTransacao;
+		this.contaId = contaId;
+	}
+
 	public Long getId() {
 		return id;
 	}
@@ -21,19 +35,19 @@ public class TransferenciaDto {
 		this.id = id;
 	}
 
-	public LocalDateTime getDataTransferencia() {
+	public ZonedDateTime getDataTransferencia() {
 		return dataTransferencia;
 	}
 
-	public void setDataTransferencia(LocalDateTime dataTransferencia) {
+	public void setDataTransferencia(ZonedDateTime dataTransferencia) {
 		this.dataTransferencia = dataTransferencia;
 	}
 
-	public Double getValor() {
+	public Dinheiro getValor() {
 		return valor;
 	}
 
-	public void setValor(Double valor) {
+	public void setValor(Dinheiro valor) {
 		this.valor = valor;
 	}
 
@@ -53,11 +67,11 @@ public class TransferenciaDto {
 		this.nomeOperadorTransacao = nomeOperadorTransacao;
 	}
 
-	public Double getSaldoAtual() {
+	public Dinheiro getSaldoAtual() {
 		return saldoAtual;
 	}
 
-	public void setSaldoAtual(Double saldoAtual) {
+	public void setSaldoAtual(Dinheiro saldoAtual) {
 		this.saldoAtual = saldoAtual;
 	}
 
@@ -1,26 +1,31 @@
 package br.com.banco.entities;
 
 import java.time.ZonedDateTime;
-import java.util.ArrayList;
-import java.util.List;
 
-import javax.persistence.CascadeType;
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
-import javax.persistence.OneToMany;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Size;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 @Entity
 @Table(name = "conta")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Conta {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "conta_seq")
+    @SequenceGenerator(name = "conta_seq", sequenceName = "conta_seq", initialValue = 1000, allocationSize = 50)
     @Column(name = "id_conta")
     private Long id;
 
@@ -29,14 +34,23 @@ public class Conta {
     @Column(name = "nome_responsavel")
     private String nome;
 
+    // Nome em minusculas, sem acentos e com espacos simples (NormalizadorNomes), com indice unico:
+    // a busca exata por nome e uma leitura pelo indice. Nulo so em contas repetidas de antes da V4.
+    @Column(name = "nome_normalizado")
+    private String nomeNormalizado;
+
     @Column(name = "data_de_criacao", columnDefinition = "TIMESTAMP WITH TIME ZONE")
     private ZonedDateTime dataDeCriacao;
 
     @Column(name = "saldo", nullable = false, columnDefinition = "DECIMAL(20,2)")
-    private Double saldo;
+    private Dinheiro saldo;
 
-    @OneToMany(mappedBy = "conta", cascade = CascadeType.ALL, orphanRemoval = true)
-    private List<Transferencia> transferencias = new ArrayList<>();
+    @Version
+    @Column(name = "versao", nullable = false)
+    private Long versao;
+
+    // Sem colecao de transferencias: o historico cresce sem limite e so e lido em paginas,
+    // por TransferenciaRepository.findPaginaPorConta. Gravar uma transferencia e um INSERT avulso.
 
     public void setDataCriacaoaAdjusted(ZonedDateTime dataDeCriacao) {
         this.dataDeCriacao = dataDeCriacao;
@@ -46,7 +60,7 @@ public class Conta {
 
     public Conta() {
         this.dataDeCriacao = ZonedDateTime.now();
-        this.saldo = 0.0;
+        this.saldo = Dinheiro.ZERO;
     }
 
     public Conta(String nome) {
@@ -54,6 +68,20 @@ public class Conta {
         this.nome = nome;
     }
 
+    /**
+     * Detached copy of this account, version included, for a caller that must not share the
+     * instance with anyone else.
+     */
+    public Conta copiar() {
+        Conta copia = new Conta(nome);
+        copia.id = id;
+        copia.nomeNormalizado = nomeNormalizado;
+        copia.dataDeCriacao = dataDeCriacao;
+        copia.saldo = saldo;
+        copia.versao = versao;
+        return copia;
+    }
+
     // Getters e Setters
 
     public Long getId() {
@@ -68,20 +96,28 @@ public class Conta {
         this.nome = nome;
     }
 
+    public String getNomeNormalizado() {
+        return nomeNormalizado;
+    }
+
+    public void setNomeNormalizado(String nomeNormalizado) {
+        this.nomeNormalizado = nomeNormalizado;
+    }
+
     public ZonedDateTime getDataDeCriacao() {
         return dataDeCriacao;
     }
 
-    public Double getSaldo() {
+    public Dinheiro getSaldo() {
         return saldo;
     }
 
-    public void setSaldo(Double saldo) {
+    public void setSaldo(Dinheiro saldo) {
         this.saldo = saldo;
     }
 
-    public List<Transferencia> getTransferencias() {
-        return transferencias;
+    public Long getVersao() {
+        return versao;
     }
 
 
@@ -93,19 +129,4 @@ public class Conta {
 		this.dataDeCriacao = dataDeCriacao;
 	}
 
-	public void setTransferencias(List<Transferencia> transferencias) {
-		this.transferencias = transferencias;
-	}
-
-	// Métodos auxiliares para gerenciamento de transferências
-
-	public void adicionarTransferencia(Transferencia transferencia) {
-        transferencias.add(transferencia);
-        transferencia.setConta(this);
-    }
-
-    public void removerTransferencia(Transferencia transferencia) {
-        transferencias.remove(transferencia);
-        transferencia.setConta(null);
-    }
 }
\ No newline at end of file
@@ -0,0 +1,164 @@
+package br.com.banco.entities;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * An amount of money in reais, held as a whole number of cents.
+ *
+ * Instances are immutable. Adding, subtracting and comparing work on the {@code long} directly,
+ * so sums are exact and nothing is boxed or formatted along the way; {@link BigDecimal} is only
+ * used at the edges, to read input and to talk to the {@code DECIMAL(20,2)} columns. In JSON an
+ * amount is a plain number with two decimal places, as the balances and values always were.
+ */
+@JsonSerialize(using = Dinheiro.Serializador.class)
+@JsonDeserialize(using = Dinheiro.Desserializador.class)
+@Schema(type = "number", example = "100.50")
+public final class Dinheiro implements Comparable<Dinheiro>, Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int CASAS_DECIMAIS = 2;
+
+	public static final Dinheiro ZERO = new Dinheiro(0);
+
+	private final long centavos;
+
+	private Dinheiro(long centavos) {
+		this.centavos = centavos;
+	}
+
+	public static Dinheiro deCentavos(long centavos) {
+		return centavos == 0 ? ZERO : new Dinheiro(centavos);
+	}
+
+	/**
+	 * Converts an amount given in reais, rounding half up to the nearest cent like the
+	 * {@code DECIMAL(20,2)} columns do.
+	 *
+	 * @throws IllegalArgumentException if the amount is null or does not fit in a {@code long} of cents
+	 */
+	public static Dinheiro de(BigDecimal reais) {
+		if (reais == null) {
+			throw new IllegalArgumentException("O valor não pode ser nulo.");
+		}
+		try {
+			return deCentavos(reais.setScale(CASAS_DECIMAIS, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+		} catch (ArithmeticException e) {
+			throw new IllegalArgumentException("Valor fora do intervalo suportado: " + reais, e);
+		}
+	}
+
+	/**
+	 * Converts an amount given in reais, such as a request parameter, using its shortest decimal
+	 * representation so that 0.1 stays 10 cents.
+	 *
+	 * @throws IllegalArgumentException if the amount is NaN, infinite or out of range
+	 */
+	public static Dinheiro de(double reais) {
+		if (Double.isNaN(reais) || Double.isInfinite(reais)) {
+			throw new IllegalArgumentException("Valor inválido: " + reais);
+		}
+		return de(BigDecimal.valueOf(reais));
+	}
+
+	public long getCentavos() {
+		return centavos;
+	}
+
+	public Dinheiro somar(Dinheiro outro) {
+		return outro.centavos == 0 ? this : deCentavos(Math.addExact(centavos, outro.centavos));
+	}
+
+	public Dinheiro subtrair(Dinheiro outro) {
+		return outro.centavos == 0 ? this : deCentavos(Math.subtractExact(centavos, outro.centavos));
+	}
+
+	public Dinheiro negar() {
+		return deCentavos(Math.negateExact(centavos));
+	}
+
+	public boolean menorQue(Dinheiro outro) {
+		return centavos < outro.centavos;
+	}
+
+	public boolean ehNegativo() {
+		return centavos < 0;
+	}
+
+	public boolean ehPositivo() {
+		return centavos > 0;
+	}
+
+	public BigDecimal paraBigDecimal() {
+		return BigDecimal.valueOf(centavos, CASAS_DECIMAIS);
+	}
+
+	/**
+	 * Returns the nearest {@code double}, for callers that still expose amounts as numbers.
+	 */
+	public double doubleValue() {
+		return centavos / 100.0;
+	}
+
+	@Override
+	public int compareTo(Dinheiro outro) {
+		return Long.compare(centavos, outro.centavos);
+	}
+
+	@Override
+	public boolean equals(Object outro) {
+		return outro instanceof Dinheiro && ((Dinheiro) outro).centavos == centavos;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(centavos);
+	}
+
+	@Override
+	public String toString() {
+		return paraBigDecimal().toPlainString();
+	}
+
+	static class Serializador extends JsonSerializer<Dinheiro> {
+
+		@Override
+		public void serialize(Dinheiro valor, JsonGenerator gerador, SerializerProvider provider) throws IOException {
+			gerador.writeNumber(valor.paraBigDecimal());
+		}
+	}
+
+	static class Desserializador extends JsonDeserializer<Dinheiro> {
+
+		@Override
+		public Dinheiro deserialize(JsonParser parser, DeserializationContext contexto) throws IOException {
+			JsonToken token = parser.currentToken();
+			try {
+				if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+					return de(parser.getDecimalValue());
+				}
+				if (token == JsonToken.VALUE_STRING) {
+					return de(new BigDecimal(parser.getText().trim()));
+				}
+			} catch (IllegalArgumentException e) {
+				return (Dinheiro) contexto.handleWeirdStringValue(Dinheiro.class, parser.getText(), e.getMessage());
+			}
+			return (Dinheiro) contexto.handleUnexpectedToken(Dinheiro.class, parser);
+		}
+	}
+}
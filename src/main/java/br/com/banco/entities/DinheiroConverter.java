@@ -0,0 +1,23 @@
+package br.com.banco.entities;
+
+import java.math.BigDecimal;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/**
+ * Maps {@link Dinheiro} attributes to the {@code DECIMAL(20,2)} money columns.
+ */
+@Converter(autoApply = true)
+public class DinheiroConverter implements AttributeConverter<Dinheiro, BigDecimal> {
+
+	@Override
+	public BigDecimal convertToDatabaseColumn(Dinheiro valor) {
+		return valor == null ? null : valor.paraBigDecimal();
+	}
+
+	@Override
+	public Dinheiro convertToEntityAttribute(BigDecimal coluna) {
+		return coluna == null ? null : Dinheiro.de(coluna);
+	}
+}
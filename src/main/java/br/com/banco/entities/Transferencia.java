@@ -6,11 +6,15 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 import javax.persistence.Transient;
 import javax.validation.constraints.NotNull;
@@ -21,10 +25,15 @@ import br.com.banco.enums.Operation;
 
 @Entity
 @Table(name = "transferencia")
+@NamedEntityGraph(name = Transferencia.GRAFO_CONTA, attributeNodes = @NamedAttributeNode("conta"))
 public class Transferencia {
 
+	// Para as consultas que precisam da conta: carrega a transferencia e a conta no mesmo SELECT.
+	public static final String GRAFO_CONTA = "Transferencia.conta";
+
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transferencia_seq")
+	@SequenceGenerator(name = "transferencia_seq", sequenceName = "transferencia_seq", initialValue = 1000, allocationSize = 50)
 	private Long id;
 
 	@Column(name = "data_transferencia", columnDefinition = "TIMESTAMP WITH TIME ZONE")
@@ -32,7 +41,7 @@ public class Transferencia {
 
 	@Column(name = "valor", nullable = false, columnDefinition = "DECIMAL(20,2)")
 	@NotNull
-	private Double valor;
+	private Dinheiro valor;
 
 	@Enumerated(value = EnumType.STRING)
 	@NotNull
@@ -43,9 +52,9 @@ public class Transferencia {
 	private String nomeOperadorTransacao;
 
 	@Transient
-	private Double saldoAtual;
+	private Dinheiro saldoAtual;
 
-	@ManyToOne
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "conta_id")
 	@JsonIgnore // Para evitar a serialização recursiva
 	private Conta conta;
@@ -83,11 +92,11 @@ public class Transferencia {
 		this.dataTransferencia = dataTransferencia;
 	}
 
-	public Double getValor() {
+	public Dinheiro getValor() {
 		return valor;
 	}
 
-	public void setValor(Double valor) {
+	public void setValor(Dinheiro valor) {
 		this.valor = valor;
 	}
 
@@ -107,11 +116,11 @@ public class Transferencia {
 		this.nomeOperadorTransacao = nomeOperadorTransacao;
 	}
 
-	public Double getSaldoAtual() {
+	public Dinheiro getSaldoAtual() {
 		return saldoAtual;
 	}
 
-	public void setSaldoAtual(Double saldoAtual) {
+	public void setSaldoAtual(Dinheiro saldoAtual) {
 		this.saldoAtual = saldoAtual;
 	}
 
@@ -0,0 +1,15 @@
+package br.com.banco.enums;
+
+public enum EstrategiaConcorrencia {
+	OTIMISTA("Otimista"), PESSIMISTA("Pessimista"), ATOMICA("Atomica");
+
+	private final String descricao;
+
+	EstrategiaConcorrencia(String descricao) {
+		this.descricao = descricao;
+	}
+
+	public String getDescricao() {
+		return descricao;
+	}
+}
@@ -0,0 +1,15 @@
+package br.com.banco.enums;
+
+public enum ModoBuscaNome {
+	EXATO("Exato"), TRECHO("Trecho");
+
+	private final String descricao;
+
+	ModoBuscaNome(String descricao) {
+		this.descricao = descricao;
+	}
+
+	public String getDescricao() {
+		return descricao;
+	}
+}
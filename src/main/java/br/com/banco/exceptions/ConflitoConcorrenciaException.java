@@ -0,0 +1,9 @@
+package br.com.banco.exceptions;
+
+public class ConflitoConcorrenciaException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+	public ConflitoConcorrenciaException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
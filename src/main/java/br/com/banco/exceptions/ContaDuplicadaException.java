@@ -0,0 +1,9 @@
+package br.com.banco.exceptions;
+
+public class ContaDuplicadaException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+	public ContaDuplicadaException(String message) {
+        super(message);
+    }
+}
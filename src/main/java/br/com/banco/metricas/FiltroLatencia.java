@@ -0,0 +1,71 @@
+package br.com.banco.metricas;
+
+import java.io.IOException;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Records the latency of every request that reached a controller into
+ * {@link HistogramasLatencia}, named by HTTP method and route pattern. Streamed responses are
+ * recorded when the stream completes, not when the controller returns.
+ */
+@Component
+public class FiltroLatencia extends OncePerRequestFilter {
+
+	private final HistogramasLatencia histogramas;
+
+	public FiltroLatencia(HistogramasLatencia histogramas) {
+		this.histogramas = histogramas;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		long inicio = System.nanoTime();
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			if (request.isAsyncStarted()) {
+				request.getAsyncContext().addListener(new AsyncListener() {
+
+					@Override
+					public void onComplete(AsyncEvent event) {
+						registrar(request, inicio);
+					}
+
+					@Override
+					public void onTimeout(AsyncEvent event) {
+					}
+
+					@Override
+					public void onError(AsyncEvent event) {
+					}
+
+					@Override
+					public void onStartAsync(AsyncEvent event) {
+					}
+				});
+			} else {
+				registrar(request, inicio);
+			}
+		}
+	}
+
+	private void registrar(HttpServletRequest request, long inicio) {
+		long duracao = System.nanoTime() - inicio;
+		Object rota = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		// Sem rota nao houve controlador (404, recurso estatico): fica fora para nao criar um nome por URL
+		if (rota != null) {
+			histogramas.endpoint(request.getMethod() + " " + rota).registrar(duracao);
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package br.com.banco.metricas;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * One {@link JanelaLatencia} per endpoint and per repository method, created on the first call.
+ * Served by {@code GET /internal/latency}: p50, p99, p99.9 and max over the rolling window and
+ * since the last reset, which the timers in Prometheus only give as averages and maxima.
+ */
+@Component
+public class HistogramasLatencia {
+
+	private final Map<String, JanelaLatencia> endpoints = new ConcurrentHashMap<>();
+
+	private final Map<String, JanelaLatencia> repositorios = new ConcurrentHashMap<>();
+
+	private final Duration janela;
+
+	private final int fatias;
+
+	public HistogramasLatencia(@Value("${banco.latencia.janela:60s}") Duration janela, @Value("${banco.latencia.fatias:6}") int fatias) {
+		if (fatias <= 0 || janela.toNanos() < fatias) {
+			throw new IllegalArgumentException("A janela de latência precisa de pelo menos uma fatia.");
+		}
+		this.janela = janela;
+		this.fatias = fatias;
+	}
+
+	/**
+	 * Window of an endpoint, named by HTTP method and route pattern.
+	 */
+	public JanelaLatencia endpoint(String nome) {
+		return endpoints.computeIfAbsent(nome, n -> nova());
+	}
+
+	/**
+	 * Window of a repository method, named {@code Repositorio.metodo}.
+	 */
+	public JanelaLatencia repositorio(String nome) {
+		return repositorios.computeIfAbsent(nome, n -> nova());
+	}
+
+	/**
+	 * Percentiles of every endpoint and repository method seen so far, sorted by name.
+	 */
+	public Map<String, Object> relatorio() {
+		Map<String, Object> relatorio = new LinkedHashMap<>();
+		relatorio.put("janela", janela.toString());
+		relatorio.put("endpoints", resumir(endpoints));
+		relatorio.put("repositorios", resumir(repositorios));
+		return relatorio;
+	}
+
+	/**
+	 * Drops everything recorded so far, keeping the names already seen.
+	 */
+	public void zerar() {
+		endpoints.values().forEach(JanelaLatencia::zerar);
+		repositorios.values().forEach(JanelaLatencia::zerar);
+	}
+
+	private JanelaLatencia nova() {
+		return new JanelaLatencia(janela.toNanos() / fatias, fatias);
+	}
+
+	private static Map<String, Object> resumir(Map<String, JanelaLatencia> janelas) {
+		Map<String, Object> resumo = new TreeMap<>();
+		janelas.forEach((nome, janela) -> {
+			Map<String, Object> item = new LinkedHashMap<>();
+			item.put("janela", janela.janela());
+			item.put("acumulado", janela.acumulado());
+			resumo.put(nome, item);
+		});
+		return resumo;
+	}
+}
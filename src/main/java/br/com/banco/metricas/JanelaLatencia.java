@@ -0,0 +1,150 @@
+package br.com.banco.metricas;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import br.com.banco.dtos.LatenciaDto;
+
+/**
+ * Latency histogram of one endpoint or repository method, over a rolling window and since the
+ * last reset.
+ *
+ * Writers record into an HdrHistogram {@link Recorder} and never wait on each other or on a
+ * reader. The window is split into slices: whoever records or reads after a slice boundary
+ * drains the recorder into the current slice and moves on, so the window always covers the last
+ * {@code fatias - 1} full slices plus the current one. A writer that finds the drain already
+ * running skips it and leaves it to the next call.
+ */
+public class JanelaLatencia {
+
+	// Tres digitos significativos: erro de no maximo 0,1% em qualquer percentil
+	private static final int DIGITOS_SIGNIFICATIVOS = 3;
+
+	private final Recorder gravador = new Recorder(DIGITOS_SIGNIFICATIVOS);
+
+	private final ReentrantLock trava = new ReentrantLock();
+
+	private final Histogram[] fatias;
+
+	private final Histogram total = new Histogram(DIGITOS_SIGNIFICATIVOS);
+
+	private final long duracaoFatia;
+
+	private final LongSupplier relogio;
+
+	private Histogram intervalo;
+
+	private int atual;
+
+	private volatile long proximaRotacao;
+
+	/**
+	 * @param duracaoFatia length of each slice, in nanoseconds
+	 * @param fatias number of slices in the window
+	 */
+	public JanelaLatencia(long duracaoFatia, int fatias) {
+		this(duracaoFatia, fatias, System::nanoTime);
+	}
+
+	JanelaLatencia(long duracaoFatia, int fatias, LongSupplier relogio) {
+		this.duracaoFatia = duracaoFatia;
+		this.relogio = relogio;
+		this.fatias = new Histogram[fatias];
+		for (int i = 0; i < fatias; i++) {
+			this.fatias[i] = new Histogram(DIGITOS_SIGNIFICATIVOS);
+		}
+		this.proximaRotacao = relogio.getAsLong() + duracaoFatia;
+	}
+
+	/**
+	 * Records one call.
+	 *
+	 * @param nanos how long the call took, in nanoseconds
+	 */
+	public void registrar(long nanos) {
+		long agora = relogio.getAsLong();
+		if (agora - proximaRotacao >= 0 && trava.tryLock()) {
+			try {
+				rotacionar(agora);
+			} finally {
+				trava.unlock();
+			}
+		}
+		gravador.recordValue(Math.max(0, nanos / 1000));
+	}
+
+	/**
+	 * Percentiles over the rolling window.
+	 */
+	public LatenciaDto janela() {
+		trava.lock();
+		try {
+			rotacionar(relogio.getAsLong());
+			Histogram soma = new Histogram(DIGITOS_SIGNIFICATIVOS);
+			for (Histogram fatia : fatias) {
+				soma.add(fatia);
+			}
+			return resumo(soma);
+		} finally {
+			trava.unlock();
+		}
+	}
+
+	/**
+	 * Percentiles of every call since the window was created or last reset.
+	 */
+	public LatenciaDto acumulado() {
+		trava.lock();
+		try {
+			rotacionar(relogio.getAsLong());
+			return resumo(total);
+		} finally {
+			trava.unlock();
+		}
+	}
+
+	/**
+	 * Drops everything recorded so far.
+	 */
+	public void zerar() {
+		trava.lock();
+		try {
+			intervalo = gravador.getIntervalHistogram(intervalo);
+			for (Histogram fatia : fatias) {
+				fatia.reset();
+			}
+			total.reset();
+			proximaRotacao = relogio.getAsLong() + duracaoFatia;
+		} finally {
+			trava.unlock();
+		}
+	}
+
+	// Chamado com a trava: esvazia o gravador na fatia atual e avanca as fatias vencidas
+	private void rotacionar(long agora) {
+		intervalo = gravador.getIntervalHistogram(intervalo);
+		fatias[atual].add(intervalo);
+		total.add(intervalo);
+		if (agora - proximaRotacao < 0) {
+			return;
+		}
+		long vencidas = 1 + (agora - proximaRotacao) / duracaoFatia;
+		for (long i = 0; i < Math.min(vencidas, fatias.length); i++) {
+			atual = (atual + 1) % fatias.length;
+			fatias[atual].reset();
+		}
+		proximaRotacao += vencidas * duracaoFatia;
+	}
+
+	private static LatenciaDto resumo(Histogram histograma) {
+		return new LatenciaDto(histograma.getTotalCount(), milis(histograma.getValueAtPercentile(50)), milis(histograma.getValueAtPercentile(99)),
+				milis(histograma.getValueAtPercentile(99.9)), milis(histograma.getMaxValue()));
+	}
+
+	private static double milis(long micros) {
+		return micros / 1000.0;
+	}
+}
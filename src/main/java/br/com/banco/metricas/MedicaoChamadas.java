@@ -0,0 +1,129 @@
+package br.com.banco.metricas;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Times every call into the services and the repositories. Each call is recorded on a timer
+ * tagged with the class, the method, the outcome and the type of the exception that escaped, so
+ * the count, total time and maximum of every method, split by failure, reach the Prometheus
+ * endpoint. The controllers are covered by the {@code http.server.requests} timer of Spring Boot.
+ * Repository calls also go into {@link HistogramasLatencia} for their percentiles. Only calls that
+ * go through the Spring proxy are timed, not calls a bean makes to itself.
+ */
+@Aspect
+@Component
+public class MedicaoChamadas {
+
+	public static final String SERVICOS = "banco.servicos";
+
+	public static final String REPOSITORIOS = "banco.repositorios";
+
+	private static final String SUCESSO = "SUCCESS";
+
+	private static final String ERRO = "ERROR";
+
+	private static final String NENHUMA = "none";
+
+	private final MeterRegistry registro;
+
+	private final HistogramasLatencia histogramas;
+
+	// Medidores de sucesso por classe e metodo: evita montar as tags a cada chamada no caminho comum. A classe
+	// entra na chave porque os repositorios compartilham os metodos herdados, como findById.
+	private final Map<Class<?>, Map<Method, Medidor>> sucessos = new ConcurrentHashMap<>();
+
+	public MedicaoChamadas(MeterRegistry registro, HistogramasLatencia histogramas) {
+		this.registro = registro;
+		this.histogramas = histogramas;
+	}
+
+	@Around("execution(public * br.com.banco.services.ContaService.*(..)) || execution(public * br.com.banco.services.TransferenciaService.*(..))")
+	public Object medirServico(ProceedingJoinPoint chamada) throws Throwable {
+		return medir(SERVICOS, chamada);
+	}
+
+	@Around("(execution(* org.springframework.data.repository.Repository+.*(..)) || execution(* br.com.banco.repositories..*.*(..))) "
+			+ "&& target(org.springframework.data.repository.Repository)")
+	public Object medirRepositorio(ProceedingJoinPoint chamada) throws Throwable {
+		return medir(REPOSITORIOS, chamada);
+	}
+
+	private Object medir(String metrica, ProceedingJoinPoint chamada) throws Throwable {
+		long inicio = System.nanoTime();
+		Object resultado;
+		try {
+			resultado = chamada.proceed();
+		} catch (Throwable e) {
+			long duracao = System.nanoTime() - inicio;
+			timer(metrica, chamada, ERRO, e.getClass().getSimpleName()).record(duracao, TimeUnit.NANOSECONDS);
+			registrarLatencia(latencia(metrica, chamada), duracao);
+			throw e;
+		}
+		long duracao = System.nanoTime() - inicio;
+		Method metodo = ((MethodSignature) chamada.getSignature()).getMethod();
+		Medidor medidor = sucessos.computeIfAbsent(chamada.getTarget().getClass(), c -> new ConcurrentHashMap<>())
+				.computeIfAbsent(metodo, m -> new Medidor(timer(metrica, chamada, SUCESSO, NENHUMA), latencia(metrica, chamada)));
+		medidor.timer.record(duracao, TimeUnit.NANOSECONDS);
+		registrarLatencia(medidor.latencia, duracao);
+		return resultado;
+	}
+
+	// Percentis por metodo so para repositorios; os servicos ficam so com o timer
+	private JanelaLatencia latencia(String metrica, ProceedingJoinPoint chamada) {
+		return REPOSITORIOS.equals(metrica) ? histogramas.repositorio(nomeClasse(chamada.getTarget()) + "." + chamada.getSignature().getName()) : null;
+	}
+
+	private static void registrarLatencia(JanelaLatencia latencia, long duracao) {
+		if (latencia != null) {
+			latencia.registrar(duracao);
+		}
+	}
+
+	private Timer timer(String metrica, ProceedingJoinPoint chamada, String resultado, String excecao) {
+		return Timer.builder(metrica)
+				.tag("class", nomeClasse(chamada.getTarget()))
+				.tag("method", chamada.getSignature().getName())
+				.tag("outcome", resultado)
+				.tag("exception", excecao)
+				.register(registro);
+	}
+
+	private static String nomeClasse(Object alvo) {
+		// Repositorios do Spring Data sao proxies: o nome util e o da interface declarada no projeto
+		if (alvo instanceof Repository) {
+			for (Class<?> interfaceUsuario : AopProxyUtils.proxiedUserInterfaces(alvo)) {
+				if (Repository.class.isAssignableFrom(interfaceUsuario)) {
+					return interfaceUsuario.getSimpleName();
+				}
+			}
+		}
+		return ClassUtils.getUserClass(alvo).getSimpleName();
+	}
+
+	private static class Medidor {
+
+		private final Timer timer;
+
+		private final JanelaLatencia latencia;
+
+		private Medidor(Timer timer, JanelaLatencia latencia) {
+			this.timer = timer;
+			this.latencia = latencia;
+		}
+	}
+}
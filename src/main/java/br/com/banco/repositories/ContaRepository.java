@@ -1,9 +1,23 @@
 package br.com.banco.repositories;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES;
+
+import java.math.BigDecimal;
 import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -11,12 +25,60 @@ import br.com.banco.entities.Conta;
 
 @Repository
 public interface ContaRepository extends JpaRepository<Conta, Long> {
-	@Query("SELECT c FROM Conta c WHERE LOWER(c.nome) LIKE LOWER(concat('%', :nome, '%'))")
-	Conta findByNomeIgnoreCaseLike(@Param("nome") String nome);
+	String ESPACO_SALDO = "conta_saldo";
+
+	// Busca exata: uma leitura pelo indice unico de nome_normalizado.
+	Optional<Conta> findByNomeNormalizado(String nomeNormalizado);
+
+	boolean existsByNomeNormalizado(String nomeNormalizado);
+
+	@Query("SELECT c FROM Conta c WHERE LOWER(c.nome) LIKE LOWER(concat('%', :nome, '%')) ORDER BY c.id")
+	List<Conta> findByNomeIgnoreCaseLike(@Param("nome") String nome);
+
+	// Os ids vem do IndiceNomes; o LIKE so confirma as poucas linhas lidas pela chave primaria.
+	@Query("SELECT c FROM Conta c WHERE c.id IN :ids AND LOWER(c.nome) LIKE LOWER(concat('%', :nome, '%')) ORDER BY c.id")
+	List<Conta> findByIdInAndNomeIgnoreCaseLike(@Param("ids") Collection<Long> ids, @Param("nome") String nome);
+
+	// So a tabela conta: as transferencias das contas encontradas sao lidas depois, pelo indice da conta.
+	@Query("SELECT c.id FROM Conta c WHERE LOWER(c.nome) LIKE LOWER(CONCAT('%', :nome, '%')) ORDER BY c.id")
+	List<Long> findIdsByNomeIgnoreCaseLike(@Param("nome") String nome);
+
+	@Query("SELECT c.id FROM Conta c WHERE c.nome LIKE %:nome% ORDER BY c.id")
+	List<Long> findIdsByNomeLike(@Param("nome") String nome);
+
+	// Confirma, diferenciando maiusculas, os ids que o IndiceNomes achou ignorando-as.
+	@Query("SELECT c.id FROM Conta c WHERE c.id IN :ids AND c.nome LIKE %:nome% ORDER BY c.id")
+	List<Long> findIdsByIdInAndNomeLike(@Param("ids") Collection<Long> ids, @Param("nome") String nome);
 
 	@Query("SELECT SUM(c.saldo) FROM Conta c WHERE LOWER(c.nome) LIKE LOWER(CONCAT('%', :nome, '%')) AND c.dataDeCriacao < :dataInicio")
 	Double findByNomeIgnoreCaseLike(@Param("nome") String nome, @Param("dataInicio") ZonedDateTime dataInicio);
 
 	@Query("SELECT SUM(c.saldo) FROM Conta c WHERE LOWER(c.nome) LIKE LOWER(CONCAT('%', :nome, '%')) AND c.dataDeCriacao >= :dataInicio AND c.dataDeCriacao <= :dataFim")
 	Double findByNomeIgnoreCaseLikeAndDataDeCriacaoBetween(@Param("nome") String nome, @Param("dataInicio") ZonedDateTime dataInicio, @Param("dataFim") ZonedDateTime dataFim);
+
+	// Id e nome de todas as contas, lidos aos poucos do cursor do JDBC, sem montar entidades.
+	@QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+	@Query("SELECT c.id, c.nome FROM Conta c")
+	Stream<Object[]> streamIdsENomes();
+
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT c FROM Conta c WHERE c.id = :id")
+	Optional<Conta> findByIdParaAtualizacao(@Param("id") Long id);
+
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT c FROM Conta c WHERE c.id IN :ids ORDER BY c.id")
+	List<Conta> findAllByIdParaAtualizacao(@Param("ids") Collection<Long> ids);
+
+	// Sem espaco declarado o Hibernate esvaziaria todas as regioes do cache de segundo nivel, e com
+	// "conta" a regiao inteira de Conta a cada escrita. Este espaco nao e de nenhuma entidade: quem
+	// chama tira do cache so a conta alterada, com CacheContas.invalidarComSegundoNivel.
+	@Modifying
+	@QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = ESPACO_SALDO))
+	@Query(value = "UPDATE conta SET saldo = saldo - :valor, versao = versao + 1 WHERE id_conta = :id AND saldo >= :valor", nativeQuery = true)
+	int debitar(@Param("id") Long id, @Param("valor") BigDecimal valor);
+
+	@Modifying
+	@QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = ESPACO_SALDO))
+	@Query(value = "UPDATE conta SET saldo = saldo + :valor, versao = versao + 1 WHERE id_conta = :id", nativeQuery = true)
+	int creditar(@Param("id") Long id, @Param("valor") BigDecimal valor);
 }
\ No newline at end of file
@@ -1,43 +1,99 @@
 package br.com.banco.repositories;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES;
+
+import java.math.BigDecimal;
 import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import br.com.banco.dtos.TransferenciaDto;
 import br.com.banco.entities.Transferencia;
 
 @Repository
-public interface TransferenciaRepository extends JpaRepository<Transferencia, Long>, JpaSpecificationExecutor<Transferencia> {
+public interface TransferenciaRepository extends JpaRepository<Transferencia, Long>, JpaSpecificationExecutor<Transferencia>, TransferenciaRepositoryCustom {
 
+	// Consultas de leitura projetam direto no DTO: sem entidades gerenciadas e sem carregar a conta.
+	String PROJECAO_DTO = "SELECT new br.com.banco.dtos.TransferenciaDto(t.id, t.dataTransferencia, t.valor, t.tipo, t.nomeOperadorTransacao, t.conta.id) FROM Transferencia t";
+
+	@EntityGraph(Transferencia.GRAFO_CONTA)
 	Page<Transferencia> findAll(Pageable pageable);
+
+	// Para quem vai ler a conta da transferencia: a conta vem no mesmo SELECT.
+	@EntityGraph(Transferencia.GRAFO_CONTA)
+	Optional<Transferencia> findComContaById(Long id);
+
+	@Query(PROJECAO_DTO)
+	List<TransferenciaDto> findAllDtos();
+
+	@Query(value = PROJECAO_DTO, countQuery = "SELECT COUNT(t) FROM Transferencia t")
+	Page<TransferenciaDto> findAllDtos(Pageable pageable);
+
+	// Le as linhas aos poucos do cursor do JDBC.
+	@QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+	@Query(PROJECAO_DTO + " ORDER BY t.id")
+	Stream<TransferenciaDto> streamAll();
 	
-	List<Transferencia> findByContaId(Long contaId);
+	// Consulta explicita: a derivada juntava conta e filtrava por conta.id_conta, varrendo transferencia.
+	@Query(PROJECAO_DTO + " WHERE t.conta.id = :contaId")
+	List<TransferenciaDto> findByContaId(@Param("contaId") Long contaId);
 
-	List<Transferencia> findByDataTransferenciaBetween(ZonedDateTime dataInicio, ZonedDateTime dataFim);
+	@Query(PROJECAO_DTO + " WHERE t.dataTransferencia BETWEEN :dataInicio AND :dataFim")
+	List<TransferenciaDto> findByDataTransferenciaBetween(@Param("dataInicio") ZonedDateTime dataInicio, @Param("dataFim") ZonedDateTime dataFim);
 
-	@Query("SELECT t FROM Transferencia t WHERE t.conta.id = :numeroConta")
-	List<Transferencia> findByContaNumeroConta(Long numeroConta);
+	// Historico de uma conta em paginas, das mais recentes para as mais antigas, sem carregar a conta.
+	@Query(value = PROJECAO_DTO + " WHERE t.conta.id = :contaId ORDER BY t.dataTransferencia DESC, t.id DESC",
+			countQuery = "SELECT COUNT(t) FROM Transferencia t WHERE t.conta.id = :contaId")
+	Page<TransferenciaDto> findPaginaPorConta(@Param("contaId") Long contaId, Pageable pageable);
 
-	@Query("SELECT t FROM Transferencia t WHERE LOWER(t.nomeOperadorTransacao) LIKE LOWER(CONCAT('%', :nomeOperador, '%'))")
-	List<Transferencia> findByNomeOperadorTransacao(@Param("nomeOperador") String nomeOperador);
+	@Query(PROJECAO_DTO + " WHERE t.conta.id = :numeroConta")
+	List<TransferenciaDto> findByContaNumeroConta(@Param("numeroConta") Long numeroConta);
 
-	@Query("SELECT t FROM Transferencia t WHERE t.dataTransferencia BETWEEN :dataInicio AND :dataFim AND LOWER(t.nomeOperadorTransacao) LIKE LOWER(CONCAT('%', :nomeOperador, '%'))")
-	List<Transferencia> findByDataInicioAndDataFimAndNomeOperador(@Param("dataInicio") ZonedDateTime dataInicio, @Param("dataFim") ZonedDateTime dataFim, @Param("nomeOperador") String nomeOperador);
+	@Query(PROJECAO_DTO + " WHERE LOWER(t.nomeOperadorTransacao) LIKE LOWER(CONCAT('%', :nomeOperador, '%'))")
+	List<TransferenciaDto> findByNomeOperadorTransacao(@Param("nomeOperador") String nomeOperador);
+
+	// Os nomes exatos vem do IndiceNomes, e a busca usa o indice de nome_operador_transacao.
+	@Query(PROJECAO_DTO + " WHERE t.nomeOperadorTransacao IN :nomesOperador")
+	List<TransferenciaDto> findByNomeOperadorTransacaoIn(@Param("nomesOperador") Collection<String> nomesOperador);
+
+	@Query(PROJECAO_DTO + " WHERE t.dataTransferencia BETWEEN :dataInicio AND :dataFim AND LOWER(t.nomeOperadorTransacao) LIKE LOWER(CONCAT('%', :nomeOperador, '%'))")
+	List<TransferenciaDto> findByDataInicioAndDataFimAndNomeOperador(@Param("dataInicio") ZonedDateTime dataInicio, @Param("dataFim") ZonedDateTime dataFim, @Param("nomeOperador") String nomeOperador);
+
+	@Query(PROJECAO_DTO + " WHERE t.dataTransferencia BETWEEN :dataInicio AND :dataFim AND t.nomeOperadorTransacao IN :nomesOperador")
+	List<TransferenciaDto> findByDataInicioAndDataFimAndNomeOperadorIn(@Param("dataInicio") ZonedDateTime dataInicio, @Param("dataFim") ZonedDateTime dataFim, @Param("nomesOperador") Collection<String> nomesOperador);
 
-	@Query("SELECT t FROM Transferencia t WHERE t.dataTransferencia >= :dataInicio AND t.dataTransferencia <= :dataFim AND LOWER(t.conta.nome) LIKE LOWER(CONCAT('%', :nome, '%'))")
-	List<Transferencia> findByPeriodoENome(@Param("dataInicio") ZonedDateTime dataInicio, @Param("dataFim") ZonedDateTime dataFim, @Param("nome") String nome);
-	
-	@Query("SELECT t FROM Transferencia t WHERE t.conta.nome LIKE %:nome%")
-	List<Transferencia> findByNome(@Param("nome") String nome);
-	
 	@Query("SELECT MIN(t.dataTransferencia) AS primeiraData, MAX(t.dataTransferencia) AS ultimaData FROM Transferencia t WHERE LOWER(t.nomeOperadorTransacao) LIKE LOWER(CONCAT('%', :nomeOperador, '%'))")
 	Map<String, ZonedDateTime> findPrimeiraEUltimaDataPorNomeOperador(@Param("nomeOperador") String nomeOperador);
+
+	@Query("SELECT MIN(t.dataTransferencia) AS primeiraData, MAX(t.dataTransferencia) AS ultimaData FROM Transferencia t WHERE t.nomeOperadorTransacao IN :nomesOperador")
+	Map<String, ZonedDateTime> findPrimeiraEUltimaDataPorNomesOperador(@Param("nomesOperador") Collection<String> nomesOperador);
+
+	// So transferencia muda: as contas em cache de segundo nivel ficam onde estao.
+	@Modifying
+	@QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "transferencia"))
+	@Query(value = "INSERT INTO transferencia (data_transferencia, valor, tipo, nome_operador_transacao, conta_id) VALUES (:data, :valor, :tipo, :nomeOperador, :contaId)", nativeQuery = true)
+	int registrar(@Param("contaId") Long contaId, @Param("data") ZonedDateTime data, @Param("valor") BigDecimal valor, @Param("tipo") String tipo, @Param("nomeOperador") String nomeOperador);
+
+	// O nome do operador vem da conta de destino no proprio INSERT, sem carregar a entidade.
+	@Modifying
+	@QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "transferencia"))
+	@Query(value = "INSERT INTO transferencia (data_transferencia, valor, tipo, nome_operador_transacao, conta_id) SELECT :data, :valor, :tipo, c.nome_responsavel, :contaId FROM conta c WHERE c.id_conta = :contaDestinoId", nativeQuery = true)
+	int registrarComOperadorDaConta(@Param("contaId") Long contaId, @Param("contaDestinoId") Long contaDestinoId, @Param("data") ZonedDateTime data, @Param("valor") BigDecimal valor, @Param("tipo") String tipo);
 }
\ No newline at end of file
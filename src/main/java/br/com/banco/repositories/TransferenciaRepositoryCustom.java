@@ -0,0 +1,37 @@
+package br.com.banco.repositories;
+
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import br.com.banco.dtos.TransferenciaDto;
+
+public interface TransferenciaRepositoryCustom {
+
+	/**
+	 * Returns the transfers that come after the given position in {@code (dataTransferencia, id)}
+	 * order, without counting the total. Every filter is optional.
+	 *
+	 * @param contaId only transfers of this account
+	 * @param dataInicio only transfers at or after this instant
+	 * @param dataFim only transfers at or before this instant
+	 * @param nomesOperador only transfers whose operator is one of these exact names
+	 * @param aposData the date of the last transfer already returned, or null for the first page
+	 * @param aposId the id of the last transfer already returned, or null for the first page
+	 * @param limite the maximum number of transfers to return
+	 */
+	List<TransferenciaDto> buscarAposCursor(Long contaId, ZonedDateTime dataInicio, ZonedDateTime dataFim, Collection<String> nomesOperador,
+			ZonedDateTime aposData, Long aposId, int limite);
+
+	/**
+	 * Returns the transfers of the given accounts in {@code (dataTransferencia, id)} order. Each
+	 * account is read as its own range of the {@code (conta_id, data_transferencia, id)} index and
+	 * the ranges are merged, so the cost follows the history of those accounts and not the size of
+	 * the table. Both dates are optional.
+	 *
+	 * @param contaIds the accounts whose transfers are returned
+	 * @param dataInicio only transfers at or after this instant
+	 * @param dataFim only transfers at or before this instant
+	 */
+	List<TransferenciaDto> buscarPorContas(Collection<Long> contaIds, ZonedDateTime dataInicio, ZonedDateTime dataFim);
+}
@@ -0,0 +1,140 @@
+package br.com.banco.repositories;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+
+import br.com.banco.dtos.TransferenciaDto;
+
+/**
+ * Keyset pagination over {@code transferencia}. Only the filters that were given go into the
+ * query, so each combination is a range seek on one of the {@code (..., data_transferencia, id)}
+ * indexes and the rows come out already in cursor order. Filtering by several operator names
+ * reads each name's range and sorts the matches.
+ *
+ * The transfers of a set of accounts are read one account at a time, each a range of the
+ * {@code (conta_id, data_transferencia, id)} index already in order, and merged.
+ */
+class TransferenciaRepositoryImpl implements TransferenciaRepositoryCustom {
+
+	private static final Comparator<TransferenciaDto> ORDEM_CURSOR = Comparator.comparing(TransferenciaDto::getDataTransferencia)
+			.thenComparing(TransferenciaDto::getId);
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	public List<TransferenciaDto> buscarAposCursor(Long contaId, ZonedDateTime dataInicio, ZonedDateTime dataFim, Collection<String> nomesOperador,
+			ZonedDateTime aposData, Long aposId, int limite) {
+		StringBuilder jpql = new StringBuilder(TransferenciaRepository.PROJECAO_DTO + " WHERE 1 = 1");
+		Map<String, Object> parametros = new HashMap<>();
+		if (contaId != null) {
+			jpql.append(" AND t.conta.id = :contaId");
+			parametros.put("contaId", contaId);
+		}
+		if (dataInicio != null) {
+			jpql.append(" AND t.dataTransferencia >= :dataInicio");
+			parametros.put("dataInicio", dataInicio);
+		}
+		if (dataFim != null) {
+			jpql.append(" AND t.dataTransferencia <= :dataFim");
+			parametros.put("dataFim", dataFim);
+		}
+		if (nomesOperador != null) {
+			jpql.append(" AND t.nomeOperadorTransacao IN :nomesOperador");
+			parametros.put("nomesOperador", nomesOperador);
+		}
+		if (aposData != null && aposId != null) {
+			// O primeiro termo limita a faixa do indice; o segundo descarta o que ja foi lido na mesma data.
+			jpql.append(" AND t.dataTransferencia >= :aposData AND (t.dataTransferencia > :aposData OR t.id > :aposId)");
+			parametros.put("aposData", aposData);
+			parametros.put("aposId", aposId);
+		}
+		// Com igualdade na primeira coluna do indice o H2 so evita a ordenacao se ela tambem estiver no ORDER BY.
+		if (contaId != null) {
+			jpql.append(" ORDER BY t.conta.id, t.dataTransferencia, t.id");
+		} else if (nomesOperador != null && nomesOperador.size() == 1) {
+			jpql.append(" ORDER BY t.nomeOperadorTransacao, t.dataTransferencia, t.id");
+		} else {
+			jpql.append(" ORDER BY t.dataTransferencia, t.id");
+		}
+
+		TypedQuery<TransferenciaDto> consulta = entityManager.createQuery(jpql.toString(), TransferenciaDto.class);
+		parametros.forEach(consulta::setParameter);
+		return consulta.setMaxResults(limite).getResultList();
+	}
+
+	@Override
+	public List<TransferenciaDto> buscarPorContas(Collection<Long> contaIds, ZonedDateTime dataInicio, ZonedDateTime dataFim) {
+		StringBuilder jpql = new StringBuilder(TransferenciaRepository.PROJECAO_DTO + " WHERE t.conta.id = :contaId");
+		if (dataInicio != null) {
+			jpql.append(" AND t.dataTransferencia >= :dataInicio");
+		}
+		if (dataFim != null) {
+			jpql.append(" AND t.dataTransferencia <= :dataFim");
+		}
+		jpql.append(" ORDER BY t.conta.id, t.dataTransferencia, t.id");
+
+		List<List<TransferenciaDto>> faixas = new ArrayList<>(contaIds.size());
+		int total = 0;
+		for (Long contaId : contaIds) {
+			TypedQuery<TransferenciaDto> consulta = entityManager.createQuery(jpql.toString(), TransferenciaDto.class)
+					.setParameter("contaId", contaId);
+			if (dataInicio != null) {
+				consulta.setParameter("dataInicio", dataInicio);
+			}
+			if (dataFim != null) {
+				consulta.setParameter("dataFim", dataFim);
+			}
+			List<TransferenciaDto> faixa = consulta.getResultList();
+			if (!faixa.isEmpty()) {
+				faixas.add(faixa);
+				total += faixa.size();
+			}
+		}
+		if (faixas.size() <= 1) {
+			return faixas.isEmpty() ? new ArrayList<>() : faixas.get(0);
+		}
+		return mesclar(faixas, total);
+	}
+
+	// Cada faixa ja vem ordenada do indice: a fila so compara a proxima transferencia de cada conta.
+	private static List<TransferenciaDto> mesclar(List<List<TransferenciaDto>> faixas, int total) {
+		PriorityQueue<Cabeca> fila = new PriorityQueue<>(faixas.size(), Comparator.comparing(cabeca -> cabeca.atual, ORDEM_CURSOR));
+		for (List<TransferenciaDto> faixa : faixas) {
+			Iterator<TransferenciaDto> restantes = faixa.iterator();
+			fila.add(new Cabeca(restantes.next(), restantes));
+		}
+		List<TransferenciaDto> mescladas = new ArrayList<>(total);
+		while (!fila.isEmpty()) {
+			Cabeca cabeca = fila.poll();
+			mescladas.add(cabeca.atual);
+			if (cabeca.restantes.hasNext()) {
+				fila.add(new Cabeca(cabeca.restantes.next(), cabeca.restantes));
+			}
+		}
+		return mescladas;
+	}
+
+	private static final class Cabeca {
+
+		private final TransferenciaDto atual;
+
+		private final Iterator<TransferenciaDto> restantes;
+
+		private Cabeca(TransferenciaDto atual, Iterator<TransferenciaDto> restantes) {
+			this.atual = atual;
+			this.restantes = restantes;
+		}
+	}
+}
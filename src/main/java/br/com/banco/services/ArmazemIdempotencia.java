@@ -0,0 +1,283 @@
+package br.com.banco.services;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Remembers the outcome of write requests sent with an {@code Idempotency-Key} header, so a
+ * client retry returns the first outcome instead of moving the money again.
+ *
+ * Keys live in a bounded in-memory map and expire a fixed time after they were first seen; when
+ * the map is full the oldest finished key is dropped, and the drops are counted in
+ * {@code banco.idempotencia.despejos}. Keys still running are never dropped, so the map can go
+ * over its size while every key in it is running. A request that arrives while another one with
+ * the same key is still running waits for it and gets its outcome. With
+ * {@code banco.idempotencia.persistir=true}, the default, final outcomes are also written to the
+ * {@code idempotencia} table and looked up there on a miss, so they survive a restart and a drop
+ * from the map. Without it a key is only remembered while it is in the map: the TTL is capped by
+ * {@code banco.idempotencia.tamanho-maximo} requests. The row is written after the operation
+ * commits: a crash between the two still lets a retry run again.
+ *
+ * Only final outcomes are kept. 409 and 5xx are transient, so the key is released and the
+ * next retry runs the operation again.
+ */
+@Component
+public class ArmazemIdempotencia {
+
+	private static final Logger logger = LoggerFactory.getLogger(ArmazemIdempotencia.class);
+
+	public static final int TAMANHO_MAXIMO_CHAVE = 100;
+
+	private static final int GRAVACOES_POR_LIMPEZA = 1000;
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final int tamanhoMaximo;
+
+	private final Duration ttl;
+
+	private final boolean persistir;
+
+	private final LinkedHashMap<String, Entrada> entradas = new LinkedHashMap<>();
+
+	private final LongAdder execucoes = new LongAdder();
+
+	private final LongAdder repeticoes = new LongAdder();
+
+	private final AtomicLong gravacoes = new AtomicLong();
+
+	private final Counter despejos;
+
+	public ArmazemIdempotencia(JdbcTemplate jdbcTemplate, MeterRegistry registro,
+			@Value("${banco.idempotencia.tamanho-maximo:10000}") int tamanhoMaximo,
+			@Value("${banco.idempotencia.ttl:24h}") Duration ttl,
+			@Value("${banco.idempotencia.persistir:true}") boolean persistir) {
+		if (tamanhoMaximo < 1) {
+			throw new IllegalArgumentException("O tamanho máximo do armazém de idempotência deve ser maior que zero.");
+		}
+		this.jdbcTemplate = jdbcTemplate;
+		this.tamanhoMaximo = tamanhoMaximo;
+		this.ttl = ttl;
+		this.persistir = persistir;
+		this.despejos = Counter.builder("banco.idempotencia.despejos").description("Chaves de idempotência retiradas da memória por falta de espaço")
+				.register(registro);
+		if (!persistir) {
+			logger.warn("Chaves de idempotência só em memória: uma chave é esquecida depois de {} requisições, mesmo antes do TTL de {}.",
+					tamanhoMaximo, ttl);
+		}
+	}
+
+	/**
+	 * Runs the operation once per key and returns its HTTP status; repeated keys get the stored
+	 * status without running it again.
+	 *
+	 * @param chave the value of the {@code Idempotency-Key} header, or null to just run the operation
+	 * @param assinatura identifies the request (operation and parameters) the key was first used with
+	 * @param operacao the operation, returning its HTTP status
+	 * @return the status and whether it was replayed; 400 if the key is blank or too long, 422 if
+	 *         the key was already used for a different request
+	 */
+	public Resposta executar(String chave, String assinatura, IntSupplier operacao) {
+		if (chave == null) {
+			return new Resposta(operacao.getAsInt(), false);
+		}
+		if (chave.trim().isEmpty() || chave.length() > TAMANHO_MAXIMO_CHAVE) {
+			logger.warn("Chave de idempotência inválida: deve ter entre 1 e {} caracteres.", TAMANHO_MAXIMO_CHAVE);
+			return new Resposta(HttpStatus.BAD_REQUEST.value(), false);
+		}
+		long agora = System.nanoTime();
+		Entrada nova = new Entrada(assinatura, agora + ttl.toNanos());
+		Entrada existente;
+		synchronized (entradas) {
+			removerExpiradas(agora);
+			existente = entradas.putIfAbsent(chave, nova);
+			if (existente == null) {
+				despejarExcedentes();
+			}
+		}
+		if (existente != null) {
+			return repetir(chave, existente, assinatura);
+		}
+		try {
+			Resposta resposta = persistir ? consultar(chave, assinatura) : null;
+			boolean executada = resposta == null;
+			if (executada) {
+				execucoes.increment();
+				resposta = new Resposta(operacao.getAsInt(), false);
+				if (persistir && definitivo(resposta.getStatus())) {
+					gravar(chave, assinatura, resposta.getStatus());
+				}
+			}
+			nova.resultado.complete(resposta.getStatus());
+			if (!definitivo(resposta.getStatus()) || !(executada || resposta.isRepetida())) {
+				remover(chave, nova);
+			}
+			return resposta;
+		} catch (RuntimeException e) {
+			nova.resultado.completeExceptionally(e);
+			remover(chave, nova);
+			throw e;
+		}
+	}
+
+	public int getTamanhoMaximo() {
+		return tamanhoMaximo;
+	}
+
+	public Duration getTtl() {
+		return ttl;
+	}
+
+	public boolean isPersistir() {
+		return persistir;
+	}
+
+	/**
+	 * Returns the counters collected since startup.
+	 *
+	 * @return a map with the number of keys in memory, executions, replays and keys dropped for space
+	 */
+	public Map<String, Object> estatisticas() {
+		Map<String, Object> estatisticas = new LinkedHashMap<>();
+		synchronized (entradas) {
+			estatisticas.put("chaves", entradas.size());
+		}
+		estatisticas.put("tamanhoMaximo", tamanhoMaximo);
+		estatisticas.put("persistir", persistir);
+		estatisticas.put("execucoes", execucoes.sum());
+		estatisticas.put("repeticoes", repeticoes.sum());
+		estatisticas.put("despejos", (long) despejos.count());
+		return estatisticas;
+	}
+
+	private Resposta repetir(String chave, Entrada existente, String assinatura) {
+		if (!existente.assinatura.equals(assinatura)) {
+			logger.warn("Chave de idempotência '{}' reutilizada com outra requisição.", chave);
+			return new Resposta(HttpStatus.UNPROCESSABLE_ENTITY.value(), false);
+		}
+		repeticoes.increment();
+		try {
+			return new Resposta(existente.resultado.join(), true);
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	// Chaves entram em ordem de expiracao, entao basta olhar o inicio do mapa.
+	private void removerExpiradas(long agora) {
+		Iterator<Entrada> iterator = entradas.values().iterator();
+		while (iterator.hasNext() && iterator.next().expiraEm - agora <= 0) {
+			iterator.remove();
+		}
+	}
+
+	// Saem as chaves concluidas mais antigas. Uma chave em execucao fica: a repeticao dela moveria o dinheiro de novo.
+	private void despejarExcedentes() {
+		Iterator<Map.Entry<String, Entrada>> iterator = entradas.entrySet().iterator();
+		while (entradas.size() > tamanhoMaximo && iterator.hasNext()) {
+			Map.Entry<String, Entrada> entrada = iterator.next();
+			if (entrada.getValue().resultado.isDone()) {
+				iterator.remove();
+				despejos.increment();
+				logger.debug("Chave de idempotência '{}' retirada da memória por falta de espaço.", entrada.getKey());
+			}
+		}
+	}
+
+	private void remover(String chave, Entrada entrada) {
+		synchronized (entradas) {
+			entradas.remove(chave, entrada);
+		}
+	}
+
+	private Resposta consultar(String chave, String assinatura) {
+		List<Map<String, Object>> linhas;
+		try {
+			linhas = jdbcTemplate.queryForList("SELECT assinatura, status FROM idempotencia WHERE chave = ? AND data_criacao > ?",
+					chave, OffsetDateTime.now().minus(ttl));
+		} catch (RuntimeException e) {
+			logger.error("Erro ao consultar a chave de idempotência '{}': {}", chave, e.getMessage());
+			return new Resposta(HttpStatus.SERVICE_UNAVAILABLE.value(), false);
+		}
+		if (linhas.isEmpty()) {
+			return null;
+		}
+		if (!assinatura.equals(linhas.get(0).get("assinatura"))) {
+			logger.warn("Chave de idempotência '{}' reutilizada com outra requisição.", chave);
+			return new Resposta(HttpStatus.UNPROCESSABLE_ENTITY.value(), false);
+		}
+		repeticoes.increment();
+		return new Resposta(((Number) linhas.get(0).get("status")).intValue(), true);
+	}
+
+	// A operacao ja foi aplicada: uma falha aqui so perde a durabilidade da chave.
+	private void gravar(String chave, String assinatura, int status) {
+		try {
+			jdbcTemplate.update("MERGE INTO idempotencia (chave, assinatura, status, data_criacao) KEY (chave) VALUES (?, ?, ?, ?)",
+					chave, assinatura, status, OffsetDateTime.now());
+			if (gravacoes.incrementAndGet() % GRAVACOES_POR_LIMPEZA == 0) {
+				jdbcTemplate.update("DELETE FROM idempotencia WHERE data_criacao <= ?", OffsetDateTime.now().minus(ttl));
+			}
+		} catch (RuntimeException e) {
+			logger.error("Erro ao gravar a chave de idempotência '{}': {}", chave, e.getMessage());
+		}
+	}
+
+	private static boolean definitivo(int status) {
+		return status < 500 && status != HttpStatus.CONFLICT.value();
+	}
+
+	private static final class Entrada {
+		final String assinatura;
+		final long expiraEm;
+		final CompletableFuture<Integer> resultado = new CompletableFuture<>();
+
+		Entrada(String assinatura, long expiraEm) {
+			this.assinatura = assinatura;
+			this.expiraEm = expiraEm;
+		}
+	}
+
+	/**
+	 * The HTTP status of an idempotent request and whether it was replayed from a previous one.
+	 */
+	public static final class Resposta {
+		private final int status;
+		private final boolean repetida;
+
+		public Resposta(int status, boolean repetida) {
+			this.status = status;
+			this.repetida = repetida;
+		}
+
+		public int getStatus() {
+			return status;
+		}
+
+		public boolean isRepetida() {
+			return repetida;
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package br.com.banco.services;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import br.com.banco.entities.Conta;
+import br.com.banco.repositories.ContaRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded in-process cache of accounts by id, read through to {@link ContaRepository#findById}.
+ *
+ * Eviction is Caffeine's W-TinyLFU: a new account only takes the place of a cached one if it
+ * has been asked for more often, so the hot accounts stay in memory and a pass over cold ones
+ * does not flush them. Loads are atomic per id, and an invalidation waits for a load of the same
+ * id in flight, so a balance read before a write commits cannot be stored after the write.
+ *
+ * Every balance write calls {@link #invalidar} inside its transaction; the entries are dropped
+ * once it completes, so other threads keep the committed balance until then. Entries also
+ * expire a fixed time after being loaded, which bounds how long a change made outside the
+ * application stays invisible. Absent ids are not cached. Hits, misses and evictions are
+ * published as the {@code cache.*} metrics with {@code cache=contas}.
+ */
+@Component
+public class CacheContas {
+
+	private final ContaRepository contaRepository;
+
+	private final Cache<Long, Conta> contas;
+
+	private final javax.persistence.Cache cacheSegundoNivel;
+
+	public CacheContas(ContaRepository contaRepository, MeterRegistry registro, EntityManagerFactory entityManagerFactory,
+			@Value("${banco.conta.cache.tamanho-maximo:10000}") long tamanhoMaximo,
+			@Value("${banco.conta.cache.expiracao:10m}") Duration expiracao) {
+		this.contaRepository = contaRepository;
+		this.cacheSegundoNivel = entityManagerFactory.getCache();
+		this.contas = Caffeine.newBuilder().maximumSize(tamanhoMaximo).expireAfterWrite(expiracao).recordStats().build();
+		CaffeineCacheMetrics.monitor(registro, contas, "contas");
+	}
+
+	/**
+	 * Returns a copy of the account, loading it on a miss. The copy can be changed freely.
+	 */
+	public Optional<Conta> buscar(Long id) {
+		return Optional.ofNullable(carregar(id)).map(Conta::copiar);
+	}
+
+	public boolean existe(Long id) {
+		return carregar(id) != null;
+	}
+
+	/**
+	 * Drops the account once the current transaction completes, whether it commits or rolls
+	 * back, or right away outside a transaction.
+	 */
+	public void invalidar(Long id) {
+		invalidar(List.of(id));
+	}
+
+	public void invalidar(Collection<Long> ids) {
+		invalidar(ids, false);
+	}
+
+	/**
+	 * Like {@link #invalidar(Long)}, and also evicts the account from Hibernate's second-level
+	 * cache, which does not see balances changed by native SQL.
+	 */
+	public void invalidarComSegundoNivel(Long id) {
+		invalidar(List.of(id), true);
+	}
+
+	private void invalidar(Collection<Long> ids, boolean segundoNivel) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			descartar(ids, segundoNivel);
+			return;
+		}
+		List<Long> copia = List.copyOf(ids);
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				descartar(copia, segundoNivel);
+			}
+		});
+	}
+
+	// Segundo nivel antes: uma falta aqui no meio carregaria pelo findById o saldo antigo ainda la.
+	private void descartar(Collection<Long> ids, boolean segundoNivel) {
+		if (segundoNivel) {
+			ids.forEach(id -> cacheSegundoNivel.evict(Conta.class, id));
+		}
+		contas.invalidateAll(ids);
+	}
+
+	private Conta carregar(Long id) {
+		if (id == null) {
+			throw new IllegalArgumentException("O ID da conta não pode ser nulo.");
+		}
+		return contas.get(id, chave -> contaRepository.findById(chave).orElse(null));
+	}
+}
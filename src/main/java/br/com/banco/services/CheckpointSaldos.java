@@ -0,0 +1,79 @@
+package br.com.banco.services;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import br.com.banco.entities.Dinheiro;
+
+/**
+ * Keeps the {@code saldo_checkpoint} table: the closing balance of each account on each day it
+ * changed. Every write path calls it in the same transaction as the balance update, so the row
+ * of a day always holds the latest balance of that day and the balance at any date is the most
+ * recent row at or before it: one primary key seek, whatever the age of the account.
+ *
+ * Days follow the America/Sao_Paulo calendar, like the transfer timestamps.
+ */
+@Component
+public class CheckpointSaldos {
+
+	public static final ZoneId ZONA = ZoneId.of("America/Sao_Paulo");
+
+	private static final String GRAVAR = "MERGE INTO saldo_checkpoint (conta_id, dia, saldo) KEY (conta_id, dia) VALUES (?, ?, ?)";
+
+	private static final String GRAVAR_SALDO_ATUAL = "MERGE INTO saldo_checkpoint (conta_id, dia, saldo) KEY (conta_id, dia) "
+			+ "SELECT id_conta, ?, saldo FROM conta WHERE id_conta = ?";
+
+	private static final String CONSULTAR = "SELECT saldo FROM saldo_checkpoint WHERE conta_id = ? AND dia <= ? ORDER BY dia DESC LIMIT 1";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public CheckpointSaldos(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/**
+	 * Records the balance of the account as today's checkpoint.
+	 */
+	public void registrar(Long idConta, Dinheiro saldo) {
+		jdbcTemplate.update(GRAVAR, idConta, hoje(), saldo.paraBigDecimal());
+	}
+
+	/**
+	 * Records the balances of several accounts as today's checkpoints in one JDBC batch.
+	 */
+	public void registrar(Map<Long, BigDecimal> saldos) {
+		LocalDate hoje = hoje();
+		List<Object[]> linhas = new ArrayList<>(saldos.size());
+		saldos.forEach((id, saldo) -> linhas.add(new Object[] { id, hoje, saldo }));
+		jdbcTemplate.batchUpdate(GRAVAR, linhas);
+	}
+
+	/**
+	 * Copies the balance currently in the {@code conta} row into today's checkpoint. Used after
+	 * updates that change the balance in SQL without reading it back.
+	 */
+	public void registrarSaldoAtual(Long idConta) {
+		jdbcTemplate.update(GRAVAR_SALDO_ATUAL, hoje(), idConta);
+	}
+
+	/**
+	 * Returns the balance of the account at the end of the given day.
+	 *
+	 * @return the balance of the latest checkpoint up to that day, or 0 if the account had none yet
+	 */
+	public double saldoEm(Long idConta, LocalDate dia) {
+		List<BigDecimal> saldo = jdbcTemplate.queryForList(CONSULTAR, BigDecimal.class, idConta, dia);
+		return saldo.isEmpty() ? 0.0 : saldo.get(0).doubleValue();
+	}
+
+	public static LocalDate hoje() {
+		return LocalDate.now(ZONA);
+	}
+}
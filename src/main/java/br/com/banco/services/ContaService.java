@@ -1,11 +1,16 @@
 package br.com.banco.services;
 
+import java.time.LocalDate;
 import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Map;
 
+import br.com.banco.dtos.TransferenciaDto;
+import br.com.banco.dtos.ItemLoteDto;
+import br.com.banco.dtos.ResultadoLoteDto;
 import br.com.banco.entities.Conta;
 import br.com.banco.entities.Transferencia;
+import br.com.banco.enums.ModoBuscaNome;
 import br.com.banco.enums.Operation;
 
 public interface ContaService {
@@ -15,6 +20,8 @@ public interface ContaService {
 
 	Conta obterContaPorNome(String nome);
 
+	Conta obterContaPorNome(String nome, ModoBuscaNome modo);
+
 	public Conta obterContaPorId(Long id);
 
 	void sacar(Long idConta, double valor);
@@ -23,9 +30,13 @@ public interface ContaService {
 
 	public boolean hasContaByName(String nome);
 
+	public boolean hasContaByNomeExato(String nome);
+
 	public double calcularSaldoTotalPorNome(String nome);
 
-	public List<Transferencia> buscarTransacoesPorNome(String nome);
+	public double calcularSaldoTotalPorNome(String nome, ModoBuscaNome modo);
+
+	public List<TransferenciaDto> buscarTransacoesPorNome(String nome);
 
 	public Map<String, Object> createErrorResponse(String errorMessage);
 
@@ -35,5 +46,9 @@ public interface ContaService {
 
 	public double calcularSaldoPeriodoPorNome(ZonedDateTime dataInicio, ZonedDateTime dataFim, String nome);
 
-	public List<Transferencia> buscarTransacoesPorPeriodoENome(ZonedDateTime dataInicio, ZonedDateTime dataFim, String nome);
+	double calcularSaldoEm(Long idConta, LocalDate dia);
+
+	public List<TransferenciaDto> buscarTransacoesPorPeriodoENome(ZonedDateTime dataInicio, ZonedDateTime dataFim, String nome);
+
+	ResultadoLoteDto processarLote(List<ItemLoteDto> itens);
 }
\ No newline at end of file
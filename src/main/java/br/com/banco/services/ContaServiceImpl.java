@@ -1,9 +1,11 @@
 package br.com.banco.services;
 
-import java.text.DecimalFormat;
+import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -11,17 +13,30 @@ import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import br.com.banco.dtos.TransferenciaDto;
+import br.com.banco.dtos.ItemLoteDto;
+import br.com.banco.dtos.ResultadoItemLoteDto;
+import br.com.banco.dtos.ResultadoLoteDto;
 import br.com.banco.entities.Conta;
-import br.com.banco.entities.Transferencia;
+import br.com.banco.entities.Dinheiro;
+import br.com.banco.enums.EstrategiaConcorrencia;
+import br.com.banco.enums.ModoBuscaNome;
 import br.com.banco.enums.Operation;
+import br.com.banco.exceptions.ConflitoConcorrenciaException;
+import br.com.banco.exceptions.ContaDuplicadaException;
 import br.com.banco.exceptions.ContaException;
 import br.com.banco.exceptions.ContaNotFoundException;
 import br.com.banco.exceptions.SaldoInsuficienteException;
 import br.com.banco.repositories.ContaRepository;
 import br.com.banco.repositories.TransferenciaRepository;
+import br.com.banco.services.busca.FiltroContas;
+import br.com.banco.services.busca.IndiceNomes;
+import br.com.banco.services.busca.NormalizadorNomes;
 
 @Service
 @Transactional
@@ -33,9 +48,29 @@ public class ContaServiceImpl implements ContaService {
 
 	private final TransferenciaRepository transferenciaRepository;
 
-	public ContaServiceImpl(ContaRepository contaRepository, TransferenciaRepository transferenciaRepository) {
+	private final ControleConcorrenciaConta controleConcorrencia;
+
+	private final ProcessadorLoteContas processadorLote;
+
+	private final CheckpointSaldos checkpointSaldos;
+
+	private final IndiceNomes indiceNomes;
+
+	private final CacheContas cacheContas;
+
+	private final FiltroContas filtroContas;
+
+	public ContaServiceImpl(ContaRepository contaRepository, TransferenciaRepository transferenciaRepository, ControleConcorrenciaConta controleConcorrencia,
+			ProcessadorLoteContas processadorLote, CheckpointSaldos checkpointSaldos, IndiceNomes indiceNomes, CacheContas cacheContas,
+			FiltroContas filtroContas) {
 		this.contaRepository = contaRepository;
 		this.transferenciaRepository = transferenciaRepository;
+		this.controleConcorrencia = controleConcorrencia;
+		this.processadorLote = processadorLote;
+		this.checkpointSaldos = checkpointSaldos;
+		this.indiceNomes = indiceNomes;
+		this.cacheContas = cacheContas;
+		this.filtroContas = filtroContas;
 	}
 
 	/**
@@ -44,6 +79,7 @@ public class ContaServiceImpl implements ContaService {
 	 * @param nome the name of the account to be created
 	 * @return the newly created account
 	 * @throws IllegalArgumentException if the name is null or empty
+	 * @throws ContaDuplicadaException if another account already has the same normalized name
 	 * @throws ContaException if an error occurs while creating the account
 	 */
     @Override
@@ -54,8 +90,16 @@ public class ContaServiceImpl implements ContaService {
         try {
             Conta conta = new Conta(nome);
             conta.setDataCriacaoaAdjusted(ZonedDateTime.now(ZoneId.of("America/Sao_Paulo")).withNano(0));
-            conta.setSaldo(0.0);
-            return contaRepository.save(conta);
+            conta.setNomeNormalizado(NormalizadorNomes.normalizar(nome));
+            conta.setSaldo(Dinheiro.ZERO);
+            // O flush faz o indice unico de nome_normalizado recusar um nome repetido aqui, e nao no commit.
+            Conta salva = contaRepository.saveAndFlush(conta);
+            indiceNomes.registrarConta(salva.getId(), salva.getNome());
+            filtroContas.registrarConta(salva.getId(), salva.getNome());
+            return salva;
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Já existe uma conta com o nome '{}'.", nome);
+            throw new ContaDuplicadaException("Já existe uma conta com o nome '" + nome + "'.");
         } catch (Exception e) {
             logger.error("Erro ao criar conta: {}", e.getMessage());
             throw new ContaException("Erro ao criar conta.", e);
@@ -69,26 +113,34 @@ public class ContaServiceImpl implements ContaService {
      * @param valor the amount to deposit
      * @throws IllegalArgumentException if the ID or value is invalid
      * @throws ContaNotFoundException if the account with the given ID is not found
+     * @throws ConflitoConcorrenciaException if concurrent updates kept winning until the retries ran out
      * @throws ContaException if an error occurs while depositing the amount
      */
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void depositar(Long idConta, double valor) throws IllegalArgumentException, ContaNotFoundException {
         if (idConta == null) {
         	logger.warn("ID da conta inválido: o ID não pode ser nulo.");
         	return;
         }
-        if (valor <= 0) {
+        // Validado depois de arredondar para centavos: 0.001 vira zero
+        Dinheiro quantia = Dinheiro.de(valor);
+        if (!quantia.ehPositivo()) {
         	logger.warn("Valor inválido: o valor deve ser maior que zero.");
         	return;
         }
-        Conta conta = obterContaPorId(idConta);
-        if (conta == null) {
-        	logger.warn("Conta não encontrada para esse ID: {}", idConta);
-        	return;
-        }
         try {
-            double novoSaldo = conta.getSaldo() + valor;
-            conta.setSaldo(novoSaldo);
+            controleConcorrencia.executar(() -> {
+                if (controleConcorrencia.getEstrategia() == EstrategiaConcorrencia.ATOMICA) {
+                    creditarAtomico(idConta, quantia);
+                    return;
+                }
+                Conta conta = controleConcorrencia.carregar(idConta);
+                Dinheiro novoSaldo = conta.getSaldo().somar(quantia);
+                conta.setSaldo(novoSaldo);
+                checkpointSaldos.registrar(idConta, novoSaldo);
+                cacheContas.invalidar(idConta);
+            });
         }catch (ContaException e) {
             logger.error("Erro ao depositar valor na conta: {}", e.getMessage());
             throw new ContaException("Erro ao depositar valor na conta.", e);
@@ -103,72 +155,113 @@ public class ContaServiceImpl implements ContaService {
      * @throws IllegalArgumentException if the ID or value is invalid
      * @throws ContaNotFoundException if the account with the given ID is not found
      * @throws SaldoInsuficienteException if the account balance is insufficient for the withdrawal
+     * @throws ConflitoConcorrenciaException if concurrent updates kept winning until the retries ran out
      * @throws ContaException if an error occurs while withdrawing the amount
      */
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void sacar(Long idConta, double valor) throws IllegalArgumentException, ContaNotFoundException, SaldoInsuficienteException {
         if (idConta == null || idConta <= 0) {
         	logger.warn("ID da conta inválido: o ID não pode ser nulo.");
         }
-        if (valor <= 0) {
+        Dinheiro quantia = Dinheiro.de(valor);
+        if (!quantia.ehPositivo()) {
         	logger.warn("Valor inválido: o valor deve ser maior que zero.");
         	return;
         }
-        Conta conta = obterContaPorId(idConta);
-        if (conta == null) {
-        	logger.warn("Conta não encontrada para esse ID.");
-        	return;
-        }
         try {
-            if (conta.getSaldo() >= valor) {
-                double novoSaldo = conta.getSaldo() - valor;
-                conta.setSaldo(novoSaldo);
-                // Criar a transferência de saque
-                Transferencia transferencia = new Transferencia();
-                transferencia.setDataTransferencia(ZonedDateTime.now(ZoneId.of("America/Sao_Paulo")).withNano(0));
-                transferencia.setValor(-valor);  // Define o valor como negativo
-                transferencia.setTipo(Operation.SAQUE);
-                transferencia.setConta(conta);
-                transferencia.setNomeOperadorTransacao("Sistema");
-                conta.adicionarTransferencia(transferencia);
-                transferenciaRepository.save(transferencia);
-            } else {
-                throw new SaldoInsuficienteException("Saldo insuficiente para o saque.");
-			}
+            controleConcorrencia.executar(() -> {
+                if (controleConcorrencia.getEstrategia() == EstrategiaConcorrencia.ATOMICA) {
+                    debitarAtomico(idConta, quantia, "Saldo insuficiente para o saque.");
+                    transferenciaRepository.registrar(idConta, ZonedDateTime.now(ZoneId.of("America/Sao_Paulo")).withNano(0),
+                            quantia.negar().paraBigDecimal(), Operation.SAQUE.name(), "Sistema");
+                    return;
+                }
+                Conta conta = controleConcorrencia.carregar(idConta);
+                if (!conta.getSaldo().menorQue(quantia)) {
+                    Dinheiro novoSaldo = conta.getSaldo().subtrair(quantia);
+                    conta.setSaldo(novoSaldo);
+                    checkpointSaldos.registrar(idConta, novoSaldo);
+                    cacheContas.invalidar(idConta);
+                    // Registrar o saque com valor negativo
+                    transferenciaRepository.registrar(idConta, ZonedDateTime.now(ZoneId.of("America/Sao_Paulo")).withNano(0),
+                            quantia.negar().paraBigDecimal(), Operation.SAQUE.name(), "Sistema");
+                } else {
+                    throw new SaldoInsuficienteException("Saldo insuficiente para o saque.");
+                }
+            });
 		} catch (ContaException e) {
 		    logger.error("Erro ao sacar valor da conta: {}", e.getMessage());
 		}
 	}
 
     /**
-     * Retrieves the account with the specified ID.
+     * Retrieves the account with the specified ID, from the {@link CacheContas} when it is
+     * there. Runs without a transaction of its own, so a hit does not take a connection.
      *
      * @param id the ID of the account to retrieve
-     * @return the account with the given ID
+     * @return a copy of the account with the given ID
      * @throws ContaNotFoundException if the account with the given ID is not found
      * @throws IllegalArgumentException if the ID is invalid
      */
 	@Override
+	@Transactional(propagation = Propagation.SUPPORTS)
 	public Conta obterContaPorId(Long id) throws ContaNotFoundException {
 		if (id == null || id <= 0) {
 			logger.warn("ID da conta inválido: o ID não pode ser nulo.");
 		}
-		return contaRepository.findById(id).orElseThrow(() -> new ContaNotFoundException("Conta não encontrada para o ID: " + id));
+		return cacheContas.buscar(id).orElseThrow(() -> new ContaNotFoundException("Conta não encontrada para o ID: " + id));
 	}
 
 	/**
-	 * Retrieves the account with the specified name.
+	 * Retrieves the account with exactly the specified name, ignoring case, accents and repeated spaces.
 	 *
 	 * @param nome the name of the account to retrieve
-	 * @return the account with the given name
-	 * @throws IllegalArgumentException if the name is null
+	 * @return the account with the given name, or null if there is none
 	 */
 	@Override
 	public Conta obterContaPorNome(String nome) {
+	    return obterContaPorNome(nome, ModoBuscaNome.EXATO);
+	}
+
+	/**
+	 * Retrieves the account with the specified name. {@link ModoBuscaNome#EXATO} compares the
+	 * normalized name through its unique index; {@link ModoBuscaNome#TRECHO} returns the oldest
+	 * account whose name contains the text.
+	 *
+	 * @param nome the name, or part of the name, of the account to retrieve
+	 * @param modo how the name is compared
+	 * @return the account found, or null if there is none
+	 */
+	@Override
+	@Transactional(propagation = Propagation.SUPPORTS)
+	public Conta obterContaPorNome(String nome, ModoBuscaNome modo) {
 	    if (nome == null) {
 	        logger.warn("Nome da conta não pode ser nulo");
+	        return null;
+	    }
+	    if (modo == ModoBuscaNome.TRECHO) {
+	        return buscarContaPorTrecho(nome);
+	    }
+	    if (!filtroContas.podeExistirNome(nome)) {
+	        return null;
 	    }
-	    return contaRepository.findByNomeIgnoreCaseLike(nome);
+	    return contaRepository.findByNomeNormalizado(NormalizadorNomes.normalizar(nome)).orElse(null);
+	}
+
+	/**
+	 * Looks the text up in the {@link IndiceNomes} and reads only the matching accounts, falling
+	 * back to the {@code LIKE} query for texts too short for the index.
+	 */
+	private Conta buscarContaPorTrecho(String nome) {
+		List<Conta> contas;
+		if (!indiceNomes.cobre(nome)) {
+			contas = contaRepository.findByNomeIgnoreCaseLike(nome);
+		} else {
+			List<Long> ids = indiceNomes.contasComNome(nome);
+			contas = ids.isEmpty() ? Collections.emptyList() : contaRepository.findByIdInAndNomeIgnoreCaseLike(ids, nome);
+		}
+		return contas.isEmpty() ? null : contas.get(0);
 	}
 
 	/**
@@ -182,57 +275,108 @@ public class ContaServiceImpl implements ContaService {
 	 * @throws IllegalArgumentException   If the source or destination account IDs are null.
 	 * @throws ContaNotFoundException     If either the source or destination account is not found.
 	 * @throws SaldoInsuficienteException If the source account does not have sufficient balance to perform the transfer.
+	 * @throws ConflitoConcorrenciaException If concurrent updates kept winning until the retries ran out.
 	 */
 	@Override
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
 	public void transferir(Long idContaOrigem, Long idContaDestino, double valor, Operation tipo) throws IllegalArgumentException, ContaNotFoundException, SaldoInsuficienteException {
 	    if (idContaOrigem == null || idContaDestino == null) {
 	        logger.warn("IDs das contas inválidos: os IDs não podem ser nulos.");
 	    }
-	    if (valor <= 0) {
+	    Dinheiro quantia = Dinheiro.de(valor);
+	    if (!quantia.ehPositivo()) {
 	    	logger.warn("Valor inválido: o valor deve ser maior que zero.");
+	    	return;
 	    }
-	    Conta contaOrigem = obterContaPorId(idContaOrigem);
-	    Conta contaDestino = obterContaPorId(idContaDestino);
 	    try {
-	        if (contaOrigem.getSaldo() >= valor) {
-	            // Atualizar o saldo da conta de origem
-	            double novoSaldoOrigem = contaOrigem.getSaldo() - valor;
-	            contaOrigem.setSaldo(novoSaldoOrigem);
-
-	            // Atualizar o saldo da conta de destino
-	            double novoSaldoDestino = contaDestino.getSaldo() + valor;
-	            contaDestino.setSaldo(novoSaldoDestino);
-
-	            // Criar a transferência
-	            Transferencia transferencia = new Transferencia();
-	            transferencia.setDataTransferencia(ZonedDateTime.now(ZoneId.of("America/Sao_Paulo")).withNano(0));
-	            transferencia.setValor(valor);
-	            transferencia.setTipo(tipo);
-	            transferencia.setConta(contaOrigem);
-	            transferencia.setContaDestino(contaDestino);
-	            transferencia.setNomeOperadorTransacao(contaDestino.getNome());
-
-	            // Adicionar a transferência à lista de transferências da conta de origem
-	            contaOrigem.adicionarTransferencia(transferencia);
-
-	            // Salvar as alterações no banco de dados
-	            contaRepository.save(contaOrigem);
-	            contaRepository.save(contaDestino);
-	        } else {
-	            throw new SaldoInsuficienteException("Saldo insuficiente na conta de origem para realizar a transferência.");
-	        }
+	        controleConcorrencia.executar(() -> {
+	            if (controleConcorrencia.getEstrategia() == EstrategiaConcorrencia.ATOMICA) {
+	                transferirAtomico(idContaOrigem, idContaDestino, quantia, tipo);
+	                return;
+	            }
+	            Conta[] contas = controleConcorrencia.carregarPar(idContaOrigem, idContaDestino);
+	            Conta contaOrigem = contas[0];
+	            Conta contaDestino = contas[1];
+	            if (!contaOrigem.getSaldo().menorQue(quantia)) {
+	                // Atualizar o saldo da conta de origem
+	                contaOrigem.setSaldo(contaOrigem.getSaldo().subtrair(quantia));
+
+	                // Atualizar o saldo da conta de destino
+	                contaDestino.setSaldo(contaDestino.getSaldo().somar(quantia));
+
+	                // Checkpoints em ordem crescente de id, como o carregamento das contas
+	                if (idContaOrigem.compareTo(idContaDestino) <= 0) {
+	                    checkpointSaldos.registrar(idContaOrigem, contaOrigem.getSaldo());
+	                    checkpointSaldos.registrar(idContaDestino, contaDestino.getSaldo());
+	                } else {
+	                    checkpointSaldos.registrar(idContaDestino, contaDestino.getSaldo());
+	                    checkpointSaldos.registrar(idContaOrigem, contaOrigem.getSaldo());
+	                }
+	                cacheContas.invalidar(Arrays.asList(idContaOrigem, idContaDestino));
+
+	                // Registrar a transferência na conta de origem, com o nome do destino como operador
+	                transferenciaRepository.registrar(idContaOrigem, ZonedDateTime.now(ZoneId.of("America/Sao_Paulo")).withNano(0),
+	                        quantia.paraBigDecimal(), tipo.name(), contaDestino.getNome());
+	            } else {
+	                throw new SaldoInsuficienteException("Saldo insuficiente na conta de origem para realizar a transferência.");
+	            }
+	        });
 		} catch (ContaNotFoundException e) {
 	        logger.error("Conta não encontrada: {}", e.getMessage());
 	        throw e;
 	    } catch (SaldoInsuficienteException e) {
 	        logger.error("Saldo insuficiente para transferência: {}", e.getMessage());
 	        throw e;
+	    } catch (ConflitoConcorrenciaException e) {
+	        logger.error("Conflito de concorrência na transferência: {}", e.getMessage());
+	        throw e;
 	    } catch (Exception e) {
 	        logger.error("Erro ao transferir valor entre contas: {}", e.getMessage());
 	        throw new ContaException("Erro ao transferir valor entre contas.", e);
 	    }
 	}
     
+	/**
+	 * Transfers funds with two guarded UPDATEs and one INSERT, without loading either account.
+	 * The rows are touched in ascending id order, like the other strategies, so opposite
+	 * transfers cannot deadlock; a failed debit rolls back a credit that already ran.
+	 */
+	private void transferirAtomico(Long idContaOrigem, Long idContaDestino, Dinheiro valor, Operation tipo) {
+		String mensagem = "Saldo insuficiente na conta de origem para realizar a transferência.";
+		if (idContaOrigem.compareTo(idContaDestino) <= 0) {
+			debitarAtomico(idContaOrigem, valor, mensagem);
+			creditarAtomico(idContaDestino, valor);
+		} else {
+			creditarAtomico(idContaDestino, valor);
+			debitarAtomico(idContaOrigem, valor, mensagem);
+		}
+		transferenciaRepository.registrarComOperadorDaConta(idContaOrigem, idContaDestino,
+				ZonedDateTime.now(ZoneId.of("America/Sao_Paulo")).withNano(0), valor.paraBigDecimal(), tipo.name());
+	}
+
+	/**
+	 * Debits the account only if the balance covers the amount. The existence check only
+	 * runs when the UPDATE matched no row, to tell a missing account from a low balance.
+	 */
+	private void debitarAtomico(Long idConta, Dinheiro valor, String mensagemSaldoInsuficiente) {
+		if (contaRepository.debitar(idConta, valor.paraBigDecimal()) == 0) {
+			if (!contaRepository.existsById(idConta)) {
+				throw new ContaNotFoundException("Conta não encontrada para o ID: " + idConta);
+			}
+			throw new SaldoInsuficienteException(mensagemSaldoInsuficiente);
+		}
+		checkpointSaldos.registrarSaldoAtual(idConta);
+		cacheContas.invalidarComSegundoNivel(idConta);
+	}
+
+	private void creditarAtomico(Long idConta, Dinheiro valor) {
+		if (contaRepository.creditar(idConta, valor.paraBigDecimal()) == 0) {
+			throw new ContaNotFoundException("Conta não encontrada para o ID: " + idConta);
+		}
+		checkpointSaldos.registrarSaldoAtual(idConta);
+		cacheContas.invalidarComSegundoNivel(idConta);
+	}
+    
 	/**
 	 * 
 	 * Retrieves a list of transfers within a specified period for a given name.
@@ -240,10 +384,10 @@ public class ContaServiceImpl implements ContaService {
 	 * @param dataInicio The start date of the period.
 	 * @param dataFim    The end date of the period.
 	 * @param nome       The name associated with the transfers.
-	 * @return A list of Transferencia objects matching the specified criteria.
+	 * @return The transfers of the accounts whose holder name contains the name, in date order.
 	 */
 	@Override
-	public List<Transferencia> buscarTransacoesPorPeriodoENome(ZonedDateTime dataInicio, ZonedDateTime dataFim, String nome) {
+	public List<TransferenciaDto> buscarTransacoesPorPeriodoENome(ZonedDateTime dataInicio, ZonedDateTime dataFim, String nome) {
 	    if (dataInicio == null || dataFim == null) {
 	    	logger.warn("Datas de início e fim devem ser fornecidas");
 	    	return Collections.emptyList();
@@ -254,7 +398,8 @@ public class ContaServiceImpl implements ContaService {
 	    }
 	    ZonedDateTime dataInicioCompleta = dataInicio.toLocalDate().atStartOfDay(dataInicio.getZone());
 	    ZonedDateTime dataFimCompleta = dataFim.toLocalDate().atTime(LocalTime.MAX).atZone(dataFim.getZone());
-	    return transferenciaRepository.findByPeriodoENome(dataInicioCompleta, dataFimCompleta, nome);
+	    List<Long> ids = contasComNome(nome, true);
+	    return ids.isEmpty() ? Collections.emptyList() : transferenciaRepository.buscarPorContas(ids, dataInicioCompleta, dataFimCompleta);
 	}
     
 	/**
@@ -262,35 +407,68 @@ public class ContaServiceImpl implements ContaService {
 	 * Retrieves a list of transfers for a given name.
 	 * 
 	 * @param nome The name associated with the transfers.
-	 * @return A list of Transferencia objects matching the specified name.
+	 * @return The transfers of the accounts whose holder name contains the name, in date order.
 	 */
 	@Override
-	public List<Transferencia> buscarTransacoesPorNome(String nome) {
+	public List<TransferenciaDto> buscarTransacoesPorNome(String nome) {
 	    if (nome == null) {
 	    	logger.warn("Nome não pode ser nulo");
 	    }
-	    return transferenciaRepository.findByNome(nome);
+	    List<Long> ids = contasComNome(nome, false);
+	    return ids.isEmpty() ? Collections.emptyList() : transferenciaRepository.buscarPorContas(ids, null, null);
+	}
+
+	/**
+	 * Resolves a name to the ids of the accounts whose holder name contains it, so the transfers
+	 * are then read by account instead of joining every transfer to its account.
+	 *
+	 * @param nome the name, or part of the name, of the holder
+	 * @param ignorarMaiusculas whether the comparison ignores case
+	 * @return the ids of the matching accounts, in ascending order
+	 */
+	private List<Long> contasComNome(String nome, boolean ignorarMaiusculas) {
+		if (nome == null) {
+			return Collections.emptyList();
+		}
+		// Trechos curtos nao passam pelo indice de trigramas: o LIKE fica na tabela conta, que e pequena.
+		if (!indiceNomes.cobre(nome)) {
+			return ignorarMaiusculas ? contaRepository.findIdsByNomeIgnoreCaseLike(nome) : contaRepository.findIdsByNomeLike(nome);
+		}
+		List<Long> ids = indiceNomes.contasComNome(nome);
+		return ignorarMaiusculas || ids.isEmpty() ? ids : contaRepository.findIdsByIdInAndNomeLike(ids, nome);
 	}
 
 	/**
-	 * Calculates the total balance for an account with the specified name.
+	 * Calculates the total balance for an account with exactly the specified name.
 	 * 
 	 * @param nome The name associated with the account.
 	 * @return The total balance of the account.
 	 */
     @Override
     public double calcularSaldoTotalPorNome(String nome) {
+        return calcularSaldoTotalPorNome(nome, ModoBuscaNome.EXATO);
+    }
+
+	/**
+	 * Calculates the total balance for the account found by {@link #obterContaPorNome(String, ModoBuscaNome)}.
+	 * 
+	 * @param nome The name, or part of the name, associated with the account.
+	 * @param modo How the name is compared.
+	 * @return The total balance of the account.
+	 */
+    @Override
+    public double calcularSaldoTotalPorNome(String nome, ModoBuscaNome modo) {
         if (nome == null) {
             logger.warn("Esse nome não foi encontrado.");
         }
         try {
-            Conta conta = obterContaPorNome(nome);
+            Conta conta = obterContaPorNome(nome, modo);
             if (conta == null) {
                 logger.warn("Essa conta não foi encontrada.");
                 return 0.0;
             }
 
-            return conta.getSaldo();
+            return conta.getSaldo().doubleValue();
         } catch (ContaNotFoundException e) {
             logger.warn("Conta não encontrada para o nome '{}'", nome);
             return 0.0;
@@ -311,42 +489,59 @@ public class ContaServiceImpl implements ContaService {
 	 */
 	@Override
     public double calcularSaldoPeriodoPorNome(ZonedDateTime dataInicio, ZonedDateTime dataFim, String nome) {
-        List<Transferencia> transacoes;
+        List<TransferenciaDto> transacoes;
         if (dataInicio == null && dataFim == null) {
             transacoes = buscarTransacoesPorNome(nome);
         } else {
             transacoes = buscarTransacoesPorPeriodoENome(dataInicio, dataFim, nome);
         }
-        double saldoPeriodo = 0.0;
+        // Soma exata em centavos: nao ha arredondamento a desfazer no final.
+        long saldoPeriodo = 0;
 
-        for (Transferencia transferencia : transacoes) {
+        for (TransferenciaDto transferencia : transacoes) {
             Operation tipoOperacao = transferencia.getTipo();
-            double valorOperacao = transferencia.getValor();
+            long valorOperacao = transferencia.getValor().getCentavos();
 
             switch (tipoOperacao) {
                 case DEPOSITO:
                 case TRANSF_ENTRADA:
-                    saldoPeriodo += valorOperacao;
+                    saldoPeriodo = Math.addExact(saldoPeriodo, valorOperacao);
                     break;
                 case SAQUE:
                 case TRANSF_SAIDA:
-                    saldoPeriodo -= valorOperacao;
+                    saldoPeriodo = Math.subtractExact(saldoPeriodo, valorOperacao);
                     break;
                 case TRANSFERENCIA:
-                    saldoPeriodo += valorOperacao; // ou -= valorOperacao, dependendo do fluxo desejado
+                    saldoPeriodo = Math.addExact(saldoPeriodo, valorOperacao); // ou subtrair, dependendo do fluxo desejado
                     break;
                 default:
                     break;
             }
         }
 
-        // Formatar o valor com duas casas decimais
-        DecimalFormat decimalFormat = new DecimalFormat("#.##");
-        String saldoPeriodoFormatado = decimalFormat.format(saldoPeriodo);
-        saldoPeriodo = Double.parseDouble(saldoPeriodoFormatado);
-
-        return saldoPeriodo;
+        return Dinheiro.deCentavos(saldoPeriodo).doubleValue();
     }
+
+	/**
+	 * Returns the balance of the account at the end of the given day, read from the closing
+	 * balance checkpoints instead of summing its transfers.
+	 *
+	 * @param idConta the ID of the account
+	 * @param dia the day, in the America/Sao_Paulo calendar
+	 * @return the balance at the end of that day; 0 before the first change of the balance
+	 * @throws ContaNotFoundException if the account with the given ID is not found
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public double calcularSaldoEm(Long idConta, LocalDate dia) {
+		if (idConta == null || !cacheContas.existe(idConta)) {
+			throw new ContaNotFoundException("Conta não encontrada para o ID: " + idConta);
+		}
+		if (dia == null) {
+			throw new IllegalArgumentException("A data deve ser fornecida.");
+		}
+		return checkpointSaldos.saldoEm(idConta, dia);
+	}
     
 	/**
 	 * Creates an error response with the specified error message.
@@ -371,16 +566,33 @@ public class ContaServiceImpl implements ContaService {
 		if (nome == null) {
 			logger.warn("Nome não pode ser nulo");
 		}
-        Conta conta = contaRepository.findByNomeIgnoreCaseLike(nome);
+        Conta conta = buscarContaPorTrecho(nome);
         return conta != null;
     }
     
 	/**
-	 * Checks if an account exists with the specified ID.
+	 * Checks if an account exists with exactly the specified name, ignoring case, accents and
+	 * repeated spaces. Names the {@link FiltroContas} has never seen are answered without a query.
+	 *
+	 * @param nome The name to check.
+	 * @return True if an account with the specified name exists, false otherwise.
+	 */
+	@Transactional(propagation = Propagation.SUPPORTS)
+	public boolean hasContaByNomeExato(String nome) {
+		if (nome == null || nome.isBlank()) {
+			return false;
+		}
+		return filtroContas.podeExistirNome(nome) && contaRepository.existsByNomeNormalizado(NormalizadorNomes.normalizar(nome));
+	}
+
+	/**
+	 * Checks if an account exists with the specified ID. Ids the {@link FiltroContas} has never
+	 * seen are answered without a query; the others by the {@link CacheContas}.
 	 * 
 	 * @param id The ID to check.
 	 * @return True if an account with the specified ID exists, false otherwise.
 	 */
+	@Transactional(propagation = Propagation.SUPPORTS)
 	public boolean hasConta(Long id) {
 		if (id == null) {
 			logger.warn("O Id não pode ser nulo");
@@ -390,9 +602,61 @@ public class ContaServiceImpl implements ContaService {
 			logger.warn("O Id deve ser um número positivo.");
 			return false;
 		}
-        return contaRepository.existsById(id);
+        return filtroContas.podeExistir(id) && cacheContas.existe(id);
     }
 
+	/**
+	 * Applies a batch of deposits, withdrawals and transfers. Every item is checked with
+	 * {@link #validarParametros}; the valid ones are applied in chunked transactions and
+	 * the invalid ones are reported without stopping the batch.
+	 *
+	 * @param itens the operations of the batch, in the order they must be applied
+	 * @return one result per item, in the same order
+	 * @throws IllegalArgumentException if the batch is empty or larger than the configured maximum
+	 */
+	@Override
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public ResultadoLoteDto processarLote(List<ItemLoteDto> itens) {
+		ResultadoItemLoteDto[] resultados = new ResultadoItemLoteDto[validarTamanhoLote(itens)];
+		List<Integer> validos = validarItensLote(itens, resultados);
+		processadorLote.aplicar(itens, validos, resultados);
+		logger.info("Lote processado: {} itens, {} enviados para aplicação.", itens.size(), validos.size());
+		return new ResultadoLoteDto(Arrays.asList(resultados));
+	}
+
+	public int validarTamanhoLote(List<ItemLoteDto> itens) {
+		if (itens == null || itens.isEmpty()) {
+			throw new IllegalArgumentException("O lote deve ter ao menos um item.");
+		}
+		if (itens.size() > processadorLote.getMaximoItens()) {
+			throw new IllegalArgumentException("O lote deve ter no máximo " + processadorLote.getMaximoItens() + " itens.");
+		}
+		return itens.size();
+	}
+
+	/**
+	 * Rejects the invalid items in {@code resultados} and returns the positions of the valid ones.
+	 * Deposits and withdrawals are validated with the account as both source and destination.
+	 */
+	public List<Integer> validarItensLote(List<ItemLoteDto> itens, ResultadoItemLoteDto[] resultados) {
+		List<Integer> validos = new ArrayList<>(itens.size());
+		for (int i = 0; i < itens.size(); i++) {
+			ItemLoteDto item = itens.get(i);
+			if (item == null) {
+				resultados[i] = ResultadoItemLoteDto.rejeitado(i, "Item do lote não pode ser nulo.");
+				continue;
+			}
+			try {
+				Long idContaDestino = item.isTransferencia() ? item.getIdContaDestino() : item.getIdConta();
+				validarParametros(item.getIdConta(), idContaDestino, item.getValor(), item.getTipo());
+				validos.add(i);
+			} catch (IllegalArgumentException e) {
+				resultados[i] = ResultadoItemLoteDto.rejeitado(i, e.getMessage());
+			}
+		}
+		return validos;
+	}
+
 	/**
 	 * Validates the parameters for a transfer operation.
 	 * 
@@ -406,7 +670,7 @@ public class ContaServiceImpl implements ContaService {
 		if (idContaOrigem == null || idContaDestino == null) {
 			throw new IllegalArgumentException("IDs das contas de origem e destino devem ser fornecidos.");
 		}
-		if (valor <= 0) {
+		if (!Dinheiro.de(valor).ehPositivo()) {
 			throw new IllegalArgumentException("O valor da transferência deve ser maior que zero.");
 		}
 		if (tipo == null) {
@@ -0,0 +1,252 @@
+package br.com.banco.services;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import br.com.banco.dtos.TransferenciaDto;
+import br.com.banco.dtos.ItemLoteDto;
+import br.com.banco.dtos.ResultadoItemLoteDto;
+import br.com.banco.dtos.ResultadoLoteDto;
+import br.com.banco.entities.Conta;
+import br.com.banco.entities.Dinheiro;
+import br.com.banco.entities.Transferencia;
+import br.com.banco.enums.ModoBuscaNome;
+import br.com.banco.enums.Operation;
+import br.com.banco.exceptions.ContaException;
+import br.com.banco.exceptions.ContaNotFoundException;
+import br.com.banco.exceptions.SaldoInsuficienteException;
+import br.com.banco.services.motor.MotorLancamentos;
+
+/**
+ * {@link ContaService} used when the ledger engine is enabled. Balance changes go through
+ * {@link MotorLancamentos} and return once they are durable; everything else is delegated to
+ * {@link ContaServiceImpl}. Callers that can pipeline requests should use the futures of
+ * {@link MotorLancamentos} directly.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "banco.conta.motor.habilitado", havingValue = "true")
+public class ContaServiceMotor implements ContaService {
+
+	private static final Logger logger = LoggerFactory.getLogger(ContaServiceMotor.class);
+
+	private final ContaServiceImpl contaService;
+
+	private final MotorLancamentos motor;
+
+	private final Duration esperaMaxima;
+
+	public ContaServiceMotor(ContaServiceImpl contaService, MotorLancamentos motor,
+			@Value("${banco.conta.motor.espera-maxima:30s}") Duration esperaMaxima) {
+		this.contaService = contaService;
+		this.motor = motor;
+		this.esperaMaxima = esperaMaxima;
+	}
+
+	/**
+	 * Creates the account in the database and registers it in the engine.
+	 */
+	@Override
+	public Conta criarConta(String nome) {
+		Conta conta = contaService.criarConta(nome);
+		aguardar(motor.registrarConta(conta.getId(), conta.getSaldo().doubleValue()));
+		return conta;
+	}
+
+	/**
+	 * Deposits the amount through the engine.
+	 *
+	 * @throws ContaNotFoundException if the account with the given ID is not found
+	 * @throws ContaException if the deposit could not be written
+	 */
+	@Override
+	public void depositar(Long idConta, double valor) {
+		if (idConta == null) {
+			logger.warn("ID da conta inválido: o ID não pode ser nulo.");
+			return;
+		}
+		if (!Dinheiro.de(valor).ehPositivo()) {
+			logger.warn("Valor inválido: o valor deve ser maior que zero.");
+			return;
+		}
+		aguardar(motor.depositar(idConta, valor));
+	}
+
+	/**
+	 * Withdraws the amount through the engine.
+	 *
+	 * @throws ContaNotFoundException if the account with the given ID is not found
+	 * @throws SaldoInsuficienteException if the account balance is insufficient for the withdrawal
+	 * @throws ContaException if the withdrawal could not be written
+	 */
+	@Override
+	public void sacar(Long idConta, double valor) {
+		if (!Dinheiro.de(valor).ehPositivo()) {
+			logger.warn("Valor inválido: o valor deve ser maior que zero.");
+			return;
+		}
+		aguardar(motor.sacar(idConta, valor));
+	}
+
+	/**
+	 * Transfers the amount through the engine.
+	 *
+	 * @throws ContaNotFoundException if either account is not found
+	 * @throws SaldoInsuficienteException if the source account does not have sufficient balance
+	 * @throws ContaException if the transfer could not be written
+	 */
+	@Override
+	public void transferir(Long idContaOrigem, Long idContaDestino, double valor, Operation tipo) {
+		if (!Dinheiro.de(valor).ehPositivo()) {
+			logger.warn("Valor inválido: o valor deve ser maior que zero.");
+			return;
+		}
+		aguardar(motor.transferir(idContaOrigem, idContaDestino, valor, tipo));
+	}
+
+	/**
+	 * Validates the batch like {@link ContaServiceImpl#processarLote} and publishes every valid
+	 * item to the engine at once; the engine already writes them in batches.
+	 */
+	@Override
+	public ResultadoLoteDto processarLote(List<ItemLoteDto> itens) {
+		ResultadoItemLoteDto[] resultados = new ResultadoItemLoteDto[contaService.validarTamanhoLote(itens)];
+		List<Integer> validos = contaService.validarItensLote(itens, resultados);
+		List<CompletableFuture<Long>> pendentes = new ArrayList<>(validos.size());
+		for (Integer indice : validos) {
+			ItemLoteDto item = itens.get(indice);
+			switch (item.getTipo()) {
+			case DEPOSITO:
+				pendentes.add(motor.depositar(item.getIdConta(), item.getValor()));
+				break;
+			case SAQUE:
+				pendentes.add(motor.sacar(item.getIdConta(), item.getValor()));
+				break;
+			default:
+				pendentes.add(motor.transferir(item.getIdConta(), item.getIdContaDestino(), item.getValor(), item.getTipo()));
+			}
+		}
+		// Um so prazo para o lote inteiro: os itens foram publicados juntos.
+		long limite = System.nanoTime() + esperaMaxima.toNanos();
+		for (int i = 0; i < validos.size(); i++) {
+			int indice = validos.get(i);
+			try {
+				aguardar(pendentes.get(i), limite);
+				resultados[indice] = ResultadoItemLoteDto.aplicado(indice);
+			} catch (RuntimeException e) {
+				resultados[indice] = ResultadoItemLoteDto.rejeitado(indice, e.getMessage());
+			}
+		}
+		return new ResultadoLoteDto(Arrays.asList(resultados));
+	}
+
+	@Override
+	public boolean hasConta(Long id) {
+		return contaService.hasConta(id);
+	}
+
+	@Override
+	public Conta obterContaPorNome(String nome) {
+		return contaService.obterContaPorNome(nome);
+	}
+
+	@Override
+	public Conta obterContaPorNome(String nome, ModoBuscaNome modo) {
+		return contaService.obterContaPorNome(nome, modo);
+	}
+
+	@Override
+	public Conta obterContaPorId(Long id) {
+		return contaService.obterContaPorId(id);
+	}
+
+	@Override
+	public boolean hasContaByName(String nome) {
+		return contaService.hasContaByName(nome);
+	}
+
+	@Override
+	public boolean hasContaByNomeExato(String nome) {
+		return contaService.hasContaByNomeExato(nome);
+	}
+
+	@Override
+	public double calcularSaldoTotalPorNome(String nome) {
+		return contaService.calcularSaldoTotalPorNome(nome);
+	}
+
+	@Override
+	public double calcularSaldoTotalPorNome(String nome, ModoBuscaNome modo) {
+		return contaService.calcularSaldoTotalPorNome(nome, modo);
+	}
+
+	@Override
+	public List<TransferenciaDto> buscarTransacoesPorNome(String nome) {
+		return contaService.buscarTransacoesPorNome(nome);
+	}
+
+	@Override
+	public Map<String, Object> createErrorResponse(String errorMessage) {
+		return contaService.createErrorResponse(errorMessage);
+	}
+
+	@Override
+	public void validarParametros(Long idContaOrigem, Long idContaDestino, double valor, Operation tipo) {
+		contaService.validarParametros(idContaOrigem, idContaDestino, valor, tipo);
+	}
+
+	@Override
+	public double calcularSaldoPeriodoPorNome(ZonedDateTime dataInicio, ZonedDateTime dataFim, String nome) {
+		return contaService.calcularSaldoPeriodoPorNome(dataInicio, dataFim, nome);
+	}
+
+	@Override
+	public double calcularSaldoEm(Long idConta, LocalDate dia) {
+		return contaService.calcularSaldoEm(idConta, dia);
+	}
+
+	@Override
+	public List<TransferenciaDto> buscarTransacoesPorPeriodoENome(ZonedDateTime dataInicio, ZonedDateTime dataFim, String nome) {
+		return contaService.buscarTransacoesPorPeriodoENome(dataInicio, dataFim, nome);
+	}
+
+	private void aguardar(CompletableFuture<Long> resultado) {
+		aguardar(resultado, System.nanoTime() + esperaMaxima.toNanos());
+	}
+
+	/**
+	 * Waits for the command until the deadline, from {@link System#nanoTime}, and rethrows the
+	 * exception it failed with. A command that times out may still be applied later.
+	 */
+	private static void aguardar(CompletableFuture<Long> resultado, long limite) {
+		try {
+			resultado.get(Math.max(0L, limite - System.nanoTime()), TimeUnit.NANOSECONDS);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new ContaException("Erro ao aplicar o lançamento.", e.getCause());
+		} catch (TimeoutException e) {
+			throw new ContaException("O motor de lançamentos não respondeu a tempo.", e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ContaException("Interrompido aguardando o motor de lançamentos.", e);
+		}
+	}
+}
@@ -0,0 +1,178 @@
+package br.com.banco.services;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.banco.entities.Conta;
+import br.com.banco.enums.EstrategiaConcorrencia;
+import br.com.banco.exceptions.ConflitoConcorrenciaException;
+import br.com.banco.exceptions.ContaNotFoundException;
+import br.com.banco.repositories.ContaRepository;
+
+/**
+ * Runs balance-changing operations under the configured concurrency strategy.
+ *
+ * OTIMISTA relies on the {@code @Version} column of {@link Conta} and retries the whole
+ * transaction when a concurrent update wins. PESSIMISTA locks the rows with
+ * {@code SELECT ... FOR UPDATE}. ATOMICA skips entity loading and changes the balance with
+ * a single guarded UPDATE per account. In every mode the rows of a transfer are touched in
+ * ascending id order, so two opposite transfers never wait on each other in a cycle.
+ */
+@Component
+public class ControleConcorrenciaConta {
+
+	private static final Logger logger = LoggerFactory.getLogger(ControleConcorrenciaConta.class);
+
+	private static final long ESPERA_BASE_MILLIS = 2;
+
+	private final ContaRepository contaRepository;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final int maxTentativas;
+
+	private volatile EstrategiaConcorrencia estrategia;
+
+	private final LongAdder operacoes = new LongAdder();
+
+	private final LongAdder conflitos = new LongAdder();
+
+	private final LongAdder retentativas = new LongAdder();
+
+	private final LongAdder falhas = new LongAdder();
+
+	public ControleConcorrenciaConta(ContaRepository contaRepository, PlatformTransactionManager transactionManager,
+			@Value("${banco.conta.concorrencia.estrategia:ATOMICA}") EstrategiaConcorrencia estrategia,
+			@Value("${banco.conta.concorrencia.max-tentativas:5}") int maxTentativas) {
+		if (maxTentativas < 1) {
+			throw new IllegalArgumentException("O número máximo de tentativas deve ser maior que zero.");
+		}
+		this.contaRepository = contaRepository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.estrategia = estrategia;
+		this.maxTentativas = maxTentativas;
+	}
+
+	/**
+	 * Executes the operation in its own transaction, retrying it when it loses a
+	 * concurrent update (optimistic version check, lock timeout or deadlock).
+	 *
+	 * @param operacao the operation to run; it must be safe to execute again from scratch
+	 * @return the value returned by the operation
+	 * @throws ConflitoConcorrenciaException if every attempt ended in a conflict
+	 */
+	public <T> T executar(Supplier<T> operacao) {
+		operacoes.increment();
+		for (int tentativa = 1;; tentativa++) {
+			try {
+				return transactionTemplate.execute(status -> operacao.get());
+			} catch (ConcurrencyFailureException e) {
+				conflitos.increment();
+				if (tentativa >= maxTentativas) {
+					falhas.increment();
+					logger.warn("Conflito de concorrência não resolvido após {} tentativas: {}", tentativa, e.getMessage());
+					throw new ConflitoConcorrenciaException("Conflito de concorrência ao atualizar o saldo da conta.", e);
+				}
+				retentativas.increment();
+				aguardar(tentativa);
+			}
+		}
+	}
+
+	public void executar(Runnable operacao) {
+		executar(() -> {
+			operacao.run();
+			return null;
+		});
+	}
+
+	/**
+	 * Loads an account for update according to the current strategy. Must be called
+	 * inside {@link #executar(Supplier)}.
+	 *
+	 * @param id the ID of the account
+	 * @return the managed account
+	 * @throws ContaNotFoundException if the account does not exist
+	 */
+	public Conta carregar(Long id) {
+		return (estrategia == EstrategiaConcorrencia.PESSIMISTA ? contaRepository.findByIdParaAtualizacao(id) : contaRepository.findById(id))
+				.orElseThrow(() -> new ContaNotFoundException("Conta não encontrada para o ID: " + id));
+	}
+
+	/**
+	 * Loads the source and destination accounts of a transfer, always in ascending id order.
+	 *
+	 * @return an array with the source account at index 0 and the destination account at index 1
+	 * @throws ContaNotFoundException if either account does not exist
+	 */
+	public Conta[] carregarPar(Long idOrigem, Long idDestino) {
+		if (idOrigem.compareTo(idDestino) <= 0) {
+			Conta origem = carregar(idOrigem);
+			return new Conta[] { origem, carregar(idDestino) };
+		}
+		Conta destino = carregar(idDestino);
+		return new Conta[] { carregar(idOrigem), destino };
+	}
+
+	private void aguardar(int tentativa) {
+		try {
+			Thread.sleep(ThreadLocalRandom.current().nextLong(ESPERA_BASE_MILLIS * tentativa + 1));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ConflitoConcorrenciaException("Operação interrompida durante a retentativa.", e);
+		}
+	}
+
+	public EstrategiaConcorrencia getEstrategia() {
+		return estrategia;
+	}
+
+	public void setEstrategia(EstrategiaConcorrencia estrategia) {
+		this.estrategia = estrategia;
+	}
+
+	public int getMaxTentativas() {
+		return maxTentativas;
+	}
+
+	/**
+	 * Returns the counters collected since startup.
+	 *
+	 * @return a map with the strategy in use and the operation, conflict, retry and failure counts
+	 */
+	public Map<String, Object> estatisticas() {
+		Map<String, Object> estatisticas = new LinkedHashMap<>();
+		estatisticas.put("estrategia", estrategia);
+		estatisticas.put("maxTentativas", maxTentativas);
+		estatisticas.put("operacoes", operacoes.sum());
+		estatisticas.put("conflitos", conflitos.sum());
+		estatisticas.put("retentativas", retentativas.sum());
+		estatisticas.put("falhas", falhas.sum());
+		return estatisticas;
+	}
+
+	public long getConflitos() {
+		return conflitos.sum();
+	}
+
+	public long getRetentativas() {
+		return retentativas.sum();
+	}
+
+	public long getFalhas() {
+		return falhas.sum();
+	}
+}
@@ -0,0 +1,64 @@
+package br.com.banco.services;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Base64;
+
+import br.com.banco.dtos.TransferenciaDto;
+
+
+/**
+ * Position of a transfer in {@code (dataTransferencia, id)} order, handed to clients as an opaque
+ * continuation token. The token only holds the position: the filters of the listing must be sent
+ * again with it.
+ */
+public final class CursorTransferencia {
+
+	private final ZonedDateTime data;
+
+	private final Long id;
+
+	public CursorTransferencia(ZonedDateTime data, Long id) {
+		this.data = data;
+		this.id = id;
+	}
+
+	public static CursorTransferencia de(TransferenciaDto transferencia) {
+		return new CursorTransferencia(transferencia.getDataTransferencia(), transferencia.getId());
+	}
+
+	/**
+	 * Reads a token produced by {@link #codificar()}.
+	 *
+	 * @throws IllegalArgumentException if the token is malformed
+	 */
+	public static CursorTransferencia decodificar(String token) {
+		try {
+			String[] partes = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":");
+			if (partes.length != 3) {
+				throw new IllegalArgumentException("Cursor inválido: " + token);
+			}
+			Instant instante = Instant.ofEpochSecond(Long.parseLong(partes[0]), Long.parseLong(partes[1]));
+			return new CursorTransferencia(instante.atZone(ZoneOffset.UTC), Long.parseLong(partes[2]));
+		} catch (IllegalArgumentException | DateTimeException e) {
+			throw new IllegalArgumentException("Cursor inválido: " + token, e);
+		}
+	}
+
+	public String codificar() {
+		Instant instante = data.toInstant();
+		String posicao = instante.getEpochSecond() + ":" + instante.getNano() + ":" + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(posicao.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public ZonedDateTime getData() {
+		return data;
+	}
+
+	public Long getId() {
+		return id;
+	}
+}
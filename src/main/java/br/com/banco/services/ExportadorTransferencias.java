@@ -0,0 +1,77 @@
+package br.com.banco.services;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.banco.dtos.TransferenciaDto;
+import br.com.banco.repositories.TransferenciaRepository;
+
+/**
+ * Writes every transfer as newline-delimited JSON, one object per line, reading them through a
+ * database cursor. Rows are projected straight into {@link TransferenciaDto}, so nothing is kept in
+ * the persistence context and the heap used does not grow with the size of the table.
+ */
+@Component
+public class ExportadorTransferencias {
+
+	private static final Logger logger = LoggerFactory.getLogger(ExportadorTransferencias.class);
+
+	static final int BLOCO = 500;
+
+	private static final int TAMANHO_BUFFER = 64 * 1024;
+
+	private final TransferenciaRepository transferenciaRepository;
+
+	private final ObjectMapper objectMapper;
+
+	private final TransactionTemplate transactionTemplate;
+
+	public ExportadorTransferencias(TransferenciaRepository transferenciaRepository, ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+		this.transferenciaRepository = transferenciaRepository;
+		this.objectMapper = objectMapper;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.transactionTemplate.setReadOnly(true);
+	}
+
+	/**
+	 * Writes all transfers to the stream, in id order. The stream is flushed but not closed.
+	 *
+	 * @return the number of transfers written
+	 * @throws UncheckedIOException if writing to the stream fails, e.g. because the client disconnected
+	 */
+	public long exportar(OutputStream saida) {
+		BufferedOutputStream buffer = new BufferedOutputStream(saida, TAMANHO_BUFFER);
+		Long total = transactionTemplate.execute(status -> {
+			long escritas = 0;
+			try (Stream<TransferenciaDto> transferencias = transferenciaRepository.streamAll()) {
+				Iterator<TransferenciaDto> iterador = transferencias.iterator();
+				while (iterador.hasNext()) {
+					buffer.write(objectMapper.writeValueAsBytes(iterador.next()));
+					buffer.write('\n');
+					if (++escritas % BLOCO == 0) {
+						// Entrega o bloco ao cliente.
+						buffer.flush();
+					}
+				}
+				buffer.flush();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			return escritas;
+		});
+		logger.info("Exportação de transferências concluída: {} linhas.", total);
+		return total;
+	}
+}
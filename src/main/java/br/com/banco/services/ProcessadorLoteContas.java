@@ -0,0 +1,168 @@
+package br.com.banco.services;
+
+import java.math.BigDecimal;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.banco.dtos.ItemLoteDto;
+import br.com.banco.dtos.ResultadoItemLoteDto;
+import br.com.banco.entities.Conta;
+import br.com.banco.entities.Dinheiro;
+import br.com.banco.entities.Transferencia;
+import br.com.banco.enums.Operation;
+import br.com.banco.repositories.ContaRepository;
+import br.com.banco.repositories.TransferenciaRepository;
+
+/**
+ * Applies an already validated batch of deposits, withdrawals and transfers in chunks, one
+ * transaction per chunk.
+ *
+ * Each chunk locks the accounts it touches with a single {@code SELECT ... FOR UPDATE} in
+ * ascending id order and applies the items in memory, so an item that fails its checks is
+ * rejected without touching anything and does not roll back the rest of the chunk. The
+ * balance updates and the new transfer rows are flushed together at commit, where
+ * {@code hibernate.jdbc.batch_size} groups them into JDBC batches; the closing balance
+ * checkpoints of the chunk go in one more batch.
+ */
+@Component
+public class ProcessadorLoteContas {
+
+	private static final Logger logger = LoggerFactory.getLogger(ProcessadorLoteContas.class);
+
+	private final ContaRepository contaRepository;
+
+	private final TransferenciaRepository transferenciaRepository;
+
+	private final CheckpointSaldos checkpointSaldos;
+
+	private final CacheContas cacheContas;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final int tamanhoBloco;
+
+	private final int maximoItens;
+
+	public ProcessadorLoteContas(ContaRepository contaRepository, TransferenciaRepository transferenciaRepository,
+			CheckpointSaldos checkpointSaldos, CacheContas cacheContas, PlatformTransactionManager transactionManager,
+			@Value("${banco.conta.lote.tamanho-bloco:500}") int tamanhoBloco,
+			@Value("${banco.conta.lote.maximo-itens:50000}") int maximoItens) {
+		if (tamanhoBloco < 1) {
+			throw new IllegalArgumentException("O tamanho do bloco deve ser maior que zero.");
+		}
+		this.contaRepository = contaRepository;
+		this.transferenciaRepository = transferenciaRepository;
+		this.checkpointSaldos = checkpointSaldos;
+		this.cacheContas = cacheContas;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.tamanhoBloco = tamanhoBloco;
+		this.maximoItens = maximoItens;
+	}
+
+	/**
+	 * Applies the items at the given positions, filling their results.
+	 *
+	 * @param itens the whole batch
+	 * @param validos the positions of the items that passed validation, in order
+	 * @param resultados the results of the batch, indexed like {@code itens}
+	 */
+	public void aplicar(List<ItemLoteDto> itens, List<Integer> validos, ResultadoItemLoteDto[] resultados) {
+		for (int inicio = 0; inicio < validos.size(); inicio += tamanhoBloco) {
+			List<Integer> bloco = validos.subList(inicio, Math.min(inicio + tamanhoBloco, validos.size()));
+			try {
+				transactionTemplate.executeWithoutResult(status -> aplicarBloco(itens, bloco, resultados));
+			} catch (RuntimeException e) {
+				logger.error("Erro ao gravar bloco do lote a partir do item {}: {}", bloco.get(0), e.getMessage());
+				for (Integer indice : bloco) {
+					resultados[indice] = ResultadoItemLoteDto.rejeitado(indice, "Erro ao gravar o bloco do lote.");
+				}
+			}
+		}
+	}
+
+	public int getTamanhoBloco() {
+		return tamanhoBloco;
+	}
+
+	public int getMaximoItens() {
+		return maximoItens;
+	}
+
+	private void aplicarBloco(List<ItemLoteDto> itens, List<Integer> bloco, ResultadoItemLoteDto[] resultados) {
+		Set<Long> ids = new TreeSet<>();
+		for (Integer indice : bloco) {
+			ItemLoteDto item = itens.get(indice);
+			ids.add(item.getIdConta());
+			if (item.isTransferencia()) {
+				ids.add(item.getIdContaDestino());
+			}
+		}
+		Map<Long, Conta> contas = contaRepository.findAllByIdParaAtualizacao(ids).stream()
+				.collect(Collectors.toMap(Conta::getId, Function.identity()));
+		ZonedDateTime agora = ZonedDateTime.now(ZoneId.of("America/Sao_Paulo")).withNano(0);
+		for (Integer indice : bloco) {
+			resultados[indice] = aplicarItem(indice, itens.get(indice), contas, agora);
+		}
+		Map<Long, BigDecimal> saldos = new TreeMap<>();
+		contas.forEach((id, conta) -> saldos.put(id, conta.getSaldo().paraBigDecimal()));
+		checkpointSaldos.registrar(saldos);
+		cacheContas.invalidar(saldos.keySet());
+	}
+
+	private ResultadoItemLoteDto aplicarItem(int indice, ItemLoteDto item, Map<Long, Conta> contas, ZonedDateTime agora) {
+		Conta conta = contas.get(item.getIdConta());
+		if (conta == null) {
+			return ResultadoItemLoteDto.rejeitado(indice, "Conta não encontrada para o ID: " + item.getIdConta());
+		}
+		Dinheiro valor = Dinheiro.de(item.getValor());
+		switch (item.getTipo()) {
+		case DEPOSITO:
+			conta.setSaldo(conta.getSaldo().somar(valor));
+			return ResultadoItemLoteDto.aplicado(indice);
+		case SAQUE:
+			if (conta.getSaldo().menorQue(valor)) {
+				return ResultadoItemLoteDto.rejeitado(indice, "Saldo insuficiente para o saque.");
+			}
+			conta.setSaldo(conta.getSaldo().subtrair(valor));
+			registrar(conta, agora, valor.negar(), Operation.SAQUE, "Sistema");
+			return ResultadoItemLoteDto.aplicado(indice);
+		default:
+			Conta contaDestino = contas.get(item.getIdContaDestino());
+			if (contaDestino == null) {
+				return ResultadoItemLoteDto.rejeitado(indice, "Conta não encontrada para o ID: " + item.getIdContaDestino());
+			}
+			if (conta.getSaldo().menorQue(valor)) {
+				return ResultadoItemLoteDto.rejeitado(indice, "Saldo insuficiente na conta de origem para realizar a transferência.");
+			}
+			conta.setSaldo(conta.getSaldo().subtrair(valor));
+			contaDestino.setSaldo(contaDestino.getSaldo().somar(valor));
+			registrar(conta, agora, valor, item.getTipo(), contaDestino.getNome());
+			return ResultadoItemLoteDto.aplicado(indice);
+		}
+	}
+
+	// A transferencia nao e adicionada a colecao da conta para nao carregar o historico inteiro.
+	private void registrar(Conta conta, ZonedDateTime data, Dinheiro valor, Operation tipo, String nomeOperador) {
+		Transferencia transferencia = new Transferencia();
+		transferencia.setDataTransferencia(data);
+		transferencia.setValor(valor);
+		transferencia.setTipo(tipo);
+		transferencia.setConta(conta);
+		transferencia.setNomeOperadorTransacao(nomeOperador);
+		transferenciaRepository.save(transferencia);
+	}
+}
@@ -9,6 +9,8 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.stereotype.Service;
 
+import br.com.banco.dtos.TransferenciaDto;
+import br.com.banco.dtos.PaginaTransferenciasDto;
 import br.com.banco.entities.Conta;
 import br.com.banco.entities.Transferencia;
 
@@ -17,7 +19,7 @@ import br.com.banco.entities.Transferencia;
 public interface TransferenciaService {
 	public Conta obterContaPorId(Long id);
 
-	List<Transferencia> getAllTransferencias();
+	List<TransferenciaDto> getAllTransferencias();
 
 	public void sacar(Long idConta, double valor);
 
@@ -25,17 +27,19 @@ public interface TransferenciaService {
 
 	Transferencia criarTransferencia(Transferencia transferencia);
 
-	List<Transferencia> getTransferenciasPorConta(Long numeroConta);
+	List<TransferenciaDto> getTransferenciasPorConta(Long numeroConta);
 
-	Page<Transferencia> getTransferenciasPaginadas(Pageable pageable);
+	Page<TransferenciaDto> getTransferenciasPaginadas(Pageable pageable);
 
-	List<Transferencia> getTransferenciasPorOperador(String nomeOperador);
+	PaginaTransferenciasDto getTransferenciasPorCursor(String cursor, int tamanhoPagina, Long contaId, ZonedDateTime dataInicio, ZonedDateTime dataFim, String nomeOperador);
+
+	List<TransferenciaDto> getTransferenciasPorOperador(String nomeOperador);
 
 	Transferencia atualizarTransferencia(Long id, Transferencia transferencia);
 
 	public Map<String, String> getPrimeiraEUltimaDataPorNomeOperador(String nomeOperador);
 
-	List<Transferencia> getTransferenciasPorPeriodo(ZonedDateTime dataInicioCompleta, ZonedDateTime dataFimCompleta);
+	List<TransferenciaDto> getTransferenciasPorPeriodo(ZonedDateTime dataInicioCompleta, ZonedDateTime dataFimCompleta);
 
-	List<Transferencia> getTransferenciasPorPeriodoEOperador(ZonedDateTime dataInicio, ZonedDateTime dataFim, String nomeOperador);
+	List<TransferenciaDto> getTransferenciasPorPeriodoEOperador(ZonedDateTime dataInicio, ZonedDateTime dataFim, String nomeOperador);
 }
\ No newline at end of file
@@ -5,6 +5,8 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -16,8 +18,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import br.com.banco.dtos.TransferenciaDto;
+import br.com.banco.dtos.PaginaTransferenciasDto;
 import br.com.banco.entities.Conta;
+import br.com.banco.entities.Dinheiro;
 import br.com.banco.entities.Transferencia;
 import br.com.banco.enums.Operation;
 import br.com.banco.exceptions.SaldoInsuficienteException;
@@ -25,16 +31,25 @@ import br.com.banco.exceptions.SaldoNegativoException;
 import br.com.banco.exceptions.TransferenciaException;
 import br.com.banco.repositories.ContaRepository;
 import br.com.banco.repositories.TransferenciaRepository;
+import br.com.banco.services.busca.IndiceNomes;
 
 @Service
 public class TransferenciaServiceImpl implements TransferenciaService {
 	private static final Logger logger = LoggerFactory.getLogger(TransferenciaServiceImpl.class);
+
+	static final int TAMANHO_MAXIMO_PAGINA_CURSOR = 1000;
 	
 	@Autowired
 	private TransferenciaRepository transferenciaRepository;
 	
 	@Autowired
 	private ContaRepository contaRepository;
+
+	@Autowired
+	private IndiceNomes indiceNomes;
+
+	@Autowired
+	private CacheContas cacheContas;
 	
 	/**
 	 * Retrieves all transferências from the repository.
@@ -43,13 +58,13 @@ public class TransferenciaServiceImpl implements TransferenciaService {
 	 * @throws TransferenciaException if there is an error retrieving the transferências.
 	 */
 	@Override
-	public List<Transferencia> getAllTransferencias() throws TransferenciaException {
+	public List<TransferenciaDto> getAllTransferencias() throws TransferenciaException {
 	    try {
-	        List<Transferencia> transferencias = transferenciaRepository.findAll();
+	        List<TransferenciaDto> transferencias = transferenciaRepository.findAllDtos();
 	        if (transferencias.isEmpty()) {
 	        	logger.warn("A lista de transferências está vazia.");
 	        }
-	        for (Transferencia transferencia : transferencias) {
+	        for (TransferenciaDto transferencia : transferencias) {
 	            if (transferencia == null) {
 	            	logger.warn("Transferência nula encontrada na lista.");
 	            }
@@ -70,16 +85,16 @@ public class TransferenciaServiceImpl implements TransferenciaService {
 	 * @throws TransferenciaException if the account ID is invalid or there is an error retrieving the transferências.
 	 */
 	@Override
-	public List<Transferencia> getTransferenciasPorConta(Long numeroConta) {
+	public List<TransferenciaDto> getTransferenciasPorConta(Long numeroConta) {
 		if (numeroConta == null || numeroConta <= 0) {
 	        throw new TransferenciaException("ID da conta inválido: " + numeroConta);
 	    }
 	    try {
-	        List<Transferencia> transferencias = transferenciaRepository.findByContaNumeroConta(numeroConta);
+	        List<TransferenciaDto> transferencias = transferenciaRepository.findByContaNumeroConta(numeroConta);
 	        if (transferencias == null) {
 	            throw new TransferenciaException("A lista de transferências por conta retornou nula.");
 	        }
-	        for (Transferencia transferencia : transferencias) {
+	        for (TransferenciaDto transferencia : transferencias) {
 	            if (transferencia == null) {
 	                throw new TransferenciaException("Transferência nula encontrada na lista por conta.");
 	            }
@@ -104,7 +119,7 @@ public class TransferenciaServiceImpl implements TransferenciaService {
 	 * @throws TransferenciaException If an error occurs while retrieving the transferências.
 	 */
 	@Override
-	public List<Transferencia> getTransferenciasPorPeriodo(ZonedDateTime dataInicio, ZonedDateTime dataFim) {
+	public List<TransferenciaDto> getTransferenciasPorPeriodo(ZonedDateTime dataInicio, ZonedDateTime dataFim) {
 		if (dataInicio == null || dataFim == null) {
 			logger.warn("Período de datas inválido: as datas de início e fim devem ser fornecidas.");
 			return null; 
@@ -114,11 +129,11 @@ public class TransferenciaServiceImpl implements TransferenciaService {
 			return null; 
 		}
 	    try {
-	        List<Transferencia> transferencias = transferenciaRepository.findByDataTransferenciaBetween(dataInicio, dataFim);
+	        List<TransferenciaDto> transferencias = transferenciaRepository.findByDataTransferenciaBetween(dataInicio, dataFim);
 	        if (transferencias == null) {
 	            throw new TransferenciaException("A lista de transferências por período retornou nula.");
 	        }
-	        for (Transferencia transferencia : transferencias) {
+	        for (TransferenciaDto transferencia : transferencias) {
 	            if (transferencia == null) {
 	                throw new TransferenciaException("Transferência nula encontrada na lista por período.");
 	            }
@@ -143,9 +158,13 @@ public class TransferenciaServiceImpl implements TransferenciaService {
 	 * @throws TransferenciaException   if an error occurs while retrieving the transferencias
 	 */
 	@Override
-	public List<Transferencia> getTransferenciasPorOperador(String nomeOperador) {
-		try {	        
-			return transferenciaRepository.findByNomeOperadorTransacao(nomeOperador);
+	public List<TransferenciaDto> getTransferenciasPorOperador(String nomeOperador) {
+		try {
+			if (!indiceNomes.cobre(nomeOperador)) {
+				return transferenciaRepository.findByNomeOperadorTransacao(nomeOperador);
+			}
+			List<String> nomes = indiceNomes.operadoresComNome(nomeOperador);
+			return nomes.isEmpty() ? Collections.emptyList() : transferenciaRepository.findByNomeOperadorTransacaoIn(nomes);
 		} catch (Exception e) {
 			logger.warn("Erro ao obter as transferências por operador.");
 			throw new TransferenciaException("Erro ao obter as transferências por operador.");
@@ -164,13 +183,17 @@ public class TransferenciaServiceImpl implements TransferenciaService {
      * @throws TransferenciaException    if an error occurs while retrieving the transferencias
      */
     @Override
-    public List<Transferencia> getTransferenciasPorPeriodoEOperador(ZonedDateTime dataInicio, ZonedDateTime dataFim, String nomeOperador) {
+    public List<TransferenciaDto> getTransferenciasPorPeriodoEOperador(ZonedDateTime dataInicio, ZonedDateTime dataFim, String nomeOperador) {
         try {
             if (dataInicio == null || dataFim == null || dataInicio.isAfter(dataFim)) {
             	logger.warn("As datas de início e fim devem ser fornecidas corretamente.");
             }
 
-            return transferenciaRepository.findByDataInicioAndDataFimAndNomeOperador(dataInicio, dataFim, nomeOperador);
+            if (!indiceNomes.cobre(nomeOperador)) {
+                return transferenciaRepository.findByDataInicioAndDataFimAndNomeOperador(dataInicio, dataFim, nomeOperador);
+            }
+            List<String> nomes = indiceNomes.operadoresComNome(nomeOperador);
+            return nomes.isEmpty() ? Collections.emptyList() : transferenciaRepository.findByDataInicioAndDataFimAndNomeOperadorIn(dataInicio, dataFim, nomes);
         } catch (IllegalArgumentException e) {
         	logger.warn("Parâmetros inválidos fornecidos ao obter as transferências por período e operador.", e);
             throw e;
@@ -189,12 +212,12 @@ public class TransferenciaServiceImpl implements TransferenciaService {
      * @throws TransferenciaException if an error occurs while retrieving the transferencias
      */
     @Override
-    public Page<Transferencia> getTransferenciasPaginadas(Pageable pageable) {
+    public Page<TransferenciaDto> getTransferenciasPaginadas(Pageable pageable) {
         try {
             if (pageable == null) {
             	logger.warn("O objeto Pageable não pode ser nulo.");
             }
-            return transferenciaRepository.findAll(pageable);
+            return transferenciaRepository.findAllDtos(pageable);
         } catch (IllegalArgumentException e) {
         	logger.warn("Pageable inválido fornecido ao obter as transferências paginadas.", e);
             throw e;
@@ -204,6 +227,48 @@ public class TransferenciaServiceImpl implements TransferenciaService {
         }
     }
     
+	/**
+	 * Retrieves one page of transfers in {@code (dataTransferencia, id)} order, starting after the
+	 * given cursor. Unlike {@link #getTransferenciasPaginadas}, no count query is run and the cost
+	 * of a page does not depend on how deep it is.
+	 *
+	 * @param cursor the token of the previous page, or null for the first page
+	 * @param tamanhoPagina the number of transfers per page, from 1 to {@value #TAMANHO_MAXIMO_PAGINA_CURSOR}
+	 * @param contaId optional account filter
+	 * @param dataInicio optional start of the period
+	 * @param dataFim optional end of the period
+	 * @param nomeOperador optional operator filter, matched as a substring like in {@link #getTransferenciasPorOperador}
+	 * @return the page and the token of the next one, which is null on the last page
+	 * @throws IllegalArgumentException if the cursor is malformed, the page size is out of range or
+	 *                                  the operator name is too short to be searched
+	 */
+	@Override
+	public PaginaTransferenciasDto getTransferenciasPorCursor(String cursor, int tamanhoPagina, Long contaId, ZonedDateTime dataInicio, ZonedDateTime dataFim,
+			String nomeOperador) {
+		if (tamanhoPagina <= 0 || tamanhoPagina > TAMANHO_MAXIMO_PAGINA_CURSOR) {
+			throw new IllegalArgumentException("O tamanho da página deve estar entre 1 e " + TAMANHO_MAXIMO_PAGINA_CURSOR + ".");
+		}
+		CursorTransferencia posicao = cursor == null || cursor.isEmpty() ? null : CursorTransferencia.decodificar(cursor);
+		List<String> nomes = null;
+		if (nomeOperador != null && !nomeOperador.isEmpty()) {
+			if (!indiceNomes.cobre(nomeOperador)) {
+				throw new IllegalArgumentException("O nome do operador deve ter ao menos 3 caracteres.");
+			}
+			nomes = indiceNomes.operadoresComNome(nomeOperador);
+			if (nomes.isEmpty()) {
+				return new PaginaTransferenciasDto(Collections.emptyList(), null);
+			}
+		}
+		// Uma linha a mais diz se existe proxima pagina sem precisar contar.
+		List<TransferenciaDto> transferencias = transferenciaRepository.buscarAposCursor(contaId, dataInicio, dataFim, nomes,
+				posicao == null ? null : posicao.getData(), posicao == null ? null : posicao.getId(), tamanhoPagina + 1);
+		if (transferencias.size() <= tamanhoPagina) {
+			return new PaginaTransferenciasDto(transferencias, null);
+		}
+		List<TransferenciaDto> pagina = transferencias.subList(0, tamanhoPagina);
+		return new PaginaTransferenciasDto(new ArrayList<>(pagina), CursorTransferencia.de(pagina.get(tamanhoPagina - 1)).codificar());
+	}
+
 	/**
 	 * 
 	 * Creates a new transfer in the system.
@@ -219,7 +284,9 @@ public class TransferenciaServiceImpl implements TransferenciaService {
             Conta contaDestino = contaRepository.findById(transferencia.getContaDestino().getId()).orElseThrow(() -> new IllegalArgumentException("Conta de destino não encontrada"));
             realizarTransferencia(transferencia, contaOrigem, contaDestino);
 
-            return transferenciaRepository.save(transferencia);
+            Transferencia salva = transferenciaRepository.save(transferencia);
+            indiceNomes.registrarOperador(salva.getNomeOperadorTransacao());
+            return salva;
 		} catch (TransferenciaException e) {
 			logger.error("Erro ao obter todas as transferências: {}", e.getMessage());
 			throw e;
@@ -240,7 +307,7 @@ public class TransferenciaServiceImpl implements TransferenciaService {
 	@Override
 	public Transferencia atualizarTransferencia(Long id, Transferencia transferencia) {
 		try {
-			Transferencia transferenciaExistente = transferenciaRepository.findById(id).orElseThrow(() -> new RuntimeException("Transferência não encontrada"));
+			Transferencia transferenciaExistente = transferenciaRepository.findComContaById(id).orElseThrow(() -> new RuntimeException("Transferência não encontrada"));
 			if (transferencia.getValor() != null) {
 				transferenciaExistente.setValor(transferencia.getValor());
 			}
@@ -250,10 +317,12 @@ public class TransferenciaServiceImpl implements TransferenciaService {
 			if (transferencia.getNomeOperadorTransacao() != null) {
 				transferenciaExistente.setNomeOperadorTransacao(transferencia.getNomeOperadorTransacao());
 			}
-			Double saldoAtual = calcularSaldoAtual(transferenciaExistente);
+			Dinheiro saldoAtual = calcularSaldoAtual(transferenciaExistente);
 			transferenciaExistente.setSaldoAtual(saldoAtual);
 
-			return transferenciaRepository.save(transferenciaExistente);
+			Transferencia salva = transferenciaRepository.save(transferenciaExistente);
+			indiceNomes.registrarOperador(salva.getNomeOperadorTransacao());
+			return salva;
 		} catch (Exception e) {
 			logger.error("Ocorreu um erro ao atualizar a transferência: " + e.getMessage());
 			throw new TransferenciaException("Erro ao atualizar a transferência", e);
@@ -269,27 +338,23 @@ public class TransferenciaServiceImpl implements TransferenciaService {
 	 * @throws TransferenciaException if an error occurs while calculating the current balance or saving the transfer data
 	 */
 	@Override
+	@Transactional
 	public void sacar(Long idConta, double valor) {
-		if (valor <= 0) {
+		Dinheiro quantia = Dinheiro.de(valor);
+		if (!quantia.ehPositivo()) {
 			logger.warn("Valor de saque inválido");
+			return;
 		}
 		try {
 			Conta conta = obterContaPorId(idConta);
-			if (conta.getSaldo() >= valor) {
-				double novoSaldo = conta.getSaldo() - valor;
-				conta.setSaldo(novoSaldo);
-
-				Transferencia transferencia = new Transferencia();
-				transferencia.setDataTransferencia(ZonedDateTime.now(ZoneId.of("America/Sao_Paulo")));
-				transferencia.setValor(-valor); // Definir o valor como negativo (saque)
-				transferencia.setTipo(Operation.SAQUE);
-				transferencia.setConta(conta);
-				transferencia.setNomeOperadorTransacao("Sistema");
-
-				conta.adicionarTransferencia(transferencia);
+			if (!conta.getSaldo().menorQue(quantia)) {
+				conta.setSaldo(conta.getSaldo().subtrair(quantia));
 
 				contaRepository.save(conta);
-				transferenciaRepository.save(transferencia);
+				cacheContas.invalidar(idConta);
+				// Definir o valor como negativo (saque)
+				transferenciaRepository.registrar(idConta, ZonedDateTime.now(ZoneId.of("America/Sao_Paulo")),
+						quantia.negar().paraBigDecimal(), Operation.SAQUE.name(), "Sistema");
 			} else {
 				logger.warn("Saldo insuficiente");
 			}
@@ -321,43 +386,36 @@ public class TransferenciaServiceImpl implements TransferenciaService {
 	 * @return the calculated current balance
 	 * @throws TransferenciaException if an error occurs while calculating the current balance
 	 */
-	private Double calcularSaldoAtual(Transferencia transferencia) {
+	Dinheiro calcularSaldoAtual(Transferencia transferencia) {
 		try {
 			Conta conta = transferencia.getConta();
 			if (conta == null) {
 				logger.warn("Conta não encontrada na transferência");
 				return null;
 			}
-			Double saldoAtual = conta.getSaldo();
+			Dinheiro saldoAtual = conta.getSaldo();
 			Operation tipo = transferencia.getTipo();
 			if (tipo == null) {
 				logger.warn("Tipo de operação não especificado na transferência");
 				return null;
 			}
-			Double valor = transferencia.getValor();
+			Dinheiro valor = transferencia.getValor();
 			if (valor == null) {
 				logger.warn("Valor não especificado na transferência");
 				return null;
 			}
 			switch (tipo) {
 			case DEPOSITO:
-				saldoAtual += valor;
-				break;
+				return saldoAtual.somar(valor);
 			case SAQUE:
-				saldoAtual -= valor;
-				break;
+				return saldoAtual.subtrair(valor);
 			case TRANSF_ENTRADA:
-				saldoAtual += valor;
-				break;
+				return saldoAtual.somar(valor);
 			case TRANSF_SAIDA:
-				saldoAtual -= valor;
-				break;
+				return saldoAtual.subtrair(valor);
 			default:
 				throw new TransferenciaException("Tipo de operação inválido na transferência");
 			}
-			saldoAtual = Math.round(saldoAtual * 100.0) / 100.0;
-
-			return saldoAtual;
 		} catch (TransferenciaException e) {
 			logger.error("Ocorreu um erro ao calcular o saldo atual: " + e.getMessage());
 			throw e;
@@ -379,7 +437,7 @@ public class TransferenciaServiceImpl implements TransferenciaService {
 	 */
 	private void realizarTransferencia(Transferencia transferencia, Conta contaOrigem, Conta contaDestino) {
 		try {
-			if (contaOrigem.getSaldo() < transferencia.getValor()) {
+			if (contaOrigem.getSaldo().menorQue(transferencia.getValor())) {
 				logger.warn("Saldo insuficiente na conta de origem");
 			}
 			if (transferencia.getTipo() == Operation.TRANSF_SAIDA) {
@@ -388,20 +446,21 @@ public class TransferenciaServiceImpl implements TransferenciaService {
 				transferencia.setNomeOperadorTransacao(contaOrigem.getNome());
 			}
 			// Realizar a subtração do valor da conta de origem
-			double novoSaldoOrigem = contaOrigem.getSaldo() - transferencia.getValor();
-			if (novoSaldoOrigem < 0) {
+			Dinheiro novoSaldoOrigem = contaOrigem.getSaldo().subtrair(transferencia.getValor());
+			if (novoSaldoOrigem.ehNegativo()) {
 				logger.warn("Saldo negativo na conta de origem após a transferência");
 			}
 			contaOrigem.setSaldo(novoSaldoOrigem);
 			contaRepository.save(contaOrigem);
 
 			// Realizar a adição do valor na conta de destino
-			double novoSaldoDestino = contaDestino.getSaldo() + transferencia.getValor();
-			if (novoSaldoDestino < 0) {
+			Dinheiro novoSaldoDestino = contaDestino.getSaldo().somar(transferencia.getValor());
+			if (novoSaldoDestino.ehNegativo()) {
 				logger.warn("Saldo negativo na conta de destino após a transferência");
 			}
 			contaDestino.setSaldo(novoSaldoDestino);
 			contaRepository.save(contaDestino);
+			cacheContas.invalidar(Arrays.asList(contaOrigem.getId(), contaDestino.getId()));
 		} catch (SaldoInsuficienteException | SaldoNegativoException e) {
 		    logger.error("Erro ao realizar a transferência: " + e.getMessage());
 		    throw e;
@@ -421,7 +480,17 @@ public class TransferenciaServiceImpl implements TransferenciaService {
 	 *         ou null se a primeira ou a última data forem nulas
 	 */
 	public Map<String, String> getPrimeiraEUltimaDataPorNomeOperador(String nomeOperador) {
-		Map<String, ZonedDateTime> result = transferenciaRepository.findPrimeiraEUltimaDataPorNomeOperador(nomeOperador);
+		Map<String, ZonedDateTime> result;
+		if (!indiceNomes.cobre(nomeOperador)) {
+			result = transferenciaRepository.findPrimeiraEUltimaDataPorNomeOperador(nomeOperador);
+		} else {
+			List<String> nomes = indiceNomes.operadoresComNome(nomeOperador);
+			if (nomes.isEmpty()) {
+				// Mesmo retorno da consulta sem resultados: MIN e MAX nulos.
+				return null;
+			}
+			result = transferenciaRepository.findPrimeiraEUltimaDataPorNomesOperador(nomes);
+		}
 		if (result == null || result.isEmpty()) {
 			return Collections.emptyMap();
 		}
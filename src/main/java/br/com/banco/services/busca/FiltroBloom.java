@@ -0,0 +1,108 @@
+package br.com.banco.services.busca;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bloom filter over 64-bit hashes, sized for an expected number of elements and a target false
+ * positive rate. Adding and querying are lock-free and may run concurrently; a query that runs
+ * alongside the add of the same element may still miss it.
+ *
+ * The k bit positions come from the two halves of the hash (Kirsch and Mitzenmacher), so the
+ * caller hashes each element once.
+ */
+final class FiltroBloom {
+
+	private static final double LN2 = Math.log(2);
+
+	private final AtomicLongArray bits;
+
+	private final long tamanhoBits;
+
+	private final int funcoesHash;
+
+	private final LongAdder insercoes = new LongAdder();
+
+	FiltroBloom(long elementosEsperados, double falsoPositivo) {
+		if (elementosEsperados <= 0 || falsoPositivo <= 0 || falsoPositivo >= 1) {
+			throw new IllegalArgumentException("O filtro precisa de elementos esperados positivos e falso positivo entre 0 e 1.");
+		}
+		long palavras = (long) Math.ceil(-elementosEsperados * Math.log(falsoPositivo) / (LN2 * LN2) / Long.SIZE);
+		if (palavras > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Filtro grande demais para " + elementosEsperados + " elementos.");
+		}
+		this.bits = new AtomicLongArray((int) palavras);
+		this.tamanhoBits = palavras * Long.SIZE;
+		this.funcoesHash = Math.max(1, (int) Math.round((double) tamanhoBits / elementosEsperados * LN2));
+	}
+
+	void adicionar(long hash) {
+		long h1 = (int) hash;
+		long h2 = (int) (hash >>> 32);
+		for (int i = 1; i <= funcoesHash; i++) {
+			long posicao = ((h1 + i * h2) & Long.MAX_VALUE) % tamanhoBits;
+			long mascara = 1L << posicao;
+			int palavra = (int) (posicao >>> 6);
+			if ((bits.get(palavra) & mascara) == 0) {
+				bits.getAndAccumulate(palavra, mascara, (atual, bit) -> atual | bit);
+			}
+		}
+		insercoes.increment();
+	}
+
+	/**
+	 * Returns false only if the element was never added.
+	 */
+	boolean podeConter(long hash) {
+		long h1 = (int) hash;
+		long h2 = (int) (hash >>> 32);
+		for (int i = 1; i <= funcoesHash; i++) {
+			long posicao = ((h1 + i * h2) & Long.MAX_VALUE) % tamanhoBits;
+			if ((bits.get((int) (posicao >>> 6)) & (1L << posicao)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	long getTamanhoBytes() {
+		return tamanhoBits / Byte.SIZE;
+	}
+
+	int getFuncoesHash() {
+		return funcoesHash;
+	}
+
+	long getInsercoes() {
+		return insercoes.sum();
+	}
+
+	/**
+	 * False positive rate expected after the inserts made so far. Repeated inserts of the same
+	 * element are counted again, so this errs on the high side.
+	 */
+	double falsoPositivoEstimado() {
+		return Math.pow(1 - Math.exp(-funcoesHash * (double) getInsercoes() / tamanhoBits), funcoesHash);
+	}
+
+	/**
+	 * SplitMix64 finalizer: spreads ids that differ in a few low bits over the whole word.
+	 */
+	static long hash(long valor) {
+		valor = (valor ^ (valor >>> 30)) * 0xbf58476d1ce4e5b9L;
+		valor = (valor ^ (valor >>> 27)) * 0x94d049bb133111ebL;
+		return valor ^ (valor >>> 31);
+	}
+
+	/**
+	 * 64-bit FNV-1a over the characters, finished like {@link #hash(long)}.
+	 */
+	static long hash(String texto) {
+		long h = 0xcbf29ce484222325L;
+		for (int i = 0; i < texto.length(); i++) {
+			h ^= texto.charAt(i);
+			h *= 0x100000001b3L;
+		}
+		return hash(h);
+	}
+}
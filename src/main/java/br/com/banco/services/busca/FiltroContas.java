@@ -0,0 +1,156 @@
+package br.com.banco.services.busca;
+
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.banco.repositories.ContaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Bloom filters over the ids and the {@link NormalizadorNomes normalized} holder names of every
+ * account, so a lookup of an account that does not exist is answered without a query.
+ *
+ * A "no" from the filter is definite; a "maybe" still goes to the cache or the database, which
+ * happens for every existing account and for a fraction of the absent ones given by
+ * {@code banco.conta.filtro.falso-positivo}. Each filter is sized for
+ * {@code banco.conta.filtro.capacidade} accounts, or twice the accounts found at startup if
+ * that is more; memory grows with the capacity and with a lower false positive rate.
+ *
+ * The filters are built at startup from {@link ContaRepository} and new accounts are added as
+ * they are created, before their transaction commits: a rolled back account only costs a false
+ * positive, while adding after the commit would leave a moment in which a committed account
+ * reads as absent. Accounts are never removed. Size, inserts, the estimated false positive rate
+ * and the queries answered are published as {@code banco.filtro.contas.*}, tagged by filter.
+ */
+@Component
+public class FiltroContas {
+
+	private static final Logger logger = LoggerFactory.getLogger(FiltroContas.class);
+
+	private static final String METRICA = "banco.filtro.contas";
+
+	private final ContaRepository contaRepository;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final MeterRegistry registro;
+
+	private final long capacidade;
+
+	private final double falsoPositivo;
+
+	private volatile Filtro ids;
+
+	private volatile Filtro nomes;
+
+	public FiltroContas(ContaRepository contaRepository, PlatformTransactionManager transactionManager, MeterRegistry registro,
+			@Value("${banco.conta.filtro.capacidade:1000000}") long capacidade,
+			@Value("${banco.conta.filtro.falso-positivo:0.01}") double falsoPositivo) {
+		this.contaRepository = contaRepository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.transactionTemplate.setReadOnly(true);
+		this.registro = registro;
+		this.capacidade = capacidade;
+		this.falsoPositivo = falsoPositivo;
+		registrarMetricas("ids", () -> ids);
+		registrarMetricas("nomes", () -> nomes);
+	}
+
+	/**
+	 * Builds both filters from every account in the database.
+	 */
+	@PostConstruct
+	public void carregar() {
+		long existentes = contaRepository.count();
+		long elementos = Math.max(capacidade, 2 * existentes);
+		if (elementos > capacidade) {
+			logger.warn("Filtro de contas dimensionado para {} contas: há {} contas, acima da capacidade configurada de {}.",
+					elementos, existentes, capacidade);
+		}
+		Filtro novosIds = new Filtro("ids", new FiltroBloom(elementos, falsoPositivo));
+		Filtro novosNomes = new Filtro("nomes", new FiltroBloom(elementos, falsoPositivo));
+		transactionTemplate.executeWithoutResult(status -> {
+			try (Stream<Object[]> contas = contaRepository.streamIdsENomes()) {
+				contas.forEach(conta -> {
+					novosIds.bloom.adicionar(FiltroBloom.hash((Long) conta[0]));
+					adicionarNome(novosNomes, (String) conta[1]);
+				});
+			}
+		});
+		ids = novosIds;
+		nomes = novosNomes;
+		logger.info("Filtro de contas carregado com {} contas: {} KiB e {} funções de hash por filtro, falso positivo estimado de {}.",
+				novosIds.bloom.getInsercoes(), novosIds.bloom.getTamanhoBytes() / 1024, novosIds.bloom.getFuncoesHash(),
+				String.format("%.4f", novosIds.bloom.falsoPositivoEstimado()));
+	}
+
+	/**
+	 * Returns false only if no account has the id.
+	 */
+	public boolean podeExistir(Long id) {
+		return ids.consultar(FiltroBloom.hash(id));
+	}
+
+	/**
+	 * Returns false only if no account has the name, compared {@link NormalizadorNomes normalized}.
+	 */
+	public boolean podeExistirNome(String nome) {
+		String normalizado = NormalizadorNomes.normalizar(nome);
+		return normalizado != null && nomes.consultar(FiltroBloom.hash(normalizado));
+	}
+
+	/**
+	 * Adds a new account to both filters.
+	 */
+	public void registrarConta(Long id, String nome) {
+		ids.bloom.adicionar(FiltroBloom.hash(id));
+		adicionarNome(nomes, nome);
+	}
+
+	private static void adicionarNome(Filtro filtro, String nome) {
+		if (nome != null) {
+			filtro.bloom.adicionar(FiltroBloom.hash(NormalizadorNomes.normalizar(nome)));
+		}
+	}
+
+	private void registrarMetricas(String filtro, Supplier<Filtro> atual) {
+		Gauge.builder(METRICA + ".memoria", atual, f -> f.get().bloom.getTamanhoBytes()).tag("filtro", filtro).baseUnit("bytes")
+				.strongReference(true).register(registro);
+		Gauge.builder(METRICA + ".insercoes", atual, f -> f.get().bloom.getInsercoes()).tag("filtro", filtro)
+				.strongReference(true).register(registro);
+		Gauge.builder(METRICA + ".falso.positivo", atual, f -> f.get().bloom.falsoPositivoEstimado()).tag("filtro", filtro)
+				.strongReference(true).register(registro);
+	}
+
+	private final class Filtro {
+
+		private final FiltroBloom bloom;
+
+		private final Counter ausentes;
+
+		private final Counter possiveis;
+
+		private Filtro(String nome, FiltroBloom bloom) {
+			this.bloom = bloom;
+			this.ausentes = Counter.builder(METRICA + ".consultas").tag("filtro", nome).tag("resultado", "ausente").register(registro);
+			this.possiveis = Counter.builder(METRICA + ".consultas").tag("filtro", nome).tag("resultado", "possivel").register(registro);
+		}
+
+		private boolean consultar(long hash) {
+			boolean possivel = bloom.podeConter(hash);
+			(possivel ? possiveis : ausentes).increment();
+			return possivel;
+		}
+	}
+}
@@ -0,0 +1,123 @@
+package br.com.banco.services.busca;
+
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Substring search over account holder names and transfer operator names, so that name lookups
+ * no longer run {@code LOWER(x) LIKE '%nome%'} over every row.
+ *
+ * Account names are indexed by account id and operator names by their distinct values. A search
+ * resolves the text to the matching ids or operator names in memory; the repositories then fetch
+ * those rows by primary key or through the operator index. Texts shorter than a trigram cannot be
+ * narrowed down, so {@link #cobre} tells callers to keep the {@code LIKE} query for them.
+ *
+ * The index is loaded at startup and kept current by the services that create accounts and
+ * record operator names, after their transaction commits. Rows written to the database by other
+ * means are not seen until the next start.
+ */
+@Component
+public class IndiceNomes {
+
+	private static final Logger logger = LoggerFactory.getLogger(IndiceNomes.class);
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final IndiceTrigramas<Long> contas = new IndiceTrigramas<>();
+
+	private final IndiceTrigramas<String> operadores = new IndiceTrigramas<>();
+
+	public IndiceNomes(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/**
+	 * Loads the names of every account and every distinct operator name.
+	 */
+	@PostConstruct
+	public void carregar() {
+		jdbcTemplate.query("SELECT id_conta, nome_responsavel FROM conta", rs -> {
+			String nome = rs.getString("nome_responsavel");
+			contas.atualizar(rs.getLong("id_conta"), nome);
+			indexarOperador(nome);
+		});
+		jdbcTemplate.query("SELECT DISTINCT nome_operador_transacao FROM transferencia WHERE nome_operador_transacao IS NOT NULL",
+				rs -> { indexarOperador(rs.getString(1)); });
+		// Saques e depositos sempre gravam "Sistema" como operador.
+		indexarOperador("Sistema");
+		logger.info("Índice de nomes carregado com {} contas e {} operadores.", contas.tamanho(), operadores.tamanho());
+	}
+
+	/**
+	 * Tells whether the text is long enough to be searched in the index.
+	 */
+	public boolean cobre(String trecho) {
+		return trecho != null && trecho.length() >= IndiceTrigramas.TAMANHO_TRIGRAMA;
+	}
+
+	/**
+	 * Returns, in ascending order, the ids of the accounts whose holder name contains the text, ignoring case.
+	 *
+	 * @throws IllegalArgumentException if the text is not {@link #cobre covered} by the index
+	 */
+	public List<Long> contasComNome(String trecho) {
+		List<Long> ids = contas.buscar(trecho);
+		Collections.sort(ids);
+		return ids;
+	}
+
+	/**
+	 * Returns the distinct operator names that contain the text, ignoring case.
+	 *
+	 * @throws IllegalArgumentException if the text is not {@link #cobre covered} by the index
+	 */
+	public List<String> operadoresComNome(String trecho) {
+		return operadores.buscar(trecho);
+	}
+
+	/**
+	 * Indexes the name of an account once the current transaction commits. Transfers take the
+	 * name of an account as their operator, so it is indexed as an operator name as well.
+	 */
+	public void registrarConta(Long idConta, String nome) {
+		aposCommit(() -> {
+			contas.atualizar(idConta, nome);
+			indexarOperador(nome);
+		});
+	}
+
+	/**
+	 * Indexes an operator name once the current transaction commits.
+	 */
+	public void registrarOperador(String nome) {
+		aposCommit(() -> indexarOperador(nome));
+	}
+
+	private void indexarOperador(String nome) {
+		if (nome != null) {
+			operadores.atualizar(nome, nome);
+		}
+	}
+
+	private static void aposCommit(Runnable atualizacao) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			atualizacao.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				atualizacao.run();
+			}
+		});
+	}
+}
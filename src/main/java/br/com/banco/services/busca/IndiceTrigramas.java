@@ -0,0 +1,138 @@
+package br.com.banco.services.busca;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index from keys to texts, answering case-insensitive substring queries.
+ *
+ * Each text is lower-cased and split into its overlapping three-character windows; a query of at
+ * least three characters is answered by intersecting the key sets of its own trigrams, starting
+ * from the rarest, and checking the few survivors against the stored text. The cost depends on
+ * the number of matches, not on the number of indexed texts. Thread-safe: queries share a read
+ * lock and updates take the write lock.
+ */
+final class IndiceTrigramas<K> {
+
+	static final int TAMANHO_TRIGRAMA = 3;
+
+	private final Map<K, String> textos = new HashMap<>();
+
+	private final Map<String, Set<K>> trigramas = new HashMap<>();
+
+	private final ReadWriteLock trava = new ReentrantReadWriteLock();
+
+	/**
+	 * Indexes the text under the key, replacing the text previously indexed under it.
+	 */
+	void atualizar(K chave, String texto) {
+		String normalizado = normalizar(texto);
+		trava.writeLock().lock();
+		try {
+			String anterior = textos.put(chave, normalizado);
+			if (normalizado.equals(anterior)) {
+				return;
+			}
+			if (anterior != null) {
+				desindexar(chave, anterior);
+			}
+			for (String trigrama : trigramas(normalizado)) {
+				trigramas.computeIfAbsent(trigrama, t -> new HashSet<>()).add(chave);
+			}
+		} finally {
+			trava.writeLock().unlock();
+		}
+	}
+
+	void remover(K chave) {
+		trava.writeLock().lock();
+		try {
+			String anterior = textos.remove(chave);
+			if (anterior != null) {
+				desindexar(chave, anterior);
+			}
+		} finally {
+			trava.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the keys whose text contains the given text, ignoring case.
+	 *
+	 * @throws IllegalArgumentException if the text is shorter than a trigram
+	 */
+	List<K> buscar(String trecho) {
+		String normalizado = normalizar(trecho);
+		if (normalizado.length() < TAMANHO_TRIGRAMA) {
+			throw new IllegalArgumentException("O trecho deve ter ao menos " + TAMANHO_TRIGRAMA + " caracteres.");
+		}
+		trava.readLock().lock();
+		try {
+			List<Set<K>> conjuntos = new ArrayList<>();
+			for (String trigrama : trigramas(normalizado)) {
+				Set<K> chaves = trigramas.get(trigrama);
+				if (chaves == null) {
+					return Collections.emptyList();
+				}
+				conjuntos.add(chaves);
+			}
+			Set<K> menor = Collections.min(conjuntos, (a, b) -> Integer.compare(a.size(), b.size()));
+			List<K> encontradas = new ArrayList<>();
+			for (K chave : menor) {
+				if (contidaEmTodos(chave, conjuntos) && textos.get(chave).contains(normalizado)) {
+					encontradas.add(chave);
+				}
+			}
+			return encontradas;
+		} finally {
+			trava.readLock().unlock();
+		}
+	}
+
+	int tamanho() {
+		trava.readLock().lock();
+		try {
+			return textos.size();
+		} finally {
+			trava.readLock().unlock();
+		}
+	}
+
+	static String normalizar(String texto) {
+		return texto == null ? "" : texto.toLowerCase(Locale.ROOT);
+	}
+
+	private void desindexar(K chave, String texto) {
+		for (String trigrama : trigramas(texto)) {
+			Set<K> chaves = trigramas.get(trigrama);
+			if (chaves != null && chaves.remove(chave) && chaves.isEmpty()) {
+				trigramas.remove(trigrama);
+			}
+		}
+	}
+
+	private static <K> boolean contidaEmTodos(K chave, List<Set<K>> conjuntos) {
+		for (Set<K> conjunto : conjuntos) {
+			if (!conjunto.contains(chave)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static Set<String> trigramas(String texto) {
+		Set<String> trigramas = new HashSet<>();
+		for (int i = 0; i + TAMANHO_TRIGRAMA <= texto.length(); i++) {
+			trigramas.add(texto.substring(i, i + TAMANHO_TRIGRAMA));
+		}
+		return trigramas;
+	}
+}
@@ -0,0 +1,27 @@
+package br.com.banco.services.busca;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Canonical form of an account holder name for exact comparisons: accents removed, lower case
+ * and runs of whitespace collapsed to one space, so "José  Silva" and "jose silva" are the same name.
+ */
+public final class NormalizadorNomes {
+
+	private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+
+	private static final Pattern ESPACOS = Pattern.compile("\\s+");
+
+	private NormalizadorNomes() {
+	}
+
+	public static String normalizar(String nome) {
+		if (nome == null) {
+			return null;
+		}
+		String semAcentos = ACENTOS.matcher(Normalizer.normalize(nome, Normalizer.Form.NFD)).replaceAll("");
+		return ESPACOS.matcher(semAcentos.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+	}
+}
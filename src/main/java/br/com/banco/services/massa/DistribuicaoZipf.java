@@ -0,0 +1,38 @@
+package br.com.banco.services.massa;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Zipf distribution over the ranks {@code 0..n-1}: rank {@code k} is drawn with probability
+ * proportional to {@code 1 / (k + 1)^expoente}. Draws are a binary search in the cumulative
+ * weights, so each one costs {@code O(log n)}.
+ */
+public class DistribuicaoZipf {
+
+	private final double[] acumulado;
+
+	public DistribuicaoZipf(int n, double expoente) {
+		if (n <= 0 || expoente <= 0) {
+			throw new IllegalArgumentException("A distribuição precisa de n e expoente positivos.");
+		}
+		acumulado = new double[n];
+		double soma = 0;
+		for (int k = 0; k < n; k++) {
+			soma += 1 / Math.pow(k + 1, expoente);
+			acumulado[k] = soma;
+		}
+	}
+
+	public int sortear(SplittableRandom aleatorio) {
+		int posicao = Arrays.binarySearch(acumulado, aleatorio.nextDouble() * acumulado[acumulado.length - 1]);
+		return Math.min(posicao >= 0 ? posicao : -posicao - 1, acumulado.length - 1);
+	}
+
+	/**
+	 * Share of all draws that falls on the given rank.
+	 */
+	public double probabilidade(int k) {
+		return (acumulado[k] - (k == 0 ? 0 : acumulado[k - 1])) / acumulado[acumulado.length - 1];
+	}
+}
@@ -0,0 +1,390 @@
+package br.com.banco.services.massa;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import br.com.banco.enums.Operation;
+import br.com.banco.services.CheckpointSaldos;
+import br.com.banco.services.busca.NormalizadorNomes;
+
+/**
+ * Bulk-loads a synthetic dataset for scale tests, active with the {@code massa} profile.
+ *
+ * Runs right after the Flyway migrations, before any bean reads the tables, so the name index
+ * and the ledger engine start with the generated data already in place. The data follows the
+ * skews that matter for performance:
+ * <ul>
+ * <li>accounts are drawn from a Zipf distribution, so a few hot accounts hold most transfers;</li>
+ * <li>timestamps come from a two-state process that alternates calm periods with short bursts;</li>
+ * <li>the operator of a transfer is the destination account, drawn from a steeper Zipf.</li>
+ * </ul>
+ * Balances stay consistent with the transfers: a withdrawal or transfer the account cannot pay
+ * becomes a deposit, {@code conta.saldo} ends as the sum of the account's movements and
+ * {@code saldo_checkpoint} gets the closing balance of every day each account moved.
+ *
+ * Rows are written to CSV files and inserted with H2's {@code CSVREAD} in blocks of a million,
+ * with the secondary indexes of {@code transferencia} dropped during the load and rebuilt after.
+ * Ids start at {@value #PRIMEIRO_ID}; the generation is skipped if that range is already taken.
+ */
+@Component
+@Profile("massa")
+public class GeradorMassaSintetica implements FlywayMigrationStrategy {
+
+	private static final Logger logger = LoggerFactory.getLogger(GeradorMassaSintetica.class);
+
+	public static final long PRIMEIRO_ID = 1_000_000;
+
+	private static final int BLOCO = 1_000_000;
+
+	private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSxxx");
+
+	// Processo de rajadas: na rajada os intervalos encolhem FATOR_RAJADA vezes.
+	private static final double FATOR_RAJADA = 20;
+	private static final double ENTRA_RAJADA = 0.001;
+	private static final double SAI_RAJADA = 0.02;
+
+	// Mesma chave estrangeira de V1__esquema_inicial.sql.
+	private static final String CHAVE_ESTRANGEIRA_CONTA = "ALTER TABLE transferencia ADD CONSTRAINT FK_CONTA FOREIGN KEY (conta_id) REFERENCES conta(id_conta)";
+
+	private static final Operation[] TIPOS = { Operation.DEPOSITO, Operation.DEPOSITO, Operation.DEPOSITO, Operation.SAQUE, Operation.SAQUE,
+			Operation.TRANSF_SAIDA, Operation.TRANSF_SAIDA, Operation.TRANSFERENCIA, Operation.TRANSFERENCIA, Operation.TRANSF_ENTRADA };
+
+	private final DataSource dataSource;
+	private final int contas;
+	private final long transferencias;
+	private final int dias;
+	private final double expoenteContas;
+	private final double expoenteOperadores;
+	private final long semente;
+
+	private MassaSintetica massa;
+
+	public GeradorMassaSintetica(DataSource dataSource,
+			@Value("${banco.massa.contas:100000}") int contas,
+			@Value("${banco.massa.transferencias:10000000}") long transferencias,
+			@Value("${banco.massa.dias:1095}") int dias,
+			@Value("${banco.massa.expoente-contas:1.1}") double expoenteContas,
+			@Value("${banco.massa.expoente-operadores:1.3}") double expoenteOperadores,
+			@Value("${banco.massa.semente:42}") long semente) {
+		if (contas < 2 || transferencias < 0 || dias <= 0) {
+			throw new IllegalArgumentException("A massa precisa de ao menos 2 contas, transferências não negativas e dias positivos.");
+		}
+		this.dataSource = dataSource;
+		this.contas = contas;
+		this.transferencias = transferencias;
+		this.dias = dias;
+		this.expoenteContas = expoenteContas;
+		this.expoenteOperadores = expoenteOperadores;
+		this.semente = semente;
+	}
+
+	@Override
+	public void migrate(Flyway flyway) {
+		flyway.migrate();
+		// O JdbcTemplate da aplicacao so existe depois desta estrategia.
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		try {
+			gerar(jdbcTemplate);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Falha ao gerar a massa sintética", e);
+		}
+	}
+
+	/**
+	 * Returns the shape of the dataset in the database.
+	 */
+	public MassaSintetica getMassa() {
+		return massa;
+	}
+
+	private void gerar(JdbcTemplate jdbcTemplate) throws IOException {
+		Long existentes = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM conta WHERE id_conta >= ?", Long.class, PRIMEIRO_ID);
+		if (existentes != null && existentes > 0) {
+			Instant inicio = jdbcTemplate.queryForObject("SELECT MIN(data_transferencia) FROM transferencia WHERE id >= ?", Instant.class, PRIMEIRO_ID);
+			Instant fim = jdbcTemplate.queryForObject("SELECT MAX(data_transferencia) FROM transferencia WHERE id >= ?", Instant.class, PRIMEIRO_ID);
+			massa = new MassaSintetica(PRIMEIRO_ID, existentes.intValue(), inicio == null ? Instant.now() : inicio, fim == null ? Instant.now() : fim,
+					expoenteContas, expoenteOperadores, semente);
+			logger.info("Massa sintética já existe com {} contas; geração ignorada.", existentes);
+			return;
+		}
+		Long maiorTransferencia = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM transferencia", Long.class);
+		if (maiorTransferencia != null && maiorTransferencia >= PRIMEIRO_ID) {
+			throw new IllegalStateException("Já existem transferências com id a partir de " + PRIMEIRO_ID + "; a massa sintética não pode ser gerada.");
+		}
+
+		long inicioGeracao = System.nanoTime();
+		Instant fim = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+		Instant inicio = fim.minus(Duration.ofDays(dias));
+		massa = new MassaSintetica(PRIMEIRO_ID, contas, inicio, fim, expoenteContas, expoenteOperadores, semente);
+		Path pasta = Files.createTempDirectory("massa-sintetica");
+		try {
+			inserirContas(jdbcTemplate, pasta.resolve("contas.csv"), inicio);
+			List<String> indices = removerIndicesTransferencia(jdbcTemplate);
+			try {
+				new Lancamentos(jdbcTemplate, pasta).gerar();
+			} finally {
+				long inicioIndices = System.nanoTime();
+				indices.forEach(jdbcTemplate::execute);
+				jdbcTemplate.execute(CHAVE_ESTRANGEIRA_CONTA);
+				logger.info("{} índices de transferencia recriados em {} s.", indices.size(), (System.nanoTime() - inicioIndices) / 1_000_000_000);
+			}
+		} finally {
+			try (Stream<Path> arquivos = Files.list(pasta)) {
+				arquivos.forEach(arquivo -> arquivo.toFile().delete());
+			}
+			Files.deleteIfExists(pasta);
+		}
+		// As entidades reservam blocos de 50 ids: as sequencias recomecam acima da massa.
+		jdbcTemplate.execute("ALTER SEQUENCE conta_seq RESTART WITH " + (PRIMEIRO_ID + contas + 50));
+		jdbcTemplate.execute("ALTER SEQUENCE transferencia_seq RESTART WITH " + (PRIMEIRO_ID + transferencias + 50));
+		logger.info("Massa sintética com {} contas e {} transferências gerada em {} s.", contas, transferencias,
+				(System.nanoTime() - inicioGeracao) / 1_000_000_000);
+	}
+
+	private void inserirContas(JdbcTemplate jdbcTemplate, Path arquivo, Instant criacao) throws IOException {
+		String dataCriacao = FORMATO_DATA.format(criacao.atZone(CheckpointSaldos.ZONA));
+		try (BufferedWriter saida = Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8)) {
+			saida.write("ID,NOME,NOME_NORMALIZADO,CRIACAO\n");
+			for (int i = 0; i < contas; i++) {
+				saida.write(Long.toString(PRIMEIRO_ID + i));
+				saida.write(',');
+				saida.write(MassaSintetica.nome(i));
+				saida.write(',');
+				saida.write(NormalizadorNomes.normalizar(MassaSintetica.nome(i)));
+				saida.write(',');
+				saida.write(dataCriacao);
+				saida.write('\n');
+			}
+		}
+		jdbcTemplate.update("INSERT INTO conta (id_conta, nome_responsavel, nome_normalizado, data_de_criacao, saldo) SELECT CAST(ID AS BIGINT), NOME, NOME_NORMALIZADO, "
+				+ "CAST(CRIACAO AS TIMESTAMP WITH TIME ZONE), 0 FROM CSVREAD(" + literal(arquivo) + ", NULL, 'charset=UTF-8')");
+	}
+
+	/**
+	 * Drops the secondary indexes of {@code transferencia}, and the foreign key that uses one of
+	 * them, so the bulk insert maintains only the primary key. Each index is rebuilt once, sorted,
+	 * after the load, which is far cheaper than keeping six B-trees up to date row by row.
+	 *
+	 * @return the statements that recreate the dropped indexes, read from the catalog so that any
+	 *         index added by a later migration comes back too
+	 */
+	private static List<String> removerIndicesTransferencia(JdbcTemplate jdbcTemplate) {
+		Map<String, List<String>> colunas = new LinkedHashMap<>();
+		jdbcTemplate.query("SELECT i.INDEX_NAME, c.COLUMN_NAME, c.ORDERING_SPECIFICATION FROM INFORMATION_SCHEMA.INDEXES i "
+				+ "JOIN INFORMATION_SCHEMA.INDEX_COLUMNS c ON c.INDEX_SCHEMA = i.INDEX_SCHEMA AND c.INDEX_NAME = i.INDEX_NAME "
+				+ "WHERE i.TABLE_SCHEMA = SCHEMA() AND i.TABLE_NAME = 'TRANSFERENCIA' AND i.INDEX_TYPE_NAME = 'INDEX' AND i.IS_GENERATED = FALSE "
+				+ "ORDER BY i.INDEX_NAME, c.ORDINAL_POSITION",
+				rs -> {
+					colunas.computeIfAbsent(rs.getString(1), indice -> new ArrayList<>()).add(rs.getString(2) + " " + rs.getString(3));
+				});
+		jdbcTemplate.execute("ALTER TABLE transferencia DROP CONSTRAINT FK_CONTA");
+		List<String> recriar = new ArrayList<>();
+		colunas.forEach((indice, definicao) -> {
+			jdbcTemplate.execute("DROP INDEX " + indice);
+			recriar.add("CREATE INDEX " + indice + " ON transferencia (" + String.join(", ", definicao) + ")");
+		});
+		return recriar;
+	}
+
+	private static String literal(Path arquivo) {
+		return "'" + arquivo.toAbsolutePath().toString().replace("'", "''") + "'";
+	}
+
+	/**
+	 * One pass over the transfers in time order, keeping the running balance and the last day
+	 * each account moved, so the daily checkpoints come out as the days close.
+	 */
+	private class Lancamentos {
+
+		private final JdbcTemplate jdbcTemplate;
+		private final Path pasta;
+		private final SplittableRandom aleatorio = new SplittableRandom(semente);
+		private final long[] saldos = new long[contas];
+		private final long[] ultimoDia = new long[contas];
+
+		private BufferedWriter linhasTransferencias;
+		private BufferedWriter linhasCheckpoints;
+		private Path arquivoTransferencias;
+		private Path arquivoCheckpoints;
+
+		private Lancamentos(JdbcTemplate jdbcTemplate, Path pasta) {
+			this.jdbcTemplate = jdbcTemplate;
+			this.pasta = pasta;
+			Arrays.fill(ultimoDia, Long.MIN_VALUE);
+		}
+
+		private void gerar() throws IOException {
+			long janela = Duration.between(massa.getInicio(), massa.getFim()).toMillis();
+			// Fracao estacionaria de eventos em rajada, para que os intervalos cubram a janela toda.
+			double emRajada = ENTRA_RAJADA / (ENTRA_RAJADA + SAI_RAJADA);
+			double intervaloMedio = transferencias == 0 ? 0 : janela / (transferencias * (1 - emRajada + emRajada / FATOR_RAJADA));
+			double deslocamento = 0;
+			boolean rajada = false;
+
+			arquivoCheckpoints = pasta.resolve("checkpoints.csv");
+			linhasCheckpoints = Files.newBufferedWriter(arquivoCheckpoints, StandardCharsets.UTF_8);
+			linhasCheckpoints.write("CONTA,DIA,SALDO\n");
+			abrirBloco(0);
+			for (long i = 0; i < transferencias; i++) {
+				if (i > 0 && i % BLOCO == 0) {
+					fecharBloco();
+					abrirBloco(i / BLOCO);
+				}
+				deslocamento += -Math.log(1 - aleatorio.nextDouble()) * intervaloMedio / (rajada ? FATOR_RAJADA : 1);
+				if (aleatorio.nextDouble() < (rajada ? SAI_RAJADA : ENTRA_RAJADA)) {
+					rajada = !rajada;
+				}
+				ZonedDateTime data = massa.getInicio().plusMillis(Math.min((long) deslocamento, janela)).atZone(CheckpointSaldos.ZONA);
+				lancar(PRIMEIRO_ID + i, data);
+			}
+			for (int conta = 0; conta < contas; conta++) {
+				if (ultimoDia[conta] != Long.MIN_VALUE) {
+					checkpoint(conta, ultimoDia[conta]);
+				}
+			}
+			fecharBloco();
+			inserirCheckpoints();
+			atualizarSaldos();
+		}
+
+		private void lancar(long id, ZonedDateTime data) throws IOException {
+			long dia = data.toLocalDate().toEpochDay();
+			int conta = massa.sortearIndiceConta(aleatorio);
+			long centavos = valor();
+			Operation tipo = TIPOS[aleatorio.nextInt(TIPOS.length)];
+			if (tipo == Operation.SAQUE && saldos[conta] >= centavos) {
+				mover(conta, dia, -centavos);
+				transferencia(id, data, -centavos, tipo, "Sistema", conta);
+				return;
+			}
+			if (tipo != Operation.DEPOSITO && tipo != Operation.SAQUE) {
+				int destino = massa.sortearIndiceOperador(aleatorio);
+				if (destino != conta && saldos[conta] >= centavos) {
+					mover(conta, dia, -centavos);
+					mover(destino, dia, centavos);
+					transferencia(id, data, centavos, tipo, MassaSintetica.nome(destino), conta);
+					return;
+				}
+			}
+			// Sem saldo para sair, o lancamento vira deposito, como faria o cliente.
+			mover(conta, dia, centavos);
+			transferencia(id, data, centavos, Operation.DEPOSITO, "Sistema", conta);
+		}
+
+		// Valores log-normais: mediana de R$ 50,00 e cauda longa, limitados a R$ 100.000,00.
+		private long valor() {
+			double gaussiana = Math.sqrt(-2 * Math.log(1 - aleatorio.nextDouble())) * Math.cos(2 * Math.PI * aleatorio.nextDouble());
+			return Math.max(1, Math.min(10_000_000, Math.round(Math.exp(Math.log(5_000) + 1.2 * gaussiana))));
+		}
+
+		private void mover(int conta, long dia, long centavos) throws IOException {
+			if (ultimoDia[conta] != dia) {
+				if (ultimoDia[conta] != Long.MIN_VALUE) {
+					checkpoint(conta, ultimoDia[conta]);
+				}
+				ultimoDia[conta] = dia;
+			}
+			saldos[conta] += centavos;
+		}
+
+		private void transferencia(long id, ZonedDateTime data, long centavos, Operation tipo, String operador, int conta) throws IOException {
+			linhasTransferencias.write(Long.toString(id));
+			linhasTransferencias.write(',');
+			linhasTransferencias.write(FORMATO_DATA.format(data));
+			linhasTransferencias.write(',');
+			linhasTransferencias.write(centavosEmTexto(centavos));
+			linhasTransferencias.write(',');
+			linhasTransferencias.write(tipo.name());
+			linhasTransferencias.write(',');
+			linhasTransferencias.write(operador);
+			linhasTransferencias.write(',');
+			linhasTransferencias.write(Long.toString(PRIMEIRO_ID + conta));
+			linhasTransferencias.write('\n');
+		}
+
+		private void checkpoint(int conta, long dia) throws IOException {
+			linhasCheckpoints.write(Long.toString(PRIMEIRO_ID + conta));
+			linhasCheckpoints.write(',');
+			linhasCheckpoints.write(LocalDate.ofEpochDay(dia).toString());
+			linhasCheckpoints.write(',');
+			linhasCheckpoints.write(centavosEmTexto(saldos[conta]));
+			linhasCheckpoints.write('\n');
+		}
+
+		private void abrirBloco(long bloco) throws IOException {
+			arquivoTransferencias = pasta.resolve("transferencias-" + bloco + ".csv");
+			linhasTransferencias = Files.newBufferedWriter(arquivoTransferencias, StandardCharsets.UTF_8);
+			linhasTransferencias.write("ID,DATA,VALOR,TIPO,OPERADOR,CONTA\n");
+		}
+
+		private void fecharBloco() throws IOException {
+			linhasTransferencias.close();
+			int linhas = jdbcTemplate.update("INSERT INTO transferencia (id, data_transferencia, valor, tipo, nome_operador_transacao, conta_id) "
+					+ "SELECT CAST(ID AS BIGINT), CAST(DATA AS TIMESTAMP WITH TIME ZONE), CAST(VALOR AS NUMERIC(20, 2)), TIPO, OPERADOR, CAST(CONTA AS INT) "
+					+ "FROM CSVREAD(" + literal(arquivoTransferencias) + ", NULL, 'charset=UTF-8')");
+			Files.delete(arquivoTransferencias);
+			logger.info("Bloco de {} transferências inserido.", linhas);
+		}
+
+		// Os checkpoints saem em ordem de tempo; inseridos de uma vez e ordenados pela chave, a
+		// chave primaria cresce so pelo fim em vez de receber linhas em posicoes aleatorias.
+		private void inserirCheckpoints() throws IOException {
+			linhasCheckpoints.close();
+			long inicio = System.nanoTime();
+			int linhas = jdbcTemplate.update("INSERT INTO saldo_checkpoint (conta_id, dia, saldo) SELECT CAST(CONTA AS BIGINT), CAST(DIA AS DATE), "
+					+ "CAST(SALDO AS DECIMAL(20, 2)) FROM CSVREAD(" + literal(arquivoCheckpoints) + ", NULL, 'charset=UTF-8') ORDER BY 1, 2");
+			Files.delete(arquivoCheckpoints);
+			logger.info("{} checkpoints de saldo inseridos em {} s.", linhas, (System.nanoTime() - inicio) / 1_000_000_000);
+		}
+
+		private void atualizarSaldos() throws IOException {
+			Path arquivo = pasta.resolve("saldos.csv");
+			try (BufferedWriter saida = Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8)) {
+				saida.write("ID,SALDO\n");
+				for (int conta = 0; conta < contas; conta++) {
+					if (saldos[conta] != 0) {
+						saida.write(Long.toString(PRIMEIRO_ID + conta));
+						saida.write(',');
+						saida.write(centavosEmTexto(saldos[conta]));
+						saida.write('\n');
+					}
+				}
+			}
+			jdbcTemplate.update("MERGE INTO conta (id_conta, saldo) KEY (id_conta) SELECT CAST(ID AS BIGINT), CAST(SALDO AS DECIMAL(20, 2)) "
+					+ "FROM CSVREAD(" + literal(arquivo) + ", NULL, 'charset=UTF-8')");
+		}
+	}
+
+	private static String centavosEmTexto(long centavos) {
+		return BigDecimal.valueOf(centavos, 2).toPlainString();
+	}
+}
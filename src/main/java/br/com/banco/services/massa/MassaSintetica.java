@@ -0,0 +1,112 @@
+package br.com.banco.services.massa;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.SplittableRandom;
+
+/**
+ * Shape of a synthetic dataset: the id range of its accounts, the period of its transfers and the
+ * skewed distributions they were drawn from. Load tests sample from the same distributions, so
+ * the accounts that are hot in the data are also hot in the requests.
+ */
+public class MassaSintetica {
+
+	private static final String[] NOMES = { "Ana", "Bruno", "Carla", "Diego", "Eduarda", "Fabio", "Gabriela", "Heitor", "Isabela", "Joao",
+			"Karina", "Lucas", "Mariana", "Nicolas", "Olivia", "Pedro", "Rafaela", "Samuel", "Tatiana", "Vitor", "Yasmin", "Caio", "Leticia",
+			"Mateus", "Beatriz", "Thiago", "Camila", "Rodrigo", "Larissa", "Gustavo" };
+
+	private static final String[] SOBRENOMES = { "Silva", "Santos", "Oliveira", "Souza", "Rodrigues", "Ferreira", "Alves", "Pereira", "Lima",
+			"Gomes", "Costa", "Ribeiro", "Martins", "Carvalho", "Almeida", "Lopes", "Soares", "Fernandes", "Vieira", "Barbosa", "Rocha", "Dias",
+			"Nascimento", "Andrade", "Moreira", "Nunes", "Marques", "Machado", "Mendes", "Freitas" };
+
+	private final long primeiraConta;
+
+	private final int contas;
+
+	private final Instant inicio;
+
+	private final Instant fim;
+
+	private final int[] permutacao;
+
+	private final DistribuicaoZipf contasQuentes;
+
+	private final DistribuicaoZipf operadores;
+
+	public MassaSintetica(long primeiraConta, int contas, Instant inicio, Instant fim, double expoenteContas, double expoenteOperadores,
+			long semente) {
+		this.primeiraConta = primeiraConta;
+		this.contas = contas;
+		this.inicio = inicio;
+		this.fim = fim;
+		this.contasQuentes = new DistribuicaoZipf(contas, expoenteContas);
+		this.operadores = new DistribuicaoZipf(contas, expoenteOperadores);
+		// As contas mais sorteadas ficam espalhadas pela faixa de ids, e nao concentradas no inicio.
+		this.permutacao = new int[contas];
+		SplittableRandom aleatorio = new SplittableRandom(semente ^ 0x5DEECE66DL);
+		for (int i = 0; i < contas; i++) {
+			int j = aleatorio.nextInt(i + 1);
+			permutacao[i] = permutacao[j];
+			permutacao[j] = i;
+		}
+	}
+
+	/**
+	 * Name of the account at the given position, unique for every position.
+	 */
+	public static String nome(int indice) {
+		int combinacoes = NOMES.length * SOBRENOMES.length;
+		String nome = NOMES[indice % NOMES.length] + " " + SOBRENOMES[(indice / NOMES.length) % SOBRENOMES.length];
+		return indice < combinacoes ? nome : nome + " " + indice / combinacoes;
+	}
+
+	/**
+	 * Draws an account position, skewed towards a few hot accounts.
+	 */
+	public int sortearIndiceConta(SplittableRandom aleatorio) {
+		return permutacao[contasQuentes.sortear(aleatorio)];
+	}
+
+	/**
+	 * Draws the position of a transfer destination, whose name is recorded as the operator. Skewed
+	 * more steeply than the accounts, the way a few payees receive most transfers.
+	 */
+	public int sortearIndiceOperador(SplittableRandom aleatorio) {
+		return permutacao[operadores.sortear(aleatorio)];
+	}
+
+	public long sortearConta(SplittableRandom aleatorio) {
+		return primeiraConta + sortearIndiceConta(aleatorio);
+	}
+
+	public String sortearNomeConta(SplittableRandom aleatorio) {
+		return nome(sortearIndiceConta(aleatorio));
+	}
+
+	public String sortearNomeOperador(SplittableRandom aleatorio) {
+		return nome(sortearIndiceOperador(aleatorio));
+	}
+
+	/**
+	 * Draws an instant inside the period of the transfers, uniformly.
+	 */
+	public Instant sortearInstante(SplittableRandom aleatorio) {
+		return inicio.plusMillis(aleatorio.nextLong(Math.max(1, Duration.between(inicio, fim).toMillis())));
+	}
+
+	public long getPrimeiraConta() {
+		return primeiraConta;
+	}
+
+	public int getContas() {
+		return contas;
+	}
+
+	public Instant getInicio() {
+		return inicio;
+	}
+
+	public Instant getFim() {
+		return fim;
+	}
+}
@@ -0,0 +1,113 @@
+package br.com.banco.services.motor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import br.com.banco.enums.Operation;
+
+/**
+ * Bounded multi-producer, single-consumer ring buffer of pre-allocated command slots.
+ *
+ * Producers claim a sequence number, fill the slot and publish it; the sequencer thread
+ * reads the slots in sequence order. A producer that laps the consumer waits until its
+ * slot has been consumed, which is the back-pressure of the engine.
+ */
+final class AnelComandos {
+
+	enum TipoComando {
+		REGISTRAR, CONSULTAR, DEPOSITAR, SACAR, TRANSFERIR
+	}
+
+	/** Mutable slot, reused for every lap of the ring. */
+	static final class Comando {
+		TipoComando tipo;
+		long contaId;
+		long contaDestinoId;
+		long centavos;
+		Operation operacao;
+		CompletableFuture<Long> resultado;
+	}
+
+	private static final int ESPERAS_ATIVAS = 100;
+
+	private final Comando[] slots;
+
+	private final AtomicLongArray publicados;
+
+	private final int mascara;
+
+	private final AtomicLong proximo = new AtomicLong();
+
+	private volatile long consumido = -1;
+
+	AnelComandos(int capacidade) {
+		if (capacidade < 2 || Integer.bitCount(capacidade) != 1) {
+			throw new IllegalArgumentException("A capacidade do anel deve ser uma potência de dois: " + capacidade);
+		}
+		this.slots = new Comando[capacidade];
+		this.publicados = new AtomicLongArray(capacidade);
+		this.mascara = capacidade - 1;
+		for (int i = 0; i < capacidade; i++) {
+			slots[i] = new Comando();
+			publicados.set(i, -1);
+		}
+	}
+
+	/**
+	 * Claims the next sequence number, waiting while the ring is full.
+	 */
+	long reservar() {
+		long sequencia = proximo.getAndIncrement();
+		for (int espera = 0; sequencia - slots.length > consumido; espera++) {
+			aguardar(espera);
+		}
+		return sequencia;
+	}
+
+	Comando slot(long sequencia) {
+		return slots[(int) sequencia & mascara];
+	}
+
+	void publicar(long sequencia) {
+		publicados.lazySet((int) sequencia & mascara, sequencia);
+	}
+
+	/**
+	 * Hands every published command, up to {@code maximo}, to the handler in sequence order
+	 * and then frees their slots. Must only be called from the consumer thread.
+	 *
+	 * @return how many commands were consumed
+	 */
+	int drenar(ConsumidorComando consumidor, int maximo) throws InterruptedException {
+		long sequencia = consumido + 1;
+		int consumidos = 0;
+		while (consumidos < maximo && publicados.get((int) sequencia & mascara) == sequencia) {
+			consumidor.aceitar(slots[(int) sequencia & mascara]);
+			sequencia++;
+			consumidos++;
+		}
+		if (consumidos > 0) {
+			consumido = sequencia - 1;
+		}
+		return consumidos;
+	}
+
+	boolean vazio() {
+		return consumido + 1 == proximo.get();
+	}
+
+	static void aguardar(int espera) {
+		if (espera < ESPERAS_ATIVAS) {
+			Thread.onSpinWait();
+		} else {
+			LockSupport.parkNanos(50_000L);
+		}
+	}
+
+	@FunctionalInterface
+	interface ConsumidorComando {
+		void aceitar(Comando comando) throws InterruptedException;
+	}
+}
@@ -0,0 +1,183 @@
+package br.com.banco.services.motor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.Cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.banco.entities.Conta;
+import br.com.banco.enums.Operation;
+import br.com.banco.exceptions.ContaException;
+import br.com.banco.services.CacheContas;
+import br.com.banco.services.CheckpointSaldos;
+
+/**
+ * Write-behind loop of the ledger engine. Drains the applied commands in batches and writes
+ * each batch in one transaction: one JDBC batch with the final balance of every account
+ * touched, one with their closing balance checkpoints and one with the new transfer rows. The futures of the batch complete only after
+ * the commit. The balances are written with plain JDBC, which Hibernate does not see, so the
+ * accounts are also dropped from the second-level cache after the commit.
+ *
+ * When a batch fails its futures fail, and the sequencer is asked to reload the balances from
+ * {@code conta}: the balances in memory already include the failed batch, and every command
+ * queued behind it was applied over them. Until the sequencer queues {@link Lancamento#RETOMAR}
+ * the writer fails those commands without writing anything.
+ */
+final class GravadorLancamentos implements Runnable {
+
+	private static final Logger logger = LoggerFactory.getLogger(GravadorLancamentos.class);
+
+	private static final String ATUALIZAR_SALDO = "UPDATE conta SET saldo = ?, versao = versao + 1 WHERE id_conta = ?";
+
+	private static final String INSERIR_SAQUE = "INSERT INTO transferencia (data_transferencia, valor, tipo, nome_operador_transacao, conta_id) VALUES (?, ?, ?, 'Sistema', ?)";
+
+	// Igual a TransferenciaRepository.registrarComOperadorDaConta: o operador vem da conta de destino.
+	private static final String INSERIR_TRANSFERENCIA = "INSERT INTO transferencia (data_transferencia, valor, tipo, nome_operador_transacao, conta_id) "
+			+ "SELECT ?, ?, ?, c.nome_responsavel, ? FROM conta c WHERE c.id_conta = ?";
+
+	private final BlockingQueue<Lancamento> fila;
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final CheckpointSaldos checkpointSaldos;
+
+	private final CacheContas cacheContas;
+
+	private final Cache cacheSegundoNivel;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final int loteMaximo;
+
+	private final Runnable aoFalhar;
+
+	private volatile boolean ativo = true;
+
+	// So a thread do gravador le e escreve.
+	private boolean descartando;
+
+	private volatile long lotes;
+
+	private volatile long lancamentos;
+
+	GravadorLancamentos(BlockingQueue<Lancamento> fila, JdbcTemplate jdbcTemplate, CheckpointSaldos checkpointSaldos, CacheContas cacheContas,
+			Cache cacheSegundoNivel, TransactionTemplate transactionTemplate, int loteMaximo, Runnable aoFalhar) {
+		this.fila = fila;
+		this.jdbcTemplate = jdbcTemplate;
+		this.checkpointSaldos = checkpointSaldos;
+		this.cacheContas = cacheContas;
+		this.cacheSegundoNivel = cacheSegundoNivel;
+		this.transactionTemplate = transactionTemplate;
+		this.loteMaximo = loteMaximo;
+		this.aoFalhar = aoFalhar;
+	}
+
+	@Override
+	public void run() {
+		List<Lancamento> lote = new ArrayList<>(loteMaximo);
+		while (ativo || !fila.isEmpty()) {
+			try {
+				Lancamento primeiro = fila.poll(100, TimeUnit.MILLISECONDS);
+				if (primeiro == null) {
+					continue;
+				}
+				lote.add(primeiro);
+				fila.drainTo(lote, loteMaximo - 1);
+				processar(lote);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} finally {
+				lote.clear();
+			}
+		}
+	}
+
+	void parar() {
+		ativo = false;
+	}
+
+	long getLotes() {
+		return lotes;
+	}
+
+	long getLancamentos() {
+		return lancamentos;
+	}
+
+	private void processar(List<Lancamento> lote) {
+		List<Lancamento> gravaveis = new ArrayList<>(lote.size());
+		for (Lancamento lancamento : lote) {
+			if (lancamento == Lancamento.RETOMAR) {
+				descartando = false;
+			} else if (descartando) {
+				lancamento.resultado.completeExceptionally(new ContaException("Lançamento descartado: um lote anterior falhou ao ser gravado."));
+			} else {
+				gravaveis.add(lancamento);
+			}
+		}
+		if (!gravaveis.isEmpty()) {
+			gravar(gravaveis);
+		}
+	}
+
+	private void gravar(List<Lancamento> lote) {
+		Map<Long, Long> saldos = new TreeMap<>();
+		List<Object[]> saques = new ArrayList<>();
+		List<Object[]> transferencias = new ArrayList<>();
+		for (Lancamento lancamento : lote) {
+			saldos.put(lancamento.contaId, lancamento.saldoConta);
+			if (lancamento.temDestino()) {
+				saldos.put(lancamento.contaDestinoId, lancamento.saldoContaDestino);
+			}
+			if (lancamento.operacao == Operation.SAQUE) {
+				saques.add(new Object[] { lancamento.data.toOffsetDateTime(), BigDecimal.valueOf(-lancamento.centavos, 2),
+						lancamento.operacao.name(), lancamento.contaId });
+			} else if (lancamento.operacao != null) {
+				transferencias.add(new Object[] { lancamento.data.toOffsetDateTime(), BigDecimal.valueOf(lancamento.centavos, 2),
+						lancamento.operacao.name(), lancamento.contaId, lancamento.contaDestinoId });
+			}
+		}
+		List<Object[]> atualizacoes = new ArrayList<>(saldos.size());
+		Map<Long, BigDecimal> checkpoints = new TreeMap<>();
+		saldos.forEach((id, centavos) -> {
+			atualizacoes.add(new Object[] { BigDecimal.valueOf(centavos, 2), id });
+			checkpoints.put(id, BigDecimal.valueOf(centavos, 2));
+		});
+		try {
+			transactionTemplate.executeWithoutResult(status -> {
+				jdbcTemplate.batchUpdate(ATUALIZAR_SALDO, atualizacoes);
+				checkpointSaldos.registrar(checkpoints);
+				cacheContas.invalidar(checkpoints.keySet());
+				if (!saques.isEmpty()) {
+					jdbcTemplate.batchUpdate(INSERIR_SAQUE, saques);
+				}
+				if (!transferencias.isEmpty()) {
+					jdbcTemplate.batchUpdate(INSERIR_TRANSFERENCIA, transferencias);
+				}
+			});
+		} catch (RuntimeException e) {
+			logger.error("Erro ao gravar lote de {} lançamentos, saldos em memória serão recarregados: {}", lote.size(), e.getMessage());
+			// Antes de falhar os futuros: quem vir a falha e mandar outro comando ja encontra a recarga pedida.
+			descartando = true;
+			aoFalhar.run();
+			ContaException erro = new ContaException("Erro ao gravar os lançamentos.", e);
+			lote.forEach(lancamento -> lancamento.resultado.completeExceptionally(erro));
+			return;
+		}
+		saldos.keySet().forEach(id -> cacheSegundoNivel.evict(Conta.class, id));
+		lotes++;
+		lancamentos += lote.size();
+		lote.forEach(lancamento -> lancamento.resultado.complete(lancamento.saldoConta));
+	}
+}
@@ -0,0 +1,52 @@
+package br.com.banco.services.motor;
+
+import java.time.ZonedDateTime;
+import java.util.concurrent.CompletableFuture;
+
+import br.com.banco.enums.Operation;
+
+/**
+ * A command already applied by the sequencer, waiting to be written by {@link GravadorLancamentos}.
+ * The balances are the absolute values after the command, so the writer only has to keep the
+ * last one per account in a batch.
+ */
+final class Lancamento {
+
+	/**
+	 * Put by the sequencer after it reloads the balances: everything queued before it was applied
+	 * over balances that were thrown away, and the writer discards it.
+	 */
+	static final Lancamento RETOMAR = new Lancamento(0L, 0L, 0L, 0L, 0L, null, null, null);
+
+	final long contaId;
+
+	final long saldoConta;
+
+	final long contaDestinoId;
+
+	final long saldoContaDestino;
+
+	final long centavos;
+
+	final Operation operacao;
+
+	final ZonedDateTime data;
+
+	final CompletableFuture<Long> resultado;
+
+	Lancamento(long contaId, long saldoConta, long contaDestinoId, long saldoContaDestino, long centavos,
+			Operation operacao, ZonedDateTime data, CompletableFuture<Long> resultado) {
+		this.contaId = contaId;
+		this.saldoConta = saldoConta;
+		this.contaDestinoId = contaDestinoId;
+		this.saldoContaDestino = saldoContaDestino;
+		this.centavos = centavos;
+		this.operacao = operacao;
+		this.data = data;
+		this.resultado = resultado;
+	}
+
+	boolean temDestino() {
+		return contaDestinoId != 0;
+	}
+}
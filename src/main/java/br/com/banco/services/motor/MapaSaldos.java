@@ -0,0 +1,89 @@
+package br.com.banco.services.motor;
+
+/**
+ * Open-addressing map from account id to balance in cents, with primitive keys and values.
+ * Not thread-safe: it is owned by the sequencer thread of {@link MotorLancamentos}.
+ * Account ids are always positive, so 0 marks an empty slot.
+ */
+final class MapaSaldos {
+
+	static final long AUSENTE = Long.MIN_VALUE;
+
+	private static final long VAZIO = 0L;
+
+	private long[] chaves;
+
+	private long[] valores;
+
+	private int tamanho;
+
+	MapaSaldos(int capacidadeInicial) {
+		int capacidade = Integer.highestOneBit(Math.max(16, capacidadeInicial * 2 - 1));
+		this.chaves = new long[capacidade];
+		this.valores = new long[capacidade];
+	}
+
+	long get(long id) {
+		if (id <= 0) {
+			return AUSENTE;
+		}
+		int mascara = chaves.length - 1;
+		for (int i = indice(id, mascara);; i = (i + 1) & mascara) {
+			long chave = chaves[i];
+			if (chave == id) {
+				return valores[i];
+			}
+			if (chave == VAZIO) {
+				return AUSENTE;
+			}
+		}
+	}
+
+	boolean contem(long id) {
+		return get(id) != AUSENTE;
+	}
+
+	void put(long id, long valor) {
+		if (id <= 0) {
+			throw new IllegalArgumentException("ID de conta inválido: " + id);
+		}
+		int mascara = chaves.length - 1;
+		for (int i = indice(id, mascara);; i = (i + 1) & mascara) {
+			long chave = chaves[i];
+			if (chave == id) {
+				valores[i] = valor;
+				return;
+			}
+			if (chave == VAZIO) {
+				chaves[i] = id;
+				valores[i] = valor;
+				if (++tamanho * 2 > chaves.length) {
+					redimensionar();
+				}
+				return;
+			}
+		}
+	}
+
+	int tamanho() {
+		return tamanho;
+	}
+
+	private void redimensionar() {
+		long[] chavesAntigas = chaves;
+		long[] valoresAntigos = valores;
+		chaves = new long[chavesAntigas.length * 2];
+		valores = new long[chavesAntigas.length * 2];
+		tamanho = 0;
+		for (int i = 0; i < chavesAntigas.length; i++) {
+			if (chavesAntigas[i] != VAZIO) {
+				put(chavesAntigas[i], valoresAntigos[i]);
+			}
+		}
+	}
+
+	private static int indice(long id, int mascara) {
+		long h = id * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32)) & mascara;
+	}
+}
@@ -0,0 +1,326 @@
+package br.com.banco.services.motor;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.banco.enums.Operation;
+import br.com.banco.exceptions.ContaException;
+import br.com.banco.exceptions.ContaNotFoundException;
+import br.com.banco.exceptions.SaldoInsuficienteException;
+import br.com.banco.services.CacheContas;
+import br.com.banco.services.CheckpointSaldos;
+import br.com.banco.services.motor.AnelComandos.Comando;
+import br.com.banco.services.motor.AnelComandos.TipoComando;
+
+/**
+ * Single-writer ledger engine, enabled with {@code banco.conta.motor.habilitado=true}.
+ *
+ * Deposits, withdrawals and transfers are published into a ring buffer and applied, one at a
+ * time and without locks, by a sequencer thread that owns every balance in memory. Applied
+ * commands go to a write-behind thread that persists them with JDBC batches. The future of a
+ * command completes with the new balance of its account once that balance is durable, or
+ * exceptionally as soon as the sequencer rejects it.
+ *
+ * While the engine is on it is the only writer of {@code conta.saldo}; every balance change
+ * must go through it.
+ *
+ * If a batch fails to be written, the sequencer throws its balances away and reloads them from
+ * {@code conta} before applying the next command; the commands applied in between fail. While
+ * the reload fails, every command is rejected. A command that fails with an unexpected error
+ * only fails its own future; the sequencer goes on with the next one.
+ */
+@Component
+@ConditionalOnProperty(name = "banco.conta.motor.habilitado", havingValue = "true")
+public class MotorLancamentos {
+
+	private static final Logger logger = LoggerFactory.getLogger(MotorLancamentos.class);
+
+	private static final ZoneId FUSO = ZoneId.of("America/Sao_Paulo");
+
+	private static final int LOTE_SEQUENCIADOR = 256;
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final AnelComandos anel;
+
+	private final BlockingQueue<Lancamento> fila;
+
+	private final GravadorLancamentos gravador;
+
+	// So o sequenciador le e escreve, depois de iniciar.
+	private MapaSaldos saldos = new MapaSaldos(1024);
+
+	private final Thread sequenciador;
+
+	private final Thread escritor;
+
+	private volatile boolean ativo;
+
+	private volatile long aplicados;
+
+	private volatile long rejeitados;
+
+	private volatile boolean recarregar;
+
+	private volatile long recargas;
+
+	public MotorLancamentos(JdbcTemplate jdbcTemplate, CheckpointSaldos checkpointSaldos, CacheContas cacheContas,
+			EntityManagerFactory entityManagerFactory, PlatformTransactionManager transactionManager,
+			@Value("${banco.conta.motor.capacidade:65536}") int capacidade,
+			@Value("${banco.conta.motor.lote-maximo:1000}") int loteMaximo) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.anel = new AnelComandos(capacidade);
+		this.fila = new ArrayBlockingQueue<>(capacidade);
+		this.gravador = new GravadorLancamentos(fila, jdbcTemplate, checkpointSaldos, cacheContas, entityManagerFactory.getCache(),
+				new TransactionTemplate(transactionManager), loteMaximo, () -> recarregar = true);
+		this.sequenciador = new Thread(this::sequenciar, "motor-lancamentos-sequenciador");
+		this.escritor = new Thread(gravador, "motor-lancamentos-gravador");
+	}
+
+	/**
+	 * Loads every balance into memory and starts the sequencer and writer threads.
+	 */
+	@PostConstruct
+	public void iniciar() {
+		carregar(saldos);
+		logger.info("Motor de lançamentos iniciado com {} contas.", saldos.tamanho());
+		ativo = true;
+		escritor.start();
+		sequenciador.start();
+	}
+
+	/**
+	 * Stops taking commands, applies and writes everything already published, then stops both threads.
+	 */
+	@PreDestroy
+	public void parar() throws InterruptedException {
+		ativo = false;
+		sequenciador.join();
+		gravador.parar();
+		escritor.join();
+		logger.info("Motor de lançamentos parado: {} lançamentos gravados em {} lotes.", gravador.getLancamentos(), gravador.getLotes());
+	}
+
+	/**
+	 * Makes an account created after startup known to the engine.
+	 *
+	 * @param idConta the ID of an account already committed to the database
+	 * @param saldo the balance the account was created with
+	 * @return a future completed once the sequencer has registered the account
+	 */
+	public CompletableFuture<Long> registrarConta(Long idConta, double saldo) {
+		return publicar(TipoComando.REGISTRAR, idConta, 0L, saldo, null);
+	}
+
+	/**
+	 * Reads the in-memory balance of an account, which already includes commands not yet written.
+	 *
+	 * @return a future with the balance in cents
+	 */
+	public CompletableFuture<Long> consultarSaldo(Long idConta) {
+		return publicar(TipoComando.CONSULTAR, idConta, 0L, 0.0, null);
+	}
+
+	/**
+	 * @return a future with the new balance in cents, completed when it is durable
+	 */
+	public CompletableFuture<Long> depositar(Long idConta, double valor) {
+		return publicar(TipoComando.DEPOSITAR, idConta, 0L, valor, null);
+	}
+
+	/**
+	 * @return a future with the new balance in cents, completed when it is durable
+	 */
+	public CompletableFuture<Long> sacar(Long idConta, double valor) {
+		return publicar(TipoComando.SACAR, idConta, 0L, valor, Operation.SAQUE);
+	}
+
+	/**
+	 * @return a future with the new balance of the source account in cents, completed when it is durable
+	 */
+	public CompletableFuture<Long> transferir(Long idContaOrigem, Long idContaDestino, double valor, Operation tipo) {
+		return publicar(TipoComando.TRANSFERIR, idContaOrigem, idContaDestino, valor, tipo);
+	}
+
+	/**
+	 * Returns the counters collected since startup.
+	 *
+	 * @return a map with the applied, rejected and written command counts and the balance reloads
+	 */
+	public Map<String, Object> estatisticas() {
+		Map<String, Object> estatisticas = new LinkedHashMap<>();
+		estatisticas.put("ativo", ativo);
+		estatisticas.put("aplicados", aplicados);
+		estatisticas.put("rejeitados", rejeitados);
+		estatisticas.put("pendentes", fila.size());
+		estatisticas.put("gravados", gravador.getLancamentos());
+		estatisticas.put("lotes", gravador.getLotes());
+		estatisticas.put("recargas", recargas);
+		return estatisticas;
+	}
+
+	private CompletableFuture<Long> publicar(TipoComando tipo, Long contaId, Long contaDestinoId, double valor, Operation operacao) {
+		CompletableFuture<Long> resultado = new CompletableFuture<>();
+		if (!ativo) {
+			resultado.completeExceptionally(new ContaException("O motor de lançamentos não está ativo."));
+			return resultado;
+		}
+		if (contaId == null || contaDestinoId == null) {
+			resultado.completeExceptionally(new IllegalArgumentException("O ID da conta não pode ser nulo."));
+			return resultado;
+		}
+		// Ids de conta sao sempre positivos; 0 e a chave vazia do MapaSaldos.
+		if (contaId <= 0 || (tipo == TipoComando.TRANSFERIR && contaDestinoId <= 0)) {
+			resultado.completeExceptionally(new ContaNotFoundException("Conta não encontrada para o ID: " + (contaId <= 0 ? contaId : contaDestinoId)));
+			return resultado;
+		}
+		long centavos = Math.round(valor * 100);
+		if (centavos <= 0 && (tipo == TipoComando.DEPOSITAR || tipo == TipoComando.SACAR || tipo == TipoComando.TRANSFERIR)) {
+			resultado.completeExceptionally(new IllegalArgumentException("O valor deve ser de ao menos um centavo."));
+			return resultado;
+		}
+		long sequencia = anel.reservar();
+		Comando comando = anel.slot(sequencia);
+		comando.tipo = tipo;
+		comando.contaId = contaId;
+		comando.contaDestinoId = contaDestinoId;
+		comando.centavos = centavos;
+		comando.operacao = operacao;
+		comando.resultado = resultado;
+		anel.publicar(sequencia);
+		return resultado;
+	}
+
+	private void sequenciar() {
+		for (int espera = 0; ativo || !anel.vazio(); ) {
+			try {
+				if (anel.drenar(this::aplicar, LOTE_SEQUENCIADOR) > 0) {
+					espera = 0;
+				} else {
+					AnelComandos.aguardar(espera++);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	// Um comando que falha por erro inesperado falha so o proprio futuro: o sequenciador continua.
+	private void aplicar(Comando comando) throws InterruptedException {
+		CompletableFuture<Long> resultado = comando.resultado;
+		comando.resultado = null;
+		try {
+			aplicar(comando, resultado);
+		} catch (RuntimeException e) {
+			logger.error("Erro inesperado ao aplicar o comando {} da conta {}: {}", comando.tipo, comando.contaId, e.getMessage(), e);
+			rejeitar(resultado, new ContaException("Erro ao aplicar o lançamento.", e));
+		}
+	}
+
+	private void aplicar(Comando comando, CompletableFuture<Long> resultado) throws InterruptedException {
+		if (recarregar && !recarregarSaldos()) {
+			rejeitar(resultado, new ContaException("Os saldos do motor de lançamentos não puderam ser recarregados."));
+			return;
+		}
+		long contaId = comando.contaId;
+		long centavos = comando.centavos;
+		long saldo = saldos.get(contaId);
+		if (comando.tipo == TipoComando.REGISTRAR) {
+			if (saldo == MapaSaldos.AUSENTE) {
+				saldos.put(contaId, centavos);
+			}
+			resultado.complete(saldos.get(contaId));
+			return;
+		}
+		if (saldo == MapaSaldos.AUSENTE) {
+			rejeitar(resultado, new ContaNotFoundException("Conta não encontrada para o ID: " + contaId));
+			return;
+		}
+		switch (comando.tipo) {
+		case CONSULTAR:
+			resultado.complete(saldo);
+			return;
+		case DEPOSITAR:
+			saldos.put(contaId, saldo + centavos);
+			gravar(new Lancamento(contaId, saldo + centavos, 0L, 0L, centavos, null, null, resultado));
+			return;
+		case SACAR:
+			if (saldo < centavos) {
+				rejeitar(resultado, new SaldoInsuficienteException("Saldo insuficiente para o saque."));
+				return;
+			}
+			saldos.put(contaId, saldo - centavos);
+			gravar(new Lancamento(contaId, saldo - centavos, 0L, 0L, centavos, Operation.SAQUE, ZonedDateTime.now(FUSO).withNano(0), resultado));
+			return;
+		case TRANSFERIR:
+			long contaDestinoId = comando.contaDestinoId;
+			long saldoDestino = saldos.get(contaDestinoId);
+			if (saldoDestino == MapaSaldos.AUSENTE) {
+				rejeitar(resultado, new ContaNotFoundException("Conta não encontrada para o ID: " + contaDestinoId));
+				return;
+			}
+			if (saldo < centavos) {
+				rejeitar(resultado, new SaldoInsuficienteException("Saldo insuficiente na conta de origem para realizar a transferência."));
+				return;
+			}
+			saldos.put(contaId, saldo - centavos);
+			saldos.put(contaDestinoId, saldos.get(contaDestinoId) + centavos);
+			gravar(new Lancamento(contaId, saldos.get(contaId), contaDestinoId, saldos.get(contaDestinoId), centavos,
+					comando.operacao, ZonedDateTime.now(FUSO).withNano(0), resultado));
+			return;
+		default:
+			rejeitar(resultado, new IllegalStateException("Comando desconhecido: " + comando.tipo));
+		}
+	}
+
+	private void carregar(MapaSaldos destino) {
+		jdbcTemplate.query("SELECT id_conta, saldo FROM conta",
+				rs -> { destino.put(rs.getLong("id_conta"), rs.getBigDecimal("saldo").movePointRight(2).longValueExact()); });
+	}
+
+	// Nada e gravado enquanto o gravador descarta, entao conta tem exatamente os lotes que deram certo.
+	private boolean recarregarSaldos() throws InterruptedException {
+		MapaSaldos recarregados = new MapaSaldos(saldos.tamanho());
+		try {
+			carregar(recarregados);
+		} catch (RuntimeException e) {
+			logger.error("Erro ao recarregar os saldos do motor de lançamentos: {}", e.getMessage());
+			return false;
+		}
+		saldos = recarregados;
+		recarregar = false;
+		recargas++;
+		fila.put(Lancamento.RETOMAR);
+		logger.warn("Saldos do motor de lançamentos recarregados do banco: {} contas.", saldos.tamanho());
+		return true;
+	}
+
+	private void gravar(Lancamento lancamento) throws InterruptedException {
+		aplicados++;
+		fila.put(lancamento);
+	}
+
+	private void rejeitar(CompletableFuture<Long> resultado, RuntimeException erro) {
+		rejeitados++;
+		resultado.completeExceptionally(erro);
+	}
+}
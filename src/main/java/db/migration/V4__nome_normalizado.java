@@ -0,0 +1,56 @@
+package db.migration;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import br.com.banco.services.busca.NormalizadorNomes;
+
+/**
+ * Adds {@code conta.nome_normalizado}, the holder name in {@link NormalizadorNomes} form, under a
+ * unique index, so an exact name lookup is an index probe instead of a {@code LIKE} scan.
+ *
+ * Written in Java so the existing rows are normalized by the same code the application uses for
+ * new accounts and for lookups; H2 has no function that strips accents. When existing accounts
+ * share a normalized name the oldest keeps it and the others are left with {@code NULL}, which the
+ * unique index allows: they are still found by the substring search.
+ */
+public class V4__nome_normalizado extends BaseJavaMigration {
+
+	private static final Logger logger = LoggerFactory.getLogger(V4__nome_normalizado.class);
+
+	private static final int LOTE = 1000;
+
+	@Override
+	public void migrate(Context context) {
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(context.getConnection(), true));
+		jdbcTemplate.execute("ALTER TABLE conta ADD COLUMN nome_normalizado VARCHAR(50)");
+
+		Set<String> usados = new HashSet<>();
+		List<Object[]> atualizacoes = new ArrayList<>(LOTE);
+		jdbcTemplate.query("SELECT id_conta, nome_responsavel FROM conta ORDER BY id_conta", rs -> {
+			long id = rs.getLong("id_conta");
+			String normalizado = NormalizadorNomes.normalizar(rs.getString("nome_responsavel"));
+			if (!usados.add(normalizado)) {
+				logger.warn("Conta {} mantida sem nome normalizado: o nome '{}' já pertence a uma conta mais antiga.", id, normalizado);
+				return;
+			}
+			atualizacoes.add(new Object[] { normalizado, id });
+			if (atualizacoes.size() == LOTE) {
+				jdbcTemplate.batchUpdate("UPDATE conta SET nome_normalizado = ? WHERE id_conta = ?", atualizacoes);
+				atualizacoes.clear();
+			}
+		});
+		jdbcTemplate.batchUpdate("UPDATE conta SET nome_normalizado = ? WHERE id_conta = ?", atualizacoes);
+
+		jdbcTemplate.execute("CREATE UNIQUE INDEX uk_conta_nome_normalizado ON conta (nome_normalizado)");
+	}
+}
@@ -1,15 +1,22 @@
+-- Sequencias com incremento 50, igual ao allocationSize das entidades: o Hibernate reserva 50 ids
+-- por chamada e os gera em memoria, o que permite agrupar os INSERTs em lotes JDBC.
+-- Comecam em 1000 para ficar acima dos ids informados nos inserts abaixo.
+CREATE SEQUENCE conta_seq START WITH 1000 INCREMENT BY 50;
+CREATE SEQUENCE transferencia_seq START WITH 1000 INCREMENT BY 50;
+
 CREATE TABLE conta
 (
-    id_conta IDENTITY NOT NULL PRIMARY KEY,
+    id_conta BIGINT DEFAULT NEXT VALUE FOR conta_seq NOT NULL PRIMARY KEY,
     nome_responsavel VARCHAR(50) NOT NULL,
     data_de_criacao TIMESTAMP WITH TIME ZONE,
-    saldo DECIMAL(20, 2) NOT NULL DEFAULT 0.0
+    saldo DECIMAL(20, 2) NOT NULL DEFAULT 0.0,
+    versao BIGINT NOT NULL DEFAULT 0
 );
 
 
 CREATE TABLE transferencia
 (
-    id IDENTITY NOT NULL PRIMARY KEY,
+    id BIGINT DEFAULT NEXT VALUE FOR transferencia_seq NOT NULL PRIMARY KEY,
     data_transferencia TIMESTAMP WITH TIME ZONE NOT NULL,
     valor NUMERIC (20,2) NOT NULL,
     tipo VARCHAR(15) NOT NULL,
@@ -21,6 +28,28 @@ CREATE TABLE transferencia
         REFERENCES conta(id_conta)
 );
 
+-- Resultados das requisicoes com Idempotency-Key (usada com banco.idempotencia.persistir=true).
+CREATE TABLE idempotencia
+(
+    chave VARCHAR(100) NOT NULL PRIMARY KEY,
+    assinatura VARCHAR(200) NOT NULL,
+    status INT NOT NULL,
+    data_criacao TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+-- Saldo de fechamento de cada conta em cada dia em que ele mudou (CheckpointSaldos).
+CREATE TABLE saldo_checkpoint
+(
+    conta_id BIGINT NOT NULL,
+    dia DATE NOT NULL,
+    saldo DECIMAL(20, 2) NOT NULL,
+
+        PRIMARY KEY (conta_id, dia),
+        CONSTRAINT FK_CHECKPOINT_CONTA
+        FOREIGN KEY (conta_id)
+        REFERENCES conta(id_conta)
+);
+
 INSERT INTO conta (id_conta, nome_responsavel, data_de_criacao, saldo) VALUES (1, 'Fulano', null, 173.66);
 INSERT INTO conta (id_conta, nome_responsavel, data_de_criacao, saldo) VALUES (2, 'Sicrano', null, 956.00);
 INSERT INTO conta (id_conta, nome_responsavel, data_de_criacao, saldo) VALUES (3, 'Patrick', null, 35.78);
@@ -101,5 +130,6 @@ VALUES (30, '2023-07-17 10:54:46-03', -2.90, 'SAQUE', 'Sistema', 8);
 INSERT INTO transferencia (id, data_transferencia, valor, tipo, nome_operador_transacao, conta_id)
 VALUES (31, '2023-07-17 11:17:08-03', -2.90, 'SAQUE', 'Sistema', 8);
 
-
-
+-- As contas iniciais nao tem historico de saldo: o saldo informado vale a partir da criacao.
+INSERT INTO saldo_checkpoint (conta_id, dia, saldo)
+SELECT id_conta, COALESCE(CAST(data_de_criacao AS DATE), CURRENT_DATE), saldo FROM conta;
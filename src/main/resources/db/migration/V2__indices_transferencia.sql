@@ -0,0 +1,4 @@
+-- Consultas por conta (e periodo da conta), por periodo e por operador deixam de varrer a tabela.
+CREATE INDEX idx_transferencia_conta_data ON transferencia (conta_id, data_transferencia);
+CREATE INDEX idx_transferencia_data ON transferencia (data_transferencia);
+CREATE INDEX idx_transferencia_operador ON transferencia (nome_operador_transacao, data_transferencia);
@@ -0,0 +1,8 @@
+-- Paginacao por cursor (data_transferencia, id): com o id no fim dos indices cada pagina e uma busca
+-- por faixa que ja sai na ordem do cursor, sem ordenar as linhas encontradas.
+DROP INDEX idx_transferencia_conta_data;
+DROP INDEX idx_transferencia_data;
+DROP INDEX idx_transferencia_operador;
+CREATE INDEX idx_transferencia_conta_data ON transferencia (conta_id, data_transferencia, id);
+CREATE INDEX idx_transferencia_data ON transferencia (data_transferencia, id);
+CREATE INDEX idx_transferencia_operador ON transferencia (nome_operador_transacao, data_transferencia, id);
@@ -0,0 +1,47 @@
+package br.com.banco.carga;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import br.com.banco.BancoApplication;
+import br.com.banco.services.massa.GeradorMassaSintetica;
+import br.com.banco.services.massa.MassaSintetica;
+
+/**
+ * HTTP load test of the whole application. Starts {@link BancoApplication} on a random port over
+ * its own H2 database filled by the {@link GeradorMassaSintetica synthetic data generator}, drives
+ * the REST endpoints from an {@link GeradorCargaAberta open-loop generator} and writes a
+ * {@link RelatorioCarga report}.
+ * Nothing outside the JVM is needed:
+ *
+ * <pre>
+ * mvn test-compile exec:exec@carga -Dcarga.args="taxa=500 duracao=60 transferencias=1000000"
+ * </pre>
+ */
+public class CargaHttp {
+
+	private static final Logger logger = LoggerFactory.getLogger(CargaHttp.class);
+
+	public static void main(String[] args) throws Exception {
+		ConfiguracaoCarga configuracao = ConfiguracaoCarga.de(args);
+		RelatorioCarga relatorio = executar(configuracao);
+		relatorio.imprimir(System.out);
+		logger.info("Relatório de carga gravado em {}", configuracao.getRelatorio().toAbsolutePath());
+	}
+
+	static RelatorioCarga executar(ConfiguracaoCarga configuracao) throws Exception {
+		try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(BancoApplication.class).run(configuracao.getArgumentosSpring())) {
+			MassaSintetica massa = contexto.getBean(GeradorMassaSintetica.class).getMassa();
+			int porta = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+			GeradorCargaAberta gerador = new GeradorCargaAberta(configuracao);
+			logger.info("Carga de {} req/s: {} s de aquecimento e {} s medidos", configuracao.getTaxa(), configuracao.getAquecimento(), configuracao.getDuracao());
+			RelatorioCarga relatorio = new RelatorioCarga(configuracao, gerador.executar(new CenarioCarga("http://localhost:" + porta, massa)),
+					gerador.getEnvioMedidoNanos());
+			relatorio.gravar(configuracao.getRelatorio());
+			return relatorio;
+		}
+	}
+}
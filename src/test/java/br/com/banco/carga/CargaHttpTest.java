@@ -0,0 +1,53 @@
+package br.com.banco.carga;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * A short run of the load harness, so that it keeps working as the endpoints change.
+ */
+class CargaHttpTest {
+
+	@TempDir
+	Path pasta;
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void cargaCurtaRespondeTodasAsRequisicoesSemErro() throws Exception {
+		Path arquivo = pasta.resolve("relatorio.json");
+		RelatorioCarga relatorio = CargaHttp.executar(ConfiguracaoCarga.de("url=jdbc:h2:mem:carga-teste;DB_CLOSE_DELAY=-1", "contas=50",
+				"transferencias=2000", "taxa=100", "aquecimento=1", "duracao=2", "relatorio=" + arquivo));
+
+		Map<String, Object> total = (Map<String, Object>) relatorio.getConteudo().get("total");
+		assertEquals(200, total.get("requisicoes"));
+		assertEquals(0, total.get("erros"));
+		assertEquals(14, ((List<?>) relatorio.getConteudo().get("endpoints")).size());
+
+		JsonNode gravado = new ObjectMapper().readTree(Files.readString(arquivo));
+		assertEquals(200, gravado.get("total").get("requisicoes").asInt());
+		assertTrue(gravado.get("total").get("latenciaMs").get("p99").asDouble() > 0);
+	}
+
+	@Test
+	void percentilUsaORankMaisProximo() {
+		long[] ordenados = new long[1000];
+		for (int i = 0; i < ordenados.length; i++) {
+			ordenados[i] = (i + 1) * 1_000_000L;
+		}
+		assertEquals(500.0, Latencias.percentil(ordenados, 50));
+		assertEquals(990.0, Latencias.percentil(ordenados, 99));
+		assertEquals(999.0, Latencias.percentil(ordenados, 99.9));
+		assertEquals(1000.0, Latencias.percentil(ordenados, 100));
+	}
+}
@@ -0,0 +1,137 @@
+package br.com.banco.carga;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+import br.com.banco.services.massa.MassaSintetica;
+
+/**
+ * The request mix sent to the application: every REST endpoint except the full export of
+ * {@code GET /api/v1/transfers}, weighted towards reads. Each request is drawn at random from the
+ * synthetic data with its skews, so hot accounts are hot in the requests too and the same seed
+ * sends the same sequence of requests.
+ */
+class CenarioCarga {
+
+	private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("dd/MM/yyyy").withZone(ZoneId.systemDefault());
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+	private final List<Endpoint> endpoints = new ArrayList<>();
+
+	private final String base;
+
+	private final MassaSintetica massa;
+
+	private int pesoTotal;
+
+	CenarioCarga(String base, MassaSintetica massa) {
+		this.base = base;
+		this.massa = massa;
+
+		adicionar("GET /api/v1/contas/{id}", 10, a -> get("/api/v1/contas/" + massa.sortearConta(a)));
+		adicionar("GET /api/v1/contas/{id}/saldo", 5, a -> get("/api/v1/contas/" + massa.sortearConta(a) + "/saldo?em=" + data(massa.sortearInstante(a))));
+		adicionar("POST /api/v1/contas/{id}/depositar", 5, a -> post("/api/v1/contas/" + massa.sortearConta(a) + "/depositar?valor=" + valor(a)));
+		adicionar("POST /api/v1/contas/{origem}/transferir/{destino}", 5, a -> post("/api/v1/contas/" + massa.sortearConta(a) + "/transferir/"
+				+ massa.sortearConta(a) + "?tipo=TRANSFERENCIA&valor=" + valor(a)));
+		adicionar("GET /api/v1/transfers/conta/{numeroConta}", 10, a -> get("/api/v1/transfers/conta/" + massa.sortearConta(a)));
+		adicionar("GET /api/v1/transfers/periodo", 5, a -> get("/api/v1/transfers/periodo?" + periodo(a, 7)));
+		adicionar("GET /api/v1/transfers/operador", 5, a -> get("/api/v1/transfers/operador?nomeOperador=" + texto(massa.sortearNomeOperador(a))));
+		adicionar("GET /api/v1/transfers/periodo-operador", 5, a -> get("/api/v1/transfers/periodo-operador?" + periodo(a, 90)
+				+ "&nomeOperador=" + texto(massa.sortearNomeOperador(a))));
+		adicionar("GET /api/v1/transfers/paginadas", 5, a -> get("/api/v1/transfers/paginadas?tamanhoPagina=20&pagina=" + a.nextInt(50)));
+		adicionar("GET /api/v1/transfers/paginadas/cursor", 5, a -> get("/api/v1/transfers/paginadas/cursor?tamanhoPagina=20&contaId=" + massa.sortearConta(a)));
+		adicionar("GET /api/v1/transfers/transacoes", 3, a -> get("/api/v1/transfers/transacoes?" + periodo(a, 30) + "&nome=" + texto(massa.sortearNomeConta(a))));
+		adicionar("GET /api/v1/transfers/saldo-total", 3, a -> get("/api/v1/transfers/saldo-total?nome=" + texto(massa.sortearNomeConta(a))));
+		adicionar("GET /api/v1/transfers/saldo-periodo", 3, a -> get("/api/v1/transfers/saldo-periodo?" + periodo(a, 365) + "&nome=" + texto(massa.sortearNomeConta(a))));
+		adicionar("GET /api/v1/transfers/saldo-por-nome", 3, a -> get("/api/v1/transfers/saldo-por-nome?nomeOperador=" + texto(massa.sortearNomeOperador(a))));
+	}
+
+	/**
+	 * Draws the next endpoint and builds its request.
+	 */
+	Requisicao sortear(SplittableRandom aleatorio) {
+		int sorteio = aleatorio.nextInt(pesoTotal);
+		for (Endpoint endpoint : endpoints) {
+			sorteio -= endpoint.peso;
+			if (sorteio < 0) {
+				return new Requisicao(endpoint.nome, endpoint.requisicao.apply(aleatorio));
+			}
+		}
+		throw new IllegalStateException("Pesos inconsistentes");
+	}
+
+	List<String> getNomes() {
+		List<String> nomes = new ArrayList<>();
+		endpoints.forEach(endpoint -> nomes.add(endpoint.nome));
+		return nomes;
+	}
+
+	private void adicionar(String nome, int peso, Function<SplittableRandom, HttpRequest> requisicao) {
+		endpoints.add(new Endpoint(nome, peso, requisicao));
+		pesoTotal += peso;
+	}
+
+	private HttpRequest get(String caminho) {
+		return HttpRequest.newBuilder(URI.create(base + caminho)).timeout(TIMEOUT).GET().build();
+	}
+
+	private HttpRequest post(String caminho) {
+		return HttpRequest.newBuilder(URI.create(base + caminho)).timeout(TIMEOUT).POST(HttpRequest.BodyPublishers.noBody()).build();
+	}
+
+	private String periodo(SplittableRandom aleatorio, int dias) {
+		Instant inicio = massa.sortearInstante(aleatorio);
+		return "dataInicio=" + data(inicio) + "&dataFim=" + data(inicio.plus(Duration.ofDays(dias)));
+	}
+
+	private static String data(Instant instante) {
+		return texto(FORMATO_DATA.format(instante));
+	}
+
+	private static String valor(SplittableRandom aleatorio) {
+		return String.valueOf(aleatorio.nextInt(1, 10_000) / 100.0);
+	}
+
+	private static String texto(String valor) {
+		return URLEncoder.encode(valor, StandardCharsets.UTF_8);
+	}
+
+	/** A request drawn from the mix, with the name of the endpoint it is reported under. */
+	static class Requisicao {
+
+		final String endpoint;
+
+		final HttpRequest http;
+
+		Requisicao(String endpoint, HttpRequest http) {
+			this.endpoint = endpoint;
+			this.http = http;
+		}
+	}
+
+	private static class Endpoint {
+
+		private final String nome;
+
+		private final int peso;
+
+		private final Function<SplittableRandom, HttpRequest> requisicao;
+
+		private Endpoint(String nome, int peso, Function<SplittableRandom, HttpRequest> requisicao) {
+			this.nome = nome;
+			this.peso = peso;
+			this.requisicao = requisicao;
+		}
+	}
+}
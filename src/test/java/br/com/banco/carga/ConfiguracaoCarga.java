@@ -0,0 +1,113 @@
+package br.com.banco.carga;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Settings of a load run, read from {@code chave=valor} arguments. Arguments starting with
+ * {@code --} are handed to Spring unchanged, so any application property can be overridden for a
+ * run (for example {@code --banco.conta.motor.habilitado=true}).
+ */
+class ConfiguracaoCarga {
+
+	private final Map<String, String> valores = new LinkedHashMap<>();
+
+	private final List<String> argumentosSpring = new ArrayList<>();
+
+	private ConfiguracaoCarga() {
+		valores.put("url", "jdbc:h2:mem:carga;DB_CLOSE_DELAY=-1");
+		valores.put("contas", "1000");
+		valores.put("transferencias", "100000");
+		valores.put("taxa", "200");
+		valores.put("aquecimento", "10");
+		valores.put("duracao", "30");
+		valores.put("semente", "42");
+		valores.put("relatorio", "target/carga-relatorio.json");
+	}
+
+	static ConfiguracaoCarga de(String... argumentos) {
+		ConfiguracaoCarga configuracao = new ConfiguracaoCarga();
+		for (String argumento : argumentos) {
+			if (argumento.startsWith("--")) {
+				configuracao.argumentosSpring.add(argumento);
+				continue;
+			}
+			int igual = argumento.indexOf('=');
+			if (igual <= 0 || !configuracao.valores.containsKey(argumento.substring(0, igual))) {
+				throw new IllegalArgumentException("Argumento desconhecido: " + argumento + ". Use chave=valor com uma de " + configuracao.valores.keySet());
+			}
+			configuracao.valores.put(argumento.substring(0, igual), argumento.substring(igual + 1));
+		}
+		return configuracao;
+	}
+
+	/** JDBC URL of the H2 database the application is started on. */
+	String getUrl() {
+		return valores.get("url");
+	}
+
+	int getContas() {
+		return inteiro("contas");
+	}
+
+	int getTransferencias() {
+		return inteiro("transferencias");
+	}
+
+	/** Requests per second sent by the open-loop generator, whatever the response times. */
+	int getTaxa() {
+		return inteiro("taxa");
+	}
+
+	/** Seconds of load whose latencies are discarded before measuring. */
+	int getAquecimento() {
+		return inteiro("aquecimento");
+	}
+
+	/** Seconds of measured load. */
+	int getDuracao() {
+		return inteiro("duracao");
+	}
+
+	long getSemente() {
+		return Long.parseLong(valores.get("semente"));
+	}
+
+	Path getRelatorio() {
+		return Paths.get(valores.get("relatorio"));
+	}
+
+	/**
+	 * Command line of the application: the {@code massa} profile sized by this run, the database
+	 * URL, a random port unless another one was given, then the {@code --} arguments of the run.
+	 */
+	String[] getArgumentosSpring() {
+		List<String> argumentos = new ArrayList<>();
+		argumentos.add("--spring.profiles.active=massa");
+		argumentos.add("--banco.massa.contas=" + getContas());
+		argumentos.add("--banco.massa.transferencias=" + getTransferencias());
+		argumentos.add("--banco.massa.semente=" + getSemente());
+		argumentos.add("--spring.datasource.url=" + getUrl());
+		if (argumentosSpring.stream().noneMatch(argumento -> argumento.startsWith("--server.port="))) {
+			argumentos.add("--server.port=0");
+		}
+		argumentos.addAll(argumentosSpring);
+		return argumentos.toArray(new String[0]);
+	}
+
+	Map<String, String> getValores() {
+		return valores;
+	}
+
+	private int inteiro(String chave) {
+		int valor = Integer.parseInt(valores.get(chave));
+		if (valor < 0 || (valor == 0 && !chave.equals("aquecimento"))) {
+			throw new IllegalArgumentException("Valor inválido para " + chave + ": " + valor);
+		}
+		return valor;
+	}
+}
@@ -0,0 +1,90 @@
+package br.com.banco.carga;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator. Requests are scheduled at a fixed rate from the start of the run and
+ * sent without waiting for earlier responses, so a slow response never delays the next request.
+ * Latency is measured from the scheduled send time rather than the actual one: when the sender
+ * itself falls behind, the wait shows up in the percentiles instead of being silently dropped
+ * (the coordinated omission a closed-loop client would make).
+ */
+class GeradorCargaAberta {
+
+	private static final long ESPERA_FINAL_NANOS = 60_000_000_000L;
+
+	private final HttpClient cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+	private final ConfiguracaoCarga configuracao;
+
+	private long envioMedidoNanos;
+
+	GeradorCargaAberta(ConfiguracaoCarga configuracao) {
+		this.configuracao = configuracao;
+	}
+
+	/**
+	 * Runs the warm-up and the measured load and waits for every response.
+	 *
+	 * @return the latencies of the measured part, by endpoint, in the order of the scenario
+	 * @throws TimeoutException if responses were still missing a minute after the last request
+	 */
+	Map<String, Latencias> executar(CenarioCarga cenario) throws InterruptedException, TimeoutException {
+		Map<String, Latencias> resultados = new LinkedHashMap<>();
+		cenario.getNomes().forEach(nome -> resultados.put(nome, new Latencias()));
+		SplittableRandom aleatorio = new SplittableRandom(configuracao.getSemente());
+		AtomicInteger pendentes = new AtomicInteger();
+
+		long taxa = configuracao.getTaxa();
+		long aquecimento = taxa * configuracao.getAquecimento();
+		long total = aquecimento + taxa * configuracao.getDuracao();
+		long inicio = System.nanoTime();
+		long inicioMedido = 0;
+		for (long i = 0; i < total; i++) {
+			long previsto = inicio + i * 1_000_000_000L / taxa;
+			long espera;
+			while ((espera = previsto - System.nanoTime()) > 0) {
+				LockSupport.parkNanos(espera);
+			}
+			if (i == aquecimento) {
+				inicioMedido = System.nanoTime();
+			}
+			CenarioCarga.Requisicao requisicao = cenario.sortear(aleatorio);
+			Latencias latencias = i < aquecimento ? null : resultados.get(requisicao.endpoint);
+			long enviado = System.nanoTime();
+			pendentes.incrementAndGet();
+			cliente.sendAsync(requisicao.http, HttpResponse.BodyHandlers.discarding()).whenComplete((resposta, erro) -> {
+				long agora = System.nanoTime();
+				if (latencias != null) {
+					latencias.registrar(agora - previsto, agora - enviado, resposta == null ? -1 : resposta.statusCode());
+				}
+				pendentes.decrementAndGet();
+			});
+		}
+		envioMedidoNanos = System.nanoTime() - inicioMedido;
+
+		long limite = System.nanoTime() + ESPERA_FINAL_NANOS;
+		while (pendentes.get() > 0) {
+			if (System.nanoTime() > limite) {
+				throw new TimeoutException(pendentes.get() + " requisições sem resposta após o fim da carga");
+			}
+			Thread.sleep(10);
+		}
+		return resultados;
+	}
+
+	/**
+	 * Wall time the generator took to send the measured requests. Close to the configured duration
+	 * unless the generator itself could not keep up with the rate.
+	 */
+	long getEnvioMedidoNanos() {
+		return envioMedidoNanos;
+	}
+}
@@ -0,0 +1,75 @@
+package br.com.banco.carga;
+
+import java.util.Arrays;
+
+/**
+ * Latencies of one endpoint during the measured part of a run. The response time counts from the
+ * moment the generator meant to send the request; the service time counts from the moment it
+ * actually went out.
+ */
+class Latencias {
+
+	private long[] resposta = new long[1024];
+
+	private long[] servico = new long[1024];
+
+	private int total;
+
+	private int erros;
+
+	private int respostas4xx;
+
+	/**
+	 * @param status the HTTP status, or -1 if the request failed without a response
+	 */
+	synchronized void registrar(long respostaNanos, long servicoNanos, int status) {
+		if (total == resposta.length) {
+			resposta = Arrays.copyOf(resposta, total * 2);
+			servico = Arrays.copyOf(servico, total * 2);
+		}
+		resposta[total] = respostaNanos;
+		servico[total] = servicoNanos;
+		total++;
+		if (status < 0 || status >= 500) {
+			erros++;
+		} else if (status >= 400) {
+			respostas4xx++;
+		}
+	}
+
+	synchronized int getTotal() {
+		return total;
+	}
+
+	synchronized int getErros() {
+		return erros;
+	}
+
+	synchronized int getRespostas4xx() {
+		return respostas4xx;
+	}
+
+	synchronized long[] respostasOrdenadas() {
+		long[] copia = Arrays.copyOf(resposta, total);
+		Arrays.sort(copia);
+		return copia;
+	}
+
+	synchronized long[] servicosOrdenados() {
+		long[] copia = Arrays.copyOf(servico, total);
+		Arrays.sort(copia);
+		return copia;
+	}
+
+	/**
+	 * Nearest-rank percentile of an ascending array, in milliseconds.
+	 */
+	static double percentil(long[] ordenados, double percentil) {
+		if (ordenados.length == 0) {
+			return 0;
+		}
+		// A folga evita que o erro de ponto flutuante de 99.9 / 100 pule uma posicao.
+		int posicao = (int) Math.ceil(percentil / 100 * ordenados.length - 1e-9) - 1;
+		return ordenados[Math.max(0, Math.min(posicao, ordenados.length - 1))] / 1_000_000.0;
+	}
+}
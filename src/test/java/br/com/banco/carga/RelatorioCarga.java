@@ -0,0 +1,94 @@
+package br.com.banco.carga;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Throughput and latency percentiles of a run, by endpoint and for the whole mix, written as JSON
+ * so that two builds can be compared file to file.
+ */
+class RelatorioCarga {
+
+	private static final double[] PERCENTIS = { 50, 90, 99, 99.9 };
+
+	private final Map<String, Object> conteudo = new LinkedHashMap<>();
+
+	RelatorioCarga(ConfiguracaoCarga configuracao, Map<String, Latencias> resultados, long envioMedidoNanos) {
+		double segundos = configuracao.getDuracao();
+		List<Map<String, Object>> endpoints = new ArrayList<>();
+		Latencias todas = new Latencias();
+		resultados.forEach((nome, latencias) -> {
+			endpoints.add(resumo(nome, latencias, segundos));
+			long[] respostas = latencias.respostasOrdenadas();
+			long[] servicos = latencias.servicosOrdenados();
+			for (int i = 0; i < respostas.length; i++) {
+				todas.registrar(respostas[i], servicos[i], 200);
+			}
+		});
+		Map<String, Object> total = resumo("TOTAL", todas, segundos);
+		total.put("erros", endpoints.stream().mapToInt(e -> (int) e.get("erros")).sum());
+		total.put("respostas4xx", endpoints.stream().mapToInt(e -> (int) e.get("respostas4xx")).sum());
+		total.put("taxaEnviada", Math.round(todas.getTotal() / (envioMedidoNanos / 1e9) * 10) / 10.0);
+
+		conteudo.put("configuracao", configuracao.getValores());
+		conteudo.put("total", total);
+		conteudo.put("endpoints", endpoints);
+	}
+
+	void gravar(Path arquivo) throws IOException {
+		if (arquivo.getParent() != null) {
+			Files.createDirectories(arquivo.getParent());
+		}
+		new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(arquivo.toFile(), conteudo);
+	}
+
+	@SuppressWarnings("unchecked")
+	void imprimir(PrintStream saida) {
+		saida.printf("%-52s %8s %6s %9s %9s %9s %9s %9s %9s%n", "endpoint", "req", "erros", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+		List<Map<String, Object>> linhas = new ArrayList<>((List<Map<String, Object>>) conteudo.get("endpoints"));
+		linhas.add((Map<String, Object>) conteudo.get("total"));
+		for (Map<String, Object> linha : linhas) {
+			Map<String, Object> resposta = (Map<String, Object>) linha.get("latenciaMs");
+			saida.printf("%-52s %8d %6d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", linha.get("endpoint"), linha.get("requisicoes"), linha.get("erros"),
+					linha.get("vazao"), resposta.get("p50"), resposta.get("p90"), resposta.get("p99"), resposta.get("p99.9"), resposta.get("max"));
+		}
+	}
+
+	Map<String, Object> getConteudo() {
+		return conteudo;
+	}
+
+	private static Map<String, Object> resumo(String nome, Latencias latencias, double segundos) {
+		Map<String, Object> resumo = new LinkedHashMap<>();
+		resumo.put("endpoint", nome);
+		resumo.put("requisicoes", latencias.getTotal());
+		resumo.put("erros", latencias.getErros());
+		resumo.put("respostas4xx", latencias.getRespostas4xx());
+		resumo.put("vazao", Math.round(latencias.getTotal() / segundos * 10) / 10.0);
+		resumo.put("latenciaMs", percentis(latencias.respostasOrdenadas()));
+		resumo.put("tempoServicoMs", percentis(latencias.servicosOrdenados()));
+		return resumo;
+	}
+
+	private static Map<String, Object> percentis(long[] ordenados) {
+		Map<String, Object> valores = new LinkedHashMap<>();
+		for (double percentil : PERCENTIS) {
+			valores.put("p" + (percentil == Math.rint(percentil) ? String.valueOf((int) percentil) : String.valueOf(percentil)), arredondar(Latencias.percentil(ordenados, percentil)));
+		}
+		valores.put("max", arredondar(Latencias.percentil(ordenados, 100)));
+		return valores;
+	}
+
+	private static double arredondar(double milissegundos) {
+		return Math.round(milissegundos * 1000) / 1000.0;
+	}
+}
@@ -0,0 +1,135 @@
+package br.com.banco.configs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.banco.entities.Conta;
+import br.com.banco.entities.Dinheiro;
+import br.com.banco.repositories.ContaRepository;
+import br.com.banco.repositories.TransferenciaRepository;
+import br.com.banco.services.ContaService;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:segundonivel")
+class CacheSegundoNivelConfigTest {
+
+	@Autowired
+	private ContaRepository contaRepository;
+
+	@Autowired
+	private TransferenciaRepository transferenciaRepository;
+
+	@Autowired
+	private ContaService contaService;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private MeterRegistry registro;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void contaLidaEmOutraSessaoNaoVaiAoBanco() {
+		Long id = contaService.criarConta("Segundo nivel").getId();
+		entityManagerFactory.getCache().evict(Conta.class, id);
+		Statistics estatisticas = estatisticas();
+		long acertos = acertos(estatisticas);
+
+		// Cada chamada fora de transacao abre a sua sessao: so a primeira le do banco
+		assertEquals("Segundo nivel", contaRepository.findById(id).get().getNome());
+		long comandos = estatisticas.getPrepareStatementCount();
+		for (int i = 0; i < 5; i++) {
+			assertEquals("Segundo nivel", contaRepository.findById(id).get().getNome());
+		}
+
+		assertEquals(comandos, estatisticas.getPrepareStatementCount());
+		assertEquals(5, acertos(estatisticas) - acertos);
+		assertTrue(contaRepository.existsById(id));
+		assertFalse(contaRepository.existsById(999_999L));
+	}
+
+	@Test
+	void saldoAlteradoPorSqlNativoTiraDoCacheSoAContaAlterada() {
+		Long alterada = contaService.criarConta("Segundo nivel alterada").getId();
+		Long outra = contaService.criarConta("Segundo nivel outra").getId();
+		contaRepository.findById(alterada);
+		contaRepository.findById(outra);
+		Statistics estatisticas = estatisticas();
+
+		// A estrategia padrao, ATOMICA, grava o saldo com UPDATE nativo
+		contaService.depositar(alterada, 30.0);
+
+		long acertos = acertos(estatisticas);
+		contaRepository.findById(outra);
+		assertEquals(1, acertos(estatisticas) - acertos);
+		assertEquals(Dinheiro.de(30.0), contaRepository.findById(alterada).get().getSaldo());
+		assertEquals(1, acertos(estatisticas) - acertos);
+	}
+
+	@Test
+	void gravarTransferenciaNaoTiraAsContasDoCache() {
+		Long id = contaService.criarConta("Segundo nivel transf").getId();
+		contaRepository.findById(id);
+		Statistics estatisticas = estatisticas();
+
+		transactionTemplate.executeWithoutResult(status -> transferenciaRepository.registrar(id, ZonedDateTime.now(),
+				BigDecimal.TEN, "DEPOSITO", "Sistema"));
+
+		long acertos = acertos(estatisticas);
+		contaRepository.findById(id);
+		assertEquals(1, acertos(estatisticas) - acertos);
+	}
+
+	@Test
+	void saldoGravadoApareceNaLeituraSeguinte() {
+		Long origem = contaService.criarConta("Segundo nivel origem").getId();
+		Long destino = contaService.criarConta("Segundo nivel destino").getId();
+		contaRepository.findById(origem);
+		contaRepository.findById(destino);
+
+		contaService.depositar(origem, 50.0);
+		assertEquals(Dinheiro.de(50.0), contaRepository.findById(origem).get().getSaldo());
+
+		Conta conta = contaRepository.findById(destino).get();
+		conta.setSaldo(Dinheiro.de(7.0));
+		contaRepository.save(conta);
+		assertEquals(Dinheiro.de(7.0), contaRepository.findById(destino).get().getSaldo());
+	}
+
+	@Test
+	void estatisticasPorRegiaoNasMetricas() {
+		Long id = contaService.criarConta("Segundo nivel metricas").getId();
+		contaRepository.findById(id);
+		contaRepository.findById(id);
+
+		String regiao = CacheSegundoNivelConfig.REGIAO_CONTA;
+		assertTrue(registro.get("hibernate.second.level.cache.requests").tag("region", regiao).tag("result", "hit")
+				.functionCounter().count() >= 1);
+		assertTrue(registro.get("cache.gets").tag("cache", regiao).tag("result", "hit").functionCounter().count() >= 1);
+		registro.get("cache.evictions").tag("cache", regiao).functionCounter();
+	}
+
+	private Statistics estatisticas() {
+		return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	private long acertos(Statistics estatisticas) {
+		return estatisticas.getDomainDataRegionStatistics(CacheSegundoNivelConfig.REGIAO_CONTA).getHitCount();
+	}
+}
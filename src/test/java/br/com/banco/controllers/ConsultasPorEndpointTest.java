@@ -0,0 +1,107 @@
+package br.com.banco.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import br.com.banco.entities.Transferencia;
+import br.com.banco.repositories.TransferenciaRepository;
+
+/**
+ * Counts the SQL statements Hibernate prepares for each read endpoint, so that an association
+ * loaded one row at a time (N+1) fails the build instead of slowing production down.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(properties = { "spring.datasource.url=jdbc:h2:mem:consultas", "spring.jpa.properties.hibernate.generate_statistics=true" })
+@AutoConfigureMockMvc
+class ConsultasPorEndpointTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private TransferenciaRepository transferenciaRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics estatisticas;
+
+	@BeforeAll
+	void popular() {
+		// Transferencias espalhadas por todas as contas: um N+1 na conta faria uma consulta a mais por conta distinta.
+		jdbcTemplate.update("INSERT INTO transferencia (data_transferencia, valor, tipo, nome_operador_transacao, conta_id) "
+				+ "SELECT TIMESTAMP WITH TIME ZONE '2020-06-10 10:00:00-03', 1.00, 'TRANSFERENCIA', 'Beltrano', 1 + MOD(X, 15) FROM SYSTEM_RANGE(1, 60)");
+		estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@BeforeEach
+	void zerar() {
+		estatisticas.clear();
+	}
+
+	@ParameterizedTest(name = "{0} -> {1} consulta(s)")
+	@CsvSource({
+			"/api/v1/transfers, 1",
+			"/api/v1/transfers/conta/1, 1",
+			"/api/v1/transfers/periodo?dataInicio=01/01/2019&dataFim=31/12/2021, 1",
+			"/api/v1/transfers/operador?nomeOperador=beltrano, 1",
+			"/api/v1/transfers/periodo-operador?dataInicio=01/01/2019&dataFim=31/12/2021&nomeOperador=beltrano, 1",
+			"/api/v1/transfers/paginadas?pagina=0&tamanhoPagina=10, 2",
+			"/api/v1/transfers/paginadas/cursor?tamanhoPagina=10, 1",
+			"/api/v1/transfers/transacoes?nome=fulano&dataInicio=01/01/2019&dataFim=31/12/2021, 1",
+			"/api/v1/transfers/saldo-periodo?nome=fulano&dataInicio=01/01/2019&dataFim=31/12/2021, 1" })
+	void endpointExecutaUmNumeroFixoDeConsultas(String url, long esperadas) throws Exception {
+		mockMvc.perform(get(url)).andExpect(status().isOk());
+
+		assertEquals(esperadas, estatisticas.getPrepareStatementCount(), url);
+	}
+
+	@Test
+	void contaSoEhCarregadaPorQuemPedeOGrafo() {
+		Transferencia semConta = transferenciaRepository.findById(5L).get();
+		assertFalse(Hibernate.isInitialized(semConta.getConta()));
+		assertEquals(1L, semConta.getConta().getId());
+
+		Transferencia comConta = transferenciaRepository.findComContaById(5L).get();
+		assertTrue(Hibernate.isInitialized(comConta.getConta()));
+		assertEquals("Fulano", comConta.getConta().getNome());
+
+		assertEquals(2, estatisticas.getPrepareStatementCount());
+	}
+
+	@Test
+	void paginaDeEntidadesTrazAsContasNoMesmoSelect() {
+		List<Transferencia> pagina = transferenciaRepository.findAll(PageRequest.of(0, 50)).getContent();
+
+		assertEquals(50, pagina.size());
+		assertTrue(pagina.stream().allMatch(t -> Hibernate.isInitialized(t.getConta())));
+		// O SELECT da pagina e o COUNT.
+		assertEquals(2, estatisticas.getPrepareStatementCount());
+	}
+}
@@ -1,9 +1,15 @@
 package br.com.banco.controllers;
 
 import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.junit.Before;
@@ -13,21 +19,31 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import br.com.banco.dtos.ItemLoteDto;
+import br.com.banco.dtos.ResultadoItemLoteDto;
+import br.com.banco.dtos.ResultadoLoteDto;
 import br.com.banco.entities.Conta;
+import br.com.banco.entities.Dinheiro;
+import br.com.banco.services.ArmazemIdempotencia;
 import br.com.banco.services.ContaService;
+import br.com.banco.services.ControleConcorrenciaConta;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 public class ContaControllerTest {
 
 	@Mock
 	private ContaService contaService;
 
+	@Mock
+	private ControleConcorrenciaConta controleConcorrencia;
+
 	private ContaController contaController;
 
 	@SuppressWarnings("deprecation")
 	@Before
 	public void setUp() {
 		MockitoAnnotations.initMocks(this);
-		contaController = new ContaController(contaService);
+		contaController = new ContaController(contaService, controleConcorrencia, new ArmazemIdempotencia(null, new SimpleMeterRegistry(), 100, Duration.ofMinutes(1), false));
 	}
 
 	@Test
@@ -35,8 +51,8 @@ public class ContaControllerTest {
 		String nome = "John Doe";
 		Conta conta = new Conta(nome);
 		conta.setId(1L);
-		conta.setSaldo(0.0);
-		when(contaService.hasContaByName(nome)).thenReturn(false);
+		conta.setSaldo(Dinheiro.de(0.0));
+		when(contaService.hasContaByNomeExato(nome)).thenReturn(false);
 		when(contaService.criarConta(nome)).thenReturn(conta);
 
 		Map<String, Object> requestBody = new HashMap<>();
@@ -54,7 +70,7 @@ public class ContaControllerTest {
 	@Test
 	public void testCriarContaIllegalArgumentException() {
 		String nome = "John Doe";
-		when(contaService.hasContaByName(nome)).thenReturn(false);
+		when(contaService.hasContaByNomeExato(nome)).thenReturn(false);
 		when(contaService.criarConta(nome)).thenThrow(new IllegalArgumentException("Erro ao criar conta"));
 
 		Map<String, Object> requestBody = new HashMap<>();
@@ -68,7 +84,7 @@ public class ContaControllerTest {
 	@Test
 	public void testCriarContaException() {
 		String nome = "John Doe";
-		when(contaService.hasContaByName(nome)).thenReturn(false);
+		when(contaService.hasContaByNomeExato(nome)).thenReturn(false);
 		when(contaService.criarConta(nome)).thenThrow(new RuntimeException("Erro interno ao criar conta"));
 
 		Map<String, Object> requestBody = new HashMap<>();
@@ -85,14 +101,14 @@ public class ContaControllerTest {
 		double valor = 100.0;
 		when(contaService.hasConta(id)).thenReturn(true);
 
-		ResponseEntity<Void> response = contaController.depositar(id, valor);
+		ResponseEntity<Void> response = contaController.depositar(id, valor, null);
 
 		assertEquals(HttpStatus.OK, response.getStatusCode());
 	}
 
 	@Test
 	public void testDepositarIdNulo() {
-		ResponseEntity<Void> response = contaController.depositar(null, 100.0);
+		ResponseEntity<Void> response = contaController.depositar(null, 100.0, null);
 
 		assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
 	}
@@ -102,18 +118,46 @@ public class ContaControllerTest {
 		Long id = 1L;
 		when(contaService.hasConta(id)).thenReturn(false);
 
-		ResponseEntity<Void> response = contaController.depositar(id, 100.0);
+		ResponseEntity<Void> response = contaController.depositar(id, 100.0, null);
 
 		assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
 	}
 
+	@Test
+	public void testDepositarRepetidoComMesmaChave() {
+		Long id = 1L;
+		when(contaService.hasConta(id)).thenReturn(true);
+
+		ResponseEntity<Void> primeira = contaController.depositar(id, 100.0, "chave-1");
+		ResponseEntity<Void> repetida = contaController.depositar(id, 100.0, "chave-1");
+		ResponseEntity<Void> outraRequisicao = contaController.depositar(id, 50.0, "chave-1");
+
+		assertEquals(HttpStatus.OK, primeira.getStatusCode());
+		assertEquals(HttpStatus.OK, repetida.getStatusCode());
+		assertEquals("true", repetida.getHeaders().getFirst(ContaController.CABECALHO_REPETIDA));
+		assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, outraRequisicao.getStatusCode());
+		verify(contaService, times(1)).hasConta(id);
+		verify(contaService, times(1)).depositar(id, 100.0);
+	}
+
+	@Test
+	public void testCalcularSaldoEm() {
+		when(contaService.calcularSaldoEm(1L, LocalDate.of(2023, 7, 16))).thenReturn(4640.24);
+
+		ResponseEntity<Double> response = contaController.calcularSaldoEm(1L, "16/07/2023");
+
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertEquals(Double.valueOf(4640.24), response.getBody());
+		assertEquals(HttpStatus.BAD_REQUEST, contaController.calcularSaldoEm(1L, "31/02/2023").getStatusCode());
+	}
+
 	@Test
 	public void testSacar() {
 		Long id = 1L;
 		double valor = 100.0;
 		when(contaService.hasConta(id)).thenReturn(true);
 
-		ResponseEntity<Void> response = contaController.sacar(id, valor);
+		ResponseEntity<Void> response = contaController.sacar(id, valor, null);
 
 		assertEquals(HttpStatus.OK, response.getStatusCode());
 	}
@@ -123,7 +167,7 @@ public class ContaControllerTest {
 		Long id = 1L;
 		when(contaService.hasConta(id)).thenReturn(false);
 
-		ResponseEntity<Void> response = contaController.sacar(id, 100.0);
+		ResponseEntity<Void> response = contaController.sacar(id, 100.0, null);
 
 		assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
 	}
@@ -133,7 +177,7 @@ public class ContaControllerTest {
 		Long id = 1L;
 		Conta conta = new Conta("John Doe");
 		conta.setId(id);
-		conta.setSaldo(500.0);
+		conta.setSaldo(Dinheiro.de(500.0));
 		when(contaService.hasConta(id)).thenReturn(true);
 		when(contaService.obterContaPorId(id)).thenReturn(conta);
 
@@ -182,7 +226,7 @@ public class ContaControllerTest {
 		when(contaService.hasConta(idContaOrigem)).thenReturn(true);
 		when(contaService.hasConta(idContaDestino)).thenReturn(true);
 
-		ResponseEntity<Void> response = contaController.transferir(idContaOrigem, idContaDestino, valor, tipo);
+		ResponseEntity<Void> response = contaController.transferir(idContaOrigem, idContaDestino, valor, tipo, null);
 
 		assertEquals(HttpStatus.OK, response.getStatusCode());
 	}
@@ -215,4 +259,25 @@ public class ContaControllerTest {
 		assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
 	}
 
+	@Test
+	public void testProcessarLote() {
+		List<ItemLoteDto> itens = Collections.singletonList(new ItemLoteDto(br.com.banco.enums.Operation.TRANSFERENCIA, 1L, 2L, 10.0));
+		when(contaService.processarLote(itens)).thenReturn(new ResultadoLoteDto(Collections.singletonList(ResultadoItemLoteDto.aplicado(0))));
+
+		ResponseEntity<ResultadoLoteDto> response = contaController.processarLote(itens);
+
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertEquals(1, response.getBody().getAplicados());
+	}
+
+	@Test
+	public void testProcessarLoteVazio() {
+		List<ItemLoteDto> itens = Collections.emptyList();
+		when(contaService.processarLote(itens)).thenThrow(new IllegalArgumentException("O lote deve ter ao menos um item."));
+
+		ResponseEntity<ResultadoLoteDto> response = contaController.processarLote(itens);
+
+		assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+package br.com.banco.controllers;
+
+import static org.hamcrest.Matchers.aMapWithSize;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:latencia")
+@AutoConfigureMockMvc
+class LatenciaControllerTest {
+
+	private static final String PERIODO = "$.endpoints['GET /api/v1/transfers/periodo']";
+
+	private static final String POR_DATA = "$.repositorios['TransferenciaRepository.findByDataTransferenciaBetween']";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void percentisPorEndpointEPorMetodoDeRepositorioZeraveis() throws Exception {
+		for (int i = 0; i < 3; i++) {
+			mockMvc.perform(get("/api/v1/transfers/periodo").param("dataInicio", "01/01/2019").param("dataFim", "31/12/2021"));
+		}
+
+		mockMvc.perform(get("/internal/latency")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.janela").value("PT1M"))
+				.andExpect(jsonPath(PERIODO + ".janela.contagem").value(3))
+				.andExpect(jsonPath(PERIODO + ".acumulado.contagem").value(3))
+				.andExpect(jsonPath(PERIODO + ".janela.maxMs").value(greaterThanOrEqualTo(0.0)))
+				.andExpect(jsonPath(PERIODO + ".janela", aMapWithSize(5)))
+				.andExpect(jsonPath(POR_DATA + ".acumulado.contagem").value(3));
+
+		mockMvc.perform(delete("/internal/latency")).andExpect(status().isNoContent());
+
+		mockMvc.perform(get("/internal/latency")).andExpect(status().isOk())
+				.andExpect(jsonPath(PERIODO + ".acumulado.contagem").value(0))
+				.andExpect(jsonPath(POR_DATA + ".janela.contagem").value(0));
+	}
+}
@@ -0,0 +1,64 @@
+package br.com.banco.entities;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+
+class DinheiroTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void somasSaoExatasEmCentavos() {
+		Dinheiro total = Dinheiro.ZERO;
+		for (int i = 0; i < 1_000; i++) {
+			total = total.somar(Dinheiro.de(0.1));
+		}
+		assertEquals(Dinheiro.deCentavos(10_000), total);
+		assertEquals(Dinheiro.de(0.3), Dinheiro.de(0.1).somar(Dinheiro.de(0.2)));
+		assertEquals(Dinheiro.de(-50.01), Dinheiro.de(50.0).subtrair(Dinheiro.de(100.01)));
+		assertTrue(Dinheiro.de(49.99).menorQue(Dinheiro.de(50.0)));
+		assertTrue(Dinheiro.de(-0.01).ehNegativo());
+		assertSame(Dinheiro.ZERO, Dinheiro.de(10.0).subtrair(Dinheiro.de(10.0)));
+	}
+
+	@Test
+	void conversoesArredondamParaOCentavoMaisProximo() {
+		assertEquals(101, Dinheiro.de(1.005).getCentavos());
+		assertEquals(-101, Dinheiro.de(new BigDecimal("-1.005")).getCentavos());
+		assertEquals(new BigDecimal("173.66"), Dinheiro.de(173.66).paraBigDecimal());
+		assertEquals("0.10", Dinheiro.de(0.1).toString());
+		assertEquals(173.66, Dinheiro.de(173.66).doubleValue());
+		assertThrows(IllegalArgumentException.class, () -> Dinheiro.de(Double.NaN));
+		assertThrows(IllegalArgumentException.class, () -> Dinheiro.de(1e30));
+		assertThrows(ArithmeticException.class, () -> Dinheiro.deCentavos(Long.MAX_VALUE).somar(Dinheiro.deCentavos(1)));
+	}
+
+	@Test
+	void jsonEhUmNumeroComDuasCasas() throws Exception {
+		assertEquals("173.66", objectMapper.writeValueAsString(Dinheiro.de(173.66)));
+		assertEquals("0.00", objectMapper.writeValueAsString(Dinheiro.ZERO));
+		assertEquals(Dinheiro.de(10.5), objectMapper.readValue("10.5", Dinheiro.class));
+		assertEquals(Dinheiro.de(10.5), objectMapper.readValue("\"10.50\"", Dinheiro.class));
+		assertThrows(InvalidFormatException.class, () -> objectMapper.readValue("\"dez\"", Dinheiro.class));
+	}
+
+	@Test
+	void converterMapeiaParaAColunaDecimal() {
+		DinheiroConverter converter = new DinheiroConverter();
+
+		assertEquals(new BigDecimal("-530.50"), converter.convertToDatabaseColumn(Dinheiro.de(-530.5)));
+		assertEquals(Dinheiro.de(30895.46), converter.convertToEntityAttribute(new BigDecimal("30895.46")));
+		assertNull(converter.convertToDatabaseColumn(null));
+		assertNull(converter.convertToEntityAttribute(null));
+	}
+}
@@ -0,0 +1,149 @@
+package br.com.banco.entities;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.function.Supplier;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EntityManager;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.MappedSuperclass;
+import javax.persistence.PersistenceContext;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.banco.enums.Operation;
+
+/**
+ * Bulk insertion of withdrawal/transfer rows with IDENTITY ids versus pooled sequence ids, on
+ * two twin tables with the columns of {@code transferencia}. Logs rows/sec and the number of
+ * JDBC statements for each. Runs only with {@code mvn -P benchmark test}; the row count can be
+ * raised with -Dbanco.benchmark.linhas.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = { "spring.jpa.properties.hibernate.generate_statistics=true", "spring.jpa.hibernate.ddl-auto=update",
+		"spring.datasource.url=jdbc:h2:mem:geracaoid" })
+class GeracaoIdBenchmarkTest {
+
+	private static final Logger logger = LoggerFactory.getLogger(GeracaoIdBenchmarkTest.class);
+
+	private static final int LINHAS = Integer.getInteger("banco.benchmark.linhas", 5_000);
+	private static final int RODADAS = 3;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void sequenciaAgrupadaPermiteInsertsEmLote() {
+		Resultado identidade = medir("IDENTITY", LancamentoIdentidade::new);
+		Resultado sequencia = medir("SEQUENCE pooled", LancamentoSequencia::new);
+
+		assertEquals((long) LINHAS * RODADAS, contar(LancamentoIdentidade.class));
+		assertEquals((long) LINHAS * RODADAS, contar(LancamentoSequencia.class));
+		// IDENTITY executa cada INSERT na hora para obter a chave; com a sequencia eles vao em lotes.
+		assertTrue(identidade.comandos >= LINHAS, "comandos=" + identidade.comandos);
+		assertTrue(sequencia.comandos <= LINHAS / 10, "comandos=" + sequencia.comandos);
+	}
+
+	private Resultado medir(String geracao, Supplier<Lancamento> novoLancamento) {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		Statistics estatisticas = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+		Resultado melhor = null;
+		for (int rodada = 0; rodada < RODADAS; rodada++) {
+			estatisticas.clear();
+			long inicio = System.nanoTime();
+			transactionTemplate.executeWithoutResult(status -> {
+				ZonedDateTime agora = ZonedDateTime.now(ZoneId.of("America/Sao_Paulo")).withNano(0);
+				for (int i = 0; i < LINHAS; i++) {
+					Lancamento lancamento = novoLancamento.get();
+					lancamento.dataTransferencia = agora;
+					lancamento.valor = i % 2 == 0 ? -10.0 : 10.0;
+					lancamento.tipo = i % 2 == 0 ? Operation.SAQUE.name() : Operation.TRANSFERENCIA.name();
+					lancamento.nomeOperadorTransacao = i % 2 == 0 ? "Sistema" : "Beltrano";
+					lancamento.contaId = 1L;
+					entityManager.persist(lancamento);
+					if ((i + 1) % 500 == 0) {
+						entityManager.flush();
+						entityManager.clear();
+					}
+				}
+			});
+			double segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+			Resultado resultado = new Resultado(LINHAS / segundos, estatisticas.getPrepareStatementCount());
+			if (melhor == null || resultado.linhasPorSegundo > melhor.linhasPorSegundo) {
+				melhor = resultado;
+			}
+		}
+		logger.info(String.format("ids=%s linhas=%d linhas/s=%.1f comandos-jdbc=%d", geracao, LINHAS, melhor.linhasPorSegundo, melhor.comandos));
+		return melhor;
+	}
+
+	private long contar(Class<? extends Lancamento> entidade) {
+		return entityManager.createQuery("SELECT COUNT(l) FROM " + entidade.getSimpleName() + " l", Long.class).getSingleResult();
+	}
+
+	private static final class Resultado {
+		final double linhasPorSegundo;
+		final long comandos;
+
+		Resultado(double linhasPorSegundo, long comandos) {
+			this.linhasPorSegundo = linhasPorSegundo;
+			this.comandos = comandos;
+		}
+	}
+
+	@MappedSuperclass
+	abstract static class Lancamento {
+		@Column(name = "data_transferencia", nullable = false)
+		ZonedDateTime dataTransferencia;
+
+		@Column(name = "valor", nullable = false, columnDefinition = "DECIMAL(20,2)")
+		Double valor;
+
+		@Column(name = "tipo", nullable = false, length = 15)
+		String tipo;
+
+		@Column(name = "nome_operador_transacao", length = 50)
+		String nomeOperadorTransacao;
+
+		@Column(name = "conta_id", nullable = false)
+		Long contaId;
+	}
+
+	@Entity(name = "LancamentoIdentidade")
+	@Table(name = "benchmark_lancamento_identidade")
+	static class LancamentoIdentidade extends Lancamento {
+		@Id
+		@GeneratedValue(strategy = GenerationType.IDENTITY)
+		Long id;
+	}
+
+	@Entity(name = "LancamentoSequencia")
+	@Table(name = "benchmark_lancamento_sequencia")
+	static class LancamentoSequencia extends Lancamento {
+		@Id
+		@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "benchmark_lancamento_seq")
+		@SequenceGenerator(name = "benchmark_lancamento_seq", sequenceName = "benchmark_lancamento_seq", allocationSize = 50)
+		Long id;
+	}
+}
@@ -0,0 +1,84 @@
+package br.com.banco.metricas;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import br.com.banco.dtos.LatenciaDto;
+
+class JanelaLatenciaTest {
+
+	private static final long SEGUNDO = TimeUnit.SECONDS.toNanos(1);
+
+	private final AtomicLong relogio = new AtomicLong();
+
+	// Janela de 3 s em 3 fatias de 1 s
+	private final JanelaLatencia janela = new JanelaLatencia(SEGUNDO, 3, relogio::get);
+
+	@Test
+	void percentisSeparamACaudaDaMedia() {
+		for (int i = 1; i <= 1000; i++) {
+			janela.registrar(TimeUnit.MILLISECONDS.toNanos(i > 998 ? 500 : 1));
+		}
+
+		LatenciaDto latencia = janela.janela();
+		assertEquals(1000, latencia.getContagem());
+		assertEquals(1.0, latencia.getP50Ms(), 0.01);
+		assertEquals(1.0, latencia.getP99Ms(), 0.01);
+		assertEquals(500.0, latencia.getP999Ms(), 0.5);
+		assertEquals(500.0, latencia.getMaxMs(), 0.5);
+	}
+
+	@Test
+	void chamadasAntigasSaemDaJanelaMasFicamNoAcumulado() {
+		janela.registrar(TimeUnit.MILLISECONDS.toNanos(200));
+		relogio.addAndGet(SEGUNDO);
+		janela.registrar(TimeUnit.MILLISECONDS.toNanos(2));
+		assertEquals(200.0, janela.janela().getMaxMs(), 0.2);
+
+		// Tres fatias depois a chamada lenta ja nao esta na janela
+		relogio.addAndGet(2 * SEGUNDO);
+		janela.registrar(TimeUnit.MILLISECONDS.toNanos(3));
+		assertEquals(2, janela.janela().getContagem());
+		assertEquals(3.0, janela.janela().getMaxMs(), 0.01);
+		assertEquals(3, janela.acumulado().getContagem());
+		assertEquals(200.0, janela.acumulado().getMaxMs(), 0.2);
+
+		// Muito tempo parado esvazia a janela de uma vez
+		relogio.addAndGet(60 * SEGUNDO);
+		assertEquals(0, janela.janela().getContagem());
+	}
+
+	@Test
+	void zerarDescartaTudo() {
+		janela.registrar(TimeUnit.MILLISECONDS.toNanos(5));
+		janela.zerar();
+
+		assertEquals(0, janela.janela().getContagem());
+		assertEquals(0, janela.acumulado().getContagem());
+	}
+
+	@Test
+	void gravacoesConcorrentesNaoSePerdem() throws InterruptedException {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		for (int t = 0; t < 4; t++) {
+			executor.execute(() -> {
+				for (int i = 0; i < 10_000; i++) {
+					janela.registrar(1000);
+					if (i % 1000 == 0) {
+						relogio.addAndGet(SEGUNDO / 10);
+					}
+				}
+			});
+		}
+		executor.shutdown();
+		executor.awaitTermination(30, TimeUnit.SECONDS);
+
+		assertEquals(40_000, janela.acumulado().getContagem());
+	}
+}
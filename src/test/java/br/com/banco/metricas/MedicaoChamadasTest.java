@@ -0,0 +1,61 @@
+package br.com.banco.metricas;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import br.com.banco.exceptions.ContaNotFoundException;
+import br.com.banco.services.ContaService;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:metricas")
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+class MedicaoChamadasTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ContaService contaService;
+
+	@Autowired
+	private MeterRegistry registro;
+
+	@Test
+	void servicosERepositoriosGanhamTimerPorMetodoEResultado() {
+		contaService.obterContaPorId(1L);
+		assertThrows(ContaNotFoundException.class, () -> contaService.obterContaPorId(999_999L));
+
+		assertEquals(1, registro.get(MedicaoChamadas.SERVICOS).tag("class", "ContaServiceImpl").tag("method", "obterContaPorId")
+				.tag("outcome", "SUCCESS").tag("exception", "none").timer().count());
+		assertEquals(1, registro.get(MedicaoChamadas.SERVICOS).tag("method", "obterContaPorId").tag("outcome", "ERROR")
+				.tag("exception", "ContaNotFoundException").timer().count());
+		// findById e herdado de CrudRepository, mas a tag traz a interface do projeto
+		assertEquals(2, registro.get(MedicaoChamadas.REPOSITORIOS).tag("class", "ContaRepository").tag("method", "findById")
+				.tag("outcome", "SUCCESS").timer().count());
+	}
+
+	@Test
+	void endpointPrometheusExpoeRequisicoesPoolEHibernate() throws Exception {
+		mockMvc.perform(get("/api/v1/transfers/conta/1")).andExpect(status().isOk());
+
+		String metricas = mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+
+		assertTrue(metricas.contains("http_server_requests_seconds_count{application=\"banco\",exception=\"None\",method=\"GET\",outcome=\"SUCCESS\","
+				+ "status=\"200\",uri=\"/api/v1/transfers/conta/{numeroConta}\",}"), metricas);
+		assertTrue(metricas.contains("banco_servicos_seconds_count{application=\"banco\",class=\"TransferenciaServiceImpl\""), metricas);
+		assertTrue(metricas.contains("banco_repositorios_seconds_count{application=\"banco\",class=\"TransferenciaRepository\""), metricas);
+		assertTrue(metricas.contains("hikaricp_connections_active{"), metricas);
+		assertTrue(metricas.contains("hibernate_query_executions_total{"), metricas);
+	}
+}
@@ -0,0 +1,186 @@
+package br.com.banco.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Runs {@code EXPLAIN} on the SQL Hibernate generates for each {@link TransferenciaRepository}
+ * query, against {@value #TRANSFERENCIAS} seeded transfers, and fails if H2 plans a full scan
+ * of {@code transferencia}.
+ *
+ * {@code findByNomeOperadorTransacao} and {@code findPrimeiraEUltimaDataPorNomeOperador} are not
+ * checked: a {@code LIKE '%x%'} filter alone cannot seek any B-tree index. Their variants taking the
+ * operator names resolved by {@code IndiceNomes} are.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(properties = { "spring.datasource.url=jdbc:h2:mem:planos",
+		"spring.jpa.properties.hibernate.session_factory.statement_inspector=br.com.banco.repositories.TransferenciaRepositoryPlanoTest$CapturaSql" })
+class TransferenciaRepositoryPlanoTest {
+
+	private static final int CONTAS = 2_000;
+	private static final int TRANSFERENCIAS = 200_000;
+	private static final long PRIMEIRA_CONTA = 1_000_000L;
+
+	private static final ZonedDateTime INICIO = ZonedDateTime.of(2022, 3, 10, 0, 0, 0, 0, ZoneId.of("America/Sao_Paulo"));
+	private static final ZonedDateTime FIM = INICIO.plusDays(1);
+
+	@Autowired
+	private TransferenciaRepository transferenciaRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeAll
+	void popular() {
+		jdbcTemplate.update("INSERT INTO conta (id_conta, nome_responsavel, data_de_criacao, saldo) "
+				+ "SELECT ? + X, 'Conta ' || X, CURRENT_TIMESTAMP, 0 FROM SYSTEM_RANGE(1, ?)", PRIMEIRA_CONTA, CONTAS);
+		// Uma transferencia a cada 13 minutos para tras, por ~5 anos, espalhadas pelas contas e 500 operadores.
+		jdbcTemplate.update("INSERT INTO transferencia (data_transferencia, valor, tipo, nome_operador_transacao, conta_id) "
+				+ "SELECT DATEADD(MINUTE, -13 * X, TIMESTAMP WITH TIME ZONE '2023-07-17 00:00:00-03'), 10.00, 'TRANSFERENCIA', "
+				+ "'Operador ' || MOD(X, 500), ? + 1 + MOD(X, ?) FROM SYSTEM_RANGE(1, ?)", PRIMEIRA_CONTA, CONTAS, TRANSFERENCIAS);
+		jdbcTemplate.execute("ANALYZE");
+	}
+
+	@Test
+	void findByContaIdUsaIndiceDaConta() {
+		verificarPlano(() -> transferenciaRepository.findByContaId(PRIMEIRA_CONTA + 1), PRIMEIRA_CONTA + 1);
+	}
+
+	@Test
+	void findByContaNumeroContaUsaIndiceDaConta() {
+		verificarPlano(() -> transferenciaRepository.findByContaNumeroConta(PRIMEIRA_CONTA + 1), PRIMEIRA_CONTA + 1);
+	}
+
+	@Test
+	void findPaginaPorContaUsaIndiceDaConta() {
+		verificarPlano(() -> transferenciaRepository.findPaginaPorConta(PRIMEIRA_CONTA + 1, PageRequest.of(0, 20)), PRIMEIRA_CONTA + 1, 20);
+	}
+
+	@Test
+	void findByDataTransferenciaBetweenUsaIndiceDaData() {
+		verificarPlano(() -> transferenciaRepository.findByDataTransferenciaBetween(INICIO, FIM), data(INICIO), data(FIM));
+	}
+
+	@Test
+	void findByDataInicioAndDataFimAndNomeOperadorUsaIndiceDaData() {
+		verificarPlano(() -> transferenciaRepository.findByDataInicioAndDataFimAndNomeOperador(INICIO, FIM, "operador 7"),
+				data(INICIO), data(FIM), "operador 7");
+	}
+
+	@Test
+	void findByNomeOperadorTransacaoInUsaIndiceDoOperador() {
+		verificarPlano(() -> transferenciaRepository.findByNomeOperadorTransacaoIn(Arrays.asList("Operador 7", "Operador 77")),
+				"Operador 7", "Operador 77");
+	}
+
+	@Test
+	void findByDataInicioAndDataFimAndNomeOperadorInUsaIndice() {
+		verificarPlano(() -> transferenciaRepository.findByDataInicioAndDataFimAndNomeOperadorIn(INICIO, FIM, Arrays.asList("Operador 7")),
+				data(INICIO), data(FIM), "Operador 7");
+	}
+
+	@Test
+	void findPrimeiraEUltimaDataPorNomesOperadorUsaIndiceDoOperador() {
+		verificarPlano(() -> transferenciaRepository.findPrimeiraEUltimaDataPorNomesOperador(Arrays.asList("Operador 7")), "Operador 7");
+	}
+
+	@Test
+	void buscarPorContasLeCadaContaPeloIndiceDaConta() {
+		verificarPlanoOrdenado(() -> transferenciaRepository.buscarPorContas(Arrays.asList(PRIMEIRA_CONTA + 1), INICIO, FIM),
+				PRIMEIRA_CONTA + 1, data(INICIO), data(FIM));
+	}
+
+	@Test
+	void buscarPorContasSemPeriodoLeCadaContaPeloIndiceDaConta() {
+		// Sem faixa de datas o H2 prefere o indice da chave estrangeira e ordena as linhas da conta.
+		verificarPlano(() -> transferenciaRepository.buscarPorContas(Arrays.asList(PRIMEIRA_CONTA + 1999), null, null),
+				PRIMEIRA_CONTA + 1999);
+	}
+
+	@Test
+	void buscarAposCursorSemFiltrosSegueOIndiceDaData() {
+		verificarPlanoOrdenado(() -> transferenciaRepository.buscarAposCursor(null, null, null, null, INICIO, 5L, 100),
+				data(INICIO), data(INICIO), 5L);
+	}
+
+	@Test
+	void buscarAposCursorPorContaSegueOIndiceDaConta() {
+		verificarPlanoOrdenado(() -> transferenciaRepository.buscarAposCursor(PRIMEIRA_CONTA + 1, null, FIM, null, INICIO, 5L, 100),
+				PRIMEIRA_CONTA + 1, data(FIM), data(INICIO), data(INICIO), 5L);
+	}
+
+	@Test
+	void buscarAposCursorPorOperadorSegueOIndiceDoOperador() {
+		verificarPlanoOrdenado(() -> transferenciaRepository.buscarAposCursor(null, INICIO, null, Arrays.asList("Operador 7"), INICIO, 5L, 100),
+				data(INICIO), "Operador 7", data(INICIO), data(INICIO), 5L);
+	}
+
+	/**
+	 * Like {@link #verificarPlano}, and also requires the rows to come out of the index already in
+	 * cursor order.
+	 */
+	private void verificarPlanoOrdenado(Runnable consulta, Object... parametros) {
+		String plano = verificarPlano(consulta, parametros);
+		assertTrue(plano.contains("index sorted"), plano);
+	}
+
+	/**
+	 * Runs the query, takes the first SELECT on {@code transferencia} it issued and checks its plan.
+	 */
+	private String verificarPlano(Runnable consulta, Object... parametros) {
+		CapturaSql.limpar();
+		consulta.run();
+		String sql = CapturaSql.capturadas().stream()
+				.filter(capturada -> capturada.toLowerCase().startsWith("select") && capturada.toLowerCase().contains("from transferencia"))
+				.findFirst()
+				.orElseThrow(() -> new AssertionError("Nenhuma consulta em transferencia foi executada."));
+		String plano = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parametros);
+		assertFalse(plano.contains("TRANSFERENCIA.tableScan"), plano);
+		return plano;
+	}
+
+	private static OffsetDateTime data(ZonedDateTime data) {
+		return data.toOffsetDateTime();
+	}
+
+	/**
+	 * Records the SQL Hibernate sends to the database.
+	 */
+	public static class CapturaSql implements StatementInspector {
+
+		private static final List<String> CAPTURADAS = Collections.synchronizedList(new ArrayList<>());
+
+		@Override
+		public String inspect(String sql) {
+			CAPTURADAS.add(sql);
+			return sql;
+		}
+
+		static void limpar() {
+			CAPTURADAS.clear();
+		}
+
+		static List<String> capturadas() {
+			synchronized (CAPTURADAS) {
+				return new ArrayList<>(CAPTURADAS);
+			}
+		}
+	}
+}
@@ -0,0 +1,172 @@
+package br.com.banco.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@SpringBootTest(properties = { "banco.idempotencia.persistir=true", "spring.datasource.url=jdbc:h2:mem:idempotencia" })
+class ArmazemIdempotenciaTest {
+
+	@Autowired
+	private ArmazemIdempotencia armazem;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void chaveRepetidaDevolveOResultadoSemExecutarDeNovo() {
+		ArmazemIdempotencia memoria = new ArmazemIdempotencia(null, new SimpleMeterRegistry(), 100, Duration.ofMinutes(1), false);
+		AtomicInteger execucoes = new AtomicInteger();
+
+		ArmazemIdempotencia.Resposta primeira = memoria.executar("a", "depositar:1:10.0", contando(execucoes, 200));
+		ArmazemIdempotencia.Resposta repetida = memoria.executar("a", "depositar:1:10.0", contando(execucoes, 200));
+		ArmazemIdempotencia.Resposta outra = memoria.executar("a", "depositar:1:20.0", contando(execucoes, 200));
+		ArmazemIdempotencia.Resposta semChave = memoria.executar(null, "depositar:1:10.0", contando(execucoes, 200));
+
+		assertEquals(200, primeira.getStatus());
+		assertFalse(primeira.isRepetida());
+		assertEquals(200, repetida.getStatus());
+		assertTrue(repetida.isRepetida());
+		assertEquals(422, outra.getStatus());
+		assertEquals(200, semChave.getStatus());
+		assertEquals(2, execucoes.get());
+	}
+
+	@Test
+	void resultadosTransitoriosLiberamAChave() {
+		ArmazemIdempotencia memoria = new ArmazemIdempotencia(null, new SimpleMeterRegistry(), 100, Duration.ofMinutes(1), false);
+		AtomicInteger execucoes = new AtomicInteger();
+
+		assertEquals(409, memoria.executar("b", "sacar:1:10.0", () -> execucoes.incrementAndGet() == 1 ? 409 : 200).getStatus());
+		assertEquals(200, memoria.executar("b", "sacar:1:10.0", () -> execucoes.incrementAndGet() == 1 ? 409 : 200).getStatus());
+		assertEquals(400, memoria.executar("c", "sacar:1:-1.0", contando(execucoes, 400)).getStatus());
+		assertTrue(memoria.executar("c", "sacar:1:-1.0", contando(execucoes, 400)).isRepetida());
+		assertEquals(400, memoria.executar(" ", "sacar:1:10.0", () -> 200).getStatus());
+		assertEquals(3, execucoes.get());
+	}
+
+	@Test
+	void chavesExpiramEOArmazemTemTamanhoLimitado() throws InterruptedException {
+		AtomicInteger execucoes = new AtomicInteger();
+		ArmazemIdempotencia pequeno = new ArmazemIdempotencia(null, new SimpleMeterRegistry(), 2, Duration.ofMinutes(1), false);
+		pequeno.executar("1", "x", contando(execucoes, 200));
+		pequeno.executar("2", "x", contando(execucoes, 200));
+		pequeno.executar("3", "x", contando(execucoes, 200));
+		assertFalse(pequeno.executar("1", "x", contando(execucoes, 200)).isRepetida());
+		assertEquals(4, execucoes.get());
+		assertEquals(2, pequeno.estatisticas().get("chaves"));
+
+		ArmazemIdempotencia curto = new ArmazemIdempotencia(null, new SimpleMeterRegistry(), 100, Duration.ofMillis(20), false);
+		curto.executar("1", "x", () -> 200);
+		Thread.sleep(40);
+		assertFalse(curto.executar("1", "x", () -> 200).isRepetida());
+	}
+
+	@Test
+	void chaveEmExecucaoNaoSaiDoArmazemCheio() throws Exception {
+		ArmazemIdempotencia pequeno = new ArmazemIdempotencia(null, new SimpleMeterRegistry(), 1, Duration.ofMinutes(1), false);
+		AtomicInteger execucoes = new AtomicInteger();
+		CountDownLatch iniciada = new CountDownLatch(1);
+		CountDownLatch liberar = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		Future<ArmazemIdempotencia.Resposta> lenta = executor.submit(() -> pequeno.executar("lenta", "sacar:1:10.0", () -> {
+			execucoes.incrementAndGet();
+			iniciada.countDown();
+			try {
+				liberar.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return 200;
+		}));
+		assertTrue(iniciada.await(10, TimeUnit.SECONDS));
+
+		// Com "lenta" ainda em execucao o armazem passa do limite em vez de esquece-la
+		pequeno.executar("outra", "sacar:2:10.0", contando(execucoes, 200));
+		assertEquals(2, pequeno.estatisticas().get("chaves"));
+		assertEquals(0L, pequeno.estatisticas().get("despejos"));
+
+		liberar.countDown();
+		assertEquals(200, lenta.get(10, TimeUnit.SECONDS).getStatus());
+		executor.shutdown();
+		assertTrue(pequeno.executar("lenta", "sacar:1:10.0", contando(execucoes, 200)).isRepetida());
+		assertEquals(2, execucoes.get());
+
+		// Concluidas, saem as mais antigas ate o armazem voltar ao limite
+		pequeno.executar("terceira", "sacar:3:10.0", contando(execucoes, 200));
+		assertEquals(1, pequeno.estatisticas().get("chaves"));
+		assertEquals(2L, pequeno.estatisticas().get("despejos"));
+	}
+
+	@Test
+	void requisicoesConcorrentesComAMesmaChaveExecutamUmaVez() throws Exception {
+		ArmazemIdempotencia memoria = new ArmazemIdempotencia(null, new SimpleMeterRegistry(), 100, Duration.ofMinutes(1), false);
+		AtomicInteger execucoes = new AtomicInteger();
+		CountDownLatch liberar = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<ArmazemIdempotencia.Resposta>> respostas = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			respostas.add(executor.submit(() -> memoria.executar("d", "transferir:1:2:10.0:TRANSFERENCIA", () -> {
+				execucoes.incrementAndGet();
+				try {
+					liberar.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return 200;
+			})));
+		}
+		Thread.sleep(100);
+		liberar.countDown();
+		int repetidas = 0;
+		for (Future<ArmazemIdempotencia.Resposta> resposta : respostas) {
+			assertEquals(200, resposta.get(10, TimeUnit.SECONDS).getStatus());
+			repetidas += resposta.get().isRepetida() ? 1 : 0;
+		}
+		executor.shutdown();
+
+		assertEquals(1, execucoes.get());
+		assertEquals(7, repetidas);
+	}
+
+	@Test
+	void resultadoPersistidoSobreviveAoReinicio() {
+		AtomicInteger execucoes = new AtomicInteger();
+		armazem.executar("persistida", "depositar:1:10.0", contando(execucoes, 200));
+
+		ArmazemIdempotencia reiniciado = new ArmazemIdempotencia(jdbcTemplate, new SimpleMeterRegistry(), 100, armazem.getTtl(), true);
+		ArmazemIdempotencia.Resposta repetida = reiniciado.executar("persistida", "depositar:1:10.0", contando(execucoes, 200));
+		ArmazemIdempotencia.Resposta outra = reiniciado.executar("persistida", "sacar:1:10.0", contando(execucoes, 200));
+
+		assertTrue(repetida.isRepetida());
+		assertEquals(200, repetida.getStatus());
+		assertEquals(422, outra.getStatus());
+		assertEquals(1, execucoes.get());
+		assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM idempotencia WHERE chave = 'persistida'", Integer.class));
+	}
+
+	private static IntSupplier contando(AtomicInteger execucoes, int status) {
+		return () -> {
+			execucoes.incrementAndGet();
+			return status;
+		};
+	}
+}
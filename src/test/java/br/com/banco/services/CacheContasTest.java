@@ -0,0 +1,145 @@
+package br.com.banco.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import br.com.banco.dtos.ItemLoteDto;
+import br.com.banco.entities.Conta;
+import br.com.banco.entities.Dinheiro;
+import br.com.banco.enums.Operation;
+import br.com.banco.repositories.ContaRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:cachecontas")
+class CacheContasTest {
+
+	@Autowired
+	private ContaService contaService;
+
+	@Autowired
+	private TransferenciaService transferenciaService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private MeterRegistry registro;
+
+	@Test
+	void leiturasRepetidasSaoRespondidasDaMemoria() {
+		Long id = contaService.criarConta("Cache leitura").getId();
+		double acertos = acertos();
+
+		for (int i = 0; i < 10; i++) {
+			assertTrue(contaService.hasConta(id));
+			assertEquals("Cache leitura", contaService.obterContaPorId(id).getNome());
+		}
+
+		// Uma falta carrega a conta; as outras 19 leituras vem do cache
+		assertEquals(19, acertos() - acertos);
+		assertFalse(contaService.hasConta(999_999L));
+	}
+
+	@Test
+	void todaGravacaoDeSaldoInvalidaAsContas() {
+		Long origem = contaService.criarConta("Cache origem").getId();
+		Long destino = contaService.criarConta("Cache destino").getId();
+
+		contaService.depositar(origem, 100.0);
+		assertEquals(Dinheiro.de(100.0), contaService.obterContaPorId(origem).getSaldo());
+		contaService.sacar(origem, 10.0);
+		assertEquals(Dinheiro.de(90.0), contaService.obterContaPorId(origem).getSaldo());
+
+		assertEquals(Dinheiro.ZERO, contaService.obterContaPorId(destino).getSaldo());
+		contaService.transferir(origem, destino, 20.0, Operation.TRANSFERENCIA);
+		assertEquals(Dinheiro.de(70.0), contaService.obterContaPorId(origem).getSaldo());
+		assertEquals(Dinheiro.de(20.0), contaService.obterContaPorId(destino).getSaldo());
+
+		contaService.processarLote(Arrays.asList(new ItemLoteDto(Operation.TRANSFERENCIA, destino, origem, 5.0)));
+		assertEquals(Dinheiro.de(75.0), contaService.obterContaPorId(origem).getSaldo());
+
+		transferenciaService.sacar(origem, 15.0);
+		assertEquals(Dinheiro.de(60.0), contaService.obterContaPorId(origem).getSaldo());
+	}
+
+	@Test
+	void leituraEntreOsDescartesNaoGuardaOSaldoDoSegundoNivel() {
+		// O findById responde como o segundo nivel: saldo antigo ate a conta sair de la
+		AtomicBoolean foraDoSegundoNivel = new AtomicBoolean();
+		ContaRepository contaRepository = mock(ContaRepository.class);
+		when(contaRepository.findById(1L)).thenAnswer(invocacao -> {
+			Conta conta = new Conta("Cache ordem");
+			conta.setId(1L);
+			conta.setSaldo(Dinheiro.de(foraDoSegundoNivel.get() ? 50.0 : 10.0));
+			return Optional.of(conta);
+		});
+		Cache segundoNivel = mock(Cache.class);
+		EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+		when(entityManagerFactory.getCache()).thenReturn(segundoNivel);
+		CacheContas cache = new CacheContas(contaRepository, new SimpleMeterRegistry(), entityManagerFactory, 100, Duration.ofMinutes(1));
+		assertEquals(Dinheiro.de(10.0), cache.buscar(1L).get().getSaldo());
+
+		// Uma leitura concorrente chega enquanto a conta sai do segundo nivel
+		doAnswer(invocacao -> {
+			cache.buscar(1L);
+			foraDoSegundoNivel.set(true);
+			return null;
+		}).when(segundoNivel).evict(eq(Conta.class), eq(1L));
+		cache.invalidarComSegundoNivel(1L);
+
+		assertEquals(Dinheiro.de(50.0), cache.buscar(1L).get().getSaldo());
+	}
+
+	@Test
+	void alterarAContaDevolvidaNaoAlteraOCache() {
+		Long id = contaService.criarConta("Cache copia").getId();
+
+		Conta conta = contaService.obterContaPorId(id);
+		conta.setSaldo(Dinheiro.de(1_000.0));
+		conta.setNome("Outro nome");
+
+		assertEquals(Dinheiro.ZERO, contaService.obterContaPorId(id).getSaldo());
+		assertEquals("Cache copia", contaService.obterContaPorId(id).getNome());
+	}
+
+	@Test
+	void leiturasConcorrentesComDepositosTerminamNoSaldoGravado() throws InterruptedException {
+		Long id = contaService.criarConta("Cache concorrente").getId();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		for (int i = 0; i < 200; i++) {
+			executor.execute(() -> contaService.depositar(id, 1.0));
+			executor.execute(() -> contaService.obterContaPorId(id));
+		}
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+
+		assertEquals(Dinheiro.de(200.0), contaService.obterContaPorId(id).getSaldo());
+		assertEquals(200.0, jdbcTemplate.queryForObject("SELECT saldo FROM conta WHERE id_conta = ?", Double.class, id));
+	}
+
+	private double acertos() {
+		return registro.get("cache.gets").tag("cache", "contas").tag("result", "hit").functionCounter().count();
+	}
+}
@@ -0,0 +1,64 @@
+package br.com.banco.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import br.com.banco.dtos.ItemLoteDto;
+import br.com.banco.enums.Operation;
+import br.com.banco.exceptions.ContaNotFoundException;
+
+@SpringBootTest
+class CheckpointSaldosTest {
+
+	@Autowired
+	private ContaService contaService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void cadaAtualizacaoDeSaldoGravaOCheckpointDoDia() {
+		LocalDate hoje = CheckpointSaldos.hoje();
+		Long origem = contaService.criarConta("Checkpoint origem").getId();
+		Long destino = contaService.criarConta("Checkpoint destino").getId();
+
+		contaService.depositar(origem, 100.0);
+		contaService.sacar(origem, 30.0);
+		contaService.transferir(origem, destino, 20.0, Operation.TRANSFERENCIA);
+		contaService.processarLote(Arrays.asList(new ItemLoteDto(Operation.TRANSFERENCIA, destino, origem, 5.0)));
+
+		assertEquals(55.0, contaService.calcularSaldoEm(origem, hoje));
+		assertEquals(15.0, contaService.calcularSaldoEm(destino, hoje));
+		assertEquals(0.0, contaService.calcularSaldoEm(origem, hoje.minusDays(1)));
+		assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM saldo_checkpoint WHERE conta_id = ?", Integer.class, origem));
+	}
+
+	@Test
+	void usaOCheckpointMaisRecenteAteAData() {
+		LocalDate hoje = CheckpointSaldos.hoje();
+		Long id = contaService.criarConta("Checkpoint historico").getId();
+		jdbcTemplate.update("INSERT INTO saldo_checkpoint (conta_id, dia, saldo) VALUES (?, ?, ?)", id, hoje.minusDays(10), 50.0);
+		jdbcTemplate.update("INSERT INTO saldo_checkpoint (conta_id, dia, saldo) VALUES (?, ?, ?)", id, hoje.minusDays(5), 80.0);
+
+		assertEquals(0.0, contaService.calcularSaldoEm(id, hoje.minusDays(11)));
+		assertEquals(50.0, contaService.calcularSaldoEm(id, hoje.minusDays(10)));
+		assertEquals(50.0, contaService.calcularSaldoEm(id, hoje.minusDays(6)));
+		assertEquals(80.0, contaService.calcularSaldoEm(id, hoje.minusDays(5)));
+		assertEquals(80.0, contaService.calcularSaldoEm(id, hoje));
+	}
+
+	@Test
+	void contasIniciaisTemOSaldoInformadoDesdeACriacao() {
+		assertEquals(4640.24, contaService.calcularSaldoEm(4L, LocalDate.of(2023, 7, 16)));
+		assertEquals(0.0, contaService.calcularSaldoEm(4L, LocalDate.of(2023, 7, 15)));
+		assertThrows(ContaNotFoundException.class, () -> contaService.calcularSaldoEm(999_999L, LocalDate.of(2023, 7, 16)));
+	}
+}
@@ -0,0 +1,131 @@
+package br.com.banco.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import br.com.banco.dtos.TransferenciaDto;
+import br.com.banco.entities.Conta;
+import br.com.banco.entities.Dinheiro;
+import br.com.banco.enums.ModoBuscaNome;
+import br.com.banco.enums.Operation;
+import br.com.banco.exceptions.ContaDuplicadaException;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:buscanome")
+class ContaBuscaPorNomeTest {
+
+	@Autowired
+	private ContaService contaService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void migracaoNormalizaOsNomesExistentesEDeixaRepetidosSemNome() {
+		assertEquals("roberto carlos", nomeNormalizado(9));
+		assertEquals("jose", nomeNormalizado(6));
+		// "Roberto 2" existe duas vezes: a conta mais antiga fica com o nome
+		assertEquals("roberto 2", nomeNormalizado(10));
+		assertNull(nomeNormalizado(11));
+	}
+
+	@Test
+	void buscaExataIgnoraMaiusculasAcentosEEspacos() {
+		Conta conta = contaService.criarConta("Busca  Conceição Nóbrega");
+
+		assertEquals(conta.getId(), contaService.obterContaPorNome("busca conceicao nobrega").getId());
+		assertEquals(conta.getId(), contaService.obterContaPorNome(" BUSCA CONCEIÇÃO  NÓBREGA ").getId());
+		assertNull(contaService.obterContaPorNome("Busca Conceição"));
+		assertEquals(10L, contaService.obterContaPorNome("roberto 2").getId());
+	}
+
+	@Test
+	void buscaPorTrechoDevolveAContaMaisAntigaEntreAsQueCombinam() {
+		// Roberto, Roberto Carlos e os dois Roberto 2 contem "robert"
+		assertEquals(8L, contaService.obterContaPorNome("robert", ModoBuscaNome.TRECHO).getId());
+		assertEquals(8L, contaService.obterContaPorNome("Roberto", ModoBuscaNome.EXATO).getId());
+		assertEquals(9L, contaService.obterContaPorNome("o c", ModoBuscaNome.TRECHO).getId());
+		assertNull(contaService.obterContaPorNome("robert"));
+	}
+
+	@Test
+	void saldoTotalPorNomeExatoOuPorTrecho() {
+		Conta conta = contaService.criarConta("Busca Saldo Único");
+		contaService.depositar(conta.getId(), 42.0);
+
+		assertEquals(42.0, contaService.calcularSaldoTotalPorNome("busca saldo unico"), 0.001);
+		assertEquals(42.0, contaService.calcularSaldoTotalPorNome("saldo ún", ModoBuscaNome.TRECHO), 0.001);
+		assertEquals(0.0, contaService.calcularSaldoTotalPorNome("saldo ún"), 0.001);
+	}
+
+	@Test
+	void nomeRepetidoERecusado() {
+		contaService.criarConta("Busca Repetida");
+
+		assertTrue(contaService.hasContaByNomeExato("busca repetida"));
+		assertThrows(ContaDuplicadaException.class, () -> contaService.criarConta("BUSCA  REPETIDA"));
+		assertEquals(Dinheiro.ZERO, contaService.obterContaPorNome("Busca Repetida").getSaldo());
+		assertFalse(contaService.hasContaByNomeExato("Busca"));
+	}
+
+	@Test
+	void transacoesPorNomeJuntamAsContasQueCombinamEmOrdemDeData() {
+		Conta primeira = contaService.criarConta("Extrato Zzara");
+		Conta segunda = contaService.criarConta("Extrato Zzeca");
+		contaService.depositar(primeira.getId(), 100.0);
+		contaService.depositar(segunda.getId(), 100.0);
+		// Cada transferencia fica registrada na conta de origem
+		contaService.transferir(primeira.getId(), segunda.getId(), 10.0, Operation.TRANSF_SAIDA);
+		contaService.transferir(segunda.getId(), primeira.getId(), 20.0, Operation.TRANSF_SAIDA);
+		contaService.transferir(primeira.getId(), segunda.getId(), 5.0, Operation.TRANSF_SAIDA);
+		contaService.transferir(segunda.getId(), primeira.getId(), 1.0, Operation.TRANSF_SAIDA);
+		ZonedDateTime hoje = ZonedDateTime.now(ZoneId.of("America/Sao_Paulo"));
+
+		// "Extrato Zz" passa pelo indice de trigramas; "Zz" e curto e vai a tabela conta
+		for (String nome : Arrays.asList("Extrato Zz", "Zz")) {
+			List<TransferenciaDto> transacoes = contaService.buscarTransacoesPorNome(nome);
+			assertEquals(4, transacoes.size(), nome);
+			assertEquals(new HashSet<>(Arrays.asList(primeira.getId(), segunda.getId())),
+					transacoes.stream().map(TransferenciaDto::getContaId).collect(Collectors.toSet()));
+			assertEquals(ids(transacoes.stream().sorted(Comparator.comparing(TransferenciaDto::getDataTransferencia)
+					.thenComparing(TransferenciaDto::getId)).collect(Collectors.toList())), ids(transacoes));
+			assertEquals(ids(transacoes), ids(contaService.buscarTransacoesPorPeriodoENome(hoje, hoje, nome.toLowerCase())));
+		}
+		// Sem periodo a busca diferencia maiusculas, como sempre fez
+		assertTrue(contaService.buscarTransacoesPorNome("extrato zz").isEmpty());
+		assertEquals(-36.0, contaService.calcularSaldoPeriodoPorNome(hoje, hoje, "EXTRATO ZZ"), 0.001);
+		assertEquals(-15.0, contaService.calcularSaldoPeriodoPorNome(null, null, "Zzara"), 0.001);
+		assertTrue(contaService.buscarTransacoesPorPeriodoENome(hoje.minusDays(2), hoje.minusDays(1), "extrato zz").isEmpty());
+		assertTrue(contaService.buscarTransacoesPorNome("extrato inexistente").isEmpty());
+	}
+
+	@Test
+	void buscaExataUsaOIndiceUnico() {
+		String plano = jdbcTemplate.queryForObject("EXPLAIN SELECT * FROM conta WHERE nome_normalizado = 'fulano'", String.class);
+
+		assertTrue(plano.toUpperCase().contains("UK_CONTA_NOME_NORMALIZADO"), plano);
+	}
+
+	private static List<Long> ids(List<TransferenciaDto> transacoes) {
+		return transacoes.stream().map(TransferenciaDto::getId).collect(Collectors.toList());
+	}
+
+	private String nomeNormalizado(long id) {
+		return jdbcTemplate.queryForObject("SELECT nome_normalizado FROM conta WHERE id_conta = ?", String.class, id);
+	}
+}
@@ -0,0 +1,131 @@
+package br.com.banco.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import br.com.banco.entities.Conta;
+import br.com.banco.enums.EstrategiaConcorrencia;
+import br.com.banco.enums.Operation;
+import br.com.banco.exceptions.ConflitoConcorrenciaException;
+import br.com.banco.exceptions.SaldoInsuficienteException;
+import br.com.banco.repositories.ContaRepository;
+
+/**
+ * Multithreaded transfer benchmark. Logs transfers/sec for each strategy and checks that
+ * the total balance of the accounts involved is conserved. Runs only with
+ * {@code mvn -P benchmark test}; the load can be raised with -Dbanco.benchmark.threads,
+ * -Dbanco.benchmark.transferencias and -Dbanco.benchmark.contas.
+ */
+@Tag("benchmark")
+@SpringBootTest
+class ContaConcorrenciaBenchmarkTest {
+
+	private static final Logger logger = LoggerFactory.getLogger(ContaConcorrenciaBenchmarkTest.class);
+
+	private static final int THREADS = Integer.getInteger("banco.benchmark.threads", 8);
+	private static final int TRANSFERENCIAS_POR_THREAD = Integer.getInteger("banco.benchmark.transferencias", 150);
+	private static final int CONTAS = Integer.getInteger("banco.benchmark.contas", 10);
+	private static final double SALDO_INICIAL = 10_000.0;
+
+	@Autowired
+	private ContaService contaService;
+
+	@Autowired
+	private ContaRepository contaRepository;
+
+	@Autowired
+	private ControleConcorrenciaConta controleConcorrencia;
+
+	private EstrategiaConcorrencia estrategiaOriginal;
+
+	@AfterEach
+	void restaurarEstrategia() {
+		if (estrategiaOriginal != null) {
+			controleConcorrencia.setEstrategia(estrategiaOriginal);
+		}
+	}
+
+	@ParameterizedTest
+	@EnumSource(EstrategiaConcorrencia.class)
+	void transferenciasConcorrentesConservamOSaldoTotal(EstrategiaConcorrencia estrategia) throws InterruptedException {
+		estrategiaOriginal = controleConcorrencia.getEstrategia();
+		controleConcorrencia.setEstrategia(estrategia);
+
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < CONTAS; i++) {
+			Conta conta = contaService.criarConta("Benchmark " + estrategia + " " + i);
+			contaService.depositar(conta.getId(), SALDO_INICIAL);
+			ids.add(conta.getId());
+		}
+		BigDecimal saldoAntes = saldoTotal(ids);
+		long conflitosAntes = controleConcorrencia.getConflitos();
+		long retentativasAntes = controleConcorrencia.getRetentativas();
+
+		AtomicLong concluidas = new AtomicLong();
+		AtomicLong rejeitadas = new AtomicLong();
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch largada = new CountDownLatch(1);
+		for (int t = 0; t < THREADS; t++) {
+			executor.execute(() -> {
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				try {
+					largada.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+				for (int i = 0; i < TRANSFERENCIAS_POR_THREAD; i++) {
+					Long origem = ids.get(random.nextInt(ids.size()));
+					Long destino = ids.get(random.nextInt(ids.size()));
+					double valor = random.nextInt(1, 10_000) / 100.0;
+					try {
+						contaService.transferir(origem, destino, valor, Operation.TRANSFERENCIA);
+						concluidas.incrementAndGet();
+					} catch (SaldoInsuficienteException | ConflitoConcorrenciaException e) {
+						rejeitadas.incrementAndGet();
+					}
+				}
+			});
+		}
+		long inicio = System.nanoTime();
+		largada.countDown();
+		executor.shutdown();
+		executor.awaitTermination(5, TimeUnit.MINUTES);
+		double segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+
+		logger.info(String.format("estrategia=%s threads=%d contas=%d concluidas=%d rejeitadas=%d conflitos=%d retentativas=%d transferencias/s=%.1f",
+				estrategia, THREADS, CONTAS, concluidas.get(), rejeitadas.get(),
+				controleConcorrencia.getConflitos() - conflitosAntes, controleConcorrencia.getRetentativas() - retentativasAntes,
+				concluidas.get() / segundos));
+
+		assertEquals((long) THREADS * TRANSFERENCIAS_POR_THREAD, concluidas.get() + rejeitadas.get());
+		assertEquals(saldoAntes, saldoTotal(ids));
+	}
+
+	private BigDecimal saldoTotal(List<Long> ids) {
+		BigDecimal total = BigDecimal.ZERO;
+		for (Conta conta : contaRepository.findAllById(ids)) {
+			total = total.add(conta.getSaldo().paraBigDecimal());
+		}
+		return total.setScale(2, RoundingMode.HALF_EVEN);
+	}
+}
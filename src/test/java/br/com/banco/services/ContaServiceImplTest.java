@@ -4,19 +4,30 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import java.math.BigDecimal;
+
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import br.com.banco.dtos.TransferenciaDto;
 import br.com.banco.entities.Conta;
-import br.com.banco.entities.Transferencia;
+import br.com.banco.entities.Dinheiro;
+import br.com.banco.enums.EstrategiaConcorrencia;
 import br.com.banco.enums.Operation;
 import br.com.banco.exceptions.ContaException;
 import br.com.banco.exceptions.ContaNotFoundException;
@@ -24,36 +35,49 @@ import br.com.banco.exceptions.SaldoInsuficienteException;
 import br.com.banco.repositories.ContaRepository;
 import br.com.banco.repositories.TransferenciaRepository;
 import br.com.banco.services.ContaServiceImpl;
+import br.com.banco.services.busca.FiltroContas;
+import br.com.banco.services.busca.IndiceNomes;
 
 public class ContaServiceImplTest {
 
 	private ContaRepository contaRepository;
 	private TransferenciaRepository transferenciaRepository;
 	private ContaServiceImpl contaService;
+	private ControleConcorrenciaConta controleConcorrencia;
+	private ProcessadorLoteContas processadorLote;
+	private CacheContas cacheContas;
+	private FiltroContas filtroContas;
 
 	@Before
 	public void setUp() {
 		contaRepository = mock(ContaRepository.class);
 		transferenciaRepository = mock(TransferenciaRepository.class);
-		contaService = new ContaServiceImpl(contaRepository, transferenciaRepository);
+		controleConcorrencia = new ControleConcorrenciaConta(contaRepository, mock(PlatformTransactionManager.class), EstrategiaConcorrencia.OTIMISTA, 3);
+		processadorLote = mock(ProcessadorLoteContas.class);
+		cacheContas = mock(CacheContas.class);
+		filtroContas = mock(FiltroContas.class);
+		when(filtroContas.podeExistir(any())).thenReturn(true);
+		when(filtroContas.podeExistirNome(any())).thenReturn(true);
+		contaService = new ContaServiceImpl(contaRepository, transferenciaRepository, controleConcorrencia, processadorLote, mock(CheckpointSaldos.class),
+				mock(IndiceNomes.class), cacheContas, filtroContas);
 	}
 
 	@Test
 	public void testCriarConta() {
 		String nome = "John Doe";
 		Conta conta = new Conta(nome);
-		when(contaRepository.save(any(Conta.class))).thenReturn(conta);
+		when(contaRepository.saveAndFlush(any(Conta.class))).thenReturn(conta);
 
 		Conta novaConta = contaService.criarConta(nome);
 
 		assertEquals(nome, novaConta.getNome());
-		assertEquals(0.0, novaConta.getSaldo(), 0.001);
+		assertEquals(0.0, novaConta.getSaldo().doubleValue(), 0.001);
 	}
 
 	@Test(expected = ContaException.class)
 	public void testCriarContaErro() {
 		String nome = "John Doe";
-		when(contaRepository.save(any(Conta.class))).thenThrow(new RuntimeException());
+		when(contaRepository.saveAndFlush(any(Conta.class))).thenThrow(new RuntimeException());
 
 		contaService.criarConta(nome);
 	}
@@ -63,12 +87,12 @@ public class ContaServiceImplTest {
 		Long idConta = 1L;
 		double valor = 100.0;
 		Conta conta = new Conta("John Doe");
-		conta.setSaldo(200.0);
+		conta.setSaldo(Dinheiro.de(200.0));
 		when(contaRepository.findById(idConta)).thenReturn(java.util.Optional.of(conta));
 
 		contaService.depositar(idConta, valor);
 
-		assertEquals(300.0, conta.getSaldo(), 0.001);
+		assertEquals(300.0, conta.getSaldo().doubleValue(), 0.001);
 	}
 
 	@Test(expected = ContaNotFoundException.class)
@@ -83,12 +107,13 @@ public class ContaServiceImplTest {
 		Long idConta = 1L;
 		double valor = 100.0;
 		Conta conta = new Conta("John Doe");
-		conta.setSaldo(200.0);
+		conta.setSaldo(Dinheiro.de(200.0));
 		when(contaRepository.findById(idConta)).thenReturn(java.util.Optional.of(conta));
 
 		contaService.sacar(idConta, valor);
 
-		assertEquals(100.0, conta.getSaldo(), 0.001);
+		assertEquals(100.0, conta.getSaldo().doubleValue(), 0.001);
+		verify(transferenciaRepository).registrar(eq(idConta), any(ZonedDateTime.class), eq(new BigDecimal("-100.00")), eq("SAQUE"), eq("Sistema"));
 	}
 
 	@Test(expected = ContaNotFoundException.class)
@@ -98,20 +123,76 @@ public class ContaServiceImplTest {
         contaService.sacar(1L, 100.0);
     }
 
+	@Test
+	public void testSacarAtomico() {
+		controleConcorrencia.setEstrategia(EstrategiaConcorrencia.ATOMICA);
+		when(contaRepository.debitar(1L, new BigDecimal("100.00"))).thenReturn(1);
+
+		contaService.sacar(1L, 100.0);
+
+		verify(transferenciaRepository).registrar(eq(1L), any(ZonedDateTime.class), eq(new BigDecimal("-100.00")), eq("SAQUE"), eq("Sistema"));
+	}
+
+	@Test(expected = SaldoInsuficienteException.class)
+	public void testSacarAtomicoSaldoInsuficiente() {
+		controleConcorrencia.setEstrategia(EstrategiaConcorrencia.ATOMICA);
+		when(contaRepository.debitar(1L, new BigDecimal("100.00"))).thenReturn(0);
+		when(contaRepository.existsById(1L)).thenReturn(true);
+
+		contaService.sacar(1L, 100.0);
+	}
+
+	@Test(expected = ContaNotFoundException.class)
+	public void testTransferirAtomicoContaDestinoNaoEncontrada() {
+		controleConcorrencia.setEstrategia(EstrategiaConcorrencia.ATOMICA);
+		when(contaRepository.debitar(1L, new BigDecimal("100.00"))).thenReturn(1);
+		when(contaRepository.creditar(2L, new BigDecimal("100.00"))).thenReturn(0);
+
+		contaService.transferir(1L, 2L, 100.0, Operation.TRANSFERENCIA);
+	}
+
+	@Test
+	public void testTransferirAtomico() {
+		controleConcorrencia.setEstrategia(EstrategiaConcorrencia.ATOMICA);
+		when(contaRepository.debitar(1L, new BigDecimal("100.00"))).thenReturn(1);
+		when(contaRepository.creditar(2L, new BigDecimal("100.00"))).thenReturn(1);
+
+		contaService.transferir(1L, 2L, 100.0, Operation.TRANSFERENCIA);
+
+		verify(transferenciaRepository).registrarComOperadorDaConta(eq(1L), eq(2L), any(ZonedDateTime.class), eq(new BigDecimal("100.00")), anyString());
+	}
+
+	@Test
+	public void testValorAbaixoDeUmCentavoNaoMovimenta() {
+		controleConcorrencia.setEstrategia(EstrategiaConcorrencia.ATOMICA);
+
+		contaService.depositar(1L, 0.001);
+		contaService.sacar(1L, 0.004);
+		contaService.transferir(1L, 2L, 0.001, Operation.TRANSFERENCIA);
+
+		verifyNoInteractions(transferenciaRepository);
+		verify(contaRepository, never()).creditar(any(), any());
+		verify(contaRepository, never()).debitar(any(), any());
+	}
+
 	@Test
 	public void testObterContaPorId() throws ContaNotFoundException {
 		Long idConta = 1L;
 		Conta conta = new Conta("John Doe");
-		when(contaRepository.findById(idConta)).thenReturn(java.util.Optional.of(conta));
+		conta.setId(idConta);
+		conta.setSaldo(Dinheiro.de(200.0));
+		when(cacheContas.buscar(idConta)).thenReturn(java.util.Optional.of(conta.copiar()));
 
 		Conta contaObtida = contaService.obterContaPorId(idConta);
 
-		assertEquals(conta, contaObtida);
+		assertEquals(idConta, contaObtida.getId());
+		assertEquals("John Doe", contaObtida.getNome());
+		assertEquals(200.0, contaObtida.getSaldo().doubleValue(), 0.001);
 	}
 
 	@Test(expected = ContaNotFoundException.class)
     public void testObterContaPorIdNaoEncontrada() throws ContaNotFoundException {
-        when(contaRepository.findById(any(Long.class))).thenReturn(java.util.Optional.empty());
+        when(cacheContas.buscar(any(Long.class))).thenReturn(java.util.Optional.empty());
 
         contaService.obterContaPorId(1L);
     }
@@ -120,11 +201,12 @@ public class ContaServiceImplTest {
 	public void testObterContaPorNome() {
 		String nome = "John Doe";
 		Conta conta = new Conta(nome);
-		when(contaRepository.findByNomeIgnoreCaseLike(nome)).thenReturn(conta);
+		when(contaRepository.findByNomeNormalizado("john doe")).thenReturn(java.util.Optional.of(conta));
 
 		Conta contaObtida = contaService.obterContaPorNome(nome);
 
-		assertEquals(conta, contaObtida);
+		assertEquals(nome, contaObtida.getNome());
+		assertEquals(0.0, contaObtida.getSaldo().doubleValue(), 0.001);
 	}
 
 	@Test
@@ -133,15 +215,15 @@ public class ContaServiceImplTest {
 		Long idContaDestino = 2L;
 		double valor = 100.0;
 		Conta contaOrigem = new Conta("John Doe");
-		contaOrigem.setSaldo(200.0);
+		contaOrigem.setSaldo(Dinheiro.de(200.0));
 		Conta contaDestino = new Conta("Jane Smith");
 		when(contaRepository.findById(idContaOrigem)).thenReturn(java.util.Optional.of(contaOrigem));
 		when(contaRepository.findById(idContaDestino)).thenReturn(java.util.Optional.of(contaDestino));
 
 		contaService.transferir(idContaOrigem, idContaDestino, valor, Operation.TRANSFERENCIA);
 
-		assertEquals(100.0, contaOrigem.getSaldo(), 0.001);
-		assertEquals(100.0, contaDestino.getSaldo(), 0.001);
+		assertEquals(100.0, contaOrigem.getSaldo().doubleValue(), 0.001);
+		assertEquals(100.0, contaDestino.getSaldo().doubleValue(), 0.001);
 	}
 
 	@Test(expected = ContaNotFoundException.class)
@@ -165,10 +247,11 @@ public class ContaServiceImplTest {
 		ZonedDateTime dataInicio = ZonedDateTime.parse("2023-07-01T00:00:00Z");
 		ZonedDateTime dataFim = ZonedDateTime.parse("2023-07-31T23:59:59Z");
 		String nome = "John Doe";
-		List<Transferencia> transacoes = new ArrayList<>();
-		when(transferenciaRepository.findByPeriodoENome(dataInicio, dataFim, nome)).thenReturn(transacoes);
+		List<TransferenciaDto> transacoes = new ArrayList<>();
+		when(contaRepository.findIdsByNomeIgnoreCaseLike(nome)).thenReturn(Collections.singletonList(1L));
+		when(transferenciaRepository.buscarPorContas(eq(Collections.singletonList(1L)), any(), any())).thenReturn(transacoes);
 
-		List<Transferencia> transacoesObtidas = contaService.buscarTransacoesPorPeriodoENome(dataInicio, dataFim, nome);
+		List<TransferenciaDto> transacoesObtidas = contaService.buscarTransacoesPorPeriodoENome(dataInicio, dataFim, nome);
 
 		assertEquals(transacoes, transacoesObtidas);
 	}
@@ -176,10 +259,11 @@ public class ContaServiceImplTest {
 	@Test
 	public void testBuscarTransacoesPorNome() {
 		String nome = "John Doe";
-		List<Transferencia> transacoes = new ArrayList<>();
-		when(transferenciaRepository.findByNome(nome)).thenReturn(transacoes);
+		List<TransferenciaDto> transacoes = new ArrayList<>();
+		when(contaRepository.findIdsByNomeLike(nome)).thenReturn(Collections.singletonList(1L));
+		when(transferenciaRepository.buscarPorContas(Collections.singletonList(1L), null, null)).thenReturn(transacoes);
 
-		List<Transferencia> transacoesObtidas = contaService.buscarTransacoesPorNome(nome);
+		List<TransferenciaDto> transacoesObtidas = contaService.buscarTransacoesPorNome(nome);
 
 		assertEquals(transacoes, transacoesObtidas);
 	}
@@ -188,8 +272,8 @@ public class ContaServiceImplTest {
 	public void testCalcularSaldoTotalPorNome() throws ContaNotFoundException {
 		String nome = "John Doe";
 		Conta conta = new Conta(nome);
-		conta.setSaldo(500.0);
-		when(contaRepository.findByNomeIgnoreCaseLike(nome)).thenReturn(conta);
+		conta.setSaldo(Dinheiro.de(500.0));
+		when(contaRepository.findByNomeNormalizado("john doe")).thenReturn(java.util.Optional.of(conta));
 
 		double saldoTotal = contaService.calcularSaldoTotalPorNome(nome);
 
@@ -199,7 +283,7 @@ public class ContaServiceImplTest {
 	@Test
 	public void testCalcularSaldoTotalPorNomeContaNaoEncontrada() throws ContaNotFoundException {
 		String nome = "John Doe";
-		when(contaRepository.findByNomeIgnoreCaseLike(nome)).thenReturn(null);
+		when(contaRepository.findByNomeNormalizado("john doe")).thenReturn(java.util.Optional.empty());
 
 		double saldoTotal = contaService.calcularSaldoTotalPorNome(nome);
 
@@ -209,7 +293,7 @@ public class ContaServiceImplTest {
 	@Test
 	public void testCalcularSaldoTotalPorNomeContaNotFoundException() throws ContaNotFoundException {
 		String nome = "John Doe";
-		when(contaRepository.findByNomeIgnoreCaseLike(nome))
+		when(contaRepository.findByNomeNormalizado("john doe"))
 				.thenThrow(new ContaNotFoundException("Conta não encontrada."));
 
 		double saldoTotal = contaService.calcularSaldoTotalPorNome(nome);
@@ -220,16 +304,17 @@ public class ContaServiceImplTest {
 	@Test
 	public void testCalcularSaldoPeriodoPorNomeDataInicioNulaDataFimNula() {
 		String nome = "John Doe";
-		List<Transferencia> transacoes = new ArrayList<>();
-		Transferencia transferencia1 = new Transferencia();
+		List<TransferenciaDto> transacoes = new ArrayList<>();
+		TransferenciaDto transferencia1 = new TransferenciaDto();
 		transferencia1.setTipo(Operation.DEPOSITO);
-		transferencia1.setValor(100.0);
-		Transferencia transferencia2 = new Transferencia();
+		transferencia1.setValor(Dinheiro.de(100.0));
+		TransferenciaDto transferencia2 = new TransferenciaDto();
 		transferencia2.setTipo(Operation.SAQUE);
-		transferencia2.setValor(50.0);
+		transferencia2.setValor(Dinheiro.de(50.0));
 		transacoes.add(transferencia1);
 		transacoes.add(transferencia2);
-		when(transferenciaRepository.findByNome(nome)).thenReturn(transacoes);
+		when(contaRepository.findIdsByNomeLike(nome)).thenReturn(Collections.singletonList(1L));
+		when(transferenciaRepository.buscarPorContas(Collections.singletonList(1L), null, null)).thenReturn(transacoes);
 
 		double saldoPeriodo = contaService.calcularSaldoPeriodoPorNome(null, null, nome);
 
@@ -249,7 +334,7 @@ public class ContaServiceImplTest {
 	public void testHasContaByNameTrue() {
 		String nome = "John Doe";
 		Conta conta = new Conta(nome);
-		when(contaRepository.findByNomeIgnoreCaseLike(nome)).thenReturn(conta);
+		when(contaRepository.findByNomeIgnoreCaseLike(nome)).thenReturn(Collections.singletonList(conta));
 
 		boolean hasConta = contaService.hasContaByName(nome);
 
@@ -259,7 +344,7 @@ public class ContaServiceImplTest {
 	@Test
 	public void testHasContaByNameFalse() {
 		String nome = "John Doe";
-		when(contaRepository.findByNomeIgnoreCaseLike(nome)).thenReturn(null);
+		when(contaRepository.findByNomeIgnoreCaseLike(nome)).thenReturn(Collections.emptyList());
 
 		boolean hasConta = contaService.hasContaByName(nome);
 
@@ -269,7 +354,7 @@ public class ContaServiceImplTest {
 	@Test
 	public void testHasContaTrue() {
 		Long id = 1L;
-		when(contaRepository.existsById(id)).thenReturn(true);
+		when(cacheContas.existe(id)).thenReturn(true);
 
 		boolean hasConta = contaService.hasConta(id);
 
@@ -279,7 +364,7 @@ public class ContaServiceImplTest {
 	@Test
 	public void testHasContaFalse() {
 		Long id = 1L;
-		when(contaRepository.existsById(id)).thenReturn(false);
+		when(cacheContas.existe(id)).thenReturn(false);
 
 		boolean hasConta = contaService.hasConta(id);
 
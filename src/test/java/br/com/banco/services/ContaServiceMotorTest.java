@@ -0,0 +1,221 @@
+package br.com.banco.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import br.com.banco.entities.Conta;
+import br.com.banco.entities.Dinheiro;
+import br.com.banco.enums.Operation;
+import br.com.banco.exceptions.ContaException;
+import br.com.banco.exceptions.ContaNotFoundException;
+import br.com.banco.exceptions.SaldoInsuficienteException;
+import br.com.banco.services.motor.MotorLancamentos;
+
+/**
+ * Runs the ledger engine against its own in-memory database and checks that what was written
+ * matches the balances in memory. The throughput of pipelined callers is measured only with
+ * {@code mvn -P benchmark test}.
+ */
+@SpringBootTest(properties = { "banco.conta.motor.habilitado=true", "spring.datasource.url=jdbc:h2:mem:motor" })
+class ContaServiceMotorTest {
+
+	private static final Logger logger = LoggerFactory.getLogger(ContaServiceMotorTest.class);
+
+	private static final int THREADS = Integer.getInteger("banco.benchmark.threads", 8);
+	private static final int TRANSFERENCIAS_POR_THREAD = 500;
+	private static final int TRANSFERENCIAS_POR_THREAD_BENCHMARK = Integer.getInteger("banco.benchmark.motor.transferencias", 20_000);
+	private static final int CONTAS = Integer.getInteger("banco.benchmark.contas", 10);
+
+	@Autowired
+	private ContaService contaService;
+
+	@Autowired
+	private MotorLancamentos motor;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void usaOMotorComoContaService() {
+		assertTrue(contaService instanceof ContaServiceMotor);
+	}
+
+	@Test
+	void transferenciasAssincronasSaoGravadasEConservamOSaldoTotal() throws Exception {
+		transferirEmParalelo("Motor", TRANSFERENCIAS_POR_THREAD);
+	}
+
+	@Test
+	@Tag("benchmark")
+	void vazaoDeTransferenciasAssincronas() throws Exception {
+		Rodada rodada = transferirEmParalelo("Motor benchmark", TRANSFERENCIAS_POR_THREAD_BENCHMARK);
+
+		logger.info(String.format("motor threads=%d contas=%d concluidas=%d transferencias/s=%.1f estatisticas=%s",
+				THREADS, CONTAS, rodada.concluidas, rodada.concluidas / rodada.segundos, motor.estatisticas()));
+	}
+
+	@Test
+	void rejeitaSaqueSemSaldoEContaInexistente() {
+		Conta conta = contaService.criarConta("Motor rejeicoes");
+		contaService.depositar(conta.getId(), 50.0);
+
+		assertThrows(SaldoInsuficienteException.class, () -> contaService.sacar(conta.getId(), 50.01));
+		assertThrows(ContaNotFoundException.class, () -> contaService.transferir(conta.getId(), 999_999L, 10.0, Operation.TRANSFERENCIA));
+		assertThrows(ContaNotFoundException.class, () -> contaService.depositar(999_999L, 10.0));
+
+		contaService.sacar(conta.getId(), 20.0);
+		assertEquals(Dinheiro.de(30.0), contaService.obterContaPorId(conta.getId()).getSaldo());
+		assertEquals(1L, transferencias(List.of(conta.getId())));
+	}
+
+	@Test
+	void contaZeroERejeitadaSemDerrubarOMotor() {
+		Conta conta = contaService.criarConta("Motor conta zero");
+		contaService.depositar(conta.getId(), 50.0);
+
+		assertThrows(ContaNotFoundException.class, () -> contaService.transferir(conta.getId(), 0L, 10.0, Operation.TRANSFERENCIA));
+		assertThrows(ContaNotFoundException.class, () -> contaService.depositar(0L, 10.0));
+		CompletionException erro = assertThrows(CompletionException.class, () -> motor.registrarConta(0L, 0.0).join());
+		assertTrue(erro.getCause() instanceof ContaNotFoundException);
+
+		// O sequenciador continua de pe e o saldo da origem nao mudou
+		contaService.depositar(conta.getId(), 5.0);
+		assertEquals(5_500L, motor.consultarSaldo(conta.getId()).join());
+		assertEquals(new BigDecimal("55.00"), saldo(conta.getId()));
+	}
+
+	@Test
+	void loteQueFalhaNaoFicaNemNoBancoNemNaMemoria() {
+		Conta origem = contaService.criarConta("Motor falha origem");
+		Conta destino = contaService.criarConta("Motor falha destino");
+		contaService.depositar(origem.getId(), 20_000.0);
+		long recargas = (Long) motor.estatisticas().get("recargas");
+
+		// O CHECK faz o INSERT do lote falhar, e a transacao desfaz tambem o UPDATE dos saldos
+		jdbcTemplate.execute("ALTER TABLE transferencia ADD CONSTRAINT ck_motor_falha CHECK (valor <> 12345.67)");
+		try {
+			CompletionException erro = assertThrows(CompletionException.class,
+					() -> motor.transferir(origem.getId(), destino.getId(), 12_345.67, Operation.TRANSFERENCIA).join());
+			assertTrue(erro.getCause() instanceof ContaException);
+		} finally {
+			jdbcTemplate.execute("ALTER TABLE transferencia DROP CONSTRAINT ck_motor_falha");
+		}
+
+		// O lote seguinte grava saldos absolutos: sem a recarga levaria junto a transferencia que falhou
+		motor.transferir(origem.getId(), destino.getId(), 1.0, Operation.TRANSFERENCIA).join();
+
+		assertEquals(new BigDecimal("19999.00"), saldo(origem.getId()));
+		assertEquals(new BigDecimal("1.00"), saldo(destino.getId()));
+		assertEquals(BigDecimal.valueOf(motor.consultarSaldo(origem.getId()).join(), 2), saldo(origem.getId()));
+		assertEquals(BigDecimal.valueOf(motor.consultarSaldo(destino.getId()).join(), 2), saldo(destino.getId()));
+		assertEquals(1L, transferencias(List.of(origem.getId())));
+		assertEquals(recargas + 1, motor.estatisticas().get("recargas"));
+	}
+
+	/**
+	 * Publishes random transfers between new accounts from several threads without waiting
+	 * for each one, then checks that what was written matches the balances in memory.
+	 *
+	 * @return how many transfers completed and how long they took
+	 */
+	private Rodada transferirEmParalelo(String prefixo, int transferenciasPorThread) throws Exception {
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < CONTAS; i++) {
+			Conta conta = contaService.criarConta(prefixo + " " + i);
+			contaService.depositar(conta.getId(), 10_000.0);
+			ids.add(conta.getId());
+		}
+		BigDecimal saldoAntes = saldoTotal(ids);
+		long transferenciasAntes = transferencias(ids);
+
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		List<CompletableFuture<Long>> resultados = new ArrayList<>();
+		long inicio = System.nanoTime();
+		for (int t = 0; t < THREADS; t++) {
+			resultados.add(CompletableFuture.supplyAsync(() -> {
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				List<CompletableFuture<Long>> pendentes = new ArrayList<>(transferenciasPorThread);
+				for (int i = 0; i < transferenciasPorThread; i++) {
+					pendentes.add(motor.transferir(ids.get(random.nextInt(ids.size())), ids.get(random.nextInt(ids.size())),
+							random.nextInt(1, 10_000) / 100.0, Operation.TRANSFERENCIA));
+				}
+				long concluidas = 0;
+				for (CompletableFuture<Long> pendente : pendentes) {
+					try {
+						pendente.join();
+						concluidas++;
+					} catch (RuntimeException e) {
+						if (!(e.getCause() instanceof SaldoInsuficienteException)) {
+							throw e;
+						}
+					}
+				}
+				return concluidas;
+			}, executor));
+		}
+		long concluidas = 0;
+		for (CompletableFuture<Long> resultado : resultados) {
+			concluidas += resultado.get(5, TimeUnit.MINUTES);
+		}
+		double segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+		executor.shutdown();
+
+		assertEquals(saldoAntes, saldoTotal(ids));
+		assertEquals(transferenciasAntes + concluidas, transferencias(ids));
+		for (Long id : ids) {
+			BigDecimal gravado = jdbcTemplate.queryForObject("SELECT saldo FROM conta WHERE id_conta = ?", BigDecimal.class, id);
+			assertEquals(BigDecimal.valueOf(motor.consultarSaldo(id).join(), 2), gravado);
+			assertEquals(gravado.doubleValue(), contaService.calcularSaldoEm(id, CheckpointSaldos.hoje()));
+		}
+		return new Rodada(concluidas, segundos);
+	}
+
+	private BigDecimal saldo(Long id) {
+		return jdbcTemplate.queryForObject("SELECT saldo FROM conta WHERE id_conta = ?", BigDecimal.class, id);
+	}
+
+	private BigDecimal saldoTotal(List<Long> ids) {
+		BigDecimal total = BigDecimal.ZERO;
+		for (Long id : ids) {
+			total = total.add(jdbcTemplate.queryForObject("SELECT saldo FROM conta WHERE id_conta = ?", BigDecimal.class, id));
+		}
+		return total;
+	}
+
+	private long transferencias(List<Long> ids) {
+		long total = 0;
+		for (Long id : ids) {
+			total += jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transferencia WHERE conta_id = ?", Long.class, id);
+		}
+		return total;
+	}
+
+	private static final class Rodada {
+		private final long concluidas;
+		private final double segundos;
+
+		private Rodada(long concluidas, double segundos) {
+			this.concluidas = concluidas;
+			this.segundos = segundos;
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package br.com.banco.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:exportacao")
+@AutoConfigureMockMvc
+class ExportadorTransferenciasTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ExportadorTransferencias exportador;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Test
+	void acceptNdjsonTransmiteUmaTransferenciaPorLinha() throws Exception {
+		List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM transferencia ORDER BY id", Long.class);
+
+		MvcResult resultado = mockMvc.perform(get("/api/v1/transfers").accept(MediaType.APPLICATION_NDJSON))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		String corpo = mockMvc.perform(asyncDispatch(resultado))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+				.andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+		String[] linhas = corpo.split("\n");
+		assertEquals(ids.size(), linhas.length);
+		for (int i = 0; i < linhas.length; i++) {
+			JsonNode transferencia = objectMapper.readTree(linhas[i]);
+			assertEquals(ids.get(i).longValue(), transferencia.get("id").asLong());
+			assertTrue(transferencia.has("valor"));
+		}
+	}
+
+	@Test
+	void semAcceptNdjsonContinuaDevolvendoOArrayJson() throws Exception {
+		String corpo = mockMvc.perform(get("/api/v1/transfers").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+				.andReturn().getResponse().getContentAsString();
+
+		assertTrue(objectMapper.readTree(corpo).isArray());
+	}
+
+	@Test
+	void nenhumaEntidadeEAnexadaDuranteAExportacao() {
+		int total = 5 * ExportadorTransferencias.BLOCO;
+		jdbcTemplate.update("INSERT INTO transferencia (data_transferencia, valor, tipo, nome_operador_transacao, conta_id) "
+				+ "SELECT CURRENT_TIMESTAMP, 1.00, 'DEPOSITO', 'Sistema', 1 + MOD(X, 15) FROM SYSTEM_RANGE(1, ?)", total);
+		long existentes = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transferencia", Long.class);
+		int[] maiorContexto = new int[1];
+
+		long escritas = exportador.exportar(new OutputStream() {
+			private final ByteArrayOutputStream descartadas = new ByteArrayOutputStream();
+
+			@Override
+			public void write(int b) {
+				descartadas.write(b);
+			}
+
+			@Override
+			public void flush() {
+				// As linhas sao projetadas em DTOs: nenhuma entidade deve ser anexada ao contexto de persistencia.
+				maiorContexto[0] = Math.max(maiorContexto[0], entidadesAnexadas());
+				descartadas.reset();
+			}
+		});
+
+		assertEquals(existentes, escritas);
+		assertEquals(0, maiorContexto[0]);
+	}
+
+	private int entidadesAnexadas() {
+		return entityManager.unwrap(Session.class).getStatistics().getEntityCount();
+	}
+}
@@ -0,0 +1,99 @@
+package br.com.banco.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import br.com.banco.dtos.ItemLoteDto;
+import br.com.banco.dtos.ResultadoLoteDto;
+import br.com.banco.entities.Conta;
+import br.com.banco.entities.Dinheiro;
+import br.com.banco.enums.Operation;
+
+@SpringBootTest
+class ProcessadorLoteContasTest {
+
+	@Autowired
+	private ContaService contaService;
+
+	@Autowired
+	private ProcessadorLoteContas processadorLote;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void aplicaOsItensValidosERelataCadaItem() {
+		Long origem = contaService.criarConta("Lote origem").getId();
+		Long destino = contaService.criarConta("Lote destino").getId();
+		contaService.depositar(origem, 100.0);
+
+		ResultadoLoteDto resultado = contaService.processarLote(Arrays.asList(
+				new ItemLoteDto(Operation.DEPOSITO, origem, null, 50.0),
+				new ItemLoteDto(Operation.SAQUE, origem, null, 1000.0),
+				new ItemLoteDto(Operation.TRANSFERENCIA, origem, destino, 120.0),
+				new ItemLoteDto(Operation.TRANSFERENCIA, origem, 999_999L, 10.0),
+				new ItemLoteDto(Operation.TRANSFERENCIA, origem, destino, -5.0),
+				null,
+				new ItemLoteDto(Operation.SAQUE, destino, null, 20.0)));
+
+		assertEquals(7, resultado.getTotal());
+		assertEquals(3, resultado.getAplicados());
+		assertEquals(4, resultado.getRejeitados());
+		boolean[] aplicados = { true, false, true, false, false, false, true };
+		for (int i = 0; i < aplicados.length; i++) {
+			assertEquals(i, resultado.getItens().get(i).getIndice());
+			assertEquals(aplicados[i], resultado.getItens().get(i).isAplicado(), "item " + i);
+		}
+		assertEquals("Saldo insuficiente para o saque.", resultado.getItens().get(1).getMensagem());
+		assertEquals("Conta não encontrada para o ID: 999999", resultado.getItens().get(3).getMensagem());
+
+		assertEquals(Dinheiro.de(30.0), contaService.obterContaPorId(origem).getSaldo());
+		assertEquals(Dinheiro.de(100.0), contaService.obterContaPorId(destino).getSaldo());
+		assertEquals(1L, contarTransferencias(origem));
+		assertEquals(1L, contarTransferencias(destino));
+	}
+
+	@Test
+	void loteMaiorQueUmBlocoConservaOSaldoTotal() {
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			Conta conta = contaService.criarConta("Lote bloco " + i);
+			contaService.depositar(conta.getId(), 1_000.0);
+			ids.add(conta.getId());
+		}
+		List<ItemLoteDto> itens = new ArrayList<>();
+		int quantidade = processadorLote.getTamanhoBloco() * 2 + 7;
+		for (int i = 0; i < quantidade; i++) {
+			itens.add(new ItemLoteDto(Operation.TRANSFERENCIA, ids.get(i % ids.size()), ids.get((i + 1) % ids.size()), 1.0));
+		}
+
+		ResultadoLoteDto resultado = contaService.processarLote(itens);
+
+		assertEquals(quantidade, resultado.getAplicados());
+		Dinheiro total = Dinheiro.ZERO;
+		for (Long id : ids) {
+			total = total.somar(contaService.obterContaPorId(id).getSaldo());
+		}
+		assertEquals(Dinheiro.de(5_000.0), total);
+	}
+
+	@Test
+	void rejeitaLoteVazio() {
+		assertThrows(IllegalArgumentException.class, () -> contaService.processarLote(Collections.emptyList()));
+		assertThrows(IllegalArgumentException.class, () -> contaService.processarLote(null));
+	}
+
+	private long contarTransferencias(Long idConta) {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transferencia WHERE conta_id = ?", Long.class, idConta);
+	}
+}
@@ -0,0 +1,101 @@
+package br.com.banco.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import br.com.banco.dtos.PaginaTransferenciasDto;
+import br.com.banco.dtos.TransferenciaDto;
+import br.com.banco.services.busca.IndiceNomes;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:cursor")
+class TransferenciaPaginacaoCursorTest {
+
+	private static final long CONTA_A = 500_001L;
+	private static final long CONTA_B = 500_002L;
+	private static final ZonedDateTime BASE = ZonedDateTime.of(2024, 1, 10, 12, 0, 0, 0, ZoneId.of("America/Sao_Paulo"));
+
+	@Autowired
+	private TransferenciaService transferenciaService;
+
+	@Autowired
+	private IndiceNomes indiceNomes;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeAll
+	void popular() {
+		jdbcTemplate.update("INSERT INTO conta (id_conta, nome_responsavel, saldo) VALUES (?, 'Cursor A', 0), (?, 'Cursor B', 0)", CONTA_A, CONTA_B);
+		// Tres transferencias por minuto, para que o desempate pelo id seja exercitado entre paginas.
+		jdbcTemplate.update("INSERT INTO transferencia (data_transferencia, valor, tipo, nome_operador_transacao, conta_id) "
+				+ "SELECT DATEADD(MINUTE, X / 3, CAST(? AS TIMESTAMP WITH TIME ZONE)), 1.00, 'TRANSFERENCIA', "
+				+ "CASEWHEN(MOD(X, 2) = 0, 'Operador Par', 'Operador Impar'), CASEWHEN(MOD(X, 5) = 0, ?, ?) FROM SYSTEM_RANGE(0, 299)",
+				BASE.toOffsetDateTime(), CONTA_A, CONTA_B);
+		indiceNomes.registrarOperador("Operador Par");
+		indiceNomes.registrarOperador("Operador Impar");
+	}
+
+	@Test
+	void percorreTodasAsTransferenciasSemRepetirNemPular() {
+		List<Long> esperados = jdbcTemplate.queryForList("SELECT id FROM transferencia ORDER BY data_transferencia, id", Long.class);
+
+		assertEquals(esperados, percorrer(7, null, null, null, null));
+	}
+
+	@Test
+	void filtrosSaoAplicadosEmTodasAsPaginas() {
+		ZonedDateTime inicio = BASE.plusMinutes(10);
+		ZonedDateTime fim = BASE.plusMinutes(40);
+
+		assertEquals(jdbcTemplate.queryForList("SELECT id FROM transferencia WHERE conta_id = ? ORDER BY data_transferencia, id", Long.class, CONTA_A),
+				percorrer(9, CONTA_A, null, null, null));
+		assertEquals(jdbcTemplate.queryForList("SELECT id FROM transferencia WHERE nome_operador_transacao = 'Operador Par' ORDER BY data_transferencia, id", Long.class),
+				percorrer(11, null, null, null, "dor par"));
+		assertEquals(jdbcTemplate.queryForList("SELECT id FROM transferencia WHERE nome_operador_transacao LIKE 'Operador%' ORDER BY data_transferencia, id", Long.class),
+				percorrer(13, null, null, null, "operador"));
+		assertEquals(jdbcTemplate.queryForList("SELECT id FROM transferencia WHERE conta_id = ? AND data_transferencia BETWEEN ? AND ? "
+				+ "AND nome_operador_transacao = 'Operador Impar' ORDER BY data_transferencia, id", Long.class, CONTA_B, inicio.toOffsetDateTime(), fim.toOffsetDateTime()),
+				percorrer(4, CONTA_B, inicio, fim, "impar"));
+	}
+
+	@Test
+	void ultimaPaginaNaoTemCursorEParametrosInvalidosSaoRecusados() {
+		PaginaTransferenciasDto pagina = transferenciaService.getTransferenciasPorCursor(null, 1000, CONTA_A, null, null, null);
+		assertEquals(60, pagina.getTransferencias().size());
+		assertNull(pagina.getProximoCursor());
+		assertTrue(transferenciaService.getTransferenciasPorCursor(null, 10, null, null, null, "inexistente").getTransferencias().isEmpty());
+
+		assertThrows(IllegalArgumentException.class, () -> transferenciaService.getTransferenciasPorCursor("nao-e-um-cursor", 10, null, null, null, null));
+		assertThrows(IllegalArgumentException.class, () -> transferenciaService.getTransferenciasPorCursor(null, 0, null, null, null, null));
+		assertThrows(IllegalArgumentException.class, () -> transferenciaService.getTransferenciasPorCursor(null, 1001, null, null, null, null));
+		assertThrows(IllegalArgumentException.class, () -> transferenciaService.getTransferenciasPorCursor(null, 10, null, null, null, "op"));
+	}
+
+	private List<Long> percorrer(int tamanhoPagina, Long contaId, ZonedDateTime inicio, ZonedDateTime fim, String operador) {
+		List<Long> ids = new ArrayList<>();
+		String cursor = null;
+		do {
+			PaginaTransferenciasDto pagina = transferenciaService.getTransferenciasPorCursor(cursor, tamanhoPagina, contaId, inicio, fim, operador);
+			assertTrue(pagina.getTransferencias().size() <= tamanhoPagina);
+			ids.addAll(pagina.getTransferencias().stream().map(TransferenciaDto::getId).collect(Collectors.toList()));
+			cursor = pagina.getProximoCursor();
+		} while (cursor != null);
+		return ids;
+	}
+}
@@ -7,6 +7,7 @@ import static org.mockito.Mockito.when;
 
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.Test;
@@ -19,11 +20,13 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import br.com.banco.dtos.TransferenciaDto;
 import br.com.banco.entities.Conta;
-import br.com.banco.entities.Transferencia;
+import br.com.banco.entities.Dinheiro;
 import br.com.banco.exceptions.TransferenciaException;
 import br.com.banco.repositories.ContaRepository;
 import br.com.banco.repositories.TransferenciaRepository;
+import br.com.banco.services.busca.IndiceNomes;
 
 @RunWith(MockitoJUnitRunner.class)
 public class TransferenciaServiceImplTest {
@@ -34,19 +37,25 @@ public class TransferenciaServiceImplTest {
     @Mock
     private ContaRepository contaRepository;
 
+    @Mock
+    private IndiceNomes indiceNomes;
+
+    @Mock
+    private CacheContas cacheContas;
+
     @InjectMocks
     private TransferenciaServiceImpl transferenciaService;
 
     @Test
     public void testGetAllTransferencias() throws TransferenciaException {
         // Arrange
-        List<Transferencia> expectedTransferencias = new ArrayList<>();
-        expectedTransferencias.add(new Transferencia());
-        expectedTransferencias.add(new Transferencia());
-        when(transferenciaRepository.findAll()).thenReturn(expectedTransferencias);
+        List<TransferenciaDto> expectedTransferencias = new ArrayList<>();
+        expectedTransferencias.add(new TransferenciaDto());
+        expectedTransferencias.add(new TransferenciaDto());
+        when(transferenciaRepository.findAllDtos()).thenReturn(expectedTransferencias);
 
         // Act
-        List<Transferencia> resultTransferencias = transferenciaService.getAllTransferencias();
+        List<TransferenciaDto> resultTransferencias = transferenciaService.getAllTransferencias();
 
         // Assert
         assertEquals(expectedTransferencias, resultTransferencias);
@@ -56,13 +65,13 @@ public class TransferenciaServiceImplTest {
     public void testGetTransferenciasPorConta() {
         // Arrange
         Long numeroConta = 123456L;
-        List<Transferencia> expectedTransferencias = new ArrayList<>();
-        expectedTransferencias.add(new Transferencia());
-        expectedTransferencias.add(new Transferencia());
+        List<TransferenciaDto> expectedTransferencias = new ArrayList<>();
+        expectedTransferencias.add(new TransferenciaDto());
+        expectedTransferencias.add(new TransferenciaDto());
         when(transferenciaRepository.findByContaNumeroConta(numeroConta)).thenReturn(expectedTransferencias);
 
         // Act
-        List<Transferencia> resultTransferencias = transferenciaService.getTransferenciasPorConta(numeroConta);
+        List<TransferenciaDto> resultTransferencias = transferenciaService.getTransferenciasPorConta(numeroConta);
 
         // Assert
         assertEquals(expectedTransferencias, resultTransferencias);
@@ -73,13 +82,13 @@ public class TransferenciaServiceImplTest {
         // Arrange
         ZonedDateTime dataInicio = ZonedDateTime.now();
         ZonedDateTime dataFim = ZonedDateTime.now().plusDays(7);
-        List<Transferencia> expectedTransferencias = new ArrayList<>();
-        expectedTransferencias.add(new Transferencia());
-        expectedTransferencias.add(new Transferencia());
+        List<TransferenciaDto> expectedTransferencias = new ArrayList<>();
+        expectedTransferencias.add(new TransferenciaDto());
+        expectedTransferencias.add(new TransferenciaDto());
         when(transferenciaRepository.findByDataTransferenciaBetween(dataInicio, dataFim)).thenReturn(expectedTransferencias);
 
         // Act
-        List<Transferencia> resultTransferencias = transferenciaService.getTransferenciasPorPeriodo(dataInicio, dataFim);
+        List<TransferenciaDto> resultTransferencias = transferenciaService.getTransferenciasPorPeriodo(dataInicio, dataFim);
 
         // Assert
         assertEquals(expectedTransferencias, resultTransferencias);
@@ -89,13 +98,15 @@ public class TransferenciaServiceImplTest {
     public void testGetTransferenciasPorOperador() {
         // Arrange
         String nomeOperador = "John Doe";
-        List<Transferencia> expectedTransferencias = new ArrayList<>();
-        expectedTransferencias.add(new Transferencia());
-        expectedTransferencias.add(new Transferencia());
-        when(transferenciaRepository.findByNomeOperadorTransacao(nomeOperador)).thenReturn(expectedTransferencias);
+        List<TransferenciaDto> expectedTransferencias = new ArrayList<>();
+        expectedTransferencias.add(new TransferenciaDto());
+        expectedTransferencias.add(new TransferenciaDto());
+        when(indiceNomes.cobre(nomeOperador)).thenReturn(true);
+        when(indiceNomes.operadoresComNome(nomeOperador)).thenReturn(Arrays.asList(nomeOperador));
+        when(transferenciaRepository.findByNomeOperadorTransacaoIn(Arrays.asList(nomeOperador))).thenReturn(expectedTransferencias);
 
         // Act
-        List<Transferencia> resultTransferencias = transferenciaService.getTransferenciasPorOperador(nomeOperador);
+        List<TransferenciaDto> resultTransferencias = transferenciaService.getTransferenciasPorOperador(nomeOperador);
 
         // Assert
         assertEquals(expectedTransferencias, resultTransferencias);
@@ -105,11 +116,11 @@ public class TransferenciaServiceImplTest {
     public void testGetTransferenciasPaginadas() {
         // Arrange
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Transferencia> expectedPage = new PageImpl<>(new ArrayList<>());
-        when(transferenciaRepository.findAll(pageable)).thenReturn(expectedPage);
+        Page<TransferenciaDto> expectedPage = new PageImpl<>(new ArrayList<>());
+        when(transferenciaRepository.findAllDtos(pageable)).thenReturn(expectedPage);
 
         // Act
-        Page<Transferencia> resultPage = transferenciaService.getTransferenciasPaginadas(pageable);
+        Page<TransferenciaDto> resultPage = transferenciaService.getTransferenciasPaginadas(pageable);
 
         // Assert
         assertEquals(expectedPage, resultPage);
@@ -123,14 +134,14 @@ public class TransferenciaServiceImplTest {
         double valorSaque = 100.0;
         Conta conta = new Conta();
         conta.setId(contaId);
-        conta.setSaldo(500.0);
+        conta.setSaldo(Dinheiro.de(500.0));
         when(contaRepository.findById(contaId)).thenReturn(java.util.Optional.of(conta));
 
         // Act
         transferenciaService.sacar(contaId, valorSaque);
 
         // Assert
-        assertEquals(400.0, conta.getSaldo(), 0.0);
+        assertEquals(400.0, conta.getSaldo().doubleValue(), 0.0);
     }
 
     @Test
@@ -139,13 +150,13 @@ public class TransferenciaServiceImplTest {
         ZonedDateTime dataInicio = ZonedDateTime.now().minusDays(7);
         ZonedDateTime dataFim = ZonedDateTime.now();
         String nomeOperador = "John Doe";
-        List<Transferencia> expectedTransferencias = new ArrayList<>();
-        expectedTransferencias.add(new Transferencia());
-        expectedTransferencias.add(new Transferencia());
+        List<TransferenciaDto> expectedTransferencias = new ArrayList<>();
+        expectedTransferencias.add(new TransferenciaDto());
+        expectedTransferencias.add(new TransferenciaDto());
         when(transferenciaRepository.findByDataInicioAndDataFimAndNomeOperador(dataInicio, dataFim, nomeOperador)).thenReturn(expectedTransferencias);
 
         // Act
-        List<Transferencia> resultTransferencias = transferenciaService.getTransferenciasPorPeriodoEOperador(dataInicio, dataFim, nomeOperador);
+        List<TransferenciaDto> resultTransferencias = transferenciaService.getTransferenciasPorPeriodoEOperador(dataInicio, dataFim, nomeOperador);
 
         // Assert
         assertEquals(expectedTransferencias, resultTransferencias);
@@ -158,7 +169,7 @@ public class TransferenciaServiceImplTest {
         double valorSaque = 1000.0;
         Conta conta = new Conta();
         conta.setId(contaId);
-        conta.setSaldo(500.0);
+        conta.setSaldo(Dinheiro.de(500.0));
         when(contaRepository.findById(contaId)).thenReturn(java.util.Optional.of(conta));
 
         // Act
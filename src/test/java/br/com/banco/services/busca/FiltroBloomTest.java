@@ -0,0 +1,50 @@
+package br.com.banco.services.busca;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class FiltroBloomTest {
+
+	@Test
+	void semFalsosNegativosETaxaDeFalsosPositivosPertoDaConfigurada() {
+		FiltroBloom filtro = new FiltroBloom(100_000, 0.01);
+		for (long id = 1; id <= 100_000; id++) {
+			filtro.adicionar(FiltroBloom.hash(id));
+		}
+		for (long id = 1; id <= 100_000; id++) {
+			assertTrue(filtro.podeConter(FiltroBloom.hash(id)));
+		}
+
+		int falsosPositivos = 0;
+		for (long id = 1_000_001; id <= 1_100_000; id++) {
+			if (filtro.podeConter(FiltroBloom.hash(id))) {
+				falsosPositivos++;
+			}
+		}
+		assertTrue(falsosPositivos < 1_500, "falsos positivos: " + falsosPositivos);
+		assertEquals(0.01, filtro.falsoPositivoEstimado(), 0.002);
+		assertEquals(7, filtro.getFuncoesHash());
+		// -n ln(p) / ln(2)^2 bits: ~9,6 bits por elemento a 1%
+		assertEquals(119_816, filtro.getTamanhoBytes());
+	}
+
+	@Test
+	void textosDiferentesNaoColidem() {
+		FiltroBloom filtro = new FiltroBloom(1_000, 0.001);
+		filtro.adicionar(FiltroBloom.hash("roberto carlos"));
+
+		assertTrue(filtro.podeConter(FiltroBloom.hash("roberto carlos")));
+		assertFalse(filtro.podeConter(FiltroBloom.hash("roberto")));
+		assertFalse(filtro.podeConter(FiltroBloom.hash("carlos roberto")));
+	}
+
+	@Test
+	void rejeitaParametrosInvalidos() {
+		assertThrows(IllegalArgumentException.class, () -> new FiltroBloom(0, 0.01));
+		assertThrows(IllegalArgumentException.class, () -> new FiltroBloom(100, 1.0));
+	}
+}
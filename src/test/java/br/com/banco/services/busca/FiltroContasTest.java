@@ -0,0 +1,85 @@
+package br.com.banco.services.busca;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import br.com.banco.entities.Conta;
+import br.com.banco.services.ContaService;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest(properties = { "spring.datasource.url=jdbc:h2:mem:filtrocontas", "banco.conta.filtro.capacidade=1000" })
+class FiltroContasTest {
+
+	@Autowired
+	private FiltroContas filtroContas;
+
+	@Autowired
+	private ContaService contaService;
+
+	@Autowired
+	private MeterRegistry registro;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void contasDoBancoEstaoNoFiltro() {
+		for (long id = 1; id <= 11; id++) {
+			assertTrue(filtroContas.podeExistir(id));
+		}
+		assertTrue(filtroContas.podeExistirNome("Roberto Carlos"));
+		assertTrue(filtroContas.podeExistirNome("  ROBERTO   carlos "));
+	}
+
+	@Test
+	void contasInexistentesSaoRespondidasSemConsulta() {
+		Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		double ausentes = consultas("ids", "ausente");
+		long comandos = estatisticas.getPrepareStatementCount();
+
+		int respondidas = 0;
+		for (long id = 5_000_000; id < 5_000_100; id++) {
+			assertFalse(contaService.hasConta(id));
+			respondidas += filtroContas.podeExistir(id) ? 0 : 1;
+		}
+
+		// Com 1% de falso positivo quase todas param no filtro
+		assertTrue(respondidas >= 95, "respondidas pelo filtro: " + respondidas);
+		assertTrue(consultas("ids", "ausente") - ausentes >= 2 * 95);
+		assertTrue(estatisticas.getPrepareStatementCount() - comandos <= 100 - respondidas);
+	}
+
+	@Test
+	void contaCriadaEntraNoFiltro() {
+		assertFalse(contaService.hasContaByNomeExato("Filtro Josefina Araújo"));
+
+		Conta conta = contaService.criarConta("Filtro Josefina Araújo");
+
+		assertTrue(filtroContas.podeExistir(conta.getId()));
+		assertTrue(contaService.hasConta(conta.getId()));
+		assertTrue(filtroContas.podeExistirNome("filtro josefina araujo"));
+		assertTrue(contaService.hasContaByNomeExato("FILTRO JOSEFINA ARAÚJO"));
+		assertFalse(contaService.hasContaByNomeExato("Filtro Josefina"));
+	}
+
+	@Test
+	void tamanhoEFalsoPositivoNasMetricas() {
+		// 1000 contas a 1%: 9586 bits, arredondados para palavras de 64 bits
+		assertEquals(1_200, registro.get("banco.filtro.contas.memoria").tag("filtro", "ids").gauge().value());
+		assertTrue(registro.get("banco.filtro.contas.insercoes").tag("filtro", "nomes").gauge().value() >= 11);
+		assertTrue(registro.get("banco.filtro.contas.falso.positivo").tag("filtro", "ids").gauge().value() < 0.01);
+	}
+
+	private double consultas(String filtro, String resultado) {
+		return registro.get("banco.filtro.contas.consultas").tag("filtro", filtro).tag("resultado", resultado).counter().count();
+	}
+}
@@ -0,0 +1,80 @@
+package br.com.banco.services.busca;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.banco.dtos.TransferenciaDto;
+import br.com.banco.entities.Conta;
+import br.com.banco.enums.ModoBuscaNome;
+import br.com.banco.enums.Operation;
+import br.com.banco.services.ContaService;
+import br.com.banco.services.TransferenciaService;
+
+@SpringBootTest
+class IndiceNomesTest {
+
+	@Autowired
+	private IndiceNomes indiceNomes;
+
+	@Autowired
+	private ContaService contaService;
+
+	@Autowired
+	private TransferenciaService transferenciaService;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void carregaContasEOperadoresDoBanco() {
+		assertEquals(Collections.singletonList(5L), indiceNomes.contasComNome("RODOLF"));
+		assertEquals(Arrays.asList(9L), indiceNomes.contasComNome("rto car"));
+		assertEquals(Collections.singletonList("Ronnyscley"), indiceNomes.operadoresComNome("nnysc"));
+		assertEquals(Collections.singletonList("Sistema"), indiceNomes.operadoresComNome("sistem"));
+	}
+
+	@Test
+	void contasNovasEOperadoresSaoEncontradosPeloIndice() {
+		Conta origem = contaService.criarConta("Indice Waldisney");
+		Conta destino = contaService.criarConta("Indice Gumercindo");
+		contaService.depositar(origem.getId(), 50.0);
+		contaService.transferir(origem.getId(), destino.getId(), 20.0, Operation.TRANSFERENCIA);
+
+		assertEquals(origem.getId(), contaService.obterContaPorNome("waldisn", ModoBuscaNome.TRECHO).getId());
+		assertTrue(contaService.hasContaByName("GUMERC"));
+		assertFalse(contaService.hasContaByName("Inexistente"));
+		assertNull(contaService.obterContaPorNome("Inexistente"));
+
+		List<TransferenciaDto> doOperador = transferenciaService.getTransferenciasPorOperador("gumercindo");
+		assertEquals(1, doOperador.size());
+		assertEquals("Indice Gumercindo", doOperador.get(0).getNomeOperadorTransacao());
+		assertFalse(contaService.buscarTransacoesPorNome("Waldisney").isEmpty());
+		assertTrue(contaService.buscarTransacoesPorNome("waldisney").isEmpty());
+		assertFalse(transferenciaService.getPrimeiraEUltimaDataPorNomeOperador("gumercindo").isEmpty());
+		assertNull(transferenciaService.getPrimeiraEUltimaDataPorNomeOperador("inexistente"));
+	}
+
+	@Test
+	void transacaoDesfeitaNaoAlteraOIndice() {
+		new TransactionTemplate(transactionManager).execute(status -> {
+			indiceNomes.registrarConta(999_999L, "Indice Desfeita");
+			status.setRollbackOnly();
+			return null;
+		});
+
+		assertTrue(indiceNomes.contasComNome("desfeita").isEmpty());
+		assertTrue(indiceNomes.operadoresComNome("desfeita").isEmpty());
+	}
+}
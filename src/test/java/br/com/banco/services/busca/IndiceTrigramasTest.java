@@ -0,0 +1,72 @@
+package br.com.banco.services.busca;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class IndiceTrigramasTest {
+
+	@Test
+	void encontraTrechosIgnorandoMaiusculas() {
+		IndiceTrigramas<Long> indice = new IndiceTrigramas<>();
+		indice.atualizar(8L, "Roberto");
+		indice.atualizar(9L, "Roberto Carlos");
+		indice.atualizar(5L, "Rodolfo");
+		indice.atualizar(1L, "Fulano");
+
+		assertEquals(new HashSet<>(Arrays.asList(8L, 9L)), new HashSet<>(indice.buscar("BERT")));
+		assertEquals(Collections.singletonList(9L), indice.buscar("o c"));
+		assertEquals(Collections.singletonList(5L), indice.buscar("rodolfo"));
+		assertTrue(indice.buscar("xyz").isEmpty());
+		// Todos os trigramas existem, mas em textos diferentes.
+		assertTrue(indice.buscar("fulanoberto").isEmpty());
+		assertThrows(IllegalArgumentException.class, () -> indice.buscar("ro"));
+	}
+
+	@Test
+	void atualizarTrocaOTextoERemoverTiraDoIndice() {
+		IndiceTrigramas<Long> indice = new IndiceTrigramas<>();
+		indice.atualizar(1L, "Patrick");
+		indice.atualizar(1L, "Marcio");
+
+		assertTrue(indice.buscar("patrick").isEmpty());
+		assertEquals(Collections.singletonList(1L), indice.buscar("marc"));
+
+		indice.remover(1L);
+		assertTrue(indice.buscar("marc").isEmpty());
+		assertEquals(0, indice.tamanho());
+	}
+
+	@Test
+	void buscaNaoDependeDoTotalDeTextos() {
+		IndiceTrigramas<Long> indice = new IndiceTrigramas<>();
+		for (long id = 1; id <= 500_000; id++) {
+			indice.atualizar(id, "Cliente " + id);
+		}
+		indice.atualizar(500_001L, "Amarildo");
+
+		long inicio = System.nanoTime();
+		int buscas = 10_000;
+		for (int i = 0; i < buscas; i++) {
+			assertEquals(Collections.singletonList(500_001L), indice.buscar("marild"));
+		}
+		double mediaMicros = (System.nanoTime() - inicio) / 1_000.0 / buscas;
+		// Limite folgado: a busca leva alguns microssegundos, uma varredura dos textos levaria milissegundos
+		assertTrue(mediaMicros < 1_000, String.format("textos=%d busca media=%.1f us", indice.tamanho(), mediaMicros));
+
+		Set<Long> esperados = new HashSet<>();
+		for (long id = 1; id <= 500_000; id++) {
+			if (Long.toString(id).startsWith("4999")) {
+				esperados.add(id);
+			}
+		}
+		assertEquals(esperados, new HashSet<>(indice.buscar("te 4999")));
+	}
+}
@@ -0,0 +1,76 @@
+package br.com.banco.services.massa;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest(properties = { "spring.datasource.url=jdbc:h2:mem:massa", "banco.massa.contas=500", "banco.massa.transferencias=50000" })
+@ActiveProfiles("massa")
+class GeradorMassaSinteticaTest {
+
+	private static final String FAIXA = "id_conta >= " + GeradorMassaSintetica.PRIMEIRO_ID;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private GeradorMassaSintetica gerador;
+
+	@Test
+	void geraAsLinhasPedidasComSaldosCoerentes() {
+		assertEquals(500, contar("SELECT COUNT(*) FROM conta WHERE " + FAIXA));
+		assertEquals(50_000, contar("SELECT COUNT(*) FROM transferencia WHERE id >= " + GeradorMassaSintetica.PRIMEIRO_ID));
+		assertEquals(0, contar("SELECT COUNT(*) FROM conta WHERE saldo < 0"));
+
+		// Saldo = lancamentos da propria conta + transferencias recebidas (o operador e o destino).
+		assertEquals(0, contar("SELECT COUNT(*) FROM conta c WHERE " + FAIXA + " AND c.saldo <> "
+				+ "COALESCE((SELECT SUM(CASE WHEN t.tipo IN ('DEPOSITO', 'SAQUE') THEN t.valor ELSE -t.valor END) FROM transferencia t WHERE t.conta_id = c.id_conta), 0) "
+				+ "+ COALESCE((SELECT SUM(t.valor) FROM transferencia t WHERE t.tipo NOT IN ('DEPOSITO', 'SAQUE') AND t.nome_operador_transacao = c.nome_responsavel), 0)"));
+
+		// O ultimo checkpoint de cada conta e o saldo atual.
+		assertEquals(0, contar("SELECT COUNT(*) FROM conta c JOIN saldo_checkpoint s ON s.conta_id = c.id_conta "
+				+ "WHERE s.dia = (SELECT MAX(dia) FROM saldo_checkpoint x WHERE x.conta_id = c.id_conta) AND s.saldo <> c.saldo"));
+
+		// Indices e chave estrangeira voltam como as migracoes deixaram: os tres de V3 e o da chave estrangeira de V1.
+		assertEquals(3, contar("SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE TABLE_NAME = 'TRANSFERENCIA' AND INDEX_TYPE_NAME = 'INDEX' AND NOT IS_GENERATED"));
+		assertEquals(1, contar("SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE TABLE_NAME = 'TRANSFERENCIA' AND INDEX_TYPE_NAME = 'INDEX' AND IS_GENERATED"));
+		assertEquals(1, contar("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS WHERE TABLE_NAME = 'TRANSFERENCIA' AND CONSTRAINT_NAME = 'FK_CONTA'"));
+
+		// Proxima conta criada pela aplicacao fica acima da massa.
+		assertTrue(contar("SELECT NEXT VALUE FOR conta_seq") > GeradorMassaSintetica.PRIMEIRO_ID + 500);
+	}
+
+	@Test
+	void contasEHorariosSaoConcentrados() {
+		long maisMovimentada = contar("SELECT MAX(c) FROM (SELECT COUNT(*) c FROM transferencia WHERE id >= ? GROUP BY conta_id)",
+				GeradorMassaSintetica.PRIMEIRO_ID);
+		assertTrue(maisMovimentada > 10 * 50_000 / 500, "Conta mais movimentada com " + maisMovimentada + " transferências");
+
+		long picoPorHora = contar("SELECT MAX(c) FROM (SELECT COUNT(*) c FROM transferencia WHERE id >= ? "
+				+ "GROUP BY CAST(data_transferencia AS DATE), EXTRACT(HOUR FROM data_transferencia))", GeradorMassaSintetica.PRIMEIRO_ID);
+		long mediaPorHora = 50_000 / (1095 * 24);
+		assertTrue(picoPorHora > 5 * Math.max(1, mediaPorHora), "Pico de " + picoPorHora + " transferências em uma hora");
+	}
+
+	@Test
+	void amostrasDaCargaSeguemAMesmaMassa() {
+		MassaSintetica massa = gerador.getMassa();
+		SplittableRandom aleatorio = new SplittableRandom(7);
+		for (int i = 0; i < 100; i++) {
+			long conta = massa.sortearConta(aleatorio);
+			assertEquals(1, contar("SELECT COUNT(*) FROM conta WHERE id_conta = ? AND nome_responsavel = ?", conta,
+					MassaSintetica.nome((int) (conta - massa.getPrimeiraConta()))));
+		}
+	}
+
+	private long contar(String sql, Object... parametros) {
+		return jdbcTemplate.queryForObject(sql, Long.class, parametros);
+	}
+}